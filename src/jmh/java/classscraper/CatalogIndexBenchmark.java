@@ -0,0 +1,82 @@
+package classscraper;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a query for open R2 sections meeting on Tuesday afternoon taught
+ * by one instructor, with the catalog index and by looking at every section.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogIndexBenchmark {
+	private final static String[] DAYS = { "MoWe", "TuTh", "MoWeFr", "Tu", "Th" };
+
+	@Param({"2000", "12000"})
+	public int sectionCount;
+
+	private List<Course> courses;
+	private CatalogIndex index;
+
+	@Setup
+	public void setUp() {
+		courses = catalog(sectionCount, new Random(1));
+		index = new CatalogIndex(courses);
+	}
+
+	@Benchmark
+	public List<CourseSection> indexedQuery() {
+		return index.query().genEd("R2").openSeats().meetingDuring(MeetingTime.TUESDAY, 12 * 60, 17 * 60)
+				.instructor("Barrington").sections();
+	}
+
+	@Benchmark
+	public List<CourseSection> linearScan() {
+		List<CourseSection> result = new ArrayList<>();
+		for (Course course : courses) {
+			if (!Arrays.asList(course.getGened().split(" ")).contains("R2")) {
+				continue;
+			}
+			for (CourseSection section : course.getSections()) {
+				MeetingTime meetingTime = MeetingTime.parse(section.getMeetingTime());
+				if (section.getEnrolled() < section.getEnrollmentCap() && meetingTime != null
+						&& meetingTime.overlaps(MeetingTime.TUESDAY, 12 * 60, 17 * 60)
+						&& section.getInstructor().contains("Barrington")) {
+					result.add(section);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return courses of four sections each, with gen eds, seats, meeting times, and instructors chosen at random
+	 */
+	static List<Course> catalog(int sectionCount, Random random) {
+		List<Course> courses = new ArrayList<>();
+		for (int i = 0; i < sectionCount / 4; i++) {
+			Course course = new Course("Course " + i, "SUBJ" + i % 100, Integer.toString(100 + i % 900), i,
+					random.nextInt(4) == 0 ? "R2" : "");
+			for (int j = 0; j < 4; j++) {
+				CourseSection section = new CourseSection(String.format("%02d", j + 1), 50000 + i * 4 + j,
+						j == 0 ? SectionType.LEC : SectionType.DIS);
+				section.setEnrollmentCap(100);
+				section.setEnrolled(random.nextInt(110));
+				int hour = 8 + random.nextInt(9);
+				section.setMeetingTime(DAYS[random.nextInt(DAYS.length)] + " " + (hour > 12 ? hour - 12 : hour)
+						+ ":00" + (hour >= 12 ? "PM" : "AM") + " - " + (hour + 1 > 12 ? hour - 11 : hour + 1) + ":15"
+						+ (hour + 1 >= 12 ? "PM" : "AM"));
+				section.setInstructor(random.nextInt(20) == 0 ? "Barrington,David" : "Staff " + random.nextInt(500));
+				course.addCourseSection(section);
+			}
+			courses.add(course);
+		}
+		return courses;
+	}
+}
@@ -0,0 +1,87 @@
+package classscraper;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Benchmarks parsing the text of class search "Group Box"es, as copied from
+ * large subjects, with and without "Units", "Combined Section" and instructors
+ * that wrap onto a second line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassScraperBenchmark {
+	@Param({"20", "200", "800"})
+	public int sectionCount;
+
+	private String groupBox;
+
+	@Setup
+	public void setUp() {
+		Logger.getLogger("spireautomator").setLevel(Level.OFF);
+		groupBox = groupBoxText(sectionCount, new Random(1));
+	}
+
+	@Benchmark
+	public List<CourseSection> parseSections() {
+		return SpireClassScraper.parseSections(groupBox);
+	}
+
+	@Benchmark
+	public CourseSection tokenizeSections() {
+		CourseSection last = null;
+		for (GroupBoxTokenizer tokenizer = new GroupBoxTokenizer(groupBox); tokenizer.hasNext();) {
+			last = tokenizer.next();
+		}
+		return last;
+	}
+
+	/**
+	 * @return the rendered text of a Group Box with the given number of sections
+	 * @param sectionCount
+	 *            Number of sections in the Group Box
+	 * @param random
+	 *            Chooses which sections have units, are combined, or have a wrapped instructor
+	 */
+	static String groupBoxText(int sectionCount, Random random) {
+		StringBuilder text = new StringBuilder("First 1-" + sectionCount + " of " + sectionCount + " Last\n");
+		text.append("Group box\nSection\nStatus\nDays & Times Room Instructor Topic Restrictions/Notes\n");
+		for (int i = 0; i < sectionCount; i++) {
+			text.append(sectionLines(i, random)).append('\n');
+		}
+		return text.toString();
+	}
+
+	private static String sectionLines(int index, Random random) {
+		boolean hasUnits = index == 0 || random.nextInt(4) == 0;
+		int cap = 20 + random.nextInt(280);
+		StringBuilder lines = new StringBuilder().append(cap).append('\n');
+		if (hasUnits) {
+			lines.append("Units\n");
+		}
+		lines.append(String.format("%02d", index + 1)).append(index % 5 == 0 ? "-LEC(" : "-DIS(")
+				.append(50000 + index).append(")\n");
+		if (hasUnits) {
+			lines.append(random.nextInt(4) + 1).append('\n');
+		}
+		lines.append(random.nextInt(cap + 1)).append('\n');
+		if (random.nextInt(8) == 0) {
+			lines.append("Combined Section\n");
+		}
+		lines.append("University\n").append("MoWeFr 10:10AM - 11:00AM\n").append("Hasbrouck Lab Add room 124\n");
+		if (random.nextInt(3) == 0) {
+			lines.append("Barrington,\nDavid\n");
+		} else {
+			lines.append("Staff\n");
+		}
+		return lines.append("TBA\nNo Restrictions/Notes").toString();
+	}
+}
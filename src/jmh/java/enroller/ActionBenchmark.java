@@ -0,0 +1,78 @@
+package enroller;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import spire.UMass;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Benchmarks checking the Conditions of large lists of Actions, as generated
+ * by the {@link EnrollmentSimulator}, both directly and through an
+ * {@link ActionEngine} that only checks Actions whose classes changed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionBenchmark {
+    @Param({"500", "2000", "8000"})
+    public int actionCount;
+
+    private List<Action> actions;
+    private SeatSnapshot seats;
+    // The same seats with a few classes opened, to alternate between.
+    private SeatSnapshot changedSeats;
+    private ActionEngine engine;
+    private boolean flip;
+
+    @Setup
+    public void setUp() {
+        Logger.getLogger("spireautomator").setLevel(Level.OFF);
+        EnrollmentSimulator simulator = EnrollmentSimulator.generate(Math.max(10, actionCount/3), actionCount, 1);
+        actions = simulator.getActions();
+        Map<String, Integer> statuses = new HashMap<>();
+        for(EnrollmentSimulator.Section section : simulator.getSections().values()) {
+            statuses.put(section.getClassId(), section.isOpen() ? UMass.TRUE : UMass.FALSE);
+        }
+        seats = new SeatSnapshot(statuses);
+        int opened = 0;
+        for(Map.Entry<String, Integer> status : statuses.entrySet()) {
+            if(status.getValue() == UMass.FALSE && opened++ < 10) {
+                status.setValue(UMass.TRUE);
+            }
+        }
+        changedSeats = new SeatSnapshot(statuses);
+        engine = new ActionEngine(actions);
+        engine.getReadyActions(seats);
+    }
+
+    @Benchmark
+    public void allConditionsMet(Blackhole blackhole) {
+        for(Action action : actions) {
+            blackhole.consume(action.allConditionsMet(seats));
+        }
+    }
+
+    @Benchmark
+    public List<Action> engineCheckAll() {
+        engine.recheckAll();
+        return engine.getReadyActions(seats);
+    }
+
+    @Benchmark
+    public List<Action> engineUnchanged() {
+        return engine.getReadyActions(seats);
+    }
+
+    @Benchmark
+    public List<Action> engineFewChanged() {
+        flip = !flip;
+        return engine.getReadyActions(flip ? changedSeats : seats);
+    }
+}
@@ -0,0 +1,73 @@
+package houser;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Benchmarks reading room search results from an offline copy of the page.
+ * Parsing the HTML is measured separately from reading the rooms out of it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HousingBenchmark {
+    private final static String[] BUILDINGS = {"Crabtree", "John Adams", "Brooks", "Kennedy", "Oak", "Sycamore"};
+    private final static String[] DESIGNS = {"Corridor", "Suite", "Apartment"};
+    private final static String[] TYPES = {"Single", "Double", "Triple"};
+
+    @Param({"50", "500", "2000"})
+    public int roomCount;
+
+    private String html;
+    private Document page;
+
+    @Setup
+    public void setUp() {
+        Logger.getLogger("spireautomator").setLevel(Level.OFF);
+        html = resultsPage(roomCount);
+        page = Jsoup.parse(html);
+    }
+
+    @Benchmark
+    public ArrayList<Room> parseRooms() {
+        return SpireHousing.parseRooms(page);
+    }
+
+    @Benchmark
+    public ArrayList<Room> parseRoomsFromHtml() {
+        return SpireHousing.parseRooms(Jsoup.parse(html));
+    }
+
+    /**
+     * Builds a room search results page laid out like SPIRE's.
+     * @param roomCount Number of rooms in the results grid. Every tenth has no vacancies.
+     * @return          The HTML of the page.
+     */
+    static String resultsPage(int roomCount) {
+        StringBuilder html = new StringBuilder("<html><body><table id=\"UMH_RM_SRC_RSLTS$scroll$0\"><tbody>")
+                .append("<tr><td>First 1-").append(roomCount).append(" of ").append(roomCount).append(" Last</td></tr>")
+                .append("<tr><td><table><tbody><tr><th>Building</th><th>Room</th><th>Area</th><th>Floor</th>")
+                .append("<th>Suite</th><th>Design</th><th>Type</th><th>Gender</th><th>Vacancies</th>")
+                .append("<th>Options</th><th>Select</th></tr>");
+        for(int row = 1; row <= roomCount; row++) {
+            html.append("<tr id=\"trUMH_RM_SRC_RSLTS$0_row").append(row).append("\">")
+                    .append("<td>").append(BUILDINGS[row%BUILDINGS.length]).append("</td>")
+                    .append("<td>").append(100+row).append("</td>")
+                    .append("<td>Southwest</td><td>").append(1+row%20).append("</td><td></td>")
+                    .append("<td>").append(DESIGNS[row%DESIGNS.length]).append("</td>")
+                    .append("<td>").append(TYPES[row%TYPES.length]).append("</td>")
+                    .append("<td>Coed</td><td>").append(row%10 == 0 ? 0 : 1+row%3).append("</td><td></td>")
+                    .append("<td><a class=\"PSHYPERLINK\" href=\"#\">Select</a></td></tr>");
+        }
+        return html.append("</tbody></table></td></tr></tbody></table></body></html>").toString();
+    }
+}
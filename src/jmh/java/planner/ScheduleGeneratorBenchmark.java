@@ -0,0 +1,89 @@
+package planner;
+
+import classscraper.Course;
+import classscraper.CourseSection;
+import classscraper.SectionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Benchmarks finding the ten best Schedules of eight courses, each with
+ * four lectures of five discussions, on every core and on one thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleGeneratorBenchmark {
+    private final static String[] DAYS = { "MoWe", "TuTh", "MoWeFr", "Tu", "Th", "We", "Fr" };
+
+    @Param({"6", "8"})
+    public int courseCount;
+
+    private ScheduleGenerator generator;
+    private ForkJoinPool oneThread;
+
+    @Setup
+    public void setUp() {
+        Logger.getLogger("spireautomator").setLevel(Level.OFF);
+        generator = new ScheduleGenerator(courses(courseCount, new Random(42)))
+                .addCriterion(ScheduleCriterion.fewerGaps(), 1)
+                .addCriterion(ScheduleCriterion.laterStart(), 0.5)
+                .addCriterion(ScheduleCriterion.openSeats(), 3);
+        oneThread = new ForkJoinPool(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        oneThread.shutdown();
+    }
+
+    @Benchmark
+    public List<Schedule> parallel() {
+        return generator.generate();
+    }
+
+    @Benchmark
+    public List<Schedule> sequential() {
+        return generator.generate(oneThread);
+    }
+
+    // Courses with lectures of 75 minutes and discussions of 50, at random times from 8AM to 6PM.
+    static List<Course> courses(int count, Random random) {
+        List<Course> courses = new ArrayList<>();
+        int sectionId = 10000;
+        for(int i = 0; i < count; i++) {
+            Course course = new Course("Course "+i, "SUBJ", Integer.toString(100+i), i, "");
+            for(int j = 0; j < 4; j++) {
+                String number = String.format("%02d", j+1);
+                course.addCourseSection(section(number, sectionId++, SectionType.LEC, 75, 100, random));
+                for(int k = 0; k < 5; k++) {
+                    course.addCourseSection(section(number+(char)('A'+j)+(char)('A'+k), sectionId++, SectionType.DIS, 50, 25, random));
+                }
+            }
+            courses.add(course);
+        }
+        return courses;
+    }
+
+    private static CourseSection section(String number, int sectionId, SectionType type, int minutes, int cap, Random random) {
+        CourseSection section = new CourseSection(number, sectionId, type);
+        int start = (8*12+random.nextInt(10*12))*5;
+        section.setMeetingTime(DAYS[random.nextInt(DAYS.length)]+" "+time(start)+" - "+time(start+minutes));
+        section.setEnrollmentCap(cap);
+        section.setEnrolled(random.nextInt(cap+cap/10));
+        return section;
+    }
+
+    private static String time(int minute) {
+        int hour = minute/60%12;
+        return (hour == 0 ? 12 : hour)+":"+String.format("%02d", minute%60)+(minute < 12*60 ? "AM" : "PM");
+    }
+}
@@ -0,0 +1,123 @@
+package classscraper;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.Logger;
+
+/**
+ * Passes courses to another sink on a writer thread of its own, so that
+ * scraping goes on while they are written. Courses wait in a bounded queue;
+ * if the writer falls that far behind, the scrape waits for it to catch up
+ * instead of holding more and more courses in memory.
+ */
+public class AsyncCatalogSink implements CatalogSink {
+	private final static Logger LOGGER = Logger.getLogger("spireautomator.catalog");
+	// Marks the end of the queue
+	private final static Entry CLOSE = new Entry(null, null, true);
+	private final CatalogSink target;
+	private final BlockingQueue<Entry> queue;
+	private final Thread writer;
+	// The first failure of the target, passed on to the scrape
+	private volatile Exception failure;
+
+	// A course to write, or the end of a subject if the course is null
+	private static class Entry {
+		private final String subject;
+		private final Course course;
+		// For the end of a subject, whether every search of it was done
+		private final boolean complete;
+
+		private Entry(String subject, Course course, boolean complete) {
+			this.subject = subject;
+			this.course = course;
+			this.complete = complete;
+		}
+	}
+
+	/**
+	 * @param target
+	 *            The sink that writes the courses
+	 * @param capacity
+	 *            How many courses may wait to be written
+	 */
+	public AsyncCatalogSink(CatalogSink target, int capacity) {
+		this.target = target;
+		this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+		this.failure = null;
+		this.writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "catalog-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	private void drain() {
+		try {
+			for (Entry entry = queue.take(); entry != CLOSE; entry = queue.take()) {
+				// After a failure the queue is still emptied, so the scrape is never left waiting
+				if (failure == null) {
+					try {
+						if (entry.course != null) {
+							target.write(entry.subject, entry.course);
+						} else {
+							target.endSubject(entry.subject, entry.complete);
+						}
+					} catch (IOException | RuntimeException e) {
+						// A RuntimeException must not end the writer, or the scrape would wait on a full queue forever
+						LOGGER.warning("Failed to write " + entry.subject + ": " + e);
+						failure = e;
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			LOGGER.warning(e.getMessage());
+		}
+	}
+
+	@Override
+	public void write(String subject, Course course) throws IOException {
+		put(new Entry(subject, course, true));
+	}
+
+	@Override
+	public void endSubject(String subject, boolean complete) throws IOException {
+		put(new Entry(subject, null, complete));
+	}
+
+	private void put(Entry entry) throws IOException {
+		checkFailure();
+		try {
+			queue.put(entry);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting to write", e);
+		}
+	}
+
+	private void checkFailure() throws IOException {
+		if (failure != null) {
+			throw new IOException("Writing the catalog failed", failure);
+		}
+	}
+
+	/**
+	 * Waits for every course in the queue to be written, then closes the target
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			queue.put(CLOSE);
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting to write", e);
+		} finally {
+			target.close();
+		}
+		checkFailure();
+	}
+}
@@ -0,0 +1,146 @@
+package classscraper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Every course found by class search for one term, grouped by the subject
+ * that was searched, in the order the subjects were scraped. Each section is
+ * kept once, by its section ID, even if more than one search finds it.
+ * As a sink, it holds the whole catalog in memory for the scrape to return.
+ */
+public class Catalog implements CatalogSink {
+	// Orders courses by how many digits their course number starts with, then alphabetically,
+	// which puts them in numeric order with "191A" after "191"
+	private final static Comparator<Course> COURSE_NUMBER_ORDER = new Comparator<Course>() {
+		@Override
+		public int compare(Course a, Course b) {
+			String first = a.getCoursenum().trim(), second = b.getCoursenum().trim();
+			int result = Integer.compare(first.length() - first.replaceFirst("^\\d+", "").length(),
+					second.length() - second.replaceFirst("^\\d+", "").length());
+			return result != 0 ? result : first.compareTo(second);
+		}
+	};
+	private final String term;
+	private final Map<String, List<Course>> coursesBySubject = new LinkedHashMap<>();
+	private final Set<Integer> sectionIds = new HashSet<>();
+
+	public Catalog(String term) {
+		this.term = term;
+	}
+
+	public String getTerm() {
+		return term;
+	}
+
+	/**
+	 * Adds the courses found for a subject, after any already found for it.
+	 * Sections already in the catalog are left out, and so are courses that
+	 * have no sections left.
+	 * @param subject
+	 *            The subject as shown in the class search dropdown ("Computer Science")
+	 * @param courses
+	 *            The courses found
+	 */
+	public synchronized void addCourses(String subject, List<Course> courses) {
+		List<Course> subjectCourses = addSubject(subject);
+		for (Course course : courses) {
+			if (removeSeenSections(course, sectionIds)) {
+				subjectCourses.add(course);
+			}
+		}
+	}
+
+	/**
+	 * Adds a subject with no courses yet, so subjects stay in the order they are
+	 * added even if their courses are found in another order
+	 * @return the courses of the subject
+	 */
+	public synchronized List<Course> addSubject(String subject) {
+		List<Course> subjectCourses = coursesBySubject.get(subject);
+		if (subjectCourses == null) {
+			subjectCourses = new ArrayList<>();
+			coursesBySubject.put(subject, subjectCourses);
+		}
+		return subjectCourses;
+	}
+
+	/**
+	 * Leaves out the sections of a course that have been seen before, and marks the rest as seen
+	 * @return false if every section of the course had been seen
+	 * @param seen
+	 *            The IDs of the sections seen so far
+	 */
+	static boolean removeSeenSections(Course course, Set<Integer> seen) {
+		List<CourseSection> newSections = new ArrayList<>();
+		for (CourseSection section : course.getSections()) {
+			if (seen.add(section.getSectionid())) {
+				newSections.add(section);
+			}
+		}
+		if (newSections.size() < course.getSections().size()) {
+			course.setSections(newSections);
+		}
+		return !newSections.isEmpty();
+	}
+
+	@Override
+	public void write(String subject, Course course) {
+		addCourses(subject, Collections.singletonList(course));
+	}
+
+	/**
+	 * Puts the subject's courses in order by course number, since its parts may have been searched in any order
+	 */
+	@Override
+	public synchronized void endSubject(String subject, boolean complete) {
+		List<Course> subjectCourses = coursesBySubject.get(subject);
+		if (subjectCourses != null) {
+			Collections.sort(subjectCourses, COURSE_NUMBER_ORDER);
+		}
+	}
+
+	@Override
+	public void close() {
+	}
+
+	public synchronized boolean containsSection(int sectionid) {
+		return sectionIds.contains(sectionid);
+	}
+
+	public synchronized List<String> getSubjects() {
+		return new ArrayList<>(coursesBySubject.keySet());
+	}
+
+	public synchronized List<Course> getCourses(String subject) {
+		List<Course> courses = coursesBySubject.get(subject);
+		return courses == null ? Collections.<Course>emptyList() : Collections.unmodifiableList(courses);
+	}
+
+	/**
+	 * @return every course in the catalog, subject by subject
+	 */
+	public synchronized List<Course> getCourses() {
+		List<Course> courses = new ArrayList<>();
+		for (List<Course> subjectCourses : coursesBySubject.values()) {
+			courses.addAll(subjectCourses);
+		}
+		return courses;
+	}
+
+	public synchronized int getSectionCount() {
+		int count = 0;
+		for (List<Course> subjectCourses : coursesBySubject.values()) {
+			for (Course course : subjectCourses) {
+				count += course.getSections().size();
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,101 @@
+package classscraper;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Writes each subject of the catalog to its own file in a directory, named
+ * after the term and the subject ("2019 Spring Computer Science.ndjson").
+ * A subject's file is opened when its first course arrives and closed when the
+ * subject ends, so only the subjects being scraped at the moment are open.
+ */
+public abstract class CatalogFileSink implements CatalogSink {
+	private final static Logger LOGGER = Logger.getLogger("spireautomator.catalog");
+	private final File directory;
+	private final String term;
+	private final String extension;
+	private final Map<String, Writer> writers = new HashMap<>();
+
+	protected CatalogFileSink(File directory, String term, String extension) {
+		this.directory = directory;
+		this.term = term == null ? "" : term;
+		this.extension = extension;
+	}
+
+	/**
+	 * Writes the first lines of a new file, if the format has any
+	 * @param writer
+	 *            The new file
+	 */
+	protected void writeHeader(Writer writer) throws IOException {
+	}
+
+	/**
+	 * Writes one course to the file of its subject
+	 * @param writer
+	 *            The subject's file
+	 */
+	protected abstract void writeCourse(Writer writer, String subject, Course course) throws IOException;
+
+	@Override
+	public synchronized void write(String subject, Course course) throws IOException {
+		Writer writer = writers.get(subject);
+		if (writer == null) {
+			File file = getFile(subject);
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("Could not create " + directory);
+			}
+			LOGGER.info("Writing " + subject + " to " + file);
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+			writers.put(subject, writer);
+			writeHeader(writer);
+		}
+		writeCourse(writer, subject, course);
+	}
+
+	@Override
+	public synchronized void endSubject(String subject, boolean complete) throws IOException {
+		Writer writer = writers.remove(subject);
+		if (writer != null) {
+			writer.close();
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		IOException failure = null;
+		for (Writer writer : writers.values()) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				failure = e;
+			}
+		}
+		writers.clear();
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * @return the file a subject is written to
+	 * @param subject
+	 *            The subject as shown in the class search dropdown
+	 */
+	public File getFile(String subject) {
+		String name = (term.isEmpty() ? "" : term + " ") + subject;
+		return new File(directory, name.replaceAll("[^A-Za-z0-9 ._-]", "_") + "." + extension);
+	}
+
+	public String getTerm() {
+		return term;
+	}
+}
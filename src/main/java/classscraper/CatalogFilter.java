@@ -0,0 +1,158 @@
+package classscraper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * The part of a catalog to scrape. The subject, the range of course numbers,
+ * and whether only open classes are wanted are filled into the class search
+ * form, so SPIRE leaves out everything else and fewer results are loaded and
+ * read. The other conditions, such as a gen ed, are checked on the courses read.
+ * <p>
+ * A section left out by the filter is not in the scrape at all, so a snapshot of
+ * an open classes only scrape shows a section that fills up as removed.
+ */
+public class CatalogFilter {
+	// Null to scrape every subject in the class search dropdown
+	private String subject;
+	private int lowest = ClassSearchQuery.FIRST_COURSE_NUMBER;
+	private int highest = ClassSearchQuery.NO_UPPER_BOUND;
+	private boolean openOnly;
+	// Checked on the courses read, since class search can not
+	private final List<Predicate<Course>> courseConditions = new ArrayList<>();
+	private final List<Predicate<CourseSection>> sectionConditions = new ArrayList<>();
+	// What the conditions checked on the courses read are, for the log
+	private final List<String> descriptions = new ArrayList<>();
+
+	/**
+	 * @param subject
+	 *            The subject as shown in the class search dropdown ("Computer Science"), or null for every subject
+	 */
+	public CatalogFilter subject(String subject) {
+		this.subject = subject;
+		return this;
+	}
+
+	/**
+	 * @param lowest
+	 *            The lowest course number, at least ClassSearchQuery.FIRST_COURSE_NUMBER
+	 * @param highest
+	 *            The highest course number, or ClassSearchQuery.NO_UPPER_BOUND
+	 */
+	public CatalogFilter courseNumbers(int lowest, int highest) {
+		if (lowest < ClassSearchQuery.FIRST_COURSE_NUMBER || highest < lowest) {
+			throw new IllegalArgumentException("Can not search course numbers " + lowest + " to " + highest);
+		}
+		this.lowest = lowest;
+		this.highest = highest;
+		return this;
+	}
+
+	/**
+	 * @param range
+	 *            A course number ("311"), a range of them ("300-399"), or every one from a number up ("500-")
+	 */
+	public CatalogFilter courseNumbers(String range) {
+		String[] bounds = range.split("-", 2);
+		try {
+			int from = Integer.parseInt(bounds[0].trim());
+			int to = bounds.length == 1 ? from
+					: bounds[1].trim().isEmpty() ? ClassSearchQuery.NO_UPPER_BOUND : Integer.parseInt(bounds[1].trim());
+			return courseNumbers(from, to);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Can not read course numbers \"" + range + "\"", e);
+		}
+	}
+
+	/**
+	 * Only classes with open seats, as SPIRE decides
+	 */
+	public CatalogFilter openOnly() {
+		this.openOnly = true;
+		return this;
+	}
+
+	/**
+	 * @param genEd
+	 *            A gen ed the course fills, such as "R2"
+	 */
+	public CatalogFilter genEd(final String genEd) {
+		final String wanted = genEd.trim().toUpperCase(Locale.ROOT);
+		courseConditions.add(course -> course.getGened() != null
+				&& (" " + course.getGened().trim().toUpperCase(Locale.ROOT) + " ").contains(" " + wanted + " "));
+		descriptions.add("gen ed " + wanted);
+		return this;
+	}
+
+	/**
+	 * @param condition
+	 *            A condition every section scraped must meet
+	 * @param description
+	 *            What the condition is, for the log
+	 */
+	public CatalogFilter where(Predicate<CourseSection> condition, String description) {
+		sectionConditions.add(condition);
+		descriptions.add(description);
+		return this;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public int getLowest() {
+		return lowest;
+	}
+
+	public int getHighest() {
+		return highest;
+	}
+
+	public boolean isOpenOnly() {
+		return openOnly;
+	}
+
+	/**
+	 * @return the first search to make for a subject, which may be split into smaller ones
+	 * @param subject
+	 *            The subject as shown in the class search dropdown
+	 */
+	public ClassSearchQuery search(String subject) {
+		return new ClassSearchQuery(subject, lowest, highest, openOnly);
+	}
+
+	/**
+	 * Removes the sections of a course that do not meet the conditions class search could not check
+	 * @return if the course meets the conditions and, if any were on its sections, any of them are left
+	 */
+	public boolean filter(Course course) {
+		for (Predicate<Course> condition : courseConditions) {
+			if (!condition.test(course)) {
+				return false;
+			}
+		}
+		if (!sectionConditions.isEmpty()) {
+			for (Iterator<CourseSection> sections = course.getSections().iterator(); sections.hasNext();) {
+				CourseSection section = sections.next();
+				for (Predicate<CourseSection> condition : sectionConditions) {
+					if (!condition.test(section)) {
+						sections.remove();
+						break;
+					}
+				}
+			}
+		}
+		return sectionConditions.isEmpty() || !course.getSections().isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		String result = (subject == null ? "every subject" : subject) + ", course numbers " + lowest + "-"
+				+ (highest == ClassSearchQuery.NO_UPPER_BOUND ? "" : String.valueOf(highest))
+				+ (openOnly ? ", open classes only" : "");
+		return descriptions.isEmpty() ? result : result + ", then " + String.join(", ", descriptions);
+	}
+}
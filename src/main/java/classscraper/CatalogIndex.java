@@ -0,0 +1,276 @@
+package classscraper;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Indexes every section of a catalog so that questions such as "R2 gen eds
+ * with open seats on Tuesday afternoon taught by Doe" are answered without
+ * looking at every section. Each section has a number, and each value of gen
+ * ed, course subject, instructor, and section type has a bitmap of the
+ * sections with it. Meeting times are indexed by the half hours of the week
+ * they fall in. A query is the intersection of the bitmaps of its conditions;
+ * a condition on time then checks the exact times of the sections left.
+ * <p>
+ * The index is built once from the courses given and does not follow changes
+ * to them.
+ */
+public class CatalogIndex {
+	// Minutes in each slot of the meeting time index
+	public final static int SLOT_MINUTES = 30;
+	private final static int SLOTS_PER_DAY = MeetingTime.MINUTES_PER_DAY / SLOT_MINUTES;
+	private final CourseSection[] sections;
+	private final Course[] courses;
+	private final MeetingTime[] meetingTimes;
+	private final Map<String, BitSet> byGenEd = new HashMap<>();
+	private final Map<String, BitSet> bySubject = new HashMap<>();
+	// By each word of the instructor's name, in lower case
+	private final Map<String, BitSet> byInstructor = new HashMap<>();
+	private final Map<SectionType, BitSet> byType = new EnumMap<>(SectionType.class);
+	private final BitSet openSeats = new BitSet();
+	// Sections with no meeting time that can be read, such as "TBA"
+	private final BitSet unscheduled = new BitSet();
+	// The sections meeting in each slot of the week, Monday's first
+	private final BitSet[] slots = new BitSet[MeetingTime.DAYS_PER_WEEK * SLOTS_PER_DAY];
+
+	/**
+	 * @param catalogCourses
+	 *            Every course to index, each with its sections
+	 */
+	public CatalogIndex(List<Course> catalogCourses) {
+		List<CourseSection> sectionList = new ArrayList<>();
+		List<Course> courseList = new ArrayList<>();
+		for (Course course : catalogCourses) {
+			for (CourseSection section : course.getSections()) {
+				sectionList.add(section);
+				courseList.add(course);
+			}
+		}
+		this.sections = sectionList.toArray(new CourseSection[0]);
+		this.courses = courseList.toArray(new Course[0]);
+		this.meetingTimes = new MeetingTime[sections.length];
+		for (int slot = 0; slot < slots.length; slot++) {
+			slots[slot] = new BitSet();
+		}
+		for (int i = 0; i < sections.length; i++) {
+			CourseSection section = sections[i];
+			Course course = courses[i];
+			if (course.getGened() != null) {
+				// A course may fill more than one gen ed, such as "SB U"
+				for (String genEd : course.getGened().trim().split("\\s+")) {
+					if (!genEd.isEmpty()) {
+						bitmap(byGenEd, genEd.toUpperCase(Locale.ROOT)).set(i);
+					}
+				}
+			}
+			if (course.getSubject() != null) {
+				bitmap(bySubject, course.getSubject().trim().toUpperCase(Locale.ROOT)).set(i);
+			}
+			for (String word : words(section.getInstructor())) {
+				bitmap(byInstructor, word).set(i);
+			}
+			if (section.getSectionType() != null) {
+				BitSet type = byType.get(section.getSectionType());
+				if (type == null) {
+					type = new BitSet();
+					byType.put(section.getSectionType(), type);
+				}
+				type.set(i);
+			}
+			if (section.getEnrolled() < section.getEnrollmentCap()) {
+				openSeats.set(i);
+			}
+			MeetingTime meetingTime = MeetingTime.parse(section.getMeetingTime());
+			meetingTimes[i] = meetingTime;
+			if (meetingTime == null) {
+				unscheduled.set(i);
+			} else {
+				for (int day = 0; day < MeetingTime.DAYS_PER_WEEK; day++) {
+					if ((meetingTime.getDays() & 1 << day) != 0) {
+						for (int slot = meetingTime.getStart() / SLOT_MINUTES; slot * SLOT_MINUTES < meetingTime
+								.getEnd(); slot++) {
+							slots[day * SLOTS_PER_DAY + slot].set(i);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	public CatalogIndex(Catalog catalog) {
+		this(catalog.getCourses());
+	}
+
+	private static BitSet bitmap(Map<String, BitSet> index, String key) {
+		BitSet bitmap = index.get(key);
+		if (bitmap == null) {
+			bitmap = new BitSet();
+			index.put(key, bitmap);
+		}
+		return bitmap;
+	}
+
+	// The words of a name in lower case, such as "doe" and "jane" for "Doe,Jane"
+	private static List<String> words(String name) {
+		List<String> words = new ArrayList<>();
+		if (name != null) {
+			for (String word : name.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}'-]+")) {
+				if (!word.isEmpty()) {
+					words.add(word);
+				}
+			}
+		}
+		return words;
+	}
+
+	public int getSectionCount() {
+		return sections.length;
+	}
+
+	/**
+	 * @return a query that matches every section, to narrow down with conditions
+	 */
+	public Query query() {
+		return new Query();
+	}
+
+	/**
+	 * Conditions on sections, all of which must hold
+	 */
+	public class Query {
+		private final BitSet matches = new BitSet(sections.length);
+
+		private Query() {
+			matches.set(0, sections.length);
+		}
+
+		/**
+		 * @param genEd
+		 *            A gen ed the course fills, such as "R2"
+		 */
+		public Query genEd(String genEd) {
+			return and(byGenEd.get(genEd.trim().toUpperCase(Locale.ROOT)));
+		}
+
+		/**
+		 * @param subject
+		 *            The subject of the course, such as "COMPSCI"
+		 */
+		public Query subject(String subject) {
+			return and(bySubject.get(subject.trim().toUpperCase(Locale.ROOT)));
+		}
+
+		/**
+		 * @param instructor
+		 *            Any of the words of the instructor's name, such as "Doe" or "Jane Doe"
+		 */
+		public Query instructor(String instructor) {
+			List<String> words = words(instructor);
+			for (String word : words) {
+				and(byInstructor.get(word));
+			}
+			return words.isEmpty() ? and(null) : this;
+		}
+
+		public Query type(SectionType type) {
+			return and(byType.get(type));
+		}
+
+		/**
+		 * Sections with fewer students enrolled than their cap
+		 */
+		public Query openSeats() {
+			return and(openSeats);
+		}
+
+		/**
+		 * Sections that meet at any time between two minutes of the day on any of the days
+		 * @param days
+		 *            A mask of the days, such as MeetingTime.TUESDAY
+		 */
+		public Query meetingDuring(int days, int from, int to) {
+			matches.and(meetingCandidates(days, from, to));
+			// The slots are coarser than the times, so the sections left are checked exactly
+			for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+				if (!meetingTimes[i].overlaps(days, from, to)) {
+					matches.clear(i);
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Sections with a meeting time that never meet between two minutes of the day on any of the days
+		 * @param days
+		 *            A mask of the days, such as MeetingTime.MONDAY | MeetingTime.FRIDAY
+		 */
+		public Query notMeetingDuring(int days, int from, int to) {
+			matches.andNot(unscheduled);
+			BitSet candidates = meetingCandidates(days, from, to);
+			candidates.and(matches);
+			for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+				if (meetingTimes[i].overlaps(days, from, to)) {
+					matches.clear(i);
+				}
+			}
+			return this;
+		}
+
+		// The sections meeting in any slot that the time touches, which may be more than meet in it
+		private BitSet meetingCandidates(int days, int from, int to) {
+			BitSet candidates = new BitSet(sections.length);
+			for (int day = 0; day < MeetingTime.DAYS_PER_WEEK; day++) {
+				if ((days & 1 << day) != 0) {
+					for (int slot = Math.max(0, from) / SLOT_MINUTES; slot < SLOTS_PER_DAY
+							&& slot * SLOT_MINUTES < to; slot++) {
+						candidates.or(slots[day * SLOTS_PER_DAY + slot]);
+					}
+				}
+			}
+			return candidates;
+		}
+
+		// Keeps only the sections in a bitmap, or none if there is no bitmap for the value
+		private Query and(BitSet bitmap) {
+			if (bitmap == null) {
+				matches.clear();
+			} else {
+				matches.and(bitmap);
+			}
+			return this;
+		}
+
+		public int count() {
+			return matches.cardinality();
+		}
+
+		/**
+		 * @return the sections that match, in catalog order
+		 */
+		public List<CourseSection> sections() {
+			List<CourseSection> result = new ArrayList<>(matches.cardinality());
+			for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+				result.add(sections[i]);
+			}
+			return result;
+		}
+
+		/**
+		 * @return the courses with any section that matches, in catalog order
+		 */
+		public List<Course> courses() {
+			List<Course> result = new ArrayList<>();
+			for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+				if (result.isEmpty() || result.get(result.size() - 1) != courses[i]) {
+					result.add(courses[i]);
+				}
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package classscraper;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Receives courses as soon as each class search is read, so a term's catalog
+ * never has to be held in memory to be written out. The courses of a subject
+ * may come from several searches, and when scraping in parallel the courses of
+ * different subjects arrive interleaved. Each section is only written once.
+ */
+public interface CatalogSink extends Closeable {
+	/**
+	 * @param subject
+	 *            The subject as shown in the class search dropdown ("Computer Science")
+	 * @param course
+	 *            A course found in the subject, with its sections
+	 * @throws IOException
+	 *             if the course could not be written
+	 */
+	void write(String subject, Course course) throws IOException;
+
+	/**
+	 * Called once every search of a subject is done, after all of its courses
+	 * @param subject
+	 *            The subject that is done
+	 * @param complete
+	 *            False if a search of the subject was given up on, so some of its courses may be missing
+	 * @throws IOException
+	 *             if the subject could not be finished
+	 */
+	void endSubject(String subject, boolean complete) throws IOException;
+}
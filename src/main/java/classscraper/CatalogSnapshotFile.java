@@ -0,0 +1,377 @@
+package classscraper;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A catalog saved in a binary file that is read by mapping it into memory, so
+ * a section or subject can be looked up without reading the rest of the file.
+ * <p>
+ * The file starts with a header of ints: a magic number, the version, the
+ * term, the number of strings, subjects, courses, and sections, and where each
+ * table after the header starts. Then come the string dictionary, as the
+ * offset of each string and the UTF-8 bytes of them all, and the tables of
+ * fixed-width records:
+ * <ul>
+ * <li>subjects: name, first course, and course count, in the order scraped
+ * <li>courses: name, subject, number, gen ed, course ID, first section, and section count
+ * <li>sections: section ID, course, cap, enrolled, section type, section number,
+ * units, instructor, room, session, meeting time, and topic
+ * <li>the section index: each section ID and its section, in order of section ID
+ * <li>the subject index: each subject's place in the subject table, in order of name
+ * </ul>
+ * Strings are stored as their number in the dictionary, or -1 for null, and
+ * every subject's courses and every course's sections are next to each other.
+ */
+public class CatalogSnapshotFile implements Closeable {
+	public final static int VERSION = 2;
+	// "SPCS"
+	private final static int MAGIC = 0x53504353;
+	private final static int HEADER_SIZE = 13 * 4;
+	private final static int SUBJECT_SIZE = 3 * 4;
+	private final static int COURSE_SIZE = 7 * 4;
+	private final static int SECTION_SIZE = 12 * 4;
+	private final static int INDEX_SIZE = 2 * 4;
+	private final static int SUBJECT_INDEX_SIZE = 4;
+	private final static SectionType[] SECTION_TYPES = SectionType.values();
+	private final RandomAccessFile file;
+	private final ByteBuffer buffer;
+	private final String term;
+	private final int stringCount;
+	private final int subjectCount;
+	private final int courseCount;
+	private final int sectionCount;
+	private final int stringDataOffset;
+	private final int subjectOffset;
+	private final int courseOffset;
+	private final int sectionOffset;
+	private final int indexOffset;
+	private final int subjectIndexOffset;
+	// Strings already read from the dictionary
+	private final String[] strings;
+
+	private CatalogSnapshotFile(RandomAccessFile file, MappedByteBuffer buffer) throws IOException {
+		this.file = file;
+		this.buffer = buffer;
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a catalog snapshot");
+		}
+		int version = buffer.getInt(4);
+		if (version != VERSION) {
+			throw new IOException("Catalog snapshot version " + version + " is not supported, only " + VERSION);
+		}
+		int termCode = buffer.getInt(8);
+		this.stringCount = buffer.getInt(12);
+		this.subjectCount = buffer.getInt(16);
+		this.courseCount = buffer.getInt(20);
+		this.sectionCount = buffer.getInt(24);
+		this.stringDataOffset = buffer.getInt(28);
+		this.subjectOffset = buffer.getInt(32);
+		this.courseOffset = buffer.getInt(36);
+		this.sectionOffset = buffer.getInt(40);
+		this.indexOffset = buffer.getInt(44);
+		this.subjectIndexOffset = buffer.getInt(48);
+		if ((long) subjectIndexOffset + (long) subjectCount * SUBJECT_INDEX_SIZE > buffer.capacity()) {
+			throw new IOException("Catalog snapshot is cut short");
+		}
+		this.strings = new String[stringCount];
+		this.term = getString(termCode);
+	}
+
+	/**
+	 * Maps a snapshot into memory. Only the header is read until something is looked up.
+	 */
+	public static CatalogSnapshotFile open(File snapshot) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(snapshot, "r");
+		try {
+			return new CatalogSnapshotFile(file, file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length()));
+		} catch (IOException | RuntimeException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	public String getTerm() {
+		return term;
+	}
+
+	public int getCourseCount() {
+		return courseCount;
+	}
+
+	public int getSectionCount() {
+		return sectionCount;
+	}
+
+	/**
+	 * @return every subject, in the order they were scraped
+	 */
+	public List<String> getSubjects() {
+		List<String> subjects = new ArrayList<>(subjectCount);
+		for (int i = 0; i < subjectCount; i++) {
+			subjects.add(getString(buffer.getInt(subjectOffset + i * SUBJECT_SIZE)));
+		}
+		return subjects;
+	}
+
+	/**
+	 * Finds a subject by a binary search of the subject index
+	 * @return the courses of a subject, each with its sections, read from the file
+	 */
+	public List<Course> getCourses(String subject) {
+		List<Course> courses = new ArrayList<>();
+		int low = 0, high = subjectCount - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int record = subjectOffset + buffer.getInt(subjectIndexOffset + middle * SUBJECT_INDEX_SIZE) * SUBJECT_SIZE;
+			int comparison = getString(buffer.getInt(record)).compareTo(subject);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				int first = buffer.getInt(record + 4), count = buffer.getInt(record + 8);
+				for (int course = first; course < first + count; course++) {
+					courses.add(readCourse(course));
+				}
+				break;
+			}
+		}
+		return courses;
+	}
+
+	/**
+	 * @return every course in the file, subject by subject
+	 */
+	public List<Course> getCourses() {
+		List<Course> courses = new ArrayList<>(courseCount);
+		for (int course = 0; course < courseCount; course++) {
+			courses.add(readCourse(course));
+		}
+		return courses;
+	}
+
+	/**
+	 * Finds a section by a binary search of the section index
+	 * @return the section, or null if it is not in the snapshot
+	 */
+	public CourseSection findSection(int sectionid) {
+		int index = indexOf(sectionid);
+		return index < 0 ? null : readSection(index);
+	}
+
+	/**
+	 * @return the course a section is in, with all its sections, or null if it is not in the snapshot
+	 */
+	public Course findCourse(int sectionid) {
+		int index = indexOf(sectionid);
+		return index < 0 ? null : readCourse(buffer.getInt(sectionOffset + index * SECTION_SIZE + 4));
+	}
+
+	/**
+	 * @return where the section is in the section table, or -1 if it is not in the snapshot
+	 */
+	private int indexOf(int sectionid) {
+		int low = 0, high = sectionCount - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int entry = indexOffset + middle * INDEX_SIZE;
+			int id = buffer.getInt(entry);
+			if (id < sectionid) {
+				low = middle + 1;
+			} else if (id > sectionid) {
+				high = middle - 1;
+			} else {
+				return buffer.getInt(entry + 4);
+			}
+		}
+		return -1;
+	}
+
+	private Course readCourse(int index) {
+		int record = courseOffset + index * COURSE_SIZE;
+		Course course = new Course();
+		course.setCoursename(getString(buffer.getInt(record)));
+		course.setSubject(getString(buffer.getInt(record + 4)));
+		course.setCoursenum(getString(buffer.getInt(record + 8)));
+		course.setGened(getString(buffer.getInt(record + 12)));
+		course.setCourseid(buffer.getInt(record + 16));
+		int first = buffer.getInt(record + 20), count = buffer.getInt(record + 24);
+		List<CourseSection> sections = new ArrayList<>(count);
+		for (int section = first; section < first + count; section++) {
+			sections.add(readSection(section));
+		}
+		course.setSections(sections);
+		return course;
+	}
+
+	private CourseSection readSection(int index) {
+		int record = sectionOffset + index * SECTION_SIZE;
+		CourseSection section = new CourseSection();
+		section.setSectionid(buffer.getInt(record));
+		section.setEnrollmentCap(buffer.getInt(record + 8));
+		section.setEnrolled(buffer.getInt(record + 12));
+		int type = buffer.getInt(record + 16);
+		section.setSectionType(type < 0 ? null : SECTION_TYPES[type]);
+		section.setSectionnum(getString(buffer.getInt(record + 20)));
+		section.setUnits(getString(buffer.getInt(record + 24)));
+		section.setInstructor(getString(buffer.getInt(record + 28)));
+		section.setRoom(getString(buffer.getInt(record + 32)));
+		section.setSession(getString(buffer.getInt(record + 36)));
+		section.setMeetingTime(getString(buffer.getInt(record + 40)));
+		section.setTopic(getString(buffer.getInt(record + 44)));
+		return section;
+	}
+
+	private String getString(int code) {
+		if (code == StringDictionary.NONE) {
+			return null;
+		}
+		String string = strings[code];
+		if (string == null) {
+			int start = buffer.getInt(HEADER_SIZE + code * 4), end = buffer.getInt(HEADER_SIZE + code * 4 + 4);
+			byte[] bytes = new byte[end - start];
+			ByteBuffer data = buffer.duplicate();
+			data.position(stringDataOffset + start);
+			data.get(bytes);
+			string = new String(bytes, StandardCharsets.UTF_8);
+			// Two threads may both read a string, which only costs the time
+			strings[code] = string;
+		}
+		return string;
+	}
+
+	/**
+	 * Closes the file. The memory it was mapped into is let go of once nothing uses it.
+	 */
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+	/**
+	 * Saves a catalog as a snapshot, replacing the file only once it is fully written
+	 */
+	public static void write(CompactCatalog catalog, File snapshot) throws IOException {
+		// Only the strings of this catalog, even if its dictionary is shared with others
+		StringDictionary dictionary = new StringDictionary();
+		int termCode = dictionary.encode(catalog.getTerm());
+		List<String> subjects = catalog.getSubjects();
+		int[] subjectNames = new int[subjects.size()];
+		int[] subjectCourses = new int[subjects.size()];
+		List<CompactCatalog.CourseView> courses = new ArrayList<>(catalog.getCourseCount());
+		for (int i = 0; i < subjects.size(); i++) {
+			subjectNames[i] = dictionary.encode(subjects.get(i));
+			List<CompactCatalog.CourseView> coursesOfSubject = catalog.getCourses(subjects.get(i));
+			subjectCourses[i] = coursesOfSubject.size();
+			courses.addAll(coursesOfSubject);
+		}
+		int[] courseRecords = new int[courses.size() * 7];
+		List<CompactCatalog.SectionView> sections = new ArrayList<>(catalog.getSectionCount());
+		for (int i = 0; i < courses.size(); i++) {
+			CompactCatalog.CourseView course = courses.get(i);
+			courseRecords[i * 7] = dictionary.encode(course.getCoursename());
+			courseRecords[i * 7 + 1] = dictionary.encode(course.getSubject());
+			courseRecords[i * 7 + 2] = dictionary.encode(course.getCoursenum());
+			courseRecords[i * 7 + 3] = dictionary.encode(course.getGened());
+			courseRecords[i * 7 + 4] = course.getCourseid();
+			courseRecords[i * 7 + 5] = sections.size();
+			courseRecords[i * 7 + 6] = course.getSections().size();
+			sections.addAll(course.getSections());
+		}
+		int[] sectionRecords = new int[sections.size() * 12];
+		long[] index = new long[sections.size()];
+		for (int i = 0, course = 0; i < sections.size(); i++) {
+			while (i >= courseRecords[course * 7 + 5] + courseRecords[course * 7 + 6]) {
+				course++;
+			}
+			CompactCatalog.SectionView section = sections.get(i);
+			int record = i * 12;
+			sectionRecords[record] = section.getSectionid();
+			sectionRecords[record + 1] = course;
+			sectionRecords[record + 2] = section.getEnrollmentCap();
+			sectionRecords[record + 3] = section.getEnrolled();
+			sectionRecords[record + 4] = section.getSectionType() == null ? -1 : section.getSectionType().ordinal();
+			sectionRecords[record + 5] = dictionary.encode(section.getSectionnum());
+			sectionRecords[record + 6] = dictionary.encode(section.getUnits());
+			sectionRecords[record + 7] = dictionary.encode(section.getInstructor());
+			sectionRecords[record + 8] = dictionary.encode(section.getRoom());
+			sectionRecords[record + 9] = dictionary.encode(section.getSession());
+			sectionRecords[record + 10] = dictionary.encode(section.getMeetingTime());
+			sectionRecords[record + 11] = dictionary.encode(section.getTopic());
+			index[i] = ((long) section.getSectionid() << 32) | i;
+		}
+		Arrays.sort(index);
+
+		// The dictionary's strings, then their offsets
+		byte[][] stringBytes = new byte[dictionary.size()][];
+		int[] stringOffsets = new int[dictionary.size() + 1];
+		for (int i = 0; i < stringBytes.length; i++) {
+			stringBytes[i] = dictionary.decode(i).getBytes(StandardCharsets.UTF_8);
+			stringOffsets[i + 1] = stringOffsets[i] + stringBytes[i].length;
+		}
+		int stringDataOffset = HEADER_SIZE + stringOffsets.length * 4;
+		// Tables start on a multiple of 4 bytes
+		int subjectOffset = (stringDataOffset + stringOffsets[stringBytes.length] + 3) & ~3;
+		int courseOffset = subjectOffset + subjects.size() * SUBJECT_SIZE;
+		int sectionOffset = courseOffset + courses.size() * COURSE_SIZE;
+		int indexOffset = sectionOffset + sections.size() * SECTION_SIZE;
+		int subjectIndexOffset = indexOffset + sections.size() * INDEX_SIZE;
+		Integer[] subjectIndex = new Integer[subjects.size()];
+		for (int i = 0; i < subjectIndex.length; i++) {
+			subjectIndex[i] = i;
+		}
+		Arrays.sort(subjectIndex, (a, b) -> subjects.get(a).compareTo(subjects.get(b)));
+
+		File temp = new File(snapshot.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			for (int value : new int[] { MAGIC, VERSION, termCode, stringBytes.length, subjects.size(),
+					courses.size(), sections.size(), stringDataOffset, subjectOffset, courseOffset, sectionOffset,
+					indexOffset, subjectIndexOffset }) {
+				out.writeInt(value);
+			}
+			for (int offset : stringOffsets) {
+				out.writeInt(offset);
+			}
+			for (byte[] bytes : stringBytes) {
+				out.write(bytes);
+			}
+			for (int i = stringDataOffset + stringOffsets[stringBytes.length]; i < subjectOffset; i++) {
+				out.writeByte(0);
+			}
+			for (int i = 0, first = 0; i < subjects.size(); first += subjectCourses[i], i++) {
+				out.writeInt(subjectNames[i]);
+				out.writeInt(first);
+				out.writeInt(subjectCourses[i]);
+			}
+			for (int value : courseRecords) {
+				out.writeInt(value);
+			}
+			for (int value : sectionRecords) {
+				out.writeInt(value);
+			}
+			for (long entry : index) {
+				out.writeInt((int) (entry >> 32));
+				out.writeInt((int) entry);
+			}
+			for (int subject : subjectIndex) {
+				out.writeInt(subject);
+			}
+		}
+		Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+}
@@ -0,0 +1,66 @@
+package classscraper;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.logging.Logger;
+
+/**
+ * Saves each scrape as a {@link CatalogSnapshotFile} in a directory, named
+ * after the term and the time the scrape ended ("2019 Spring 2019-04-01 0815.catalog").
+ * The scrape is kept in a {@link CompactCatalog} until the sink is closed.
+ * Courses may be passed on to another sink.
+ */
+public class CatalogSnapshotSink implements CatalogSink {
+	private final static Logger LOGGER = Logger.getLogger("spireautomator.catalog");
+	private final File directory;
+	private final CompactCatalog catalog;
+	// Another sink to write every course to, or null
+	private final CatalogSink next;
+
+	/**
+	 * @param next
+	 *            Another sink to write every course to, or null
+	 */
+	public CatalogSnapshotSink(File directory, String term, CatalogSink next) {
+		this.directory = directory;
+		this.catalog = new CompactCatalog(term == null ? "" : term, new StringDictionary());
+		this.next = next;
+	}
+
+	@Override
+	public void write(String subject, Course course) throws IOException {
+		catalog.addCourse(subject, course);
+		if (next != null) {
+			next.write(subject, course);
+		}
+	}
+
+	@Override
+	public void endSubject(String subject, boolean complete) throws IOException {
+		if (next != null) {
+			next.endSubject(subject, complete);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (catalog.getSectionCount() > 0) {
+				if (!directory.isDirectory() && !directory.mkdirs()) {
+					throw new IOException("Could not create " + directory);
+				}
+				String name = (catalog.getTerm().isEmpty() ? "" : catalog.getTerm() + " ")
+						+ new SimpleDateFormat("yyyy-MM-dd HHmm").format(new Date());
+				File file = new File(directory, name.replaceAll("[^A-Za-z0-9 ._-]", "_") + ".catalog");
+				CatalogSnapshotFile.write(catalog, file);
+				LOGGER.info("Saved " + catalog.getSectionCount() + " sections to " + file);
+			}
+		} finally {
+			if (next != null) {
+				next.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package classscraper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One class search: a subject, a range of course numbers, and whether only open
+ * classes are searched for. Class search only
+ * takes one course number and one way to compare it, so only some ranges can be
+ * searched exactly: everything from a number up, everything from the first course
+ * number up to a number, ten numbers that start with the same two digits (which
+ * "contains" those two digits, along with a few courses outside the range), and
+ * a single number. Any other range is searched from its lowest number up.
+ * Courses outside the range are dropped from the results.
+ * A range that returns too many results for SPIRE is split in two at a round
+ * number. A part that would make the same search again is only searched exactly,
+ * split further if it has to be.
+ */
+public class ClassSearchQuery {
+	// The lowest course number scraped, as the class scraper has always searched
+	public static final int FIRST_COURSE_NUMBER = 100;
+	// Course numbers above this are searched together with it
+	public static final int LAST_COURSE_NUMBER = 999;
+	public static final int NO_UPPER_BOUND = Integer.MAX_VALUE;
+	private final String subject;
+	private final int lowest;
+	private final int highest;
+	private final boolean openOnly;
+	// If a range that cannot be searched exactly may be searched from its lowest number up
+	private final boolean widen;
+
+	public ClassSearchQuery(String subject, int lowest, int highest) {
+		this(subject, lowest, highest, false);
+	}
+
+	/**
+	 * @param openOnly
+	 *            If "Open Classes Only" is checked, so that SPIRE leaves out classes with no open seats
+	 */
+	public ClassSearchQuery(String subject, int lowest, int highest, boolean openOnly) {
+		this(subject, lowest, highest, openOnly, true);
+	}
+
+	private ClassSearchQuery(String subject, int lowest, int highest, boolean openOnly, boolean widen) {
+		this.subject = subject;
+		this.lowest = lowest;
+		this.highest = highest;
+		this.openOnly = openOnly;
+		this.widen = widen;
+	}
+
+	/**
+	 * @return a search for every course in the subject
+	 * @param subject
+	 *            The subject as shown in the class search dropdown
+	 */
+	public static ClassSearchQuery forSubject(String subject) {
+		return new ClassSearchQuery(subject, FIRST_COURSE_NUMBER, NO_UPPER_BOUND);
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public int getLowest() {
+		return lowest;
+	}
+
+	public int getHighest() {
+		return highest;
+	}
+
+	public boolean isOpenOnly() {
+		return openOnly;
+	}
+
+	/**
+	 * @return if class search can search this range, otherwise it must be split first
+	 */
+	public boolean isSearchable() {
+		return widen || isExact();
+	}
+
+	// If class search can search this range without going past its highest number
+	private boolean isExact() {
+		return highest == NO_UPPER_BOUND || lowest <= FIRST_COURSE_NUMBER || lowest == highest || isDecade();
+	}
+
+	// Ten numbers with the same first two digits, such as 490-499
+	private boolean isDecade() {
+		return lowest >= FIRST_COURSE_NUMBER && highest <= LAST_COURSE_NUMBER && lowest % 10 == 0
+				&& highest == lowest + 9;
+	}
+
+	/**
+	 * @return the course number comparison to select in class search
+	 */
+	public String getMatch() {
+		String result;
+		if (highest == NO_UPPER_BOUND || !isExact()) {
+			result = "greater than or equal to";
+		} else if (lowest <= FIRST_COURSE_NUMBER && lowest != highest) {
+			result = "less than or equal to";
+		} else {
+			// "is exactly 191" would leave out "191A"
+			result = "contains";
+		}
+		return result;
+	}
+
+	/**
+	 * @return the course number to enter in class search
+	 */
+	public String getNumber() {
+		String result;
+		if (highest == NO_UPPER_BOUND || !isExact()) {
+			result = String.valueOf(lowest);
+		} else if (lowest <= FIRST_COURSE_NUMBER && lowest != highest) {
+			result = String.valueOf(highest);
+		} else if (isDecade()) {
+			result = String.valueOf(lowest / 10);
+		} else {
+			result = String.valueOf(lowest);
+		}
+		return result;
+	}
+
+	/**
+	 * @return if the course is in this range
+	 * @param courseNumber
+	 *            Course number as shown in the results ("191A")
+	 */
+	public boolean includes(String courseNumber) {
+		int number = leadingInt(courseNumber);
+		return number >= lowest && number <= highest;
+	}
+
+	public boolean isSplittable() {
+		return lowest < highest && lowest <= LAST_COURSE_NUMBER;
+	}
+
+	/**
+	 * Splits the range in two at a round number, such as 100-999 into 100-499 and 500-999.
+	 * If this range was searched from its lowest number up, only the upper half may be
+	 * again, since the lower half would make the same search.
+	 * @return the two halves of this range
+	 */
+	public List<ClassSearchQuery> split() {
+		int top = Math.max(lowest, Math.min(highest, LAST_COURSE_NUMBER));
+		int middle = lowest + (top - lowest + 1) / 2;
+		// Rounds to the largest power of ten that still leaves something on both sides
+		for (int round = 1000; round > 1; round /= 10) {
+			int rounded = middle / round * round;
+			if (rounded > lowest && rounded <= top) {
+				middle = rounded;
+				break;
+			}
+		}
+		List<ClassSearchQuery> halves = new ArrayList<ClassSearchQuery>();
+		if (lowest == top) {
+			// Only an open range can be this narrow, and what is above it is searched separately
+			halves.add(new ClassSearchQuery(subject, lowest, lowest, openOnly, false));
+			halves.add(new ClassSearchQuery(subject, lowest + 1, highest, openOnly, false));
+		} else {
+			halves.add(new ClassSearchQuery(subject, lowest, middle - 1, openOnly, false));
+			halves.add(new ClassSearchQuery(subject, middle, highest, openOnly, widen && !isExact()));
+		}
+		return halves;
+	}
+
+	private static int leadingInt(String text) {
+		int end = 0;
+		while (end < text.length() && Character.isDigit(text.charAt(end))) {
+			end++;
+		}
+		return end == 0 ? 0 : Integer.parseInt(text.substring(0, end));
+	}
+
+	@Override
+	public String toString() {
+		return subject + " " + lowest + "-" + (highest == NO_UPPER_BOUND ? "" : String.valueOf(highest))
+				+ (openOnly ? " open" : "");
+	}
+}
@@ -0,0 +1,465 @@
+package classscraper;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A catalog kept in columns of primitives instead of objects, to hold many
+ * terms and scrapes in memory at once. Each field of the sections is its own
+ * array, strings are numbers in a {@link StringDictionary} that may be shared
+ * with other catalogs, and section types are their ordinals. Courses and
+ * sections are read through flyweight views with the usual getters, made only
+ * when asked for. Views are not {@link Course}s or {@link CourseSection}s and
+ * can not change the catalog; code that needs a course copies one out of its
+ * view.
+ * <p>
+ * Sections are added as they are given, so a catalog built from a scrape
+ * holds each section once, as the scrape only writes each section once.
+ */
+public class CompactCatalog implements CatalogSink {
+	private final static int INITIAL_CAPACITY = 256;
+	private final static SectionType[] SECTION_TYPES = SectionType.values();
+	private final String term;
+	private final StringDictionary dictionary;
+	// The courses of each subject, by index, in the order they were added
+	private final Map<String, int[]> coursesBySubject = new LinkedHashMap<>();
+	private final Map<String, Integer> subjectCourseCounts = new LinkedHashMap<>();
+
+	private int courseCount;
+	private int[] courseName = new int[INITIAL_CAPACITY];
+	private int[] courseSubject = new int[INITIAL_CAPACITY];
+	private int[] courseNum = new int[INITIAL_CAPACITY];
+	private int[] courseGenEd = new int[INITIAL_CAPACITY];
+	private int[] courseId = new int[INITIAL_CAPACITY];
+	// A course's sections are next to each other, from its first section for its section count
+	private int[] courseFirstSection = new int[INITIAL_CAPACITY];
+	private int[] courseSectionCount = new int[INITIAL_CAPACITY];
+
+	private int sectionCount;
+	private int[] sectionId = new int[INITIAL_CAPACITY];
+	private int[] sectionCourse = new int[INITIAL_CAPACITY];
+	private int[] enrollmentCap = new int[INITIAL_CAPACITY];
+	private int[] enrolled = new int[INITIAL_CAPACITY];
+	// The ordinal of the section type, or -1 for none
+	private byte[] sectionType = new byte[INITIAL_CAPACITY];
+	private int[] sectionNum = new int[INITIAL_CAPACITY];
+	private int[] units = new int[INITIAL_CAPACITY];
+	private int[] instructor = new int[INITIAL_CAPACITY];
+	private int[] room = new int[INITIAL_CAPACITY];
+	private int[] session = new int[INITIAL_CAPACITY];
+	private int[] meetingTime = new int[INITIAL_CAPACITY];
+	private int[] topic = new int[INITIAL_CAPACITY];
+
+	// Section IDs in order and the index of each, sorted when first needed after sections are added
+	private int[] sortedIds;
+	private int[] sortedIndexes;
+
+	/**
+	 * @param dictionary
+	 *            The strings of the catalog, which may be shared with other catalogs
+	 */
+	public CompactCatalog(String term, StringDictionary dictionary) {
+		this.term = term;
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * @return a compact copy of a catalog, subject by subject
+	 */
+	public static CompactCatalog of(Catalog catalog, StringDictionary dictionary) {
+		CompactCatalog result = new CompactCatalog(catalog.getTerm(), dictionary);
+		for (String subject : catalog.getSubjects()) {
+			for (Course course : catalog.getCourses(subject)) {
+				result.addCourse(subject, course);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Copies a course and its sections into the catalog
+	 * @return the index of the course
+	 * @param subject
+	 *            The subject as shown in the class search dropdown ("Computer Science")
+	 */
+	public synchronized int addCourse(String subject, Course course) {
+		int index = courseCount;
+		if (index == courseName.length) {
+			int capacity = index * 2;
+			courseName = Arrays.copyOf(courseName, capacity);
+			courseSubject = Arrays.copyOf(courseSubject, capacity);
+			courseNum = Arrays.copyOf(courseNum, capacity);
+			courseGenEd = Arrays.copyOf(courseGenEd, capacity);
+			courseId = Arrays.copyOf(courseId, capacity);
+			courseFirstSection = Arrays.copyOf(courseFirstSection, capacity);
+			courseSectionCount = Arrays.copyOf(courseSectionCount, capacity);
+		}
+		courseName[index] = dictionary.encode(course.getCoursename());
+		courseSubject[index] = dictionary.encode(course.getSubject());
+		courseNum[index] = dictionary.encode(course.getCoursenum());
+		courseGenEd[index] = dictionary.encode(course.getGened());
+		courseId[index] = course.getCourseid();
+		courseFirstSection[index] = sectionCount;
+		courseSectionCount[index] = course.getSections().size();
+		for (CourseSection section : course.getSections()) {
+			addSection(index, section);
+		}
+		courseCount++;
+		Integer subjectCount = subjectCourseCounts.get(subject);
+		int count = subjectCount == null ? 0 : subjectCount;
+		int[] subjectCourses = coursesBySubject.get(subject);
+		if (subjectCourses == null || count == subjectCourses.length) {
+			subjectCourses = subjectCourses == null ? new int[16] : Arrays.copyOf(subjectCourses, count * 2);
+			coursesBySubject.put(subject, subjectCourses);
+		}
+		subjectCourses[count] = index;
+		subjectCourseCounts.put(subject, count + 1);
+		return index;
+	}
+
+	private void addSection(int course, CourseSection section) {
+		int index = sectionCount;
+		if (index == sectionId.length) {
+			int capacity = index * 2;
+			sectionId = Arrays.copyOf(sectionId, capacity);
+			sectionCourse = Arrays.copyOf(sectionCourse, capacity);
+			enrollmentCap = Arrays.copyOf(enrollmentCap, capacity);
+			enrolled = Arrays.copyOf(enrolled, capacity);
+			sectionType = Arrays.copyOf(sectionType, capacity);
+			sectionNum = Arrays.copyOf(sectionNum, capacity);
+			units = Arrays.copyOf(units, capacity);
+			instructor = Arrays.copyOf(instructor, capacity);
+			room = Arrays.copyOf(room, capacity);
+			session = Arrays.copyOf(session, capacity);
+			meetingTime = Arrays.copyOf(meetingTime, capacity);
+			topic = Arrays.copyOf(topic, capacity);
+		}
+		sectionId[index] = section.getSectionid();
+		sectionCourse[index] = course;
+		enrollmentCap[index] = section.getEnrollmentCap();
+		enrolled[index] = section.getEnrolled();
+		sectionType[index] = (byte) (section.getSectionType() == null ? -1 : section.getSectionType().ordinal());
+		sectionNum[index] = dictionary.encode(section.getSectionnum());
+		units[index] = dictionary.encode(section.getUnits());
+		instructor[index] = dictionary.encode(section.getInstructor());
+		room[index] = dictionary.encode(section.getRoom());
+		session[index] = dictionary.encode(section.getSession());
+		meetingTime[index] = dictionary.encode(section.getMeetingTime());
+		topic[index] = dictionary.encode(section.getTopic());
+		sectionCount++;
+		sortedIds = null;
+	}
+
+	@Override
+	public void write(String subject, Course course) {
+		addCourse(subject, course);
+	}
+
+	@Override
+	public void endSubject(String subject, boolean complete) {
+	}
+
+	@Override
+	public void close() {
+	}
+
+	public String getTerm() {
+		return term;
+	}
+
+	public StringDictionary getDictionary() {
+		return dictionary;
+	}
+
+	public synchronized List<String> getSubjects() {
+		return new ArrayList<>(coursesBySubject.keySet());
+	}
+
+	public synchronized int getCourseCount() {
+		return courseCount;
+	}
+
+	public synchronized int getSectionCount() {
+		return sectionCount;
+	}
+
+	/**
+	 * @return views of the courses of a subject, in the order they were added
+	 */
+	public synchronized List<CourseView> getCourses(String subject) {
+		List<CourseView> courses = new ArrayList<>();
+		int[] subjectCourses = coursesBySubject.get(subject);
+		if (subjectCourses != null) {
+			for (int i = 0; i < subjectCourseCounts.get(subject); i++) {
+				courses.add(new CourseView(subjectCourses[i]));
+			}
+		}
+		return courses;
+	}
+
+	/**
+	 * @return views of every course, in the order they were added
+	 */
+	public synchronized List<CourseView> getCourses() {
+		List<CourseView> courses = new ArrayList<>(courseCount);
+		for (int i = 0; i < courseCount; i++) {
+			courses.add(new CourseView(i));
+		}
+		return courses;
+	}
+
+	/**
+	 * @return a view of the section with the ID, or null if it is not in the catalog
+	 */
+	public synchronized SectionView findSection(int sectionid) {
+		int index = indexOf(sectionid);
+		return index < 0 ? null : new SectionView(index);
+	}
+
+	/**
+	 * @return the index of the section with the ID, or -1 if it is not in the catalog
+	 */
+	public synchronized int indexOf(int sectionid) {
+		if (sortedIds == null) {
+			sortIds();
+		}
+		int position = Arrays.binarySearch(sortedIds, sectionid);
+		return position < 0 ? -1 : sortedIndexes[position];
+	}
+
+	private void sortIds() {
+		long[] pairs = new long[sectionCount];
+		for (int i = 0; i < sectionCount; i++) {
+			pairs[i] = ((long) sectionId[i] << 32) | i;
+		}
+		Arrays.sort(pairs);
+		sortedIds = new int[sectionCount];
+		sortedIndexes = new int[sectionCount];
+		for (int i = 0; i < sectionCount; i++) {
+			sortedIds[i] = (int) (pairs[i] >> 32);
+			sortedIndexes[i] = (int) pairs[i];
+		}
+	}
+
+	/**
+	 * @return a view of the section at an index, from 0 to the section count
+	 */
+	public synchronized SectionView getSectionAt(int index) {
+		if (index < 0 || index >= sectionCount) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+		return new SectionView(index);
+	}
+
+	/*
+	 * Columns read by the index of a section, for analysis of every section
+	 * without making views
+	 */
+
+	public synchronized int getSectionid(int index) {
+		return sectionId[index];
+	}
+
+	public synchronized int getEnrolled(int index) {
+		return enrolled[index];
+	}
+
+	public synchronized int getEnrollmentCap(int index) {
+		return enrollmentCap[index];
+	}
+
+	public synchronized SectionType getSectionType(int index) {
+		return sectionType[index] < 0 ? null : SECTION_TYPES[sectionType[index]];
+	}
+
+	/**
+	 * @return the index of the course the section at an index is in
+	 */
+	public synchronized int getCourseIndex(int index) {
+		return sectionCourse[index];
+	}
+
+	/**
+	 * A course in the catalog, read from its columns. Views only read the
+	 * catalog, and are not courses, so they can not be given to code that
+	 * changes a course; {@link #toCourse()} makes a course from one.
+	 */
+	public final class CourseView {
+		private final int index;
+
+		private CourseView(int index) {
+			this.index = index;
+		}
+
+		public int getCourseid() {
+			synchronized (CompactCatalog.this) {
+				return courseId[index];
+			}
+		}
+
+		public String getCoursename() {
+			return get(() -> CompactCatalog.this.courseName);
+		}
+
+		public String getSubject() {
+			return get(() -> CompactCatalog.this.courseSubject);
+		}
+
+		public String getCoursenum() {
+			return get(() -> CompactCatalog.this.courseNum);
+		}
+
+		public String getGened() {
+			return get(() -> CompactCatalog.this.courseGenEd);
+		}
+
+		/**
+		 * @return views of the course's sections, which can not be changed
+		 */
+		public List<SectionView> getSections() {
+			final int first, count;
+			synchronized (CompactCatalog.this) {
+				first = courseFirstSection[index];
+				count = courseSectionCount[index];
+			}
+			return new AbstractList<SectionView>() {
+				@Override
+				public SectionView get(int i) {
+					if (i < 0 || i >= count) {
+						throw new IndexOutOfBoundsException(Integer.toString(i));
+					}
+					return new SectionView(first + i);
+				}
+
+				@Override
+				public int size() {
+					return count;
+				}
+			};
+		}
+
+		/**
+		 * @return a copy of the course and its sections, which is not tied to the catalog
+		 */
+		public Course toCourse() {
+			Course course = new Course();
+			course.setCoursename(getCoursename());
+			course.setSubject(getSubject());
+			course.setCoursenum(getCoursenum());
+			course.setGened(getGened());
+			course.setCourseid(getCourseid());
+			for (SectionView section : getSections()) {
+				course.addCourseSection(section.toSection());
+			}
+			return course;
+		}
+
+		@Override
+		public String toString() {
+			return "Course [subject=" + getSubject() + ", coursenum=" + getCoursenum() + ", coursename="
+					+ getCoursename() + ", courseid=" + getCourseid() + "]";
+		}
+
+		// The column is found under the lock, since adding to the catalog replaces the arrays
+		private String get(Supplier<int[]> column) {
+			synchronized (CompactCatalog.this) {
+				return dictionary.decode(column.get()[index]);
+			}
+		}
+	}
+
+	/**
+	 * A section in the catalog, read from its columns. Like a {@link CourseView}
+	 * it only reads the catalog, and {@link #toSection()} makes a section from it.
+	 */
+	public final class SectionView {
+		private final int index;
+
+		private SectionView(int index) {
+			this.index = index;
+		}
+
+		public String getUnits() {
+			return get(() -> CompactCatalog.this.units);
+		}
+
+		public SectionType getSectionType() {
+			return CompactCatalog.this.getSectionType(index);
+		}
+
+		public String getInstructor() {
+			return get(() -> CompactCatalog.this.instructor);
+		}
+
+		public String getRoom() {
+			return get(() -> CompactCatalog.this.room);
+		}
+
+		public String getMeetingTime() {
+			return get(() -> CompactCatalog.this.meetingTime);
+		}
+
+		public String getTopic() {
+			return get(() -> CompactCatalog.this.topic);
+		}
+
+		public int getSectionid() {
+			return CompactCatalog.this.getSectionid(index);
+		}
+
+		public String getSectionnum() {
+			return get(() -> CompactCatalog.this.sectionNum);
+		}
+
+		public int getEnrollmentCap() {
+			return CompactCatalog.this.getEnrollmentCap(index);
+		}
+
+		public int getEnrolled() {
+			return CompactCatalog.this.getEnrolled(index);
+		}
+
+		public String getSession() {
+			return get(() -> CompactCatalog.this.session);
+		}
+
+		/**
+		 * @return a copy of the section, which is not tied to the catalog
+		 */
+		public CourseSection toSection() {
+			CourseSection section = new CourseSection();
+			section.setSectionid(getSectionid());
+			section.setSectionType(getSectionType());
+			section.setSectionnum(getSectionnum());
+			section.setUnits(getUnits());
+			section.setInstructor(getInstructor());
+			section.setRoom(getRoom());
+			section.setSession(getSession());
+			section.setMeetingTime(getMeetingTime());
+			section.setTopic(getTopic());
+			section.setEnrollmentCap(getEnrollmentCap());
+			section.setEnrolled(getEnrolled());
+			return section;
+		}
+
+		@Override
+		public String toString() {
+			return "CourseSection [sectionType=" + getSectionType() + ", instructor=" + getInstructor() + ", room="
+					+ getRoom() + ", meetingTime=" + getMeetingTime() + ", topic=" + getTopic() + ", sectionid="
+					+ getSectionid() + ", sectionnum=" + getSectionnum() + ", units=" + getUnits()
+					+ ", enrollmentCap=" + getEnrollmentCap() + ", enrolled=" + getEnrolled() + "]";
+		}
+
+		// The column is found under the lock, since adding to the catalog replaces the arrays
+		private String get(Supplier<int[]> column) {
+			synchronized (CompactCatalog.this) {
+				return dictionary.decode(column.get()[index]);
+			}
+		}
+	}
+}
@@ -12,6 +12,8 @@ public class CourseSection {
 	public String units;
 	public int enrollmentCap;
 	public int enrolled;
+	// Parsed from the meeting time when first needed, and again whenever it changes
+	private volatile MeetingSlots meetingSlots;
 	
 	public CourseSection(String sectionnum, int sectionID, SectionType sectionType) {
 		this.sectionnum = sectionnum;
@@ -51,6 +53,26 @@ public class CourseSection {
 	}
 	public void setMeetingTime(String meetingTime) {
 		this.meetingTime = meetingTime;
+		this.meetingSlots = null;
+	}
+	/**
+	 * @return the five minute slots of the week this section meets in, none if its meeting time is "TBA"
+	 */
+	public MeetingSlots getMeetingSlots() {
+		MeetingSlots result = meetingSlots;
+		String meetingTime = getMeetingTime();
+		// The meeting time may be changed without the setter, so the slots remember which one they are of
+		if (result == null || result.meetingTime != meetingTime) {
+			result = MeetingSlots.parse(meetingTime);
+			meetingSlots = result;
+		}
+		return result;
+	}
+	/**
+	 * @return true if this section and the other meet at the same time on any day
+	 */
+	public boolean conflictsWith(CourseSection other) {
+		return getMeetingSlots().conflictsWith(other.getMeetingSlots());
 	}
 	public String getTopic() {
 		return topic;
@@ -0,0 +1,59 @@
+package classscraper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes one CSV row for each section, with the course repeated on every row
+ */
+public class CsvCatalogSink extends CatalogFileSink {
+	private static final String[] COLUMNS = { "term", "subject", "courseSubject", "courseNum", "courseName", "genEd",
+			"sectionid", "sectionnum", "sectionType", "units", "enrollmentCap", "enrolled", "session", "meetingTime",
+			"room", "instructor", "topic" };
+
+	public CsvCatalogSink(File directory, String term) {
+		super(directory, term, "csv");
+	}
+
+	@Override
+	protected void writeHeader(Writer writer) throws IOException {
+		writer.write(String.join(",", COLUMNS) + "\r\n");
+	}
+
+	@Override
+	protected void writeCourse(Writer writer, String subject, Course course) throws IOException {
+		StringBuilder rows = new StringBuilder();
+		for (CourseSection section : course.getSections()) {
+			cell(rows, getTerm()).append(',');
+			cell(rows, subject).append(',');
+			cell(rows, course.getSubject()).append(',');
+			cell(rows, course.getCoursenum()).append(',');
+			cell(rows, course.getCoursename()).append(',');
+			cell(rows, course.getGened()).append(',');
+			rows.append(section.getSectionid()).append(',');
+			cell(rows, section.getSectionnum()).append(',');
+			cell(rows, section.getSectionType() == null ? null : section.getSectionType().name()).append(',');
+			cell(rows, section.getUnits()).append(',');
+			rows.append(section.getEnrollmentCap()).append(',');
+			rows.append(section.getEnrolled()).append(',');
+			cell(rows, section.getSession()).append(',');
+			cell(rows, section.getMeetingTime()).append(',');
+			cell(rows, section.getRoom()).append(',');
+			cell(rows, section.getInstructor()).append(',');
+			cell(rows, section.getTopic()).append("\r\n");
+		}
+		writer.write(rows.toString());
+	}
+
+	// Quotes a cell only if it needs it, as RFC 4180 describes
+	private static StringBuilder cell(StringBuilder rows, String value) {
+		if (value == null) {
+			return rows;
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return rows.append(value);
+		}
+		return rows.append('"').append(value.replace("\"", "\"\"")).append('"');
+	}
+}
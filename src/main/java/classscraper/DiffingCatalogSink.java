@@ -0,0 +1,121 @@
+package classscraper;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Compares each section scraped to the last scrape and tells a listener what
+ * changed, then updates the snapshot to match. The first scrape, with an empty
+ * snapshot, only fills the snapshot. Courses may be passed on to another sink.
+ */
+public class DiffingCatalogSink implements CatalogSink {
+	private final SectionSnapshot snapshot;
+	private final SectionChangeListener listener;
+	// Another sink to write every course to, or null
+	private final CatalogSink next;
+	private final boolean baseline;
+	// The sections seen in this scrape, to find the ones that are no longer listed
+	private final Set<Integer> seen = new HashSet<>();
+	private int changes;
+
+	/**
+	 * @param snapshot
+	 *            The last scrape, which is updated to this one
+	 * @param listener
+	 *            Told of each change
+	 * @param next
+	 *            Another sink to write every course to, or null
+	 */
+	public DiffingCatalogSink(SectionSnapshot snapshot, SectionChangeListener listener, CatalogSink next) {
+		this.snapshot = snapshot;
+		this.listener = listener;
+		this.next = next;
+		this.baseline = snapshot.size() == 0;
+		this.changes = 0;
+	}
+
+	@Override
+	public synchronized void write(String subject, Course course) throws IOException {
+		String title = course.getSubject() + " " + course.getCoursenum().trim();
+		for (CourseSection section : course.getSections()) {
+			int sectionid = section.getSectionid();
+			seen.add(sectionid);
+			CourseSection before = snapshot.get(sectionid);
+			if (before == null) {
+				if (!baseline) {
+					changed(SectionChange.Kind.ADDED, subject, title, sectionid, null, seats(section));
+				}
+			} else {
+				int openBefore = before.getEnrollmentCap() - before.getEnrolled();
+				int openAfter = section.getEnrollmentCap() - section.getEnrolled();
+				if (openAfter != openBefore) {
+					changed(openAfter > openBefore ? SectionChange.Kind.SEATS_OPENED : SectionChange.Kind.SEATS_FILLED,
+							subject, title, sectionid, seats(before), seats(section));
+				}
+				compare(SectionChange.Kind.INSTRUCTOR_CHANGED, subject, title, sectionid, before.getInstructor(),
+						section.getInstructor());
+				compare(SectionChange.Kind.ROOM_CHANGED, subject, title, sectionid, before.getRoom(),
+						section.getRoom());
+				compare(SectionChange.Kind.MEETING_TIME_CHANGED, subject, title, sectionid, before.getMeetingTime(),
+						section.getMeetingTime());
+			}
+			snapshot.put(subject, title, section);
+		}
+		if (next != null) {
+			next.write(subject, course);
+		}
+	}
+
+	/**
+	 * Finds the sections of the subject that were in the last scrape but not in this one.
+	 * If a search of the subject was given up on, the sections it would have found are
+	 * kept in the snapshot, since they may still be listed.
+	 */
+	@Override
+	public synchronized void endSubject(String subject, boolean complete) throws IOException {
+		if (complete) {
+			for (int sectionid : snapshot.getSectionIds(subject)) {
+				if (!seen.contains(sectionid)) {
+					changed(SectionChange.Kind.REMOVED, subject, snapshot.getCourse(sectionid), sectionid,
+							seats(snapshot.get(sectionid)), null);
+					snapshot.remove(sectionid);
+				}
+			}
+		}
+		if (next != null) {
+			next.endSubject(subject, complete);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (next != null) {
+			next.close();
+		}
+	}
+
+	/**
+	 * @return the number of changes found so far
+	 */
+	public synchronized int getChangeCount() {
+		return changes;
+	}
+
+	private void compare(SectionChange.Kind kind, String subject, String course, int sectionid, String before,
+			String after) {
+		if (!SectionSnapshot.field(before).equals(SectionSnapshot.field(after))) {
+			changed(kind, subject, course, sectionid, before, after);
+		}
+	}
+
+	private void changed(SectionChange.Kind kind, String subject, String course, int sectionid, String before,
+			String after) {
+		changes++;
+		listener.sectionChanged(new SectionChange(kind, subject, course, sectionid, before, after));
+	}
+
+	private static String seats(CourseSection section) {
+		return section.getEnrolled() + "/" + section.getEnrollmentCap();
+	}
+}
@@ -0,0 +1,563 @@
+package classscraper;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * The history of how full each section was over the enrollment period, kept
+ * in a directory without a database server.
+ * <p>
+ * Samples are appended to a log in blocks, one block per batch, and each block
+ * is compressed on its own. A sample is only written when the section's
+ * enrollment or cap changed since its last sample, because most sections stay
+ * the same between scrapes. An index of the sections in each block is kept
+ * beside the log and in memory, so a query reads only the blocks that hold
+ * its section. Old samples can be compacted into rollups that keep the last
+ * sample of each section in each interval, such as each hour.
+ * <p>
+ * The log is only ever appended to, except by compaction, which writes the
+ * new files beside the old ones and then moves them into place. A block that
+ * was only partly written when the program stopped is dropped when the history
+ * is opened, and the index is rebuilt from the log if it does not match it.
+ */
+public class EnrollmentHistory implements Closeable {
+	private final static Logger LOGGER = Logger.getLogger("spireautomator.history");
+	public final static long DEFAULT_ROLLUP_INTERVAL = 60 * 60 * 1000L;
+	// How long samples are kept as they were scraped before they are rolled up
+	public final static long DEFAULT_RETENTION = 7 * 24 * 60 * 60 * 1000L;
+	private final static String SAMPLES = "samples";
+	private final static String ROLLUPS = "rollups";
+	// Orders samples by time, then section
+	private final static Comparator<EnrollmentSample> TIME_ORDER = new Comparator<EnrollmentSample>() {
+		@Override
+		public int compare(EnrollmentSample a, EnrollmentSample b) {
+			int result = Long.compare(a.getTimestamp(), b.getTimestamp());
+			return result != 0 ? result : Integer.compare(a.getSectionid(), b.getSectionid());
+		}
+	};
+	private final File directory;
+	private Segment samples;
+	private Segment rollups;
+	// The last enrollment and cap written for each section since the history was opened
+	private final Map<Integer, Long> lastWritten = new HashMap<>();
+
+	// A compressed block of samples in a segment, and what it holds
+	private static class Block {
+		// Where the block starts in the log, before its length
+		private final long offset;
+		private final int length;
+		private final long first;
+		private final long last;
+		// Sorted
+		private final int[] sectionids;
+
+		private Block(long offset, int length, long first, long last, int[] sectionids) {
+			this.offset = offset;
+			this.length = length;
+			this.first = first;
+			this.last = last;
+			this.sectionids = sectionids;
+		}
+
+		private long end() {
+			return offset + 4 + length;
+		}
+	}
+
+	/**
+	 * A log of blocks and its index. The log starts with an ID, then each block is
+	 * its length and a gzip member. The index starts with the same ID, then holds
+	 * each block's offset, length, time range, and sections, which are written as
+	 * the difference from the section before, in as few bytes as it fits in.
+	 */
+	private static class Segment {
+		private final File log;
+		private final File index;
+		private final List<Block> blocks = new ArrayList<>();
+		private final Map<Integer, List<Block>> blocksBySection = new HashMap<>();
+		private long id;
+		private long end;
+
+		private Segment(File log, File index) {
+			this.log = log;
+			this.index = index;
+		}
+
+		private static Segment open(File directory, String name) throws IOException {
+			Segment segment = new Segment(new File(directory, name + ".log"), new File(directory, name + ".idx"));
+			if (!segment.log.isFile() || segment.log.length() < 8) {
+				segment.create();
+			} else {
+				segment.load();
+			}
+			return segment;
+		}
+
+		// Starts an empty segment, replacing any files it had
+		private static Segment create(File directory, String name) throws IOException {
+			Segment segment = new Segment(new File(directory, name + ".log"), new File(directory, name + ".idx"));
+			segment.create();
+			return segment;
+		}
+
+		// Starts an empty segment with a new ID
+		private void create() throws IOException {
+			id = new Random().nextLong();
+			try (DataOutputStream out = new DataOutputStream(new FileOutputStream(log))) {
+				out.writeLong(id);
+			}
+			end = 8;
+			blocks.clear();
+			blocksBySection.clear();
+			writeIndex();
+		}
+
+		private void load() throws IOException {
+			try (DataInputStream in = new DataInputStream(new FileInputStream(log))) {
+				id = in.readLong();
+			}
+			end = 8;
+			boolean matches = readIndex();
+			long length = log.length();
+			if (end > length) {
+				LOGGER.warning(index + " does not match " + log + ", rebuilding it");
+				blocks.clear();
+				blocksBySection.clear();
+				end = 8;
+				matches = false;
+			}
+			if (end < length) {
+				matches &= scan(length);
+			}
+			if (!matches) {
+				writeIndex();
+			}
+		}
+
+		/**
+		 * Reads the index, up to the first entry that was not fully written
+		 * @return false if the index has to be written again
+		 */
+		private boolean readIndex() throws IOException {
+			if (!index.isFile()) {
+				return false;
+			}
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(index)))) {
+				if (in.readLong() != id) {
+					return false;
+				}
+				while (true) {
+					long offset = in.readLong();
+					int length = in.readInt();
+					long first = in.readLong(), last = in.readLong();
+					int[] sectionids = new int[readVarInt(in)];
+					for (int i = 0, sectionid = 0; i < sectionids.length; i++) {
+						sectionid += readVarInt(in);
+						sectionids[i] = sectionid;
+					}
+					add(new Block(offset, length, first, last, sectionids));
+				}
+			} catch (EOFException e) {
+				// The last entry may be cut short, so the index is written again without it
+				return index.length() == indexLength();
+			}
+		}
+
+		/**
+		 * Indexes the blocks in the log after the last one in the index, and
+		 * drops a block at the end that was not fully written
+		 * @return false, since the index has to be written again
+		 */
+		private boolean scan(long length) throws IOException {
+			try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+				while (end + 4 <= length) {
+					file.seek(end);
+					int blockLength = file.readInt();
+					if (blockLength < 0 || end + 4 + blockLength > length) {
+						break;
+					}
+					byte[] bytes = new byte[blockLength];
+					file.readFully(bytes);
+					try {
+						add(describe(end, bytes, decode(bytes)));
+					} catch (IOException e) {
+						break;
+					}
+				}
+				if (end < length) {
+					LOGGER.warning("Dropping " + (length - end) + " bytes of an unfinished block from " + log);
+					file.setLength(end);
+				}
+			}
+			return false;
+		}
+
+		private void add(Block block) {
+			blocks.add(block);
+			for (int sectionid : block.sectionids) {
+				List<Block> sectionBlocks = blocksBySection.get(sectionid);
+				if (sectionBlocks == null) {
+					sectionBlocks = new ArrayList<>();
+					blocksBySection.put(sectionid, sectionBlocks);
+				}
+				sectionBlocks.add(block);
+			}
+			end = block.end();
+		}
+
+		private long indexLength() {
+			long length = 8;
+			for (Block block : blocks) {
+				length += 28 + varIntLength(block.sectionids.length);
+				for (int i = 0, sectionid = 0; i < block.sectionids.length; i++) {
+					length += varIntLength(block.sectionids[i] - sectionid);
+					sectionid = block.sectionids[i];
+				}
+			}
+			return length;
+		}
+
+		private void writeIndex() throws IOException {
+			File temp = new File(index.getPath() + ".tmp");
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(temp)))) {
+				out.writeLong(id);
+				for (Block block : blocks) {
+					writeEntry(out, block);
+				}
+			}
+			Files.move(temp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		private static void writeEntry(DataOutputStream out, Block block) throws IOException {
+			out.writeLong(block.offset);
+			out.writeInt(block.length);
+			out.writeLong(block.first);
+			out.writeLong(block.last);
+			writeVarInt(out, block.sectionids.length);
+			for (int i = 0, sectionid = 0; i < block.sectionids.length; i++) {
+				writeVarInt(out, block.sectionids[i] - sectionid);
+				sectionid = block.sectionids[i];
+			}
+		}
+
+		/**
+		 * Appends a block to the log, then its entry to the index
+		 */
+		private void append(List<EnrollmentSample> blockSamples) throws IOException {
+			byte[] bytes = encode(blockSamples);
+			appendBlock(bytes, describe(end, bytes, blockSamples));
+		}
+
+		/**
+		 * Appends a block as it is, such as one from another segment
+		 * @param bytes
+		 *            The compressed block
+		 * @param from
+		 *            What the block holds
+		 */
+		private void appendBlock(byte[] bytes, Block from) throws IOException {
+			Block block = new Block(end, bytes.length, from.first, from.last, from.sectionids);
+			try (FileOutputStream out = new FileOutputStream(log, true)) {
+				DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+				data.writeInt(bytes.length);
+				data.write(bytes);
+				data.flush();
+				out.getFD().sync();
+			}
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(index, true)))) {
+				writeEntry(out, block);
+			}
+			add(block);
+		}
+
+		private byte[] readBytes(Block block) throws IOException {
+			byte[] bytes = new byte[block.length];
+			try (RandomAccessFile file = new RandomAccessFile(log, "r")) {
+				file.seek(block.offset + 4);
+				file.readFully(bytes);
+			}
+			return bytes;
+		}
+
+		private List<EnrollmentSample> read(Block block) throws IOException {
+			return decode(readBytes(block));
+		}
+
+		// Moves another segment's files over this one's
+		private void replaceWith(Segment other) throws IOException {
+			Files.move(other.log.toPath(), log.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			Files.move(other.index.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Opens the history in a directory, creating it if it does not exist yet
+	 */
+	public EnrollmentHistory(File directory) throws IOException {
+		this.directory = directory;
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create " + directory);
+		}
+		this.samples = Segment.open(directory, SAMPLES);
+		this.rollups = Segment.open(directory, ROLLUPS);
+		LOGGER.info("Opened " + directory + " with " + samples.blocks.size() + " block(s) of samples and "
+				+ rollups.blocksBySection.size() + " rolled up section(s)");
+	}
+
+	/**
+	 * Appends samples as one block, leaving out the ones that are the same as
+	 * the last sample written for their section
+	 * @return the number of samples written
+	 */
+	public synchronized int append(List<EnrollmentSample> newSamples) throws IOException {
+		List<EnrollmentSample> changed = new ArrayList<>();
+		for (EnrollmentSample sample : newSamples) {
+			long value = ((long) sample.getEnrolled() << 32) | (sample.getEnrollmentCap() & 0xffffffffL);
+			Long last = lastWritten.put(sample.getSectionid(), value);
+			if (last == null || last != value) {
+				changed.add(sample);
+			}
+		}
+		if (!changed.isEmpty()) {
+			samples.append(changed);
+		}
+		return changed.size();
+	}
+
+	/**
+	 * Finds how full a section was over a range of time. Since a sample is only
+	 * written when the section changes, the sample before the range is included
+	 * too, if there is one, to give the enrollment at the start of the range.
+	 * @return the samples in order of time, rolled up where they have been compacted
+	 * @param from
+	 *            Milliseconds since the epoch, inclusive
+	 * @param to
+	 *            Milliseconds since the epoch, inclusive
+	 */
+	public synchronized List<EnrollmentSample> query(int sectionid, long from, long to) throws IOException {
+		List<EnrollmentSample> result = new ArrayList<>();
+		EnrollmentSample before = null;
+		for (Segment segment : new Segment[] { rollups, samples }) {
+			List<Block> sectionBlocks = segment.blocksBySection.get(sectionid);
+			if (sectionBlocks == null) {
+				continue;
+			}
+			List<Block> toRead = new ArrayList<>();
+			Block lastBefore = null;
+			for (Block block : sectionBlocks) {
+				if (block.last < from) {
+					lastBefore = block;
+				} else if (block.first <= to) {
+					toRead.add(block);
+				}
+			}
+			if (lastBefore != null) {
+				toRead.add(0, lastBefore);
+			}
+			for (Block block : toRead) {
+				for (EnrollmentSample sample : segment.read(block)) {
+					if (sample.getSectionid() != sectionid || sample.getTimestamp() > to) {
+						continue;
+					}
+					if (sample.getTimestamp() >= from) {
+						result.add(sample);
+					} else if (before == null || sample.getTimestamp() >= before.getTimestamp()) {
+						before = sample;
+					}
+				}
+			}
+		}
+		Collections.sort(result, TIME_ORDER);
+		if (before != null) {
+			result.add(0, before);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the time of the oldest sample that has not been rolled up, or
+	 *         Long.MAX_VALUE if there are none
+	 */
+	public synchronized long getOldestSample() {
+		long oldest = Long.MAX_VALUE;
+		for (Block block : samples.blocks) {
+			oldest = Math.min(oldest, block.first);
+		}
+		return oldest;
+	}
+
+	/**
+	 * Rolls up every block of samples from before a time, keeping only the last
+	 * sample of each section in each interval, and removes them from the log.
+	 * The blocks after it are copied to the new log without being decompressed.
+	 * @return the number of samples rolled up
+	 * @param before
+	 *            Milliseconds since the epoch. Blocks with samples from after it are kept.
+	 * @param interval
+	 *            Milliseconds in each interval, such as {@link #DEFAULT_ROLLUP_INTERVAL}
+	 */
+	public synchronized int compact(long before, long interval) throws IOException {
+		List<Block> old = new ArrayList<>(), kept = new ArrayList<>();
+		for (Block block : samples.blocks) {
+			(block.last < before ? old : kept).add(block);
+		}
+		if (old.isEmpty()) {
+			return 0;
+		}
+		// The last sample of each section in each interval
+		Map<Integer, TreeMap<Long, EnrollmentSample>> points = new TreeMap<>();
+		for (Block block : rollups.blocks) {
+			for (EnrollmentSample sample : rollups.read(block)) {
+				rollUp(points, sample, interval);
+			}
+		}
+		int count = 0;
+		for (Block block : old) {
+			for (EnrollmentSample sample : samples.read(block)) {
+				rollUp(points, sample, interval);
+				count++;
+			}
+		}
+		Segment newRollups = Segment.create(directory, ROLLUPS + ".new");
+		// One block per section, so a query reads only its own
+		for (TreeMap<Long, EnrollmentSample> sectionPoints : points.values()) {
+			newRollups.append(new ArrayList<>(sectionPoints.values()));
+		}
+		Segment newSamples = Segment.create(directory, SAMPLES + ".new");
+		for (Block block : kept) {
+			newSamples.appendBlock(samples.readBytes(block), block);
+		}
+		// Rollups are moved first, so stopping in between leaves samples in both rather than in neither
+		rollups.replaceWith(newRollups);
+		samples.replaceWith(newSamples);
+		rollups = Segment.open(directory, ROLLUPS);
+		samples = Segment.open(directory, SAMPLES);
+		LOGGER.info("Rolled up " + count + " sample(s) from " + old.size() + " block(s) into "
+				+ points.size() + " section(s)");
+		return count;
+	}
+
+	private static void rollUp(Map<Integer, TreeMap<Long, EnrollmentSample>> points, EnrollmentSample sample,
+			long interval) {
+		TreeMap<Long, EnrollmentSample> sectionPoints = points.get(sample.getSectionid());
+		if (sectionPoints == null) {
+			sectionPoints = new TreeMap<>();
+			points.put(sample.getSectionid(), sectionPoints);
+		}
+		long start = sample.getTimestamp() - Math.floorMod(sample.getTimestamp(), interval);
+		EnrollmentSample last = sectionPoints.get(start);
+		if (last == null || sample.getTimestamp() >= last.getTimestamp()) {
+			sectionPoints.put(start, sample);
+		}
+	}
+
+	private static Block describe(long offset, byte[] bytes, List<EnrollmentSample> blockSamples) {
+		long first = Long.MAX_VALUE, last = Long.MIN_VALUE;
+		int[] sectionids = new int[blockSamples.size()];
+		for (int i = 0; i < sectionids.length; i++) {
+			EnrollmentSample sample = blockSamples.get(i);
+			first = Math.min(first, sample.getTimestamp());
+			last = Math.max(last, sample.getTimestamp());
+			sectionids[i] = sample.getSectionid();
+		}
+		Arrays.sort(sectionids);
+		int distinct = 0;
+		for (int i = 0; i < sectionids.length; i++) {
+			if (i == 0 || sectionids[i] != sectionids[i - 1]) {
+				sectionids[distinct++] = sectionids[i];
+			}
+		}
+		return new Block(offset, bytes.length, first, last, Arrays.copyOf(sectionids, distinct));
+	}
+
+	// Writes seven bits at a time, low bits first, with the high bit set on all but the last byte
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7f) != 0) {
+			out.writeByte((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; ; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+	}
+
+	private static int varIntLength(int value) {
+		int length = 1;
+		while ((value & ~0x7f) != 0) {
+			value >>>= 7;
+			length++;
+		}
+		return length;
+	}
+
+	private static byte[] encode(List<EnrollmentSample> blockSamples) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(new GzipCompressorOutputStream(bytes))) {
+			out.writeInt(blockSamples.size());
+			for (EnrollmentSample sample : blockSamples) {
+				out.writeLong(sample.getTimestamp());
+				out.writeInt(sample.getSectionid());
+				out.writeInt(sample.getEnrolled());
+				out.writeInt(sample.getEnrollmentCap());
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private static List<EnrollmentSample> decode(byte[] bytes) throws IOException {
+		try (DataInputStream in = new DataInputStream(
+				new GzipCompressorInputStream(new ByteArrayInputStream(bytes)))) {
+			int count = in.readInt();
+			List<EnrollmentSample> blockSamples = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				blockSamples.add(new EnrollmentSample(in.readLong(), in.readInt(), in.readInt(), in.readInt()));
+			}
+			return blockSamples;
+		}
+	}
+
+	/**
+	 * Every block is written as soon as it is appended, so there is nothing left to write
+	 */
+	@Override
+	public void close() {
+		LOGGER.info("Closed " + directory);
+	}
+}
@@ -0,0 +1,43 @@
+package classscraper;
+
+/**
+ * The enrollment of one section at one time
+ */
+public class EnrollmentSample {
+	private final long timestamp;
+	private final int sectionid;
+	private final int enrolled;
+	private final int enrollmentCap;
+
+	/**
+	 * @param timestamp
+	 *            Milliseconds since the epoch when the section was scraped
+	 */
+	public EnrollmentSample(long timestamp, int sectionid, int enrolled, int enrollmentCap) {
+		this.timestamp = timestamp;
+		this.sectionid = sectionid;
+		this.enrolled = enrolled;
+		this.enrollmentCap = enrollmentCap;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public int getSectionid() {
+		return sectionid;
+	}
+
+	public int getEnrolled() {
+		return enrolled;
+	}
+
+	public int getEnrollmentCap() {
+		return enrollmentCap;
+	}
+
+	@Override
+	public String toString() {
+		return timestamp + " " + sectionid + " " + enrolled + "/" + enrollmentCap;
+	}
+}
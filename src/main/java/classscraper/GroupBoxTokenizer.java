@@ -0,0 +1,154 @@
+package classscraper;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the sections out of the rendered text of a class search "Group Box"
+ * in a single pass. A cursor moves over the text one line at a time, so the
+ * text is never split into a list, and only the fields of each section are
+ * copied out of it.
+ *
+ * Each section is [Enroll Cap, ("Units"), Class Num Long String, (Units),
+ * Enrolled, ("Combined Section"), Session, Meeting Time, Room, Instructor,
+ * Topic, ("No Restrictions/Notes")], where an Instructor ending in a comma
+ * continues on the next line. Header lines are skipped wherever they are, and
+ * so is the first line left after them ("1 of 12 Last First").
+ */
+public class GroupBoxTokenizer implements Iterator<CourseSection> {
+	private static final String[] HEADERS = { "Group box", "Section", "Status", "Enroll", "Cap", "select class",
+			"Session", "Days & Times Room Instructor Topic Restrictions/Notes" };
+	private final String text;
+	// Bounds of the current line, which is not a header; start == text.length() once the text runs out
+	private int start;
+	private int end;
+	// Start of the line after the current one
+	private int next;
+
+	public GroupBoxTokenizer(String text) {
+		this.text = text;
+		this.next = 0;
+		advance();
+		// Skips the arrow boxes, "1 of 12 Last First"
+		advance();
+	}
+
+	@Override
+	public boolean hasNext() {
+		return start < text.length();
+	}
+
+	/**
+	 * @return the next section in the Group Box
+	 * @throws NoSuchElementException
+	 *             if there are no more sections
+	 */
+	@Override
+	public CourseSection next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		CourseSection section = new CourseSection();
+		section.enrollmentCap = nextInt();
+		boolean hasUnits = lineEquals("Units");
+		if (hasUnits) {
+			advance();
+		}
+		// "01-LEC(12830)"
+		int dashIndex = text.indexOf('-', start), paranthesesIndex = text.indexOf('(', start);
+		// "01"
+		section.setSectionnum(text.substring(start, dashIndex));
+		// "LEC"
+		section.setSectionType(SectionType.valueOf(text.substring(dashIndex + 1, paranthesesIndex)));
+		// "12830"
+		section.setSectionid(parseInt(paranthesesIndex + 1, end - 1));
+		advance();
+		if (hasUnits) {
+			section.setUnits(nextLine());
+		}
+		section.setEnrolled(nextInt());
+		if (lineEquals("Combined Section")) {
+			advance();
+		}
+		section.setSession(nextLine());
+		section.setMeetingTime(nextLine());
+		section.setRoom(nextLine());
+		// "Barrington," continues on the next line
+		if (end > start && text.charAt(end - 1) == ',') {
+			String instructor = text.substring(start, end - 1);
+			advance();
+			section.setInstructor(instructor + nextLine());
+		} else {
+			section.setInstructor(nextLine());
+		}
+		section.setTopic(nextLine());
+		if (lineEquals("No Restrictions/Notes")) {
+			advance();
+		}
+		return section;
+	}
+
+	// Moves to the next line that is neither empty nor a header.
+	private void advance() {
+		do {
+			start = next;
+			if (start >= text.length()) {
+				start = end = next = text.length();
+				return;
+			}
+			int newline = text.indexOf('\n', start);
+			end = newline < 0 ? text.length() : newline;
+			next = newline < 0 ? text.length() : newline + 1;
+			if (end > start && text.charAt(end - 1) == '\r') {
+				end--;
+			}
+		} while (isSkipped());
+	}
+
+	private boolean isSkipped() {
+		if (start == end) {
+			return true;
+		}
+		for (String header : HEADERS) {
+			if (lineEquals(header)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean lineEquals(String line) {
+		return end - start == line.length() && text.regionMatches(start, line, 0, line.length());
+	}
+
+	private String nextLine() {
+		if (!hasNext()) {
+			throw new NoSuchElementException("Group box ended in the middle of a section");
+		}
+		String line = text.substring(start, end);
+		advance();
+		return line;
+	}
+
+	private int nextInt() {
+		int value = parseInt(start, end);
+		advance();
+		return value;
+	}
+
+	// Integer.parseInt over text[from, to) without copying it out
+	private int parseInt(int from, int to) {
+		if (from >= to) {
+			throw new NumberFormatException("Expected a number in the group box at " + from);
+		}
+		int value = 0;
+		for (int i = from; i < to; i++) {
+			int digit = Character.digit(text.charAt(i), 10);
+			if (digit < 0) {
+				throw new NumberFormatException("For input string: \"" + text.substring(from, to) + "\"");
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+}
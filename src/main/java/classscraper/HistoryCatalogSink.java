@@ -0,0 +1,66 @@
+package classscraper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the enrollment of every section scraped in an {@link EnrollmentHistory},
+ * stamped with the time each course was read. The whole scrape is appended as
+ * one block when the sink is closed, since a block per subject would hold only
+ * the few sections that changed. Courses may be passed on to another sink.
+ */
+public class HistoryCatalogSink implements CatalogSink {
+	private final EnrollmentHistory history;
+	// Another sink to write every course to, or null
+	private final CatalogSink next;
+	private final List<EnrollmentSample> samples = new ArrayList<>();
+
+	/**
+	 * @param history
+	 *            The history to append to, which is not closed with the sink
+	 * @param next
+	 *            Another sink to write every course to, or null
+	 */
+	public HistoryCatalogSink(EnrollmentHistory history, CatalogSink next) {
+		this.history = history;
+		this.next = next;
+	}
+
+	@Override
+	public void write(String subject, Course course) throws IOException {
+		long timestamp = System.currentTimeMillis();
+		synchronized (samples) {
+			for (CourseSection section : course.getSections()) {
+				samples.add(new EnrollmentSample(timestamp, section.getSectionid(), section.getEnrolled(),
+						section.getEnrollmentCap()));
+			}
+		}
+		if (next != null) {
+			next.write(subject, course);
+		}
+	}
+
+	@Override
+	public void endSubject(String subject, boolean complete) throws IOException {
+		if (next != null) {
+			next.endSubject(subject, complete);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			synchronized (samples) {
+				if (!samples.isEmpty()) {
+					history.append(samples);
+					samples.clear();
+				}
+			}
+		} finally {
+			if (next != null) {
+				next.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package classscraper;
+
+import java.util.Arrays;
+
+/**
+ * The times of the week a section meets, as one bit for each five minutes of
+ * the week, Monday's first. Two sections conflict if any bit is set in both,
+ * which is found by ANDing their 32 words, however many days and times they
+ * meet. A section with no meeting time that can be read, such as "TBA",
+ * meets in no slot and conflicts with nothing.
+ * <p>
+ * Instances are immutable.
+ */
+public class MeetingSlots {
+	// Minutes in each slot
+	public final static int SLOT_MINUTES = 5;
+	public final static int SLOTS_PER_DAY = MeetingTime.MINUTES_PER_DAY / SLOT_MINUTES;
+	public final static int SLOTS_PER_WEEK = MeetingTime.DAYS_PER_WEEK * SLOTS_PER_DAY;
+	private final static int WORDS = (SLOTS_PER_WEEK + 63) / 64;
+	public final static MeetingSlots EMPTY = new MeetingSlots(null, new long[WORDS]);
+	// The meeting time these were parsed from, so that a section can tell if its meeting time has changed
+	final String meetingTime;
+	private final long[] words;
+
+	private MeetingSlots(String meetingTime, long[] words) {
+		this.meetingTime = meetingTime;
+		this.words = words;
+	}
+
+	/**
+	 * @return the slots of a meeting time. A meeting that ends part way into a
+	 *         slot takes the whole slot, and one that starts part way into a slot
+	 *         takes it too.
+	 */
+	public static MeetingSlots of(MeetingTime meetingTime) {
+		return of(null, meetingTime);
+	}
+
+	/**
+	 * @return the slots of a meeting time, or no slots if it is "TBA" or can not be read
+	 * @param meetingTime
+	 *            The meeting time of a section, such as "TuTh 2:30PM - 3:45PM"
+	 */
+	public static MeetingSlots parse(String meetingTime) {
+		return of(meetingTime, MeetingTime.parse(meetingTime));
+	}
+
+	private static MeetingSlots of(String text, MeetingTime meetingTime) {
+		long[] words = new long[WORDS];
+		if (meetingTime != null) {
+			int first = meetingTime.getStart() / SLOT_MINUTES;
+			int last = Math.min(SLOTS_PER_DAY, (meetingTime.getEnd() + SLOT_MINUTES - 1) / SLOT_MINUTES);
+			for (int day = 0; day < MeetingTime.DAYS_PER_WEEK; day++) {
+				if ((meetingTime.getDays() & 1 << day) != 0) {
+					set(words, day * SLOTS_PER_DAY + first, day * SLOTS_PER_DAY + last);
+				}
+			}
+		}
+		return new MeetingSlots(text, words);
+	}
+
+	// Sets the bits from one slot up to but not including another, a word at a time
+	private static void set(long[] words, int from, int to) {
+		if (from >= to) {
+			return;
+		}
+		int firstWord = from >>> 6, lastWord = (to - 1) >>> 6;
+		long firstMask = -1L << from, lastMask = -1L >>> -to;
+		if (firstWord == lastWord) {
+			words[firstWord] |= firstMask & lastMask;
+		} else {
+			words[firstWord] |= firstMask;
+			for (int i = firstWord + 1; i < lastWord; i++) {
+				words[i] = -1L;
+			}
+			words[lastWord] |= lastMask;
+		}
+	}
+
+	/**
+	 * @return true if both meet in any of the same slots
+	 */
+	public boolean conflictsWith(MeetingSlots other) {
+		for (int i = 0; i < WORDS; i++) {
+			if ((words[i] & other.words[i]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the slots either meets in, such as the slots of every section of
+	 *         a schedule, to check another section against all of them at once
+	 */
+	public MeetingSlots or(MeetingSlots other) {
+		long[] result = new long[WORDS];
+		for (int i = 0; i < WORDS; i++) {
+			result[i] = words[i] | other.words[i];
+		}
+		return new MeetingSlots(null, result);
+	}
+
+	/**
+	 * @return true if it meets in the slot
+	 * @param slot
+	 *            The slot of the week, such as MeetingSlots.SLOTS_PER_DAY + 9 * 60 / MeetingSlots.SLOT_MINUTES for Tuesday at 9:00AM
+	 */
+	public boolean get(int slot) {
+		return (words[slot >>> 6] & 1L << slot) != 0;
+	}
+
+	/**
+	 * @return true if it meets in no slot
+	 */
+	public boolean isEmpty() {
+		for (long word : words) {
+			if (word != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the number of slots it meets in
+	 */
+	public int count() {
+		int result = 0;
+		for (long word : words) {
+			result += Long.bitCount(word);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the minutes between classes, the slots of each day between the
+	 *         first and last it meets in that it does not meet in, for the week
+	 */
+	public int gapMinutes() {
+		int result = 0;
+		for (int day = 0; day < MeetingTime.DAYS_PER_WEEK; day++) {
+			result += gapMinutes(day);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the minutes between classes on one day
+	 * @param day
+	 *            The day of the week, 0 for Monday
+	 */
+	public int gapMinutes(int day) {
+		int first = -1, last = -1, count = 0;
+		for (int i = day * SLOTS_PER_DAY >>> 6; i <= ((day + 1) * SLOTS_PER_DAY - 1) >>> 6; i++) {
+			long word = dayBits(i, day);
+			if (word != 0) {
+				if (first < 0) {
+					first = i * 64 + Long.numberOfTrailingZeros(word);
+				}
+				last = i * 64 + 63 - Long.numberOfLeadingZeros(word);
+				count += Long.bitCount(word);
+			}
+		}
+		return first < 0 ? 0 : (last - first + 1 - count) * SLOT_MINUTES;
+	}
+
+	/**
+	 * @return the minutes of the slots it meets in on one day
+	 * @param day
+	 *            The day of the week, 0 for Monday
+	 */
+	public int minutes(int day) {
+		int result = 0;
+		for (int i = day * SLOTS_PER_DAY >>> 6; i <= ((day + 1) * SLOTS_PER_DAY - 1) >>> 6; i++) {
+			result += Long.bitCount(dayBits(i, day));
+		}
+		return result * SLOT_MINUTES;
+	}
+
+	// The bits of a word that are slots of the day
+	private long dayBits(int i, int day) {
+		int from = day * SLOTS_PER_DAY, to = from + SLOTS_PER_DAY;
+		long word = words[i];
+		if (i == from >>> 6) {
+			word &= -1L << from;
+		}
+		if (i == (to - 1) >>> 6) {
+			word &= -1L >>> -to;
+		}
+		return word;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof MeetingSlots && Arrays.equals(words, ((MeetingSlots) obj).words);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(words);
+	}
+}
@@ -0,0 +1,155 @@
+package classscraper;
+
+/**
+ * When a section meets, parsed from its meeting time as SPIRE shows it, such
+ * as "TuTh 2:30PM - 3:45PM": the days of the week, and the minute of the day
+ * it starts and ends on each of them.
+ */
+public class MeetingTime {
+	// Days of the week as bits of a mask
+	public final static int MONDAY = 1;
+	public final static int TUESDAY = 1 << 1;
+	public final static int WEDNESDAY = 1 << 2;
+	public final static int THURSDAY = 1 << 3;
+	public final static int FRIDAY = 1 << 4;
+	public final static int SATURDAY = 1 << 5;
+	public final static int SUNDAY = 1 << 6;
+	public final static int DAYS_PER_WEEK = 7;
+	public final static int MINUTES_PER_DAY = 24 * 60;
+	// How SPIRE abbreviates each day, in the order of the bits
+	private final static String[] DAY_NAMES = { "Mo", "Tu", "We", "Th", "Fr", "Sa", "Su" };
+	private final int days;
+	private final int start;
+	private final int end;
+
+	/**
+	 * @param days
+	 *            A mask of the days, such as TUESDAY | THURSDAY
+	 * @param start
+	 *            Minute of the day it starts
+	 * @param end
+	 *            Minute of the day it ends, after the start
+	 */
+	public MeetingTime(int days, int start, int end) {
+		this.days = days;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * @return the meeting time, or null if it is "TBA" or can not be read
+	 * @param meetingTime
+	 *            The meeting time of a section, such as "TuTh 2:30PM - 3:45PM" or "MoWeFr 10:10AM 11:00AM"
+	 */
+	public static MeetingTime parse(String meetingTime) {
+		MeetingTime result = null;
+		if (meetingTime != null) {
+			String text = meetingTime.trim();
+			int position = 0, days = 0;
+			for (int day = dayAt(text, position); day != 0; day = dayAt(text, position)) {
+				days |= day;
+				position += 2;
+			}
+			if (days != 0) {
+				int[] times = new int[2];
+				int count = 0;
+				// Each time is the digits of the hour and minute, then AM or PM, with anything between the times
+				while (count < 2 && position < text.length()) {
+					char c = text.charAt(position);
+					if (c >= '0' && c <= '9') {
+						int hour = 0, minute = 0, digits = 0;
+						while (position < text.length() && Character.isDigit(text.charAt(position))) {
+							hour = hour * 10 + text.charAt(position++) - '0';
+						}
+						if (position < text.length() && text.charAt(position) == ':') {
+							position++;
+							while (position < text.length() && Character.isDigit(text.charAt(position))) {
+								minute = minute * 10 + text.charAt(position++) - '0';
+								digits++;
+							}
+						}
+						if (digits != 2 || position + 2 > text.length() || hour < 1 || hour > 12 || minute > 59) {
+							return null;
+						}
+						String half = text.substring(position, position + 2).toUpperCase();
+						if (!half.equals("AM") && !half.equals("PM")) {
+							return null;
+						}
+						position += 2;
+						times[count++] = (hour % 12 + (half.equals("PM") ? 12 : 0)) * 60 + minute;
+					} else {
+						position++;
+					}
+				}
+				if (count == 2 && times[0] < times[1]) {
+					result = new MeetingTime(days, times[0], times[1]);
+				}
+			}
+		}
+		return result;
+	}
+
+	// The day abbreviated at a position, or 0 if there is none
+	private static int dayAt(String text, int position) {
+		if (position + 2 <= text.length()) {
+			for (int day = 0; day < DAY_NAMES.length; day++) {
+				if (text.startsWith(DAY_NAMES[day], position)) {
+					return 1 << day;
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return the mask of the days it meets
+	 */
+	public int getDays() {
+		return days;
+	}
+
+	/**
+	 * @return the minute of the day it starts
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * @return the minute of the day it ends
+	 */
+	public int getEnd() {
+		return end;
+	}
+
+	/**
+	 * @return true if it meets on any of the days between two minutes of the day.
+	 *         A meeting that ends when the other starts does not overlap it.
+	 * @param days
+	 *            A mask of the days
+	 */
+	public boolean overlaps(int days, int from, int to) {
+		return (this.days & days) != 0 && start < to && from < end;
+	}
+
+	public boolean overlaps(MeetingTime other) {
+		return overlaps(other.days, other.start, other.end);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder();
+		for (int day = 0; day < DAY_NAMES.length; day++) {
+			if ((days & 1 << day) != 0) {
+				text.append(DAY_NAMES[day]);
+			}
+		}
+		return text.append(' ').append(time(start)).append(" - ").append(time(end)).toString();
+	}
+
+	private static String time(int minute) {
+		int hour = minute / 60 % 12;
+		return (hour == 0 ? 12 : hour) + ":" + (minute % 60 < 10 ? "0" : "") + minute % 60
+				+ (minute < 12 * 60 ? "AM" : "PM");
+	}
+}
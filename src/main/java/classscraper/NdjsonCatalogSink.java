@@ -0,0 +1,77 @@
+package classscraper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes one JSON object per line for each course, with its sections in an array
+ */
+public class NdjsonCatalogSink extends CatalogFileSink {
+	public NdjsonCatalogSink(File directory, String term) {
+		super(directory, term, "ndjson");
+	}
+
+	@Override
+	protected void writeCourse(Writer writer, String subject, Course course) throws IOException {
+		StringBuilder line = new StringBuilder("{");
+		field(line, "term", getTerm()).append(',');
+		field(line, "subject", subject).append(',');
+		field(line, "courseSubject", course.getSubject()).append(',');
+		field(line, "courseNum", course.getCoursenum()).append(',');
+		field(line, "courseName", course.getCoursename()).append(',');
+		field(line, "genEd", course.getGened()).append(",\"sections\":[");
+		for (int i = 0; i < course.getSections().size(); i++) {
+			CourseSection section = course.getSections().get(i);
+			line.append(i == 0 ? "{" : ",{").append("\"sectionid\":").append(section.getSectionid()).append(',');
+			field(line, "sectionnum", section.getSectionnum()).append(',');
+			field(line, "sectionType", section.getSectionType() == null ? null : section.getSectionType().name())
+					.append(',');
+			field(line, "units", section.getUnits()).append(',');
+			line.append("\"enrollmentCap\":").append(section.getEnrollmentCap()).append(',');
+			line.append("\"enrolled\":").append(section.getEnrolled()).append(',');
+			field(line, "session", section.getSession()).append(',');
+			field(line, "meetingTime", section.getMeetingTime()).append(',');
+			field(line, "room", section.getRoom()).append(',');
+			field(line, "instructor", section.getInstructor()).append(',');
+			field(line, "topic", section.getTopic()).append('}');
+		}
+		writer.write(line.append("]}\n").toString());
+	}
+
+	private static StringBuilder field(StringBuilder line, String name, String value) {
+		line.append('"').append(name).append("\":");
+		if (value == null) {
+			return line.append("null");
+		}
+		line.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				line.append("\\\"");
+				break;
+			case '\\':
+				line.append("\\\\");
+				break;
+			case '\n':
+				line.append("\\n");
+				break;
+			case '\r':
+				line.append("\\r");
+				break;
+			case '\t':
+				line.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					line.append(String.format("\\u%04x", (int) c));
+				} else {
+					line.append(c);
+				}
+				break;
+			}
+		}
+		return line.append('"');
+	}
+}
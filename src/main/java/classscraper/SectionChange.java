@@ -0,0 +1,77 @@
+package classscraper;
+
+/**
+ * One field of one section that differs from the last scrape, such as seats
+ * opening up or a new instructor
+ */
+public class SectionChange {
+	public enum Kind {
+		// A section that was not in the last scrape
+		ADDED,
+		// A section of a scraped subject that is no longer listed
+		REMOVED,
+		// More seats are open than before, because students dropped or the cap was raised
+		SEATS_OPENED,
+		// Fewer seats are open than before
+		SEATS_FILLED,
+		INSTRUCTOR_CHANGED,
+		ROOM_CHANGED,
+		MEETING_TIME_CHANGED
+	}
+
+	private final Kind kind;
+	private final String subject;
+	private final String course;
+	private final int sectionid;
+	private final String before;
+	private final String after;
+
+	/**
+	 * @param subject
+	 *            The subject as shown in the class search dropdown ("Computer Science")
+	 * @param course
+	 *            The course the section is in ("COMPSCI 121")
+	 * @param before
+	 *            The field in the last scrape, or null if the section was added. Seats
+	 *            are given as "enrolled/cap".
+	 * @param after
+	 *            The field now, or null if the section was removed
+	 */
+	public SectionChange(Kind kind, String subject, String course, int sectionid, String before, String after) {
+		this.kind = kind;
+		this.subject = subject;
+		this.course = course;
+		this.sectionid = sectionid;
+		this.before = before;
+		this.after = after;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public String getCourse() {
+		return course;
+	}
+
+	public int getSectionid() {
+		return sectionid;
+	}
+
+	public String getBefore() {
+		return before;
+	}
+
+	public String getAfter() {
+		return after;
+	}
+
+	@Override
+	public String toString() {
+		return course + " (" + sectionid + ") " + kind + ": " + before + " -> " + after;
+	}
+}
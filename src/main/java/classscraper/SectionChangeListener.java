@@ -0,0 +1,9 @@
+package classscraper;
+
+/**
+ * Is told of each change found by a {@link DiffingCatalogSink}, as soon as the
+ * course it is in has been read
+ */
+public interface SectionChangeListener {
+	void sectionChanged(SectionChange change);
+}
@@ -0,0 +1,140 @@
+package classscraper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The sections of the last scrape, by section ID, with the fields that are
+ * compared to find changes. It can be saved between runs as a tab-separated
+ * file, so a scrape can be compared to one made before the program restarted.
+ */
+public class SectionSnapshot {
+	private final static String HEADER = "sectionid\tsubject\tcourse\tenrolled\tenrollmentCap\tinstructor\troom\tmeetingTime";
+	private final Map<Integer, CourseSection> sections = new HashMap<>();
+	private final Map<Integer, String> subjects = new HashMap<>();
+	private final Map<Integer, String> courses = new HashMap<>();
+	// The sections of each subject, to find the ones that are no longer listed
+	private final Map<String, Set<Integer>> sectionsBySubject = new HashMap<>();
+
+	public synchronized CourseSection get(int sectionid) {
+		return sections.get(sectionid);
+	}
+
+	/**
+	 * @param subject
+	 *            The subject as shown in the class search dropdown ("Computer Science")
+	 * @param course
+	 *            The course the section is in ("COMPSCI 121")
+	 */
+	public synchronized void put(String subject, String course, CourseSection section) {
+		int sectionid = section.getSectionid();
+		String oldSubject = subjects.put(sectionid, subject);
+		if (oldSubject != null && !oldSubject.equals(subject)) {
+			sectionsBySubject.get(oldSubject).remove(sectionid);
+		}
+		Set<Integer> subjectSections = sectionsBySubject.get(subject);
+		if (subjectSections == null) {
+			subjectSections = new HashSet<>();
+			sectionsBySubject.put(subject, subjectSections);
+		}
+		subjectSections.add(sectionid);
+		sections.put(sectionid, section);
+		courses.put(sectionid, course);
+	}
+
+	public synchronized void remove(int sectionid) {
+		String subject = subjects.remove(sectionid);
+		if (subject != null) {
+			sectionsBySubject.get(subject).remove(sectionid);
+		}
+		sections.remove(sectionid);
+		courses.remove(sectionid);
+	}
+
+	/**
+	 * @return the IDs of every section in a subject
+	 */
+	public synchronized List<Integer> getSectionIds(String subject) {
+		Set<Integer> subjectSections = sectionsBySubject.get(subject);
+		return subjectSections == null ? new ArrayList<Integer>() : new ArrayList<>(subjectSections);
+	}
+
+	public synchronized String getCourse(int sectionid) {
+		return courses.get(sectionid);
+	}
+
+	public synchronized int size() {
+		return sections.size();
+	}
+
+	/**
+	 * @return the snapshot saved in a file, or an empty one if the file does not exist yet
+	 */
+	public static SectionSnapshot load(File file) throws IOException {
+		SectionSnapshot snapshot = new SectionSnapshot();
+		if (file.isFile()) {
+			try (BufferedReader reader = new BufferedReader(
+					new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+				// Skips the header
+				String line = reader.readLine();
+				while ((line = reader.readLine()) != null) {
+					String[] fields = line.split("\t", -1);
+					if (fields.length < 8) {
+						continue;
+					}
+					CourseSection section = new CourseSection();
+					section.setSectionid(Integer.parseInt(fields[0]));
+					section.setEnrolled(Integer.parseInt(fields[3]));
+					section.setEnrollmentCap(Integer.parseInt(fields[4]));
+					section.setInstructor(fields[5]);
+					section.setRoom(fields[6]);
+					section.setMeetingTime(fields[7]);
+					snapshot.put(fields[1], fields[2], section);
+				}
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Saves the snapshot to a file, replacing it only once the whole snapshot is written
+	 */
+	public synchronized void save(File file) throws IOException {
+		File temp = new File(file.getPath() + ".tmp");
+		try (Writer writer = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8))) {
+			writer.write(HEADER + "\n");
+			for (CourseSection section : sections.values()) {
+				int sectionid = section.getSectionid();
+				writer.write(sectionid + "\t" + field(subjects.get(sectionid)) + "\t" + field(courses.get(sectionid))
+						+ "\t" + section.getEnrolled() + "\t" + section.getEnrollmentCap() + "\t"
+						+ field(section.getInstructor()) + "\t" + field(section.getRoom()) + "\t"
+						+ field(section.getMeetingTime()) + "\n");
+			}
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * @return the field as it is saved, which is how fields are compared
+	 */
+	static String field(String value) {
+		return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+	}
+}
@@ -1,231 +1,487 @@
 package classscraper;
 
-import org.apache.commons.lang3.StringEscapeUtils;
-
 import org.openqa.selenium.By;
 import org.openqa.selenium.Keys;
-import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.Select;
 
-import com.sun.xml.internal.bind.v2.runtime.unmarshaller.XsiNilLoader.Array;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 
+import spire.DriverPool;
 import spire.UMass;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 public class SpireClassScraper {
 	private final static Logger LOGGER = Logger.getLogger("spireautomator.enroller");
+	// Times a search is made before it is given up on
+	private final static int MAX_ATTEMPTS = 2;
 	private WebDriver driver;
+	// Other logged-in sessions to scrape with at the same time, or null
+	private DriverPool driverPool;
+	// Where courses are written as they are found, or null to collect them in the returned catalog
+	private CatalogSink sink;
+	// The state of a run, shared by every session scraping in it
+	private CatalogSink out;
+	private Map<ClassSearchQuery, Integer> attempts;
+	// Searches not yet done for each subject, which ends when it reaches 0
+	private Map<String, AtomicInteger> pending;
+	// Searches not yet done in every subject, so sessions wait for searches put back by others
+	private AtomicInteger unfinished;
+	// Subjects with a search that was given up on
+	private Set<String> incomplete;
+	private Set<Integer> written;
+	private AtomicInteger coursesWritten;
+	private AtomicInteger sectionsWritten;
 	private String term;
-	private String courseSubject = "Comparative Literature";
+	// The subjects, course numbers and sections to scrape
+	private CatalogFilter filter;
 
 	public SpireClassScraper(WebDriver driver) {
 		this.driver = driver;
 		this.term = "";
-		
+		this.filter = new CatalogFilter();
 	}
 
+	/**
+	 * Scrapes the whole catalog, every subject in the class search dropdown
+	 */
 	public SpireClassScraper(WebDriver driver, String term) {
 		this.driver = driver;
-		this.term = term;
-		
+		this.term = term == null ? "" : term;
+		this.filter = new CatalogFilter();
 	}
 
 	public SpireClassScraper(WebDriver driver, String term, String courseSubject) {
 		this(driver, term);
-		this.courseSubject = courseSubject;
+		this.filter.subject(courseSubject);
 	}
 
-	public void run() {
-		// Click on Button that goes to class search page
+	/**
+	 * Searches each subject in turn and writes every course found to the sink as soon
+	 * as its search is read. A subject with too many results for one search is searched
+	 * again in parts, by course number, and the subject ends once every part is done.
+	 * @return the catalog for the term, which is empty if the courses went to a sink
+	 */
+	public Catalog run() {
+		Catalog catalog = new Catalog(term);
+		openClassSearch(driver);
+		List<String> subjects = filter.getSubject() == null ? readSubjects(driver)
+				: Collections.singletonList(filter.getSubject());
+		LOGGER.info("Searching " + filter);
+		BlockingQueue<ClassSearchQuery> queue = new LinkedBlockingQueue<ClassSearchQuery>();
+		out = sink != null ? sink : catalog;
+		attempts = new ConcurrentHashMap<ClassSearchQuery, Integer>();
+		pending = new ConcurrentHashMap<String, AtomicInteger>();
+		unfinished = new AtomicInteger(subjects.size());
+		incomplete = ConcurrentHashMap.newKeySet();
+		written = ConcurrentHashMap.newKeySet();
+		coursesWritten = new AtomicInteger();
+		sectionsWritten = new AtomicInteger();
+		for (String subject : subjects) {
+			queue.add(filter.search(subject));
+			pending.put(subject, new AtomicInteger(1));
+			// Kept in dropdown order, whichever session finishes first
+			catalog.addSubject(subject);
+		}
+		if (driverPool != null && driverPool.size() > 1 && subjects.size() > 1) {
+			LOGGER.info("Scraping " + subjects.size() + " subject(s) in " + driverPool.size() + " sessions");
+			scrapeInParallel(queue);
+		} else {
+			LOGGER.info("Scraping " + subjects.size() + " subject(s)");
+			scrapeQueue(driver, queue);
+		}
+		if (!queue.isEmpty()) {
+			LOGGER.warning("Could not scrape " + queue);
+		}
+		if (sink == null) {
+			for (Course course : catalog.getCourses()) {
+				System.out.println(course.getSections());
+			}
+		}
+		LOGGER.info("Scraped " + coursesWritten + " courses and " + sectionsWritten + " sections in "
+				+ subjects.size() + " subject(s)");
+		return catalog;
+	}
+
+	// Click on Button that goes to class search page, unless a scrape before this one left it there
+	private static void openClassSearch(WebDriver driver) {
+		if (!driver.findElements(By.id(UMass.CLASS_SEARCH_COURSE_SUBJECT_SELECTOR_ID)).isEmpty()) {
+			return;
+		}
 		LOGGER.info("Clicking id selector \"" + UMass.CLASS_SEARCH_BUTTON_SELECTOR_ID + "\"");
 		UMass.waitForElement(driver, By.id(UMass.CLASS_SEARCH_BUTTON_SELECTOR_ID)).click();
+	}
+
+	/**
+	 * Scrapes in every session of the pool at once. Each session opens class search
+	 * once, then keeps taking the next search from a shared queue until every search is done,
+	 * so sessions that get small subjects go on to take more of them.
+	 * @param queue
+	 *            The searches to make
+	 */
+	private void scrapeInParallel(final BlockingQueue<ClassSearchQuery> queue) {
+		ExecutorService executor = Executors.newFixedThreadPool(driverPool.size());
+		List<Callable<Integer>> workers = new ArrayList<Callable<Integer>>();
+		for (int i = 0; i < driverPool.size(); i++) {
+			workers.add(new Callable<Integer>() {
+				@Override
+				public Integer call() throws InterruptedException {
+					WebDriver session = driverPool.lease();
+					try {
+						// The primary session, and any session that scraped before, is already there
+						openClassSearch(session);
+						return scrapeQueue(session, queue);
+					} finally {
+						driverPool.release(session);
+					}
+				}
+			});
+		}
+		try {
+			for (Future<Integer> worker : executor.invokeAll(workers)) {
+				try {
+					LOGGER.info("A session made " + worker.get() + " search(es)");
+				} catch (ExecutionException e) {
+					LOGGER.warning("A session failed: " + e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			LOGGER.warning(e.getMessage());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Makes searches from the queue in one session until every search is done or the session
+	 * cannot get back to class search. A search with too many results is put back on the queue
+	 * as smaller searches, and a search that failed is put back to be tried again.
+	 * @return the number of searches made
+	 */
+	private int scrapeQueue(WebDriver session, BlockingQueue<ClassSearchQuery> queue) {
+		int searches = 0;
+		while (unfinished.get() > 0) {
+			ClassSearchQuery query;
+			try {
+				// Another session may still put back a search that failed or was split
+				query = queue.poll(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			if (query == null) {
+				continue;
+			}
+			try {
+				if (!query.isSearchable()) {
+					splitQuery(queue, query);
+					continue;
+				}
+				try {
+					List<Course> courses = classSearchScrape(session, query);
+					searches++;
+					if (courses != null) {
+						for (Course course : courses) {
+							// Sections found by an earlier search are only written once
+							if (Catalog.removeSeenSections(course, written)) {
+								out.write(query.getSubject(), course);
+								coursesWritten.incrementAndGet();
+								sectionsWritten.addAndGet(course.getSections().size());
+							}
+						}
+						endQuery(query, true);
+					} else if (query.isSplittable()) {
+						LOGGER.info("Too many results for " + query + ", searching its parts instead");
+						splitQuery(queue, query);
+					} else {
+						LOGGER.warning("Too many results for " + query + " and it cannot be split further");
+						endQuery(query, false);
+					}
+				} catch (RuntimeException e) {
+					// Includes results that could not be parsed, so no search is lost
+					LOGGER.warning("Failed to scrape " + query + ": " + e);
+					if (attempts.merge(query, 1, Integer::sum) < MAX_ATTEMPTS) {
+						queue.add(query);
+					} else {
+						endQuery(query, false);
+					}
+					try {
+						returnToClassSearch(session);
+					} catch (WebDriverException lost) {
+						// The other sessions, if any, take the rest
+						LOGGER.warning("Could not go back to class search: " + lost.getMessage());
+						break;
+					}
+				}
+			} catch (IOException e) {
+				LOGGER.severe("Failed to write " + query + ", stopping the scrape: " + e.getMessage());
+				// Leaves nothing for the other sessions either
+				queue.clear();
+				unfinished.set(0);
+				break;
+			}
+		}
+		return searches;
+	}
+
+	// Replaces a search on the queue with its parts
+	private void splitQuery(Queue<ClassSearchQuery> queue, ClassSearchQuery query) {
+		List<ClassSearchQuery> parts = query.split();
+		LOGGER.fine("Searching " + parts + " instead of " + query);
+		pending.get(query.getSubject()).addAndGet(parts.size() - 1);
+		unfinished.addAndGet(parts.size() - 1);
+		queue.addAll(parts);
+	}
+
+	/**
+	 * Ends the subject of a search if it was the last one left
+	 * @param complete
+	 *            False if the search was given up on, so the subject may be missing courses
+	 */
+	private void endQuery(ClassSearchQuery query, boolean complete) throws IOException {
+		String subject = query.getSubject();
+		if (!complete) {
+			incomplete.add(subject);
+		}
+		unfinished.decrementAndGet();
+		if (pending.get(subject).decrementAndGet() == 0) {
+			out.endSubject(subject, !incomplete.contains(subject));
+		}
+	}
+
+	// Goes back to the class search page from wherever a failed search left the session
+	private static void returnToClassSearch(WebDriver driver) {
+		By newSearch = By.id(UMass.SEARCH_RESULTS_NEW_SEARCH_BUTTON_ID);
+		if (UMass.isElementPresent(driver, newSearch)) {
+			UMass.clickAndWait(driver, driver.findElement(newSearch));
+		}
+		openClassSearch(driver);
+	}
+
+	/**
+	 * @return every subject in the class search dropdown, as shown ("Computer Science")
+	 * @param driver
+	 *            A driver on the class search page
+	 */
+	public static List<String> readSubjects(WebDriver driver) {
+		List<String> subjects = new ArrayList<String>();
+		Select subjectSelect = new Select(
+				UMass.waitForElement(driver, By.id(UMass.CLASS_SEARCH_COURSE_SUBJECT_SELECTOR_ID)));
+		for (WebElement option : subjectSelect.getOptions()) {
+			// The first option is blank
+			if (!option.getAttribute("value").trim().isEmpty()) {
+				subjects.add(option.getText().trim());
+			}
+		}
+		return subjects;
+	}
+
+	/**
+	 * Makes one search and reads every course in the results that is in its range of
+	 * course numbers, then goes back to the class search page
+	 * @return the courses found, none if the search has no results, or null if SPIRE
+	 *         refused the search for having too many results
+	 * @param driver
+	 *            A driver on the class search page
+	 * @param query
+	 *            The subject and range of course numbers to search
+	 */
+	private List<Course> classSearchScrape(WebDriver driver, ClassSearchQuery query) {
+		String subject = query.getSubject();
+		List<Course> courses = new ArrayList<Course>();
 		// Select appropriate term for class search
 		// new Select(UMass.waitForElement(driver,
 		// By.cssSelector(UMass.CLASS_SEARCH_TERM_SELECTOR))).selectByVisibleText("2017
 		// Spring");
 		// The above (new Select...) does not work because of the term syntax, but it
 		// would be optimal to get it working, below is work around
-		LOGGER.info("Selecting Term, Selecting css selector \"" + UMass.CLASS_SEARCH_TERM_SELECTOR + "\"");
-		UMass.waitForElement(driver, By.cssSelector(UMass.CLASS_SEARCH_TERM_SELECTOR)).click();
-		UMass.waitForElement(driver, By.cssSelector(UMass.CLASS_SEARCH_TERM_SELECTOR)).sendKeys("2019 Spring",
-				Keys.RETURN);
-		// Select course subject, default for now is Computer Science
+		if (!term.isEmpty()) {
+			LOGGER.info("Selecting Term, Selecting css selector \"" + UMass.CLASS_SEARCH_TERM_SELECTOR + "\"");
+			UMass.waitForElement(driver, By.cssSelector(UMass.CLASS_SEARCH_TERM_SELECTOR)).click();
+			UMass.waitForElement(driver, By.cssSelector(UMass.CLASS_SEARCH_TERM_SELECTOR)).sendKeys(term,
+					Keys.RETURN);
+		}
 		LOGGER.info("Selecting Major, Selecting id selector \"" + UMass.CLASS_SEARCH_COURSE_SUBJECT_SELECTOR_ID + "\"");
 		new Select(UMass.waitForElement(driver, By.id(UMass.CLASS_SEARCH_COURSE_SUBJECT_SELECTOR_ID)))
-				.selectByVisibleText(courseSubject);
-		// Enter Course Number, for maximum scraping ability, entering "greater than or
-		// equal to" 100
+				.selectByVisibleText(subject);
+		// Enter Course Number, such as "greater than or equal to" 100 for a whole subject
 		LOGGER.info("Selecting Course Number, Selecting id selector \"" + UMass.CLASS_SEARCH_COURSE_NUMBER_SELECTOR_ID
 				+ "\"");
 		new Select(UMass.waitForElement(driver, By.id(UMass.CLASS_SEARCH_COURSE_NUMBER_SELECTOR_ID)))
-				.selectByVisibleText("greater than or equal to");
-		UMass.waitForElement(driver, By.id(UMass.CLASS_SEARCH_COURSE_NUMBER_INPUT_ID)).sendKeys("100");
-		// Unselect Search Box for "Open Classes Only"
-		UMass.waitForElement(driver, By.id(UMass.CLASS_SEARCH_OPEN_CLASSES_ONLY_CHECKBOX_ID)).click();
+				.selectByVisibleText(query.getMatch());
+		WebElement courseNumber = UMass.waitForElement(driver, By.id(UMass.CLASS_SEARCH_COURSE_NUMBER_INPUT_ID));
+		courseNumber.clear();
+		courseNumber.sendKeys(query.getNumber());
+		// Check "Open Classes Only" only if the query wants open classes, since it starts out checked
+		WebElement openOnly = UMass.waitForElement(driver, By.id(UMass.CLASS_SEARCH_OPEN_CLASSES_ONLY_CHECKBOX_ID));
+		if (openOnly.isSelected() != query.isOpenOnly()) {
+			openOnly.click();
+		}
 		// Hit Search Button
-		LOGGER.info("Searching courses for" + term + " term and " + courseSubject + " subject");
-		UMass.waitForElement(driver, By.id(UMass.CLASS_SEARCH_SEARCH_BUTTON_ID)).click();
-		
-		classSearchScrape(driver);
+		LOGGER.info("Searching courses for " + term + " term and " + query);
+		UMass.clickAndWait(driver, UMass.waitForElement(driver, By.id(UMass.CLASS_SEARCH_SEARCH_BUTTON_ID)));
+		// Either the first course on the results page, a message on the search page, or SPIRE asking
+		// whether to go on with a large search
+		By firstCourse = By.id(UMass.SEARCH_RESULTS_COURSE_NAME_SPAN_ID + 0);
+		By message = By.id(UMass.SEARCH_RESULTS_NONE_ID);
+		WebElement found = UMass.waitForAnyElement(driver, firstCourse, message, By.id(UMass.SEARCH_CONTINUE_BUTTON_ID));
+		if (UMass.SEARCH_CONTINUE_BUTTON_ID.equals(found.getAttribute("id"))) {
+			LOGGER.info("Continuing with a large search for " + query);
+			UMass.clickAndWait(driver, found);
+			found = UMass.waitForAnyElement(driver, firstCourse, message);
+		}
+		if (UMass.SEARCH_RESULTS_NONE_ID.equals(found.getAttribute("id"))) {
+			if (found.getText().contains(UMass.SEARCH_TOO_MANY_RESULTS_TEXT)) {
+				LOGGER.info("Too many results for " + query + ": " + found.getText());
+				courses = null;
+			} else {
+				LOGGER.info("No courses found for " + query);
+			}
+		} else {
+			// Copy the whole page once and parse it; parseCourses stops after the last course shown
+			for (Course course : parseCourses(UMass.readPage(driver))) {
+				// Only what class search could not leave out is checked here
+				if (query.includes(course.getCoursenum().trim()) && filter.filter(course)) {
+					courses.add(course);
+				}
+			}
+			LOGGER.info("Found " + courses.size() + " courses for " + query);
+			UMass.clickAndWait(driver, UMass.waitForElement(driver, By.id(UMass.SEARCH_RESULTS_NEW_SEARCH_BUTTON_ID)));
+		}
+		return courses;
+	}
+
+	public DriverPool getDriverPool() {
+		return driverPool;
+	}
+
+	public void setDriverPool(DriverPool driverPool) {
+		this.driverPool = driverPool;
+	}
 
+	public CatalogFilter getFilter() {
+		return filter;
+	}
+
+	/**
+	 * @param filter
+	 *            The subjects, course numbers and sections to scrape. Whatever class search can
+	 *            search for is filled into the search form, and the rest is checked on the results.
+	 */
+	public void setFilter(CatalogFilter filter) {
+		this.filter = filter;
+	}
+
+	public CatalogSink getSink() {
+		return sink;
+	}
+
+	/**
+	 * @param sink
+	 *            Where to write courses as they are found instead of returning them in the catalog.
+	 *            It is not closed by the scraper.
+	 */
+	public void setSink(CatalogSink sink) {
+		this.sink = sink;
 	}
 
-	private void classSearchScrape(WebDriver driver) {
-		// Parse Search Results Page
-		for (int courseIndex = 0; courseIndex <= 75; courseIndex++) {
+	/**
+	 * Parses every course on a class search results page, live or saved
+	 * @return the courses in the order shown, each with its sections
+	 * @param page
+	 *            The class search results page
+	 */
+	public static List<Course> parseCourses(Document page) {
+		List<Course> courses = new ArrayList<Course>();
+		for (int courseIndex = 0; ; courseIndex++) {
 			// loops through all the courses on the page
+			Element title = page.getElementById(UMass.SEARCH_RESULTS_COURSE_NAME_SPAN_ID + courseIndex);
+			if (title == null) {
+				break;
+			}
 			LOGGER.info("Parsing for " + courseIndex + "th Course Title");
 			// Gets Course Title ("COMPSCI 105 Computer Literacy")
-			String courseTitle = UMass
-					.waitForElement(driver,
-							By.xpath("//div[@id='" + UMass.SEARCH_RESULTS_COURSE_NAME_DIV_ID + courseIndex
-									+ "']//span[@id='" + UMass.SEARCH_RESULTS_COURSE_NAME_SPAN_ID + courseIndex + "']"))
-					.getText();
-			// Create new course for every course found above
-			Course course = new Course();
-
-			int subjectIndex = 0;
-			int courseNumIndex = 0;
-			int courseNameIndex = 0;
-
-			for (int splitIndex = 0, k = 0; splitIndex < courseTitle.length() && k < 3; splitIndex++) {
-				if ((" ").charAt(0) == courseTitle.charAt(splitIndex)) {
-
-					if (k == 0)
-						subjectIndex = splitIndex;
-					if (k == 1)
-						courseNumIndex = splitIndex;
-					if (k == 2)
-						courseNameIndex = splitIndex;
-					k++;
-				}
-			}
-			// Course Subject: "COMPSCI"
-			String courseSubject = courseTitle.substring(0, subjectIndex);
-			// Course Num: "105"
-			String courseNum = courseTitle.substring(subjectIndex + 2, courseNameIndex);
-			// Course Name "Computer Literacy"
-			String courseName = courseTitle.substring(courseNameIndex);
-			LOGGER.info("Setting Course Name " + courseName + " and Course Num " + courseNum + " and Course Subject "
-					+ courseSubject);
-			course.setCoursename(courseName);
-			course.setCoursenum(courseNum);
-			course.setSubject(courseSubject);
-			String genEd = "";
+			Course course = parseCourseTitle(UMass.innerText(title));
 
-			try {
-				// Gened: "R2"
-				genEd = driver.findElement(By.id(UMass.SEARCH_RESULTS_GENED_SPAN_ID + courseIndex)).getText();
-				LOGGER.info("Parsing for GenEd for " + courseIndex + "th class: " + genEd);
-			} catch (NoSuchElementException e) {
-				LOGGER.info(courseName + " does not fulfill any genEds");
+			// Gened: "R2"
+			Element genEd = page.getElementById(UMass.SEARCH_RESULTS_GENED_SPAN_ID + courseIndex);
+			if (genEd != null) {
+				course.setGened(UMass.innerText(genEd));
+				LOGGER.info("Parsing for GenEd for " + courseIndex + "th class: " + course.getGened());
+			} else {
+				course.setGened("");
+				LOGGER.info(course.getCoursename() + " does not fulfill any genEds");
 			}
-			course.setGened(genEd);
 
 			// Finds courseIndex'th GROUPBOX (Which contains all the sections)
-			WebElement courseSection = driver
-					.findElement(By.xpath("//div[@id = 'win0divDERIVED_CLSRCH_GROUPBOX1$133$$" + courseIndex + "']"));
-			LOGGER.info("Course " + courseIndex + " : " + courseName);
-			//System.out.println(courseSection.getText());
-			course.setSections(parseAndCreateSections(courseSection));
-			
-			System.out.println(course.getSections());
-
+			Element courseSection = page.getElementById(UMass.SEARCH_RESULTS_COURSE_INFO_BOX_DIV_ID + courseIndex);
+			LOGGER.info("Course " + courseIndex + " : " + course.getCoursename());
+			if (courseSection != null) {
+				course.setSections(parseSections(UMass.innerText(courseSection)));
+			}
+			courses.add(course);
 		}
-
+		return courses;
 	}
 
 	/**
-	 * @param course
-	 *            The Course which you are finding sections for
-	 * @param courseSection
-	 *            The WebElement "Group Box" in which you are looking for sections
+	 * @return Course with its subject, number and name set
+	 * @param courseTitle
+	 *            Course Title such as "COMPSCI 105 Computer Literacy"
 	 */
-	private List<CourseSection> parseAndCreateSections(WebElement courseSection) {
-		String sectionString = courseSection.getText();
-		//System.out.println(sectionString);
-		List<String> groupBoxArray = new ArrayList<String>(Arrays.asList(sectionString.split("\n")));
-
-		groupBoxArray.removeAll(new ArrayList<String>(Arrays.asList("Group box", "Section", "Status", "Enroll", "Cap",
-				"select class", "Session", "Days & Times Room Instructor Topic Restrictions/Notes")));
-		groupBoxArray.remove(0); // Removes "1 of 12 Last First" -- i think these are the arrow boxes
-		
-		List<CourseSection> sections = new ArrayList<CourseSection>();
-		while (!groupBoxArray.isEmpty()) {
-		sections.add(parseGroupBoxArray(groupBoxArray, groupBoxArray.get(1).equals("Units")));
+	private static Course parseCourseTitle(String courseTitle) {
+		// Create new course for every course found above
+		Course course = new Course();
+
+		int subjectIndex = 0;
+		int courseNumIndex = 0;
+		int courseNameIndex = 0;
+
+		for (int splitIndex = 0, k = 0; splitIndex < courseTitle.length() && k < 3; splitIndex++) {
+			if ((" ").charAt(0) == courseTitle.charAt(splitIndex)) {
+
+				if (k == 0)
+					subjectIndex = splitIndex;
+				if (k == 1)
+					courseNumIndex = splitIndex;
+				if (k == 2)
+					courseNameIndex = splitIndex;
+				k++;
+			}
 		}
-		return sections;
+		// Course Subject: "COMPSCI"
+		String courseSubject = courseTitle.substring(0, subjectIndex);
+		// Course Num: "105"
+		String courseNum = courseTitle.substring(subjectIndex + 2, courseNameIndex);
+		// Course Name "Computer Literacy"
+		String courseName = courseTitle.substring(courseNameIndex);
+		LOGGER.info("Setting Course Name " + courseName + " and Course Num " + courseNum + " and Course Subject "
+				+ courseSubject);
+		course.setCoursename(courseName);
+		course.setCoursenum(courseNum);
+		course.setSubject(courseSubject);
+		return course;
 	}
 
 	/**
-	 * Helper method for parseAndCreateSections
-	 * @return CourseSection that is parsed and filled out
-	 * @param groupBoxArray
-	 *            String List of Group Box Elements that must be parsed
-	 * @param hasUnits
-	 *            if the section has a units count or not
+	 * @return the sections listed in the group box
+	 * @param sectionString
+	 *            The rendered text of the "Group Box" in which you are looking for sections
 	 */
-	private CourseSection parseGroupBoxArray(List<String> groupBoxArray, boolean hasUnits) {
-		/*
-		 * if sessionarray has Units in [1], [Enroll cap, "Units", Class Num Long
-		 * String, Units, Enrolled, Session, Meeting Time, Room, Instructor, Topic
-		 * (Always TBA?)]
-		 * 
-		 * if array does not have Units [Enroll cap, Class Num Long String, Enrolled,
-		 * Session, Meeting Time, Room, Instructor, Topic (Always TBA?)]
-		 */
-		
-		
-			CourseSection section = new CourseSection();
-
-			if (hasUnits) {
-				//if "Units" is there
-				groupBoxArray.remove(1);
-				section.enrollmentCap = Integer.parseInt(groupBoxArray.remove(0));
-				// "01-LEC(12830)"
-				String info = groupBoxArray.remove(0);
-				int dashIndex = info.indexOf('-'), paranthesesIndex = info.indexOf('(');
-				// "01"
-				section.setSectionnum(info.substring(0, dashIndex));
-				// "LEC"
-				section.setSectionType(SectionType.valueOf(info.substring(dashIndex + 1, paranthesesIndex)));
-				// "12830"
-				section.setSectionid(Integer.parseInt(info.substring(paranthesesIndex + 1, info.length() - 1)));
-				section.setUnits(groupBoxArray.remove(0));
-
-			} else {
-
-				section.enrollmentCap = Integer.parseInt(groupBoxArray.remove(0));
-				// "01-LEC(12830)"
-				String info = groupBoxArray.remove(0);
-				int dashIndex = info.indexOf('-'), paranthesesIndex = info.indexOf('(');
-				// "01"
-				section.setSectionnum(info.substring(0, dashIndex));
-				// "LEC"
-				section.setSectionType(SectionType.valueOf(info.substring(dashIndex + 1, paranthesesIndex)));
-				// "12830"
-				section.setSectionid(Integer.parseInt(info.substring(paranthesesIndex + 1, info.length() - 1)));
-			}
-			section.setEnrolled(Integer.parseInt(groupBoxArray.remove(0)));
-			if (groupBoxArray.get(0).equals("Combined Section")) {groupBoxArray.remove(0);}
-			section.setSession(groupBoxArray.remove(0));
-			section.setMeetingTime(groupBoxArray.remove(0));
-			section.setRoom(groupBoxArray.remove(0));
-			String instructor = groupBoxArray.get(0);
-			if(instructor.charAt(instructor.length()-1) == ',') {
-				section.setInstructor(groupBoxArray.remove(0).substring(0, instructor.length()-1) + groupBoxArray.remove(0));
-			}
-			else {
-			section.setInstructor(groupBoxArray.remove(0));
-			}
-			section.setTopic(groupBoxArray.remove(0));
-			if(!groupBoxArray.isEmpty() && groupBoxArray.get(0).equals("No Restrictions/Notes")) {groupBoxArray.remove(0);}
-		
-			return section;
+	public static List<CourseSection> parseSections(String sectionString) {
+		List<CourseSection> sections = new ArrayList<CourseSection>();
+		for (GroupBoxTokenizer tokenizer = new GroupBoxTokenizer(sectionString); tokenizer.hasNext();) {
+			sections.add(tokenizer.next());
+		}
+		return sections;
 	}
 	
 
@@ -0,0 +1,45 @@
+package classscraper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives each distinct string a number, so that a string repeated across
+ * thousands of sections, such as an instructor, room, or session, is kept once.
+ * One dictionary can be shared by the catalogs of many terms and scrapes.
+ */
+public class StringDictionary {
+	// Stands for null
+	public final static int NONE = -1;
+	private final Map<String, Integer> codes = new HashMap<>();
+	private final List<String> strings = new ArrayList<>();
+
+	/**
+	 * @return the number of the string, which is added if it is new, or {@link #NONE} for null
+	 */
+	public synchronized int encode(String string) {
+		if (string == null) {
+			return NONE;
+		}
+		Integer code = codes.get(string);
+		if (code == null) {
+			code = strings.size();
+			codes.put(string, code);
+			strings.add(string);
+		}
+		return code;
+	}
+
+	/**
+	 * @return the string with the number, or null for {@link #NONE}
+	 */
+	public synchronized String decode(int code) {
+		return code == NONE ? null : strings.get(code);
+	}
+
+	public synchronized int size() {
+		return strings.size();
+	}
+}
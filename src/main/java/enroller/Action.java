@@ -1,6 +1,9 @@
 package enroller;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * An Action describes a change that the user wishes
@@ -14,23 +17,54 @@ import java.util.ArrayList;
 public abstract class Action {
     private ArrayList<Condition> conditions = new ArrayList<>();
     private ArrayList<Action> satisfiableActions = new ArrayList<>();
-    private boolean satisfied = false;
+    // May be set by Actions performing in other browser sessions.
+    private volatile boolean satisfied = false;
 
-    public boolean allConditionsMet() {
-        boolean met = true;
+    // Conditions are kept cheapest first, and checking stops at the first one not met.
+    public boolean allConditionsMet(SeatSnapshot seats) {
         for(Condition c : conditions) {
-            if(!c.isMet()) {
-                met = false;
+            if(!c.isMet(seats)) {
+                return false;
             }
         }
-        return met;
+        return true;
     }
 
     public Action addCondition(Condition c) {
         conditions.add(c);
+        conditions.sort(Comparator.comparingInt(Condition::getCost));
         return this;
     }
 
+    /**
+     * @return  The class IDs read by all of this Action's Conditions.
+     */
+    public Set<String> getClassIds() {
+        Set<String> classIds = new HashSet<>();
+        for(Condition c : conditions) {
+            classIds.addAll(c.getClassIds());
+        }
+        return classIds;
+    }
+
+    /**
+     * An Action must be checked on every refresh cycle if it has no
+     * Conditions, or if any of its Conditions does not declare the
+     * class IDs that it reads.
+     * @return  True if this Action cannot be indexed by class ID.
+     */
+    public boolean dependsOnAnything() {
+        if(conditions.isEmpty()) {
+            return true;
+        }
+        for(Condition c : conditions) {
+            if(c.getClassIds().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public boolean hasConditions() {
         return conditions.size() > 0;
     }
@@ -46,6 +80,42 @@ public abstract class Action {
      */
     public abstract boolean perform(SpireEnrollment spireEnrollment);
 
+    /**
+     * Actions that change the same Lecture must not perform at the same
+     * time in different browser sessions. Each kind of Action overrides
+     * this function to name the Lectures it changes.
+     * @return  The class IDs of the Lectures this Action changes. An empty
+     *          set means this Action must not run alongside any other.
+     */
+    public Set<String> getLectureIds() {
+        return new HashSet<>();
+    }
+
+    /**
+     * Together with {@link #getDiscussionToAdd()} and {@link #getLectureToDrop()},
+     * describes the change this Action makes to the schedule without performing it,
+     * such as in the {@link EnrollmentSimulator}. An {@link Edit} adds and drops the
+     * same Lecture, which changes its Discussion.
+     * @return  The Lecture this Action enrolls in, or null.
+     */
+    public Lecture getLectureToAdd() {
+        return null;
+    }
+
+    /**
+     * @return  The Discussion this Action enrolls in, or null.
+     */
+    public Discussion getDiscussionToAdd() {
+        return null;
+    }
+
+    /**
+     * @return  The Lecture this Action drops, or null.
+     */
+    public Lecture getLectureToDrop() {
+        return null;
+    }
+
     // Recursively satisfies a list of satisfiable actions.
     // This should execute on all of this Action's satisfiable Actions
     // in the case that this Action performs successfully.
@@ -0,0 +1,166 @@
+package enroller;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * The ActionEngine decides which {@link Action}s need their
+ * {@link Condition}s checked on each refresh cycle. Actions are
+ * indexed by the class IDs that their Conditions declare, and an
+ * Action is only checked again when one of those classes changes
+ * status between two {@link SeatSnapshot}s. Actions that cannot be
+ * indexed (no Conditions, or a Condition that declares no class IDs)
+ * are checked on every cycle, as before.
+ * Since Conditions may also read the current schedule and shopping
+ * cart, every Action is checked again after either of them changes.
+ */
+public class ActionEngine {
+    private final static Logger LOGGER = Logger.getLogger("spireautomator.enroller.engine");
+    private final List<Action> actions;
+    private final Map<String, List<Action>> actionsByClassId;
+    private final Set<Action> uncheckedActions;
+    private SeatSnapshot previous;
+    // Number of Actions whose Conditions were checked by the last call to getReadyActions.
+    private int lastChecked;
+
+    public ActionEngine() {
+        this.actions = new ArrayList<>();
+        this.actionsByClassId = new HashMap<>();
+        this.uncheckedActions = new LinkedHashSet<>();
+        this.previous = null;
+        this.lastChecked = 0;
+    }
+
+    public ActionEngine(Collection<Action> actions) {
+        this();
+        for(Action action : actions) {
+            add(action);
+        }
+    }
+
+    public ActionEngine add(Action action) {
+        actions.add(action);
+        for(String classId : action.getClassIds()) {
+            List<Action> indexed = actionsByClassId.get(classId);
+            if(indexed == null) {
+                indexed = new ArrayList<>();
+                actionsByClassId.put(classId, indexed);
+            }
+            indexed.add(action);
+        }
+        uncheckedActions.add(action);
+        return this;
+    }
+
+    /**
+     * Finds the Actions whose Conditions are all met. Only Actions that
+     * were never checked, that depend on a class whose status changed
+     * since the last call, or that cannot be indexed are checked.
+     * @param seats     Seat statuses captured during this refresh cycle.
+     * @return          The Actions that should be performed, in the order they were added.
+     */
+    public List<Action> getReadyActions(SeatSnapshot seats) {
+        Set<Action> toCheck = new HashSet<>(uncheckedActions);
+        uncheckedActions.clear();
+        for(String classId : getChangedClassIds(seats)) {
+            toCheck.addAll(actionsByClassId.get(classId));
+        }
+        List<Action> ready = new ArrayList<>();
+        int checked = 0;
+        for(Action action : actions) {
+            if(action.isSatisfied()) {
+                continue;
+            }
+            if(toCheck.contains(action) || action.dependsOnAnything()) {
+                checked++;
+                if(action.allConditionsMet(seats)) {
+                    ready.add(action);
+                }
+            }
+        }
+        LOGGER.info("Checked "+checked+" of "+actions.size()+" actions; "+ready.size()+" ready.");
+        previous = seats;
+        lastChecked = checked;
+        return ready;
+    }
+
+    // Compares only the watched classes, not every class in the snapshot.
+    private Set<String> getChangedClassIds(SeatSnapshot seats) {
+        Set<String> changed = new HashSet<>();
+        if(previous != null) {
+            for(String classId : actionsByClassId.keySet()) {
+                if(previous.getStatus(classId) != seats.getStatus(classId)) {
+                    LOGGER.config("Class \""+classId+"\" changed status.");
+                    changed.add(classId);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Marks an Action to be checked on the next cycle whether or not its
+     * classes change, for example after it failed to perform.
+     * @param action    The Action to check again.
+     */
+    public void recheck(Action action) {
+        uncheckedActions.add(action);
+    }
+
+    /**
+     * Marks every Action to be checked on the next cycle. Called after
+     * the current schedule or shopping cart changes.
+     */
+    public void recheckAll() {
+        uncheckedActions.addAll(actions);
+    }
+
+    /**
+     * Removes satisfied Actions from the engine.
+     * @return  The Actions that were removed.
+     */
+    public List<Action> removeSatisfied() {
+        List<Action> removed = new ArrayList<>();
+        for(Iterator<Action> it = actions.iterator(); it.hasNext();) {
+            Action action = it.next();
+            if(action.isSatisfied()) {
+                it.remove();
+                removed.add(action);
+                uncheckedActions.remove(action);
+                for(String classId : action.getClassIds()) {
+                    List<Action> indexed = actionsByClassId.get(classId);
+                    indexed.remove(action);
+                    if(indexed.isEmpty()) {
+                        actionsByClassId.remove(classId);
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return  The class IDs read by the Conditions of any remaining Action,
+     *          or null if some Action may depend on any class.
+     */
+    public Set<String> getWatchedClassIds() {
+        for(Action action : actions) {
+            if(action.dependsOnAnything()) {
+                return null;
+            }
+        }
+        return Collections.unmodifiableSet(actionsByClassId.keySet());
+    }
+
+    public List<Action> getActions() {
+        return Collections.unmodifiableList(actions);
+    }
+
+    public boolean isEmpty() {
+        return actions.isEmpty();
+    }
+
+    public int getLastChecked() {
+        return lastChecked;
+    }
+}
@@ -2,10 +2,10 @@ package enroller;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
+import spire.Grid;
 import spire.UMass;
 
-import java.util.*;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -69,40 +69,34 @@ public class Add extends Action {
             driver.findElement(By.cssSelector(UMass.ADD_CART_ENTER_SELECTOR)).click();
             // If this class requires a Discussion and must have one selected.
             if(discussionToAdd != null) {
-                // For each Discussion in this Discussion table that appeared.
-                List<WebElement> discussionTable = UMass.waitForElement(driver, By.cssSelector(UMass.ADD_DISC_TABLE_SELECTOR)).findElements(By.tagName("tr"));
-                for(int row = 1; row < discussionTable.size(); row++) {
-                    // If the section column of this Discussion row contains the needed section.
-                    if(UMass.findElementAddTable(driver, row, 3).getText().contains(discussionToAdd.getSection())) {
-                        LOGGER.info("Clicking on the discussion's checkbox and clicking the next button.");
-                        UMass.findElementAddTable(driver, row, 1).findElement(By.className(UMass.RADIO_BUTTON_CLASS)).click();
-                        driver.findElement(By.className(UMass.CONFIRM_BUTTON_CLASS)).click();
-                        break;
-                    }
+                // Find the row of the Discussion table that appeared whose section column contains the needed section.
+                int row = UMass.readGrid(driver, UMass.ADD_DISC_TABLE_SELECTOR, UMass.DISCUSSIONS_GRID_ID)
+                        .findRow(3, discussionToAdd.getSection());
+                if(row != UMass.NOT_FOUND) {
+                    LOGGER.info("Clicking on the discussion's checkbox and clicking the next button.");
+                    UMass.findElementAddTable(driver, row, 1).findElement(By.className(UMass.RADIO_BUTTON_CLASS)).click();
+                    driver.findElement(By.className(UMass.CONFIRM_BUTTON_CLASS)).click();
                 }
             }
             LOGGER.info("Clicking on the confirm button to finish adding to cart, which returns to the shopping cart.");
             UMass.waitForElement(driver, By.cssSelector(UMass.CONFIRM_ADD_CART_SELECTOR)).click();
         }
-        // Get a list of all the elements on the web page shopping cart.
-        List<WebElement> cartList = UMass.waitForElement(driver, By.cssSelector(UMass.CART_SHOPPING_SELECTOR)).findElements(By.tagName("tr"));
-        for(int row = 1; row < cartList.size(); row++) {
-            // If this row's name column contains the Lecture's ID.
-            if(UMass.findElementShoppingCart(driver, row, 2).getText().contains(lectureToAdd.getClassId())) {
-                LOGGER.info("Checking this lecture's checkbox and clicking the enroll button.");
-                UMass.findElementShoppingCart(driver, row, 1).findElement(By.className(UMass.CHECKBOX_CLASS)).click();
-                LOGGER.info("Clicking on the button to finish enrolling.");
-                driver.findElement(By.cssSelector(UMass.ENROLL_BUTTON_SELECTOR)).click();
-                LOGGER.info("Clicking the button to finally confirm adding this lecture selection. Waiting up to 30 seconds...");
-                UMass.waitForElement(driver, 30, By.cssSelector(UMass.FINISH_BUTTON_SELECTOR)).click();
-                // Wait, then if the success text is found, set to true and exit for-loop.
-                LOGGER.info("Waiting and looking for success text...");
-                if(UMass.waitForElement(driver, By.cssSelector(UMass.RESULT_ICON_SELECTOR))
-                        .getAttribute("innerHTML").contains(UMass.SUCCESS_ICON_HTML)) {
-                    LOGGER.info("Success text found.");
-                    result = true;
-                }
-                break;
+        // Find the shopping cart row whose name column contains the Lecture's ID.
+        Grid cartGrid = UMass.readGrid(driver, UMass.CART_SHOPPING_SELECTOR, UMass.CART_SHOPPING_GRID_ID);
+        int row = cartGrid.findRow(2, lectureToAdd.getClassId());
+        if(row != UMass.NOT_FOUND) {
+            LOGGER.info("Checking this lecture's checkbox and clicking the enroll button.");
+            UMass.findElementShoppingCart(driver, row, 1).findElement(By.className(UMass.CHECKBOX_CLASS)).click();
+            LOGGER.info("Clicking on the button to finish enrolling.");
+            driver.findElement(By.cssSelector(UMass.ENROLL_BUTTON_SELECTOR)).click();
+            LOGGER.info("Clicking the button to finally confirm adding this lecture selection. Waiting up to 30 seconds...");
+            UMass.waitForElement(driver, 30, By.cssSelector(UMass.FINISH_BUTTON_SELECTOR)).click();
+            // Wait, then if the success text is found, set to true.
+            LOGGER.info("Waiting and looking for success text...");
+            if(UMass.waitForElement(driver, By.cssSelector(UMass.RESULT_ICON_SELECTOR))
+                    .getAttribute("innerHTML").contains(UMass.SUCCESS_ICON_HTML)) {
+                LOGGER.info("Success text found.");
+                result = true;
             }
         }
         LOGGER.info("Going back to the shopping cart. There are no tabs on this page so we must use the button.");
@@ -111,6 +105,12 @@ public class Add extends Action {
         return result;
     }
 
+    @Override
+    public Set<String> getLectureIds() {
+        return Condition.classIds(lectureToAdd);
+    }
+
+    @Override
     public Lecture getLectureToAdd() {
         return lectureToAdd;
     }
@@ -119,6 +119,7 @@ public class Add extends Action {
         this.lectureToAdd = lectureToAdd;
     }
 
+    @Override
     public Discussion getDiscussionToAdd() {
         return discussionToAdd;
     }
@@ -1,7 +1,7 @@
 package enroller;
 
-import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
+import spire.Grid;
 import spire.UMass;
 
 /**
@@ -104,23 +104,30 @@ public abstract class Class {
         if(!driver.getTitle().contains("Shopping Cart")) {
             UMass.findElementTab(driver, "add").click();
         }
-        // For each Class in the shopping cart. Size-2 because driver finds top 2 header rows.
-        for(int row = 1; row <= UMass.waitForElement(driver, By.cssSelector(UMass.CART_SHOPPING_SELECTOR))
-                .findElements(By.tagName("tr")).size()-2; row++) {
-            // If this Class is the class ID of this Lecture.
-            if(UMass.findElementShoppingCart(driver, row, 2).getText().contains(getClassId())) {
-                // If this Class has the open icon.
-                if(UMass.findElementShoppingCart(driver, row, 7).getAttribute("innerHTML").contains(UMass.OPEN_ICON_HTML)) {
-                    result = UMass.TRUE;
-                } else {
-                    result = UMass.FALSE;
-                }
-                break;
+        // Find the shopping cart row with the class ID of this Class.
+        Grid cartGrid = UMass.readGrid(driver, UMass.CART_SHOPPING_SELECTOR, UMass.CART_SHOPPING_GRID_ID);
+        int row = cartGrid.findRow(2, getClassId());
+        if(row != UMass.NOT_FOUND) {
+            // If this Class has the open icon.
+            if(cartGrid.htmlContains(row, 7, UMass.OPEN_ICON_HTML)) {
+                result = UMass.TRUE;
+            } else {
+                result = UMass.FALSE;
             }
         }
         return result;
     }
 
+    /**
+     * Checks if the Class is open as of the given {@link SeatSnapshot},
+     * without using the browser.
+     * @param seats     Seat statuses captured during this refresh cycle.
+     * @return          Class is either open, closed, or not found.
+     */
+    public int isOpen(SeatSnapshot seats) {
+        return seats.getStatus(getClassId());
+    }
+
     @Override
     public String toString() {
         if(!description.equals("")) {
@@ -1,14 +1,49 @@
 package enroller;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 /**
  * A Condition only exists to be checked if it is met.
  * Each instance of a class that implements Condition
  * must define how it is met. The class should also
  * override toString() to describe the Condition's
  * terms in a human-readable format.
+ * Conditions read seat availability from the
+ * {@link SeatSnapshot} they are given rather than from
+ * the browser, so that checking them is instantaneous.
+ * A Condition that declares the class IDs it reads is
+ * only checked again by the {@link ActionEngine} when
+ * one of those classes changes status.
  * Examples of anonymous Conditions can be found in
- * {@link SpireEnroller}.
+ * {@link spire.SpireAutomator}.
  */
 public interface Condition {
-    boolean isMet();
+    boolean isMet(SeatSnapshot seats);
+
+    /**
+     * @return  The class IDs whose seat status this Condition reads.
+     *          An empty set means the Condition may depend on anything,
+     *          and it is checked on every refresh cycle.
+     */
+    default Set<String> getClassIds() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * @return  A relative cost of checking this Condition. Cheaper
+     *          Conditions of an {@link Action} are checked first.
+     */
+    default int getCost() {
+        return 1;
+    }
+
+    static Set<String> classIds(Class... classes) {
+        Set<String> classIds = new LinkedHashSet<>();
+        for(Class c : classes) {
+            classIds.add(c.getClassId());
+        }
+        return classIds;
+    }
 }
@@ -2,7 +2,7 @@ package enroller;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
+import spire.Grid;
 import spire.UMass;
 
 /**
@@ -43,29 +43,24 @@ public class Discussion extends Class {
         int result = super.isOpen(driver);
         // If the Discussion was not found in the shopping cart, find it inside of its Lecture.
         if(result == UMass.NOT_FOUND) {
-            // For each Class in the shopping cart. Size-2 because driver finds top 2 header rows.
-            for(int rowSC = 1; rowSC <= driver.findElement(By.cssSelector(UMass.CART_SHOPPING_SELECTOR))
-                    .findElements(By.tagName("tr")).size()-2; rowSC++) {
+            // For each Class in the shopping cart, which was already loaded by the check above.
+            Grid cartGrid = UMass.readGrid(driver, UMass.CART_SHOPPING_GRID_ID);
+            for(int rowSC = 1; rowSC <= cartGrid.getRowCount(); rowSC++) {
                 // If this shopping cart Class has the same name as this Discussion, and is clickable.
                 // Implies that this Class is the Lecture associated with this Discussion.
-                WebElement shoppingCartClassName = UMass.findElementShoppingCart(driver, rowSC, 2);
-                if(shoppingCartClassName.getText().contains(this.getName())
-                        && shoppingCartClassName.getAttribute("innerHTML").contains(UMass.HYPERLINK_CLASS_HTML)) {
+                if(cartGrid.getText(rowSC, 2).contains(this.getName())
+                        && cartGrid.htmlContains(rowSC, 2, UMass.HYPERLINK_CLASS_HTML)) {
                     // Click that Lecture to see all of its Discussions.
-                    shoppingCartClassName.findElement(By.className(UMass.HYPERLINK_CLASS)).click();
-                    // For each Discussion in the discussion table. Size-1 because driver finds top header row.
-                    for(int rowDT = 1; rowDT <= UMass.waitForElement(driver, By.cssSelector(UMass.DISCUSSIONS_TABLE_SELECTOR))
-                            .findElements(By.tagName("tr")).size()-1; rowDT++) {
-                        // If this Discussion matches the class ID.
-                        if(UMass.findElementDiscussionTable(driver, rowDT, 1).getText().contains(this.getClassId())) {
-                            // If it has an open icon, return true. If not, return false.
-                            if(UMass.findElementDiscussionTable(driver, rowDT, 7).getAttribute("innerHTML").contains((UMass.OPEN_ICON_HTML))) {
-                                result = UMass.TRUE;
-                            } else {
-                                result = UMass.FALSE;
-                            }
-                            // Whether open or closed, break the discussion loop.
-                            break;
+                    UMass.findElementShoppingCart(driver, rowSC, 2).findElement(By.className(UMass.HYPERLINK_CLASS)).click();
+                    // Find the Discussion that matches the class ID.
+                    Grid discussionGrid = UMass.readGrid(driver, UMass.DISCUSSIONS_TABLE_SELECTOR, UMass.DISCUSSIONS_GRID_ID);
+                    int rowDT = discussionGrid.findRow(1, this.getClassId());
+                    if(rowDT != UMass.NOT_FOUND) {
+                        // If it has an open icon, return true. If not, return false.
+                        if(discussionGrid.htmlContains(rowDT, 7, UMass.OPEN_ICON_HTML)) {
+                            result = UMass.TRUE;
+                        } else {
+                            result = UMass.FALSE;
                         }
                     }
                     // Go back to the shopping cart.
@@ -2,10 +2,9 @@ package enroller;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.WebElement;
 import spire.UMass;
 
-import java.util.List;
+import java.util.Set;
 
 /**
  * The Drop {@link Action} drops a particular {@link Lecture}
@@ -43,23 +42,20 @@ public class Drop extends Action {
         if(UMass.checkSelectTerm(spireEnrollment)) {
             UMass.selectTerm(driver, spireEnrollment.getTerm());
         }
-        // Get a list of all of the Lectures that can be dropped.
-        List<WebElement> dropTable = UMass.waitForElement(driver, By.cssSelector(UMass.DROP_TABLE_SELECTOR)).findElements(By.tagName("tr"));
-        for(int row = 1; row < dropTable.size(); row++) {
-            // If this row of the classes to drop table has the class ID of the Lecture to remove.
-            if(UMass.findElementDropTable(driver, row, 2).getText().contains(lectureToDrop.getClassId())) {
-                // Check the checkbox for this Lecture.
-                UMass.findElementDropTable(driver, row, 1).findElement(By.className(UMass.CHECKBOX_CLASS)).click();
-                // Click the button to confirm drop Lecture selection.
-                driver.findElement(By.className(UMass.CONFIRM_BUTTON_CLASS)).click();
-                // Wait, then click the button to again confirm drop Lecture selection.
-                UMass.waitForElement(driver, 30, By.cssSelector(UMass.FINISH_BUTTON_SELECTOR)).click();
-                // Wait, then if the success text is found, set to true and exit for-loop.
-                if(UMass.waitForElement(driver, By.cssSelector(UMass.RESULT_ICON_SELECTOR))
-                        .getAttribute("innerHTML").contains(UMass.SUCCESS_ICON_HTML)) {
-                    result = true;
-                }
-                break;
+        // Find the row of the classes to drop table that has the class ID of the Lecture to remove.
+        int row = UMass.readGrid(driver, UMass.DROP_TABLE_SELECTOR, UMass.DROP_GRID_ID)
+                .findRow(2, lectureToDrop.getClassId());
+        if(row != UMass.NOT_FOUND) {
+            // Check the checkbox for this Lecture.
+            UMass.findElementDropTable(driver, row, 1).findElement(By.className(UMass.CHECKBOX_CLASS)).click();
+            // Click the button to confirm drop Lecture selection.
+            driver.findElement(By.className(UMass.CONFIRM_BUTTON_CLASS)).click();
+            // Wait, then click the button to again confirm drop Lecture selection.
+            UMass.waitForElement(driver, 30, By.cssSelector(UMass.FINISH_BUTTON_SELECTOR)).click();
+            // Wait, then if the success text is found, set to true.
+            if(UMass.waitForElement(driver, By.cssSelector(UMass.RESULT_ICON_SELECTOR))
+                    .getAttribute("innerHTML").contains(UMass.SUCCESS_ICON_HTML)) {
+                result = true;
             }
         }
         // Go back to the shopping cart.
@@ -68,6 +64,12 @@ public class Drop extends Action {
         return result;
     }
 
+    @Override
+    public Set<String> getLectureIds() {
+        return Condition.classIds(lectureToDrop);
+    }
+
+    @Override
     public Lecture getLectureToDrop() {
         return lectureToDrop;
     }
@@ -5,6 +5,8 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.ui.Select;
 import spire.UMass;
 
+import java.util.Set;
+
 /**
  * The Edit {@link Action} is used to change the discussion section
  * the user is enrolled in without dropping and re-adding the lecture.
@@ -49,19 +51,15 @@ public class Edit extends Action {
         // If there is no desired Discussion and no currently enrolled Discussion, this class doesn't need them.
         // It's also useless to edit a class with no Discussions.
         if(discussionToAdd != null && lectureToEdit.getEnrolledDiscussion() != null) {
-            // Waits for the discussions table to load, then finds the desired discussion.
-            for(int row = 1; row < UMass.waitForElement(driver, By.cssSelector(UMass.DISCUSSIONS_TABLE_SELECTOR))
-                    .findElements(By.tagName("tr")).size(); row++) {
-                // If this Discussion row is the same class ID as the Discussion to add.
-                if(UMass.findElementDiscussionTable(driver, row, 2).getText().contains(discussionToAdd.getClassId())) {
-                    // Click on the Discussion's radio button and break out of the discussion table loop.
-                    UMass.findElementDiscussionTable(driver, row, 1).findElement(By.className(UMass.RADIO_BUTTON_CLASS)).click();
-                    break;
-                }
+            // Waits for the discussions table to load, then finds the row with the class ID of the Discussion to add.
+            int row = UMass.readGrid(driver, UMass.DISCUSSIONS_TABLE_SELECTOR, UMass.DISCUSSIONS_GRID_ID)
+                    .findRow(2, discussionToAdd.getClassId());
+            if(row != UMass.NOT_FOUND) {
+                // Click on the Discussion's radio button.
+                UMass.findElementDiscussionTable(driver, row, 1).findElement(By.className(UMass.RADIO_BUTTON_CLASS)).click();
             }
-            // The Next button on the next 2 pages have the same CSS selector. Must sleep and wait to distinguish.
-            driver.findElement(By.cssSelector(UMass.NEXT_BUTTON_SELECTOR)).click();
-            UMass.sleep(1000);
+            // The Next button on the next 2 pages have the same CSS selector. Must wait for the page to change.
+            UMass.clickAndWait(driver, driver.findElement(By.cssSelector(UMass.NEXT_BUTTON_SELECTOR)));
             UMass.waitForElement(driver, By.cssSelector(UMass.NEXT_BUTTON_SELECTOR)).click();
             UMass.waitForElement(driver, 30,  By.cssSelector(UMass.FINISH_BUTTON_SELECTOR)).click();
             // If the result icon says successful, return true.
@@ -76,14 +74,31 @@ public class Edit extends Action {
         return result;
     }
 
+    @Override
+    public Set<String> getLectureIds() {
+        return Condition.classIds(lectureToEdit);
+    }
+
     public Lecture getLectureToEdit() {
         return lectureToEdit;
     }
 
+    // Changing the Discussion adds and drops the same Lecture.
+    @Override
+    public Lecture getLectureToAdd() {
+        return lectureToEdit;
+    }
+
+    @Override
+    public Lecture getLectureToDrop() {
+        return lectureToEdit;
+    }
+
     public void setLectureToEdit(Lecture lectureToEdit) {
         this.lectureToEdit = lectureToEdit;
     }
 
+    @Override
     public Discussion getDiscussionToAdd() {
         return discussionToAdd;
     }
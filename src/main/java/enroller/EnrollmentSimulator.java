@@ -0,0 +1,608 @@
+package enroller;
+
+import spire.ServerClock;
+import spire.UMass;
+
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The EnrollmentSimulator runs the refresh cycle of {@link SpireEnrollment}
+ * against simulated SPIRE seats instead of the browser, on a simulated clock, so
+ * that it can be load tested with hundreds of watched sections and thousands of
+ * Actions outside of enrollment week. Other students drop and take seats and
+ * join waitlists at random, at rates set for each section, and bursts of drops
+ * can be scheduled. The cycle itself is {@link SpireEnrollment#watch}; only
+ * reading the seats and performing an Action are simulated. Performing an Action
+ * takes simulated time while other students keep going, so an Action can lose a
+ * seat it saw open.
+ */
+public class EnrollmentSimulator {
+    /**
+     * A Lecture or Discussion with simulated seats.
+     */
+    public static class Section {
+        private final String classId;
+        private final int capacity;
+        private int enrolled;
+        private int waitlist;
+        // Mean drops by other students per simulated minute, while anyone is enrolled.
+        private final double dropRate;
+        // Mean attempts by other students to enroll per simulated minute. They join the waitlist if it is full.
+        private final double addRate;
+        // Simulated time the last seat opened, or -1 while the section is full.
+        private long openedAt;
+
+        public Section(String classId, int capacity, int enrolled, int waitlist, double dropRate, double addRate) {
+            this.classId = classId;
+            this.capacity = capacity;
+            this.enrolled = Math.min(enrolled, capacity);
+            this.waitlist = waitlist;
+            this.dropRate = dropRate;
+            this.addRate = addRate;
+            this.openedAt = isOpen() ? 0 : -1;
+        }
+
+        public String getClassId() {
+            return classId;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public int getEnrolled() {
+            return enrolled;
+        }
+
+        public int getWaitlist() {
+            return waitlist;
+        }
+
+        public boolean isOpen() {
+            return enrolled < capacity;
+        }
+
+        private void take() {
+            enrolled++;
+            if(!isOpen()) {
+                openedAt = -1;
+            }
+        }
+
+        private void release(long now) {
+            boolean wasOpen = isOpen();
+            enrolled = Math.max(0, enrolled-1);
+            if(!wasOpen && isOpen()) {
+                openedAt = now;
+            }
+        }
+    }
+
+    // Something another student (or SPIRE) does at a simulated time.
+    private static class Event implements Comparable<Event> {
+        private final static int DROP = 0;
+        private final static int ADD = 1;
+        private final static int WAITLIST = 2;
+        private final static int BURST = 3;
+        private final long time;
+        private final int kind;
+        private final Section section;
+        private final int count;
+
+        private Event(long time, int kind, Section section, int count) {
+            this.time = time;
+            this.kind = kind;
+            this.section = section;
+            this.count = count;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            return Long.compare(time, other.time);
+        }
+    }
+
+    /**
+     * The simulated time, in milliseconds since the simulation started.
+     * Waiting on it applies what other students do in the meantime.
+     */
+    private class SimulatedClock extends ServerClock {
+        private SimulatedClock() {
+            super(0, 0);
+        }
+
+        @Override
+        public long now() {
+            return now;
+        }
+
+        @Override
+        public void sleepUntil(long serverTime) {
+            now = Math.max(now, serverTime);
+            advance();
+        }
+
+        @Override
+        public String toString() {
+            return "simulated clock";
+        }
+    }
+
+    /**
+     * The enroller's refresh cycle, reading and changing the simulated seats instead of SPIRE.
+     */
+    private class SimulatedEnrollment extends SpireEnrollment {
+        private SimulatedEnrollment() {
+            // The enroller removes satisfied Actions from its own copy of the list.
+            super(null, "", currentSchedule, new HashMap<>(), new ArrayList<>(actions));
+            setClock(new SimulatedClock());
+            setRefreshInterval(refreshMillis);
+        }
+
+        @Override
+        protected void reloadPage() {
+            advance();
+        }
+
+        @Override
+        protected SeatSnapshot readSeats(Set<String> classIds) {
+            return capture(classIds);
+        }
+
+        @Override
+        protected List<Action> checkActions(ActionEngine engine, SeatSnapshot seats) {
+            long started = System.nanoTime();
+            List<Action> ready = super.checkActions(engine, seats);
+            long elapsed = System.nanoTime()-started;
+            engineNanos += elapsed;
+            maxEngineNanos = Math.max(maxEngineNanos, elapsed);
+            checked += engine.getLastChecked();
+            maxReady = Math.max(maxReady, ready.size());
+            cycles++;
+            return ready;
+        }
+
+        @Override
+        protected boolean perform(Action action) {
+            // Other students keep going while the Action's pages load.
+            getClock().sleepUntil(now+performMillis);
+            boolean result = change(action.getLectureToAdd(), action.getDiscussionToAdd(), action.getLectureToDrop());
+            if(result) {
+                performed++;
+            } else {
+                failed++;
+            }
+            return result;
+        }
+
+        @Override
+        protected void readScheduleAndCart() {
+            // The schedule is changed directly, and the simulation has no shopping cart.
+        }
+
+        @Override
+        protected void keepAlive() {
+            // There are no browser sessions to keep logged in.
+        }
+    }
+
+    private final static Logger LOGGER = Logger.getLogger("spireautomator.enroller.simulator");
+    private final Map<String, Section> sections;
+    private final Map<String, Lecture> currentSchedule;
+    private final List<Action> actions;
+    private final Random random;
+    private final PriorityQueue<Event> events;
+    // Simulated milliseconds since the simulation started.
+    private long now;
+    private long refreshMillis;
+    private long performMillis;
+    private long waitlistMillis;
+    // Results
+    private int cycles;
+    private long checked;
+    private int maxReady;
+    private long engineNanos;
+    private long maxEngineNanos;
+    private int performed;
+    private int failed;
+    private final List<Long> latencies;
+
+    /**
+     * @param currentSchedule   The student's schedule, which is changed as Actions perform.
+     *                          Conditions that read the schedule should read this Map.
+     * @param actions           Actions to perform.
+     * @param seed              Seed for the random behavior of other students.
+     */
+    public EnrollmentSimulator(Map<String, Lecture> currentSchedule, List<Action> actions, long seed) {
+        this.sections = new LinkedHashMap<>();
+        this.currentSchedule = currentSchedule;
+        this.actions = actions;
+        this.random = new Random(seed);
+        this.events = new PriorityQueue<>();
+        this.now = 0;
+        this.refreshMillis = UMass.LOAD_INTERVAL;
+        this.performMillis = 3000;
+        this.waitlistMillis = 15*60*1000;
+        this.cycles = 0;
+        this.checked = 0;
+        this.maxReady = 0;
+        this.engineNanos = 0;
+        this.maxEngineNanos = 0;
+        this.performed = 0;
+        this.failed = 0;
+        this.latencies = new ArrayList<>();
+    }
+
+    public static void main(String[] args) {
+        int lectures = 600;
+        int actionCount = 2000;
+        double hours = 8;
+        long seed = 1;
+        Map<Long, Integer> bursts = new LinkedHashMap<>();
+        Long refresh = null;
+        Long perform = null;
+        Long waitlist = null;
+        Level level = Level.WARNING;
+        for(String arg : args) {
+            String[] argSplit = arg.split("=", 2);
+            if(argSplit.length > 1) {
+                String value = argSplit[1];
+                switch(argSplit[0]) {
+                    case "lectures":    lectures = UMass.tryToInt(value);           break;
+                    case "actions":     actionCount = UMass.tryToInt(value);        break;
+                    case "hours":       hours = Double.parseDouble(value);          break;
+                    case "seed":        seed = Long.parseLong(value);               break;
+                    case "refresh":     refresh = Long.parseLong(value);            break;
+                    case "perform":     perform = Long.parseLong(value);            break;
+                    case "waitlist":    waitlist = Long.parseLong(value)*60*1000;   break;
+                    case "burst":       for(String burst : value.split(",")) {
+                                            String[] burstSplit = burst.split("@", 2);
+                                            bursts.put(burstSplit.length > 1 ? Long.parseLong(burstSplit[1].trim())*60*1000 : 0L,
+                                                    UMass.tryToInt(burstSplit[0].trim()));
+                                        }
+                                        break;
+                    case "logging":     level = Level.parse(value.trim().toUpperCase());    break;
+                    default:            LOGGER.warning("Unknown parameter \""+argSplit[0]+"\"");    break;
+                }
+            }
+        }
+        Logger.getLogger("spireautomator").setLevel(level);
+        EnrollmentSimulator simulator = generate(lectures, actionCount, seed);
+        if(refresh != null) {
+            simulator.setRefreshMillis(refresh);
+        }
+        if(perform != null) {
+            simulator.setPerformMillis(perform);
+        }
+        if(waitlist != null) {
+            simulator.setWaitlistMillis(waitlist);
+        }
+        for(Map.Entry<Long, Integer> burst : bursts.entrySet()) {
+            simulator.addBurst(burst.getKey(), burst.getValue());
+        }
+        long started = System.currentTimeMillis();
+        simulator.run((long) (hours*60*60*1000));
+        System.out.println("Simulated "+hours+" hours in "+(System.currentTimeMillis()-started)+" ms.");
+        simulator.printResults();
+    }
+
+    /**
+     * Creates a simulation with many full Lectures, a third of which have Discussions.
+     * The student is enrolled in five Lectures. Each generated Lecture in the shopping
+     * cart gets an {@link Add} for each of its Discussions, as alternatives,
+     * and about one in six is a {@link Swap} for a Lecture in the schedule instead.
+     * @param lectureCount  Number of Lectures, not counting their Discussions.
+     * @param actionCount   Approximate number of Actions.
+     * @param seed          Seed for the sections, the Actions, and the simulation.
+     * @return              The EnrollmentSimulator, ready to run.
+     */
+    public static EnrollmentSimulator generate(int lectureCount, int actionCount, long seed) {
+        Random random = new Random(seed);
+        Map<String, Lecture> schedule = new HashMap<>();
+        List<Action> actions = new ArrayList<>();
+        EnrollmentSimulator simulator = new EnrollmentSimulator(schedule, actions, seed);
+        List<Lecture> lectures = new ArrayList<>();
+        int classId = 10000;
+        for(int i = 0; i < lectureCount; i++) {
+            Lecture lecture = new Lecture("SIM "+(100+i)+"-01", String.valueOf(classId++));
+            simulator.addSection(randomSection(random, lecture.getClassId()));
+            if(i%3 == 0) {
+                for(int d = 0, discussions = 2+random.nextInt(3); d < discussions; d++) {
+                    Discussion discussion = new Discussion("SIM "+(100+i)+"-01A"+(char) ('A'+d), String.valueOf(classId++));
+                    lecture.addDiscussion(discussion);
+                    simulator.addSection(randomSection(random, discussion.getClassId()));
+                }
+            }
+            lectures.add(lecture);
+        }
+        List<Lecture> enrolled = new ArrayList<>();
+        for(Lecture lecture : lectures.subList(0, Math.min(5, lectures.size()))) {
+            if(lecture.hasDiscussions()) {
+                lecture.setEnrolledDiscussion(lecture.getDiscussionsList().get(0));
+            }
+            schedule.put(lecture.getClassId(), lecture);
+            enrolled.add(lecture);
+        }
+        for(int next = enrolled.size(); actions.size() < actionCount && next < lectures.size(); ) {
+            Lecture lecture = lectures.get(next++);
+            if(next == lectures.size()) {
+                // Reuse Lectures when more Actions are wanted than there are Lectures.
+                next = enrolled.size();
+            }
+            Lecture toDrop = !enrolled.isEmpty() && random.nextInt(6) == 0 ? enrolled.get(random.nextInt(enrolled.size())) : null;
+            List<Action> alternatives = new ArrayList<>();
+            for(Discussion discussion : lecture.hasDiscussions() ? lecture.getDiscussionsList() : Collections.singletonList((Discussion) null)) {
+                Action action = toDrop == null ? new Add(lecture, discussion) : new Swap(lecture, discussion, toDrop);
+                alternatives.add(action.addCondition(whenOpen(schedule, lecture, discussion, toDrop)));
+            }
+            // Satisfaction is recursive, so each alternative only satisfies the ones after it.
+            // The earlier ones stop meeting their Condition once the Lecture is enrolled.
+            for(int a = 0; a < alternatives.size(); a++) {
+                alternatives.get(a).setSatisfiableActions(new ArrayList<>(alternatives.subList(a+1, alternatives.size())));
+            }
+            actions.addAll(alternatives);
+        }
+        return simulator;
+    }
+
+    private static Section randomSection(Random random, String classId) {
+        int capacity = 20+random.nextInt(180);
+        // Most sections are full when enrollment opens.
+        int enrolled = random.nextInt(5) == 0 ? capacity-1-random.nextInt(3) : capacity;
+        return new Section(classId, capacity, enrolled, random.nextInt(10),
+                0.02+random.nextDouble()*0.3, 0.5+random.nextDouble()*4.5);
+    }
+
+    // Met when the Lecture is not yet enrolled, the Lecture to drop (if any) still is, and the Lecture and Discussion are open.
+    private static Condition whenOpen(final Map<String, Lecture> schedule, final Lecture lecture,
+                                      final Discussion discussion, final Lecture toDrop) {
+        return new Condition() {
+            @Override
+            public boolean isMet(SeatSnapshot seats) {
+                return schedule.get(lecture.getClassId()) == null
+                        && (toDrop == null || schedule.get(toDrop.getClassId()) != null)
+                        && lecture.isOpen(seats) == UMass.TRUE
+                        && (discussion == null || discussion.isOpen(seats) == UMass.TRUE);
+            }
+            @Override
+            public Set<String> getClassIds() {
+                return discussion == null ? Condition.classIds(lecture) : Condition.classIds(lecture, discussion);
+            }
+            @Override
+            public String toString() {
+                return lecture.getNameAndSection()+(discussion == null ? "" : " and "+discussion.getNameAndSection())+" open";
+            }
+        };
+    }
+
+    public EnrollmentSimulator addSection(Section section) {
+        sections.put(section.getClassId(), section);
+        return this;
+    }
+
+    /**
+     * Schedules many other students to drop at once, each from a different random section that has anyone in it.
+     * @param atMillis  Simulated milliseconds after the simulation starts.
+     * @param drops     Number of seats dropped.
+     */
+    public EnrollmentSimulator addBurst(long atMillis, int drops) {
+        events.add(new Event(atMillis, Event.BURST, null, drops));
+        return this;
+    }
+
+    /**
+     * Runs the enroller's refresh cycles until every Action is satisfied or the time runs out.
+     * @param durationMillis    Simulated milliseconds to run for.
+     */
+    public void run(long durationMillis) {
+        long end = now+durationMillis;
+        for(Section section : sections.values()) {
+            schedule(section, Event.DROP);
+            schedule(section, Event.ADD);
+        }
+        events.add(new Event(now+waitlistMillis, Event.WAITLIST, null, 0));
+        LOGGER.info("Simulating "+sections.size()+" sections and "+actions.size()+" actions.");
+        new SimulatedEnrollment().watch(null, end);
+        LOGGER.info("Simulation ended after "+cycles+" cycles.");
+    }
+
+    // Applies every event up to the current simulated time.
+    private void advance() {
+        while(!events.isEmpty() && events.peek().time <= now) {
+            Event event = events.poll();
+            Section section = event.section;
+            switch(event.kind) {
+                case Event.DROP:
+                    if(section.enrolled > 0) {
+                        section.release(event.time);
+                    }
+                    schedule(section, Event.DROP);
+                    break;
+                case Event.ADD:
+                    if(section.isOpen()) {
+                        section.take();
+                    } else {
+                        section.waitlist++;
+                    }
+                    schedule(section, Event.ADD);
+                    break;
+                case Event.WAITLIST:
+                    // SPIRE moves waitlisted students into open seats every so often.
+                    for(Section waitlisted : sections.values()) {
+                        while(waitlisted.isOpen() && waitlisted.waitlist > 0) {
+                            waitlisted.waitlist--;
+                            waitlisted.take();
+                        }
+                    }
+                    events.add(new Event(event.time+waitlistMillis, Event.WAITLIST, null, 0));
+                    break;
+                case Event.BURST:
+                    List<Section> occupied = new ArrayList<>();
+                    for(Section candidate : sections.values()) {
+                        if(candidate.enrolled > 0) {
+                            occupied.add(candidate);
+                        }
+                    }
+                    Collections.shuffle(occupied, random);
+                    for(Section dropped : occupied.subList(0, Math.min(event.count, occupied.size()))) {
+                        dropped.release(event.time);
+                    }
+                    LOGGER.info("Burst of "+event.count+" drops at "+event.time/1000+" s.");
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    // Schedules the next drop or add of a section, as a Poisson process.
+    private void schedule(Section section, int kind) {
+        double perMinute = kind == Event.DROP ? section.dropRate : section.addRate;
+        if(perMinute > 0) {
+            long wait = (long) (-Math.log(1-random.nextDouble())/perMinute*60*1000);
+            events.add(new Event(now+Math.max(1, wait), kind, section, 0));
+        }
+    }
+
+    private SeatSnapshot capture(Set<String> watched) {
+        Map<String, Integer> statuses = new HashMap<>();
+        for(String classId : watched != null ? watched : sections.keySet()) {
+            Section section = sections.get(classId);
+            if(section != null) {
+                statuses.put(classId, section.isOpen() ? UMass.TRUE : UMass.FALSE);
+            }
+        }
+        return new SeatSnapshot(statuses);
+    }
+
+    // Makes the change an Action describes, if SPIRE would allow it.
+    private boolean change(Lecture lecture, Discussion discussion, Lecture replacing) {
+        boolean result;
+        if(lecture == null) {
+            result = replacing != null && drop(replacing);
+        } else if(lecture == replacing) {
+            result = changeDiscussion(lecture, discussion);
+        } else {
+            result = enroll(lecture, discussion, replacing);
+        }
+        return result;
+    }
+
+    // Enrolls in a Lecture and Discussion only if both have a seat, like SPIRE, optionally dropping another Lecture.
+    private boolean enroll(Lecture lecture, Discussion discussion, Lecture replacing) {
+        Section lectureSeats = sections.get(lecture.getClassId());
+        Section discussionSeats = discussion == null ? null : sections.get(discussion.getClassId());
+        if(currentSchedule.containsKey(lecture.getClassId())
+                || (replacing != null && !currentSchedule.containsKey(replacing.getClassId()))
+                || lectureSeats == null || !lectureSeats.isOpen()
+                || (discussion != null && (discussionSeats == null || !discussionSeats.isOpen()))) {
+            return false;
+        }
+        takeSeat(lectureSeats);
+        if(discussion != null) {
+            takeSeat(discussionSeats);
+            lecture.setEnrolledDiscussion(discussion);
+        }
+        if(replacing != null) {
+            drop(replacing);
+        }
+        currentSchedule.put(lecture.getClassId(), lecture);
+        return true;
+    }
+
+    private boolean drop(Lecture lecture) {
+        Lecture enrolled = currentSchedule.remove(lecture.getClassId());
+        if(enrolled == null) {
+            return false;
+        }
+        releaseSeat(enrolled.getClassId());
+        if(enrolled.getEnrolledDiscussion() != null) {
+            releaseSeat(enrolled.getEnrolledDiscussion().getClassId());
+        }
+        return true;
+    }
+
+    private boolean changeDiscussion(Lecture lecture, Discussion discussion) {
+        Lecture enrolled = currentSchedule.get(lecture.getClassId());
+        Section discussionSeats = discussion == null ? null : sections.get(discussion.getClassId());
+        if(enrolled == null || discussionSeats == null || !discussionSeats.isOpen()) {
+            return false;
+        }
+        if(enrolled.getEnrolledDiscussion() != null) {
+            releaseSeat(enrolled.getEnrolledDiscussion().getClassId());
+        }
+        takeSeat(discussionSeats);
+        enrolled.setEnrolledDiscussion(discussion);
+        return true;
+    }
+
+    // Takes a seat for the student, and records how long after opening the seat was taken.
+    private void takeSeat(Section section) {
+        if(section.openedAt >= 0) {
+            latencies.add(now-section.openedAt);
+        }
+        section.take();
+    }
+
+    private void releaseSeat(String classId) {
+        Section section = sections.get(classId);
+        if(section != null) {
+            section.release(now);
+        }
+    }
+
+    public void printResults() {
+        System.out.println("Refresh cycles: "+cycles+" over "+now/1000+" simulated seconds");
+        System.out.println("Actions: "+actions.size()+" total, "+performed+" performed, "+failed
+                +" lost the seat before performing");
+        System.out.println("Actions checked per cycle: "+(cycles == 0 ? 0 : checked/cycles)+" on average, "
+                +maxReady+" ready at most");
+        System.out.println("Engine time per cycle: "+(cycles == 0 ? 0 : engineNanos/cycles/1000)+" us on average, "
+                +maxEngineNanos/1000+" us at most");
+        if(!latencies.isEmpty()) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            System.out.println("Seat opened to taken: "+sorted.get(sorted.size()/2)/1000+" s median, "
+                    +sorted.get((int) (sorted.size()*0.95))/1000+" s 95th percentile, "
+                    +sorted.get(sorted.size()-1)/1000+" s at most ("+sorted.size()+" seats)");
+        }
+    }
+
+    public void setRefreshMillis(long refreshMillis) {
+        this.refreshMillis = refreshMillis;
+    }
+
+    public void setPerformMillis(long performMillis) {
+        this.performMillis = performMillis;
+    }
+
+    public void setWaitlistMillis(long waitlistMillis) {
+        this.waitlistMillis = waitlistMillis;
+    }
+
+    public Map<String, Section> getSections() {
+        return sections;
+    }
+
+    public List<Action> getActions() {
+        return actions;
+    }
+
+    public int getCycles() {
+        return cycles;
+    }
+
+    public int getPerformed() {
+        return performed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<Long> getLatencies() {
+        return latencies;
+    }
+}
@@ -0,0 +1,134 @@
+package enroller;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import spire.Grid;
+import spire.UMass;
+
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A SeatSnapshot records whether each {@link Class} seen in the
+ * shopping cart is open, closed, or not found, as of one refresh
+ * cycle. It is captured once per cycle by {@link SpireEnrollment}
+ * and shared by every {@link Condition}, so checking a Condition
+ * never touches the {@link WebDriver}. A SeatSnapshot cannot be
+ * changed once captured; a new one is captured after an
+ * {@link Action} changes the schedule or shopping cart.
+ */
+public class SeatSnapshot {
+    private final static Logger LOGGER = Logger.getLogger("spireautomator.enroller.seats");
+    private final static Pattern CLASS_ID_PATTERN = Pattern.compile("\\((\\d+)\\)");
+    private final Map<String, Integer> statuses;
+    private final long timestamp;
+
+    public SeatSnapshot(Map<String, Integer> statuses) {
+        this.statuses = Collections.unmodifiableMap(new HashMap<>(statuses));
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public static SeatSnapshot empty() {
+        return new SeatSnapshot(Collections.<String, Integer>emptyMap());
+    }
+
+    public static SeatSnapshot capture(SpireEnrollment spireEnrollment) {
+        return capture(spireEnrollment, null);
+    }
+
+    /**
+     * Captures the status of every Class in the shopping cart. Discussions
+     * that are not in the shopping cart themselves are found by clicking
+     * into their Lecture once, instead of once per {@link Condition}.
+     * The driver must be on the shopping cart page, and is left there.
+     * @param spireEnrollment   The SpireEnrollment controller with cart, schedule, and driver.
+     * @param watched           Class IDs that must be looked up if they are not in the cart,
+     *                          or null to look up every Discussion of every Lecture in the cart.
+     * @return                  The status of every Class that was found.
+     */
+    public static SeatSnapshot capture(SpireEnrollment spireEnrollment, Set<String> watched) {
+        WebDriver driver = spireEnrollment.getDriver();
+        Map<String, Integer> statuses = new HashMap<>();
+        Grid cartGrid = UMass.readGrid(driver, UMass.CART_SHOPPING_SELECTOR, UMass.CART_SHOPPING_GRID_ID);
+        // Lectures and their selected Discussions both have a row with an open or closed icon.
+        for(int row = 1; row <= cartGrid.getRowCount(); row++) {
+            String classId = parseClassId(cartGrid.getText(row, 2));
+            if(classId != null) {
+                statuses.put(classId, cartGrid.htmlContains(row, 7, UMass.OPEN_ICON_HTML) ? UMass.TRUE : UMass.FALSE);
+            }
+        }
+        // Visit each Lecture whose other, watched Discussions are not shown in the cart.
+        for(int row = 1; row <= cartGrid.getRowCount(); row++) {
+            Lecture lecture = spireEnrollment.getShoppingCart().get(parseClassId(cartGrid.getText(row, 2)));
+            if(lecture != null && cartGrid.htmlContains(row, 2, UMass.HYPERLINK_CLASS_HTML)
+                    && isMissingDiscussion(lecture, statuses, watched)) {
+                LOGGER.config("Reading discussions of \""+lecture.getNameAndSection()+"\"");
+                UMass.findElementShoppingCart(driver, row, 2).findElement(By.className(UMass.HYPERLINK_CLASS)).click();
+                Grid discussionGrid = UMass.readGrid(driver, UMass.DISCUSSIONS_TABLE_SELECTOR, UMass.DISCUSSIONS_GRID_ID);
+                for(int rowDT = 1; rowDT <= discussionGrid.getRowCount(); rowDT++) {
+                    String classId = discussionGrid.getText(rowDT, 2).replace("(", "").replace(")", "").trim();
+                    if(!classId.isEmpty() && !statuses.containsKey(classId)) {
+                        statuses.put(classId, discussionGrid.htmlContains(rowDT, 7, UMass.OPEN_ICON_HTML) ? UMass.TRUE : UMass.FALSE);
+                    }
+                }
+                // Go back to the shopping cart.
+                UMass.findElementTab(driver, "add").click();
+                if(UMass.checkSelectTerm(spireEnrollment)) {
+                    UMass.selectTerm(driver, spireEnrollment.getTerm());
+                }
+            }
+        }
+        SeatSnapshot snapshot = new SeatSnapshot(statuses);
+        LOGGER.info("Captured "+snapshot);
+        return snapshot;
+    }
+
+    private static boolean isMissingDiscussion(Lecture lecture, Map<String, Integer> statuses, Set<String> watched) {
+        for(String classId : lecture.getDiscussions().keySet()) {
+            if(!statuses.containsKey(classId) && (watched == null || watched.contains(classId))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Shopping cart names look like "COMPSCI 311-01\n(14784)".
+    private static String parseClassId(String text) {
+        Matcher matcher = CLASS_ID_PATTERN.matcher(text);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * @param classId   The class ID of a Lecture or Discussion.
+     * @return          {@link UMass#TRUE} if open, {@link UMass#FALSE} if closed, or {@link UMass#NOT_FOUND}.
+     */
+    public int getStatus(String classId) {
+        Integer status = statuses.get(classId);
+        return status == null ? UMass.NOT_FOUND : status;
+    }
+
+    public boolean isOpen(String classId) {
+        return getStatus(classId) == UMass.TRUE;
+    }
+
+    public Map<String, Integer> getStatuses() {
+        return statuses;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        int open = 0;
+        for(int status : statuses.values()) {
+            if(status == UMass.TRUE) {
+                open++;
+            }
+        }
+        return "seat snapshot of "+statuses.size()+" classes ("+open+" open)";
+    }
+}
@@ -1,11 +1,21 @@
 package enroller;
 
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.support.ui.Select;
+import spire.DriverPool;
+import spire.Grid;
+import spire.ServerClock;
 import spire.UMass;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Logger;
 
 /**
@@ -14,6 +24,13 @@ import java.util.logging.Logger;
  * {@link Map}s in order to prevent duplicate Lectures
  * that may come up when combining hardcoded and parsed
  * Lectures. Keys are class IDs and return Lectures.
+ * If a {@link DriverPool} is given, Actions that are ready
+ * in the same refresh cycle perform at the same time in
+ * different browser sessions, except that Actions changing
+ * the same Lecture always perform one after another.
+ * If an enrollment appointment is given, the first refresh
+ * cycle waits for the appointment on the server's clock, so
+ * that the first Actions perform as soon as the window opens.
  */
 public class SpireEnrollment {
     private final static Logger LOGGER = Logger.getLogger("spireautomator.enroller");
@@ -22,6 +39,18 @@ public class SpireEnrollment {
     private Map<String, Lecture> currentSchedule;
     private Map<String, Lecture> shoppingCart;
     private ArrayList<Action> actions;
+    private SeatSnapshot seats;
+    private DriverPool driverPool;
+    // The session leased by the current thread while it performs an Action.
+    private final ThreadLocal<WebDriver> sessionDriver = new ThreadLocal<>();
+    private final Map<String, ReentrantLock> lectureLocks = new ConcurrentHashMap<>();
+    // Actions that do not name their Lectures hold the write lock so that they perform alone.
+    private final ReentrantReadWriteLock exclusiveLock = new ReentrantReadWriteLock();
+    // Time the enrollment appointment opens on the server's clock, or 0 if there is none.
+    private long appointment;
+    private ServerClock clock;
+    // Least time between the starts of two refresh cycles, in milliseconds on the clock.
+    private long refreshInterval;
 
     public SpireEnrollment(WebDriver driver) {
         this.driver = driver;
@@ -29,6 +58,10 @@ public class SpireEnrollment {
         this.currentSchedule = new HashMap<>();
         this.shoppingCart = new HashMap<>();
         this.actions = new ArrayList<>();
+        this.seats = SeatSnapshot.empty();
+        this.appointment = 0;
+        this.clock = ServerClock.local();
+        this.refreshInterval = UMass.LOAD_INTERVAL;
     }
 
     public SpireEnrollment(WebDriver driver, ArrayList<Action> actions) {
@@ -51,14 +84,7 @@ public class SpireEnrollment {
      * and adding the schedule, shopping cart, and actions.
      */
     public void run() {
-        // Click on the link that goes to enrollment.
-        LOGGER.info("Clicking CSS selector \""+UMass.ENROLLMENT_LINK_SELECTOR+"\"");
-        UMass.waitForElement(driver, By.cssSelector(UMass.ENROLLMENT_LINK_SELECTOR)).click();
-        // Check if SPIRE first needs to have a term selected.
-        if(UMass.checkSelectTerm(this)) {
-            LOGGER.info("Need to select term.");
-            UMass.selectTerm(driver, this.term);
-        }
+        enterEnrollment(driver);
 
         // Currently in the shopping cart. There may be some hardcoded Classes
         // used to create Actions, but this parses the actual current schedule and
@@ -66,7 +92,9 @@ public class SpireEnrollment {
         // with the use of a Map with keys of class IDs.
 
         // When there are no enrolled classes, this table will not exist, and will not be parsed.
-        if(UMass.isElementFound(driver, UMass.TIMEOUT_INTERVAL, By.cssSelector(UMass.CART_SCHEDULE_SELECTOR))) {
+        // The section title is on every enrollment page, so once it is found the table is either there or not.
+        UMass.waitForElement(driver, By.cssSelector(UMass.SECTION_TITLE_SELECTOR));
+        if(UMass.isElementPresent(driver, By.cssSelector(UMass.CART_SCHEDULE_SELECTOR))) {
             LOGGER.info("About to parse the current schedule.");
             currentSchedule.putAll(parseCurrentSchedule());
         }
@@ -81,50 +109,301 @@ public class SpireEnrollment {
         }
         printActions();
 
-        LOGGER.info("Beginning automated refresh.");
-        long previousTime = System.currentTimeMillis();
-        while(!actions.isEmpty()) {
-            // Reload current shopping cart page at least every 5 seconds; checked after loop.
-            driver.get(driver.getCurrentUrl());
-            // For each Action, check Conditions, meet if able, perform if able.
-            for(Action action : actions) {
-                if(action.allConditionsMet()) {
-                    LOGGER.info("All conditions met for action \""+action.toString()+"\", performing action... ");
-                    if(action.perform(this)) {
-                        LOGGER.info("Successfully performed action \""+action.toString()+"\"");
-                        // If the successful performance of this Action satisfies other Actions, mark them as such.
-                        action.setSatisfied(true);
-                        action.satisfyOtherActions();
-                        // After every successful action performance, refresh the schedule and shopping cart.
-                        // May remove hardcoded Classes if they do not exist in actual schedule or cart.
-                        currentSchedule = parseCurrentSchedule();
-                        shoppingCart = parseShoppingCart();
-                        printCurrentSchedule();
-                        printShoppingCart();
-                        printActions();
-                    } else {
-                        LOGGER.info("Failed to perform action \""+action.toString()+"\"");
-                    }
+        // Every other browser session must also be in the enrollment portal before it can perform Actions.
+        ExecutorService executor = null;
+        if(driverPool != null && driverPool.size() > 1) {
+            for(WebDriver session : driverPool.getDrivers()) {
+                if(session != driver) {
+                    enterEnrollment(session);
                 }
             }
+            executor = Executors.newFixedThreadPool(driverPool.size());
+        }
+        try {
+            watch(executor, Long.MAX_VALUE);
+        } finally {
+            if(executor != null) {
+                executor.shutdown();
+            }
+        }
+        LOGGER.info("All actions performed.");
+        printCurrentSchedule();
+    }
+
+    /**
+     * Runs refresh cycles until every Action is satisfied or the deadline passes.
+     * Waits for the appointment first if there is one. Each cycle reads the watched
+     * seats once, performs the Actions that became ready, and removes the satisfied
+     * ones. All waiting is on the clock, and all reading and performing goes through
+     * the methods below, so a simulation can run this same cycle without a browser.
+     * @param executor  Performs the ready Actions of a cycle in parallel sessions, or null to perform them in order.
+     * @param deadline  Time on the clock to stop at.
+     */
+    protected void watch(ExecutorService executor, long deadline) {
+        ActionEngine engine = new ActionEngine(actions);
+        // The snapshot taken just before the appointment is used by the first cycle, so nothing is read at the appointment.
+        boolean reload = true;
+        if(appointment > 0 && clock.millisUntil(appointment) > 0) {
+            waitForAppointment(engine);
+            reload = false;
+        }
+        LOGGER.info("Beginning automated refresh.");
+        long previousTime = clock.now();
+        long lastKeepAlive = previousTime;
+        while(!engine.isEmpty() && clock.now() < deadline) {
+            if(reload) {
+                // Reload current shopping cart page at least every 5 seconds; checked after loop.
+                reloadPage();
+                // Read every watched seat status once; all Conditions in this cycle share it.
+                seats = readSeats(engine.getWatchedClassIds());
+            }
+            reload = true;
+            // Only Actions whose classes changed status are checked; perform those that are met.
+            List<Action> ready = checkActions(engine, seats);
+            if(executor != null && ready.size() > 1) {
+                performInParallel(engine, ready, executor);
+            } else {
+                performInOrder(engine, ready);
+            }
             // Remove all satisfied actions.
-            for(Action action: actions) {
-                if(action.isSatisfied()) {
-                    LOGGER.info("Removing satisfied action \""+action.toString()+"\" from action list.");
-                    actions.remove(action);
-                }
+            for(Action action : engine.removeSatisfied()) {
+                LOGGER.info("Removing satisfied action \""+action.toString()+"\" from action list.");
+                actions.remove(action);
             }
-            if ((System.currentTimeMillis() - previousTime) < UMass.LOAD_INTERVAL) {
+            if ((clock.now() - previousTime) < refreshInterval) {
                 LOGGER.info("Not enough time has passed since last page load; sleeping for "+
-                        UMass.LOAD_INTERVAL+" milliseconds.");
-                UMass.sleep(UMass.LOAD_INTERVAL);
+                        refreshInterval+" milliseconds.");
+                clock.sleepUntil(clock.now()+refreshInterval);
             }
             // Uncomment this line to show the number of seconds since the last refresh, on every refresh.
-            // System.out.println("Refreshing "+(System.currentTimeMillis()-previousTime)/1000+" seconds later...");
-            previousTime = System.currentTimeMillis();
+            // System.out.println("Refreshing "+(clock.now()-previousTime)/1000+" seconds later...");
+            previousTime = clock.now();
+            // Only the primary session reloads every cycle; the others wait for Actions and must stay logged in.
+            if(previousTime-lastKeepAlive >= UMass.KEEPALIVE_INTERVAL) {
+                keepAlive();
+                lastKeepAlive = previousTime;
+            }
         }
-        LOGGER.info("All actions performed.");
+    }
+
+    /**
+     * Keeps every browser session logged in until the appointment, captures the seats
+     * shortly before it, and then returns as close to the appointment as possible.
+     * @param engine    The ActionEngine that decides which seats to capture.
+     */
+    private void waitForAppointment(ActionEngine engine) {
+        LOGGER.info("Waiting for enrollment appointment at "+new Date(appointment)+" on the "+clock);
+        long lastCapture = appointment-UMass.APPOINTMENT_LEAD_INTERVAL;
+        // Reload every session now and then so that SPIRE does not log it out.
+        while(clock.millisUntil(lastCapture) > UMass.KEEPALIVE_INTERVAL) {
+            clock.sleepUntil(clock.now()+UMass.KEEPALIVE_INTERVAL);
+            LOGGER.info("Keeping sessions alive; "+clock.millisUntil(appointment)/1000+" seconds until appointment.");
+            driver.get(driver.getCurrentUrl());
+            keepAlive();
+        }
+        clock.sleepUntil(lastCapture);
+        reloadPage();
+        seats = readSeats(engine.getWatchedClassIds());
+        clock.sleepUntil(appointment);
+        LOGGER.info("Enrollment appointment open; "+(-clock.millisUntil(appointment))+" ms late.");
+    }
+
+    /**
+     * Reloads the page of the primary browser session, which is the shopping cart between Actions.
+     */
+    protected void reloadPage() {
+        driver.get(driver.getCurrentUrl());
+    }
+
+    /**
+     * @param classIds  The class IDs whose seats are read, or null for every class on the page.
+     * @return          The seat statuses on the current page.
+     */
+    protected SeatSnapshot readSeats(Set<String> classIds) {
+        return SeatSnapshot.capture(this, classIds);
+    }
+
+    /**
+     * @return  The Actions to perform this cycle, as decided by the engine.
+     */
+    protected List<Action> checkActions(ActionEngine engine, SeatSnapshot seats) {
+        return engine.getReadyActions(seats);
+    }
+
+    /**
+     * Performs one Action whose Conditions are met, in the current thread's session.
+     * @return  True if performed.
+     */
+    protected boolean perform(Action action) {
+        return action.perform(this);
+    }
+
+    /**
+     * Parses the current schedule and shopping cart again after an Action changed them.
+     * May remove hardcoded Classes if they do not exist in actual schedule or cart.
+     */
+    protected void readScheduleAndCart() {
+        currentSchedule = parseCurrentSchedule();
+        shoppingCart = parseShoppingCart();
         printCurrentSchedule();
+        printShoppingCart();
+        printActions();
+    }
+
+    /**
+     * Reloads every browser session in the pool other than the primary one,
+     * so that SPIRE does not log out the sessions that sit idle between Actions.
+     */
+    protected void keepAlive() {
+        if(driverPool != null) {
+            for(WebDriver session : driverPool.getDrivers()) {
+                if(session != driver) {
+                    LOGGER.config("Reloading an idle session.");
+                    session.get(session.getCurrentUrl());
+                }
+            }
+        }
+    }
+
+    /**
+     * Goes from the SPIRE student center into the enrollment portal's shopping cart.
+     * @param session   The browser session to use.
+     */
+    private void enterEnrollment(WebDriver session) {
+        sessionDriver.set(session);
+        try {
+            // Click on the link that goes to enrollment.
+            LOGGER.info("Clicking CSS selector \""+UMass.ENROLLMENT_LINK_SELECTOR+"\"");
+            UMass.waitForElement(session, By.cssSelector(UMass.ENROLLMENT_LINK_SELECTOR)).click();
+            // Check if SPIRE first needs to have a term selected.
+            if(UMass.checkSelectTerm(this)) {
+                LOGGER.info("Need to select term.");
+                UMass.selectTerm(session, this.term);
+            }
+        } finally {
+            sessionDriver.remove();
+        }
+    }
+
+    private void performInOrder(ActionEngine engine, List<Action> ready) {
+        boolean changed = false;
+        for(Action action : ready) {
+            // An earlier Action this cycle may have satisfied this one, or changed what it depends on.
+            if(action.isSatisfied() || (changed && !action.allConditionsMet(seats))) {
+                continue;
+            }
+            LOGGER.info("All conditions met for action \""+action.toString()+"\", performing action... ");
+            if(perform(action)) {
+                LOGGER.info("Successfully performed action \""+action.toString()+"\"");
+                // If the successful performance of this Action satisfies other Actions, mark them as such.
+                action.setSatisfied(true);
+                action.satisfyOtherActions();
+                refreshAfterChange(engine);
+                changed = true;
+            } else {
+                LOGGER.info("Failed to perform action \""+action.toString()+"\"");
+                engine.recheck(action);
+            }
+        }
+    }
+
+    /**
+     * Performs every ready Action at once, each in its own browser session.
+     * The schedule and shopping cart are refreshed once, after all of them finish.
+     */
+    private void performInParallel(ActionEngine engine, List<Action> ready, ExecutorService executor) {
+        // Lectures changed this cycle. Later Actions on them wait for the next cycle's Conditions.
+        final Set<String> changedLectures = ConcurrentHashMap.newKeySet();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for(final Action action : ready) {
+            tasks.add(new Callable<Integer>() {
+                @Override
+                public Integer call() throws InterruptedException {
+                    return performInSession(action, changedLectures);
+                }
+            });
+        }
+        boolean changed = false;
+        try {
+            List<Future<Integer>> results = executor.invokeAll(tasks);
+            for(int i = 0; i < ready.size(); i++) {
+                int result = UMass.NOT_FOUND;
+                try {
+                    result = results.get(i).get();
+                } catch(ExecutionException e) {
+                    LOGGER.warning("Action \""+ready.get(i)+"\" failed: "+e.getCause());
+                }
+                if(result == UMass.TRUE) {
+                    changed = true;
+                } else if(!ready.get(i).isSatisfied()) {
+                    engine.recheck(ready.get(i));
+                }
+            }
+        } catch(InterruptedException e) {
+            LOGGER.warning(e.getMessage());
+        }
+        if(changed) {
+            refreshAfterChange(engine);
+        }
+    }
+
+    /**
+     * Performs one Action in a leased browser session, holding the locks of every Lecture it changes.
+     * @return  {@link UMass#TRUE} if performed, {@link UMass#FALSE} if it failed,
+     *          or {@link UMass#NOT_FOUND} if it was skipped.
+     */
+    private int performInSession(Action action, Set<String> changedLectures) throws InterruptedException {
+        int result = UMass.NOT_FOUND;
+        // Locks are always taken in class ID order, and before leasing a session, so no two tasks wait on each other.
+        Set<String> lectureIds = new TreeSet<>(action.getLectureIds());
+        Lock exclusive = lectureIds.isEmpty() ? exclusiveLock.writeLock() : exclusiveLock.readLock();
+        List<Lock> locks = new ArrayList<>();
+        exclusive.lock();
+        for(String lectureId : lectureIds) {
+            Lock lock = lectureLocks.computeIfAbsent(lectureId, id -> new ReentrantLock());
+            lock.lock();
+            locks.add(lock);
+        }
+        WebDriver session = null;
+        try {
+            if(action.isSatisfied() || !Collections.disjoint(changedLectures, lectureIds)) {
+                LOGGER.info("Skipping action \""+action+"\"; its lecture changed this cycle.");
+                return result;
+            }
+            session = driverPool.lease();
+            sessionDriver.set(session);
+            LOGGER.info("All conditions met for action \""+action.toString()+"\", performing action... ");
+            if(perform(action)) {
+                LOGGER.info("Successfully performed action \""+action.toString()+"\"");
+                action.setSatisfied(true);
+                action.satisfyOtherActions();
+                changedLectures.addAll(lectureIds);
+                result = UMass.TRUE;
+            } else {
+                LOGGER.info("Failed to perform action \""+action.toString()+"\"");
+                result = UMass.FALSE;
+            }
+        } catch(WebDriverException e) {
+            // One session failing should not stop the others; the Action is checked again next cycle.
+            LOGGER.warning("Failed to perform action \""+action.toString()+"\": "+e.getMessage());
+            result = UMass.FALSE;
+        } finally {
+            sessionDriver.remove();
+            driverPool.release(session);
+            for(Lock lock : locks) {
+                lock.unlock();
+            }
+            exclusive.unlock();
+        }
+        return result;
+    }
+
+    // After every successful action performance, refresh the schedule, shopping cart and seats.
+    private void refreshAfterChange(ActionEngine engine) {
+        readScheduleAndCart();
+        // Seats may have changed too, so the rest of this cycle needs a new snapshot.
+        seats = readSeats(engine.getWatchedClassIds());
+        engine.recheckAll();
     }
 
     private void printCurrentSchedule() {
@@ -156,23 +435,43 @@ public class SpireEnrollment {
     }
 
     private Map<String, Lecture> parseCurrentSchedule() {
+        // Copies the shopping cart page once the current schedule table has loaded.
+        Map<String, Lecture> schedule = parseCurrentSchedule(UMass.readPage(driver, UMass.CART_SCHEDULE_SELECTOR));
+        // Goes to each Lecture's edit tab and parses the other Discussion sections.
+        // A Lecture that is supposed to have Discussions will already contain one.
+        // A Lecture with no Discussions has none at all.
+        for(Lecture l : schedule.values()) {
+            if(l.hasDiscussions()) {
+                l.addDiscussions(getOtherScheduleDiscussions(l));
+            }
+        }
+        return schedule;
+    }
+
+    /**
+     * Parses the current schedule table of the shopping cart page. The other
+     * Discussions of each Lecture are on another page and are not included.
+     * @param page  The shopping cart page, live or saved.
+     * @return      Enrolled Lectures by class ID, with their enrolled Discussions.
+     */
+    public static Map<String, Lecture> parseCurrentSchedule(Document page) {
         Map<String, Lecture> schedule = new HashMap<>();
-        // Gets the size of the current schedule table on the shopping cart page
-        // and iterates over each row. Skips the first row; it's just header labels.
-        for(int row = 1; row < UMass.waitForElement(driver, By.cssSelector(UMass.CART_SCHEDULE_SELECTOR)).findElements(By.tagName("tr")).size(); row++) {
+        // Reads the whole current schedule table at once and iterates over each row.
+        Grid scheduleGrid = Grid.parse(page, UMass.CART_SCHEDULE_GRID_ID);
+        for(int row = 1; row <= scheduleGrid.getRowCount(); row++) {
             // Assume enrollment status is always in 7th column of each row.
-            if(UMass.findElementCartSchedule(driver, row, 7).getAttribute("innerHTML").contains(UMass.ENROLLED_IMAGE)) {
+            if(scheduleGrid.htmlContains(row, 7, UMass.ENROLLED_IMAGE)) {
                 // Lecture rows' names are hyperlink classes. Discussions are hyperlink-disabled classes.
-                if(UMass.findElementCartSchedule(driver, row, 1).getAttribute("innerHTML").contains(UMass.HYPERLINK_CLASS_HTML)) {
+                if(scheduleGrid.htmlContains(row, 1, UMass.HYPERLINK_CLASS_HTML)) {
                     // Create new Lecture by parsing text from this row.
-                    String[] lectureInfo = UMass.findElementCartSchedule(driver, row, 1).getText().split("\n");
+                    String[] lectureInfo = scheduleGrid.getText(row, 1).split("\n");
                     Lecture scheduleLecture = new Lecture(lectureInfo[0], lectureInfo[1]);
-                    scheduleLecture.setDescription(UMass.findElementCartSchedule(driver, row, 2).getText());
+                    scheduleLecture.setDescription(scheduleGrid.getText(row, 2));
                     schedule.put(scheduleLecture.getClassId(), scheduleLecture);
-                } else if(UMass.findElementCartSchedule(driver, row, 1).getAttribute("innerHTML").contains(UMass.HYPERLINKDISABLED_CLASS_HTML)) {
-                    String[] discussionInfo = UMass.findElementCartSchedule(driver, row, 1).getText().split("\n");
+                } else if(scheduleGrid.htmlContains(row, 1, UMass.HYPERLINKDISABLED_CLASS_HTML)) {
+                    String[] discussionInfo = scheduleGrid.getText(row, 1).split("\n");
                     Discussion scheduleDiscussion = new Discussion(discussionInfo[0], discussionInfo[1]);
-                    scheduleDiscussion.setDescription(UMass.findElementCartSchedule(driver, row, 2).getText());
+                    scheduleDiscussion.setDescription(scheduleGrid.getText(row, 2));
                     // Finds the Lecture of the same name as Discussion and sets as enrolled Discussion.
                     for(Lecture l : schedule.values()) {
                         if(l.getName().equals(scheduleDiscussion.getName())) {
@@ -183,14 +482,6 @@ public class SpireEnrollment {
                 }
             }
         }
-        // Goes to each Lecture's edit tab and parses the other Discussion sections.
-        // A Lecture that is supposed to have Discussions will already contain one.
-        // A Lecture with no Discussions has none at all.
-        for(Lecture l : schedule.values()) {
-            if(l.hasDiscussions()) {
-                l.addDiscussions(getOtherScheduleDiscussions(l));
-            }
-        }
         return schedule;
     }
 
@@ -205,18 +496,9 @@ public class SpireEnrollment {
         LOGGER.info("Selecting \""+lecture.getClassId()+"\" in dropdown CSS selector \""+UMass.ENROLLED_DROPDOWN_SELECTOR+"\"");
         new Select(UMass.waitForElement(driver, By.cssSelector(UMass.ENROLLED_DROPDOWN_SELECTOR))).selectByValue(lecture.getClassId());
         driver.findElement(By.cssSelector(UMass.EDIT_CONFIRM_STEP_1_SELECTOR)).click();
-        // Waits for the discussions table to load, then iterates over all Discussions, regardless of open/closed.
-        LOGGER.info("Iterating over all discussions in CSS selector \""+UMass.DISCUSSIONS_TABLE_SELECTOR+"\"");
-        for(int i = 1; i < UMass.waitForElement(driver, By.cssSelector(UMass.DISCUSSIONS_TABLE_SELECTOR))
-                .findElements(By.tagName("tr")).size(); i++) {
-            Discussion otherDiscussion = new Discussion();
-            otherDiscussion.setName(lecture.getName());
-            otherDiscussion.setDescription(lecture.getDescription());
-            otherDiscussion.setClassId(UMass.findElementDiscussionTable(driver, i, 2).getText());
-            otherDiscussion.setSection(UMass.findElementDiscussionTable(driver, i, 3).getText());
-            otherDiscussions.add(otherDiscussion);
-            LOGGER.config("Discussion found \""+otherDiscussion.getClassId()+"\"");
-        }
+        // Waits for the discussions table to load, then parses all Discussions, regardless of open/closed.
+        LOGGER.info("Parsing all discussions in CSS selector \""+UMass.DISCUSSIONS_TABLE_SELECTOR+"\"");
+        otherDiscussions.addAll(parseDiscussions(UMass.readPage(driver, UMass.DISCUSSIONS_TABLE_SELECTOR), lecture));
         LOGGER.info("Going back to \"Add\" tab on the top of the enrollment portal of SPIRE.");
         UMass.findElementTab(driver, "add").click();
         // Check if SPIRE first needs to have a term selected.
@@ -228,39 +510,81 @@ public class SpireEnrollment {
     }
 
     private Map<String, Lecture> parseShoppingCart() {
-        Map<String, Lecture> cart = new HashMap<>();
-        // Subtract 2 from table length because first 2 rows are headers and labels.
-        for(int row = 1; row < UMass.waitForElement(driver, By.cssSelector(UMass.CART_SHOPPING_SELECTOR)).findElements(By.tagName("tr")).size()-2; row++) {
+        // Copies the shopping cart page once. The copy stays valid while clicking in and out of each Lecture.
+        Document cartPage = UMass.readPage(driver, UMass.CART_SHOPPING_SELECTOR);
+        Map<String, Lecture> cart = parseShoppingCart(cartPage);
+        Grid cartGrid = Grid.parse(cartPage, UMass.CART_SHOPPING_GRID_ID);
+        for(Lecture cartLecture : cart.values()) {
+            //Goes into the Lecture to fetch the description.
+            int row = cartGrid.findRow(2, "("+cartLecture.getClassId()+")");
+            UMass.findElementShoppingCart(driver, row, 2).findElement(By.className(UMass.HYPERLINK_CLASS)).click();
+            // While we're on this Lecture's page, check if there are Discussions to add.
+            // The description has loaded, so a Lecture without Discussions simply has an empty grid.
+            Document lecturePage = UMass.readPage(driver, UMass.LECTURE_DESC_SELECTOR);
+            cartLecture.setDescription(parseLectureDescription(lecturePage));
+            for(Discussion discussion : parseDiscussions(lecturePage, cartLecture)) {
+                cartLecture.addDiscussion(discussion);
+            }
+            UMass.findElementTab(driver, "add").click();
+            // Check if SPIRE first needs to have a term selected.
+            if(UMass.checkSelectTerm(this)) {
+                UMass.selectTerm(driver, this.getTerm());
+            }
+        }
+        return cart;
+    }
+
+    /**
+     * Parses the Lectures in the shopping cart table. Descriptions and Discussions
+     * are on each Lecture's own page and are not included.
+     * @param page  The shopping cart page, live or saved.
+     * @return      Lectures in the shopping cart by class ID, in the order shown.
+     */
+    public static Map<String, Lecture> parseShoppingCart(Document page) {
+        Map<String, Lecture> cart = new LinkedHashMap<>();
+        Grid cartGrid = Grid.parse(page, UMass.CART_SHOPPING_GRID_ID);
+        for(int row = 1; row <= cartGrid.getRowCount(); row++) {
             // In the shopping cart, Lectures have checkboxes and Discussions do not.
-            if(UMass.findElementShoppingCart(driver, row, 1).getAttribute("innerHTML").contains(UMass.CART_CHECKBOX_HTML)) {
-                String[] lectureInfo = UMass.findElementShoppingCart(driver, row, 2).getText().split("\n");
+            if(cartGrid.htmlContains(row, 1, UMass.CART_CHECKBOX_HTML)) {
+                String[] lectureInfo = cartGrid.getText(row, 2).split("\n");
                 Lecture cartLecture = new Lecture(lectureInfo[0], lectureInfo[1]);
-                //Goes into the Lecture to fetch the description.
-                UMass.findElementShoppingCart(driver, row, 2).findElement(By.className(UMass.HYPERLINK_CLASS)).click();
-                // Gets the whole Lecture name and splits by the dash (with spaces) for description.
-                cartLecture.setDescription(UMass.waitForElement(driver, By.cssSelector(UMass.LECTURE_DESC_SELECTOR)).getText().split(" - ")[1]);
-                // While we're on this Lecture's page, check if there are Discussions to add.
-                if (driver.findElements(By.cssSelector(UMass.DISCUSSIONS_TABLE_SELECTOR)).size() > 0) {
-                    for (int i = 1; i < driver.findElement(By.cssSelector(UMass.DISCUSSIONS_TABLE_SELECTOR)).findElements(By.tagName("tr")).size(); i++) {
-                        Discussion discussion = new Discussion();
-                        discussion.setName(cartLecture.getName());
-                        discussion.setDescription(cartLecture.getDescription());
-                        discussion.setClassId(UMass.findElementDiscussionTable(driver, i, 2).getText());
-                        discussion.setSection(UMass.findElementDiscussionTable(driver, i, 3).getText());
-                        cartLecture.addDiscussion(discussion);
-                    }
-                }
-                UMass.findElementTab(driver, "add").click();
-                // Check if SPIRE first needs to have a term selected.
-                if(UMass.checkSelectTerm(this)) {
-                    UMass.selectTerm(driver, this.getTerm());
-                }
-                cart.put(cartLecture.getClassId(),cartLecture);
+                cart.put(cartLecture.getClassId(), cartLecture);
             }
         }
         return cart;
     }
 
+    /**
+     * @param page  A Lecture's class detail page, live or saved.
+     * @return      The Lecture's description, from its whole name split by the dash (with spaces).
+     */
+    public static String parseLectureDescription(Document page) {
+        Element name = page.selectFirst(UMass.LECTURE_DESC_SELECTOR);
+        String[] split = name == null ? new String[0] : UMass.innerText(name).split(" - ", 2);
+        return split.length > 1 ? split[1] : "";
+    }
+
+    /**
+     * Parses every Discussion in the discussions table, regardless of open/closed.
+     * @param page      A page with a discussions table, live or saved.
+     * @param lecture   The Lecture the Discussions belong to.
+     * @return          The Discussions, named and described after their Lecture.
+     */
+    public static ArrayList<Discussion> parseDiscussions(Document page, Lecture lecture) {
+        ArrayList<Discussion> discussions = new ArrayList<>();
+        Grid discussionGrid = Grid.parse(page, UMass.DISCUSSIONS_GRID_ID);
+        for(int i = 1; i <= discussionGrid.getRowCount(); i++) {
+            Discussion discussion = new Discussion();
+            discussion.setName(lecture.getName());
+            discussion.setDescription(lecture.getDescription());
+            discussion.setClassId(discussionGrid.getText(i, 2));
+            discussion.setSection(discussionGrid.getText(i, 3));
+            discussions.add(discussion);
+            LOGGER.config("Discussion found \""+discussion.getClassId()+"\"");
+        }
+        return discussions;
+    }
+
     private ArrayList<Action> createActions() {
         ArrayList<Action> actions = new ArrayList<>();
         Scanner s = new Scanner(System.in);
@@ -337,8 +661,53 @@ public class SpireEnrollment {
         return result;
     }
 
+    /**
+     * @return  The browser session leased by the calling thread, if it is
+     *          performing an Action in parallel, or else the main session.
+     */
     public WebDriver getDriver() {
-        return driver;
+        WebDriver session = sessionDriver.get();
+        return session != null ? session : driver;
+    }
+
+    /**
+     * Makes the first refresh cycle wait for an enrollment appointment.
+     * @param appointment   Time the appointment opens on the server's clock, in milliseconds since the epoch.
+     * @param clock         The calibrated server clock.
+     */
+    public void setAppointment(long appointment, ServerClock clock) {
+        this.appointment = appointment;
+        this.clock = clock;
+    }
+
+    public long getAppointment() {
+        return appointment;
+    }
+
+    /**
+     * @param clock The clock that the refresh cycles wait on, such as a simulated one.
+     */
+    public void setClock(ServerClock clock) {
+        this.clock = clock;
+    }
+
+    public ServerClock getClock() {
+        return clock;
+    }
+
+    /**
+     * @param refreshInterval   Least milliseconds between the starts of two refresh cycles.
+     */
+    public void setRefreshInterval(long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public DriverPool getDriverPool() {
+        return driverPool;
+    }
+
+    public void setDriverPool(DriverPool driverPool) {
+        this.driverPool = driverPool;
     }
 
     public String getTerm() {
@@ -356,4 +725,8 @@ public class SpireEnrollment {
     public ArrayList<Action> getActions() {
         return actions;
     }
+
+    public SeatSnapshot getSeatSnapshot() {
+        return seats;
+    }
 }
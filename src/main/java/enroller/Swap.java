@@ -5,6 +5,8 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.ui.Select;
 import spire.UMass;
 
+import java.util.Set;
+
 /**
  * The Swap {@link Action} enrolls the user in one {@link Lecture}
  * and drops another at the same time.
@@ -66,19 +68,15 @@ public class Swap extends Action {
         driver.findElement(By.cssSelector(UMass.SWAP_ENTER_ID_SELECTOR)).click();
         // If this Swap has a Discussion that needs to be selected.
         if(discussionToAdd != null) {
-            // Waits for the discussions table to load, then finds the desired discussion.
-            for(int row = 1; row < UMass.waitForElement(driver, By.cssSelector(UMass.DISCUSSIONS_TABLE_SELECTOR))
-                    .findElements(By.tagName("tr")).size(); row++) {
-                // If this Discussion row is the same class ID as the Discussion to add.
-                if(UMass.findElementDiscussionTable(driver, row, 2).getText().contains(discussionToAdd.getClassId())) {
-                    // Click on the Discussion's radio button and break out of the discussion table loop.
-                    UMass.findElementDiscussionTable(driver, row, 1).findElement(By.className(UMass.RADIO_BUTTON_CLASS)).click();
-                    break;
-                }
+            // Waits for the discussions table to load, then finds the row with the class ID of the Discussion to add.
+            int row = UMass.readGrid(driver, UMass.DISCUSSIONS_TABLE_SELECTOR, UMass.DISCUSSIONS_GRID_ID)
+                    .findRow(2, discussionToAdd.getClassId());
+            if(row != UMass.NOT_FOUND) {
+                // Click on the Discussion's radio button.
+                UMass.findElementDiscussionTable(driver, row, 1).findElement(By.className(UMass.RADIO_BUTTON_CLASS)).click();
             }
-            // The Next button on the next 2 pages have the same CSS selector. Must sleep and wait to distinguish.
-            driver.findElement(By.cssSelector(UMass.NEXT_BUTTON_SELECTOR)).click();
-            UMass.sleep(1000);
+            // The Next button on the next 2 pages have the same CSS selector. Must wait for the page to change.
+            UMass.clickAndWait(driver, driver.findElement(By.cssSelector(UMass.NEXT_BUTTON_SELECTOR)));
         }
         // Click the next button on the confirm swap into Lecture page.
         UMass.waitForElement(driver, By.cssSelector(UMass.NEXT_BUTTON_SELECTOR)).click();
@@ -95,6 +93,12 @@ public class Swap extends Action {
         return result;
     }
 
+    @Override
+    public Set<String> getLectureIds() {
+        return Condition.classIds(lectureToAdd, lectureToDrop);
+    }
+
+    @Override
     public Lecture getLectureToAdd() {
         return lectureToAdd;
     }
@@ -103,6 +107,7 @@ public class Swap extends Action {
         this.lectureToAdd = lectureToAdd;
     }
 
+    @Override
     public Discussion getDiscussionToAdd() {
         return discussionToAdd;
     }
@@ -111,6 +116,7 @@ public class Swap extends Action {
         this.discussionToAdd = discussionToAdd;
     }
 
+    @Override
     public Lecture getLectureToDrop() {
         return lectureToDrop;
     }
@@ -1,9 +1,11 @@
 package houser;
 
+import org.jsoup.nodes.Document;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.Select;
+import spire.Grid;
 import spire.UMass;
 
 import java.util.*;
@@ -68,14 +70,11 @@ public class SpireHousing {
                 // Enter the current search criteria into the DOM.
                 LOGGER.info("Entering search criteria for search #"+i);
                 enterSearchCriteria(driver, curSearch);
-                // Wait an interval, then click the "Search Now" button after finishing entering search criteria.
-                LOGGER.info("Sleeping for "+UMass.WAIT_INTERVAL+" milliseconds.");
-                UMass.sleep(UMass.WAIT_INTERVAL);
+                // Wait for SPIRE to finish handling the criteria, then click the "Search Now" button.
+                UMass.waitForIdle(driver);
                 LOGGER.info("Clicking CSS selector \""+UMass.S5_SEARCH_NOW_SELECTOR+"\"");
-                driver.findElement(By.cssSelector(UMass.S5_SEARCH_NOW_SELECTOR)).click();
-                // Wait an interval to allow the results to load, then begin parsing them.
-                LOGGER.info("Sleeping for "+UMass.WAIT_INTERVAL+" milliseconds.");
-                UMass.sleep(UMass.WAIT_INTERVAL);
+                // Wait for the results to load, then begin parsing them.
+                UMass.clickAndWait(driver, driver.findElement(By.cssSelector(UMass.S5_SEARCH_NOW_SELECTOR)));
                 // Parse the results and save them to the current search configuration.
                 curSearch.setResults(parseRooms());
                 //TODO: How to select which room to assign, if multiple?
@@ -123,10 +122,8 @@ public class SpireHousing {
         UMass.waitForElement(driver, By.cssSelector(UMass.ASSIGN_SECTION_2_SELECTOR)).click();
         // Click the Choose button to go to the next page.
         LOGGER.info("Clicking CSS selector \""+UMass.ASSIGN_CHOOSE_SELECTOR+"\"");
-        UMass.waitForElement(driver, By.cssSelector(UMass.ASSIGN_CHOOSE_SELECTOR)).click();
         // Elements on first page have same CSS selectors as elements on second page. Need to wait for page change.
-        LOGGER.info("Sleeping for "+UMass.WAIT_INTERVAL+" milliseconds.");
-        UMass.sleep(UMass.WAIT_INTERVAL);
+        UMass.clickAndWait(driver, UMass.waitForElement(driver, By.cssSelector(UMass.ASSIGN_CHOOSE_SELECTOR)));
         // Select first student in Section I. Students to Assign
         LOGGER.info("Clicking CSS selector \""+UMass.CONFIRM_SECTION_1_SELECTOR+"\"");
         UMass.waitForElement(driver, By.cssSelector(UMass.CONFIRM_SECTION_1_SELECTOR)).click();
@@ -156,23 +153,19 @@ public class SpireHousing {
             // All radios with associated selects work the same, just values are different. Radios without associated
             // selects work the same as each other too. Only the first case (step 2 radio, building) is commented.
             case BUILDING:  UMass.waitForElement(driver, By.cssSelector(UMass.S2_BUILDING_RADIO_SELECTOR)).click();
-                // Wait a short time to allow the hidden element to appear after the click.
-                UMass.sleep(UMass.WAIT_INTERVAL);
-                // Gets the dropdown menu of buildings.
-                Select s2BuildingSelect = new Select(UMass.waitForElement(driver,
+                // Gets the dropdown menu of buildings once the click has revealed it.
+                Select s2BuildingSelect = new Select(UMass.waitForVisible(driver,
                         By.cssSelector(UMass.S2_BUILDING_SELECT_SELECTOR)));
                 // Gets input from user for which dropdown option they want, and select it.
                 s2BuildingSelect.selectByVisibleText(s2GetSelectOption(curSearch, s2BuildingSelect));
                 break;
             case CLUSTER:   UMass.waitForElement(driver, By.cssSelector(UMass.S2_CLUSTER_RADIO_SELECTOR)).click();
-                UMass.sleep(UMass.WAIT_INTERVAL);
-                Select s2ClusterSelect = new Select(UMass.waitForElement(driver,
+                Select s2ClusterSelect = new Select(UMass.waitForVisible(driver,
                         By.cssSelector(UMass.S2_CLUSTER_SELECT_SELECTOR)));
                 s2ClusterSelect.selectByVisibleText(s2GetSelectOption(curSearch, s2ClusterSelect));
                 break;
             case AREA:      UMass.waitForElement(driver, By.cssSelector(UMass.S2_AREA_RADIO_SELECTOR)).click();
-                UMass.sleep(UMass.WAIT_INTERVAL);
-                Select s2AreaSelect = new Select(UMass.waitForElement(driver,
+                Select s2AreaSelect = new Select(UMass.waitForVisible(driver,
                         By.cssSelector(UMass.S2_AREA_SELECT_SELECTOR)));
                 s2AreaSelect.selectByVisibleText(s2GetSelectOption(curSearch, s2AreaSelect));
                 break;
@@ -181,27 +174,23 @@ public class SpireHousing {
         }
         switch(s3GetRadioOption(curSearch)) {
             case TYPE:      UMass.waitForElement(driver, By.cssSelector(UMass.S3_TYPE_RADIO_SELECTOR)).click();
-                UMass.sleep(UMass.WAIT_INTERVAL);
-                Select s3TypeSelect = new Select(UMass.waitForElement(driver,
+                Select s3TypeSelect = new Select(UMass.waitForVisible(driver,
                         By.cssSelector(UMass.S3_TYPE_SELECT_SELECTOR)));
                 s3TypeSelect.selectByVisibleText(s3GetSelectOption(curSearch, s3TypeSelect));
 
                 break;
             case DESIGN:    UMass.waitForElement(driver, By.cssSelector(UMass.S3_DESIGN_RADIO_SELECTOR)).click();
-                UMass.sleep(UMass.WAIT_INTERVAL);
-                Select s3DesignSelect = new Select(UMass.waitForElement(driver,
+                Select s3DesignSelect = new Select(UMass.waitForVisible(driver,
                         By.cssSelector(UMass.S3_DESIGN_SELECT_SELECTOR)));
                 s3DesignSelect.selectByVisibleText(s3GetSelectOption(curSearch, s3DesignSelect));
                 break;
             case FLOOR:     UMass.waitForElement(driver, By.cssSelector(UMass.S3_FLOOR_RADIO_SELECTOR)).click();
-                UMass.sleep(UMass.WAIT_INTERVAL);
-                Select s3FloorSelect = new Select(UMass.waitForElement(driver,
+                Select s3FloorSelect = new Select(UMass.waitForVisible(driver,
                         By.cssSelector(UMass.S3_FLOOR_SELECT_SELECTOR)));
                 s3FloorSelect.selectByVisibleText(s3GetSelectOption(curSearch, s3FloorSelect));
                 break;
             case OPTION:    UMass.waitForElement(driver, By.cssSelector(UMass.S3_OPTION_RADIO_SELECTOR)).click();
-                UMass.sleep(UMass.WAIT_INTERVAL);
-                Select s3OptionSelect = new Select(UMass.waitForElement(driver,
+                Select s3OptionSelect = new Select(UMass.waitForVisible(driver,
                         By.cssSelector(UMass.S3_OPTION_SELECT_SELECTOR)));
                 s3OptionSelect.selectByVisibleText(s3GetSelectOption(curSearch, s3OptionSelect));
                 break;
@@ -210,20 +199,17 @@ public class SpireHousing {
             case NONE:          UMass.waitForElement(driver, By.cssSelector(UMass.S4_NONE_RADIO_SELECTOR)).click();
                 break;
             case ROOM_OPEN:     UMass.waitForElement(driver, By.cssSelector(UMass.S4_ROOM_OPEN_RADIO_SELECTOR)).click();
-                UMass.sleep(UMass.WAIT_INTERVAL);
-                Select s4RoomOpenSelect = new Select(UMass.waitForElement(driver,
+                Select s4RoomOpenSelect = new Select(UMass.waitForVisible(driver,
                         By.cssSelector(UMass.S4_ROOM_OPEN_SELECT_SELECTOR)));
                 s4RoomOpenSelect.selectByVisibleText(s4GetSelectOption(curSearch, s4RoomOpenSelect));
                 break;
             case SUITE_OPEN:    UMass.waitForElement(driver, By.cssSelector(UMass.S4_SUITE_OPEN_RADIO_SELECTOR)).click();
-                UMass.sleep(UMass.WAIT_INTERVAL);
-                Select s4SuiteOpenSelect = new Select(UMass.waitForElement(driver,
+                Select s4SuiteOpenSelect = new Select(UMass.waitForVisible(driver,
                         By.cssSelector(UMass.S4_SUITE_OPEN_SELECT_SELECTOR)));
                 s4SuiteOpenSelect.selectByVisibleText(s4GetSelectOption(curSearch, s4SuiteOpenSelect));
                 break;
             case TYPE:          UMass.waitForElement(driver, By.cssSelector(UMass.S4_TYPE_RADIO_SELECTOR)).click();
-                UMass.sleep(UMass.WAIT_INTERVAL);
-                Select s4TypeSelect = new Select(UMass.waitForElement(driver,
+                Select s4TypeSelect = new Select(UMass.waitForVisible(driver,
                         By.cssSelector(UMass.S4_TYPE_SELECT_SELECTOR)));
                 s4TypeSelect.selectByVisibleText(s4GetSelectOption(curSearch, s4TypeSelect));
                 break;
@@ -239,17 +225,27 @@ public class SpireHousing {
      * @return  An ArrayList of Room objects shown on the DOM.
      */
     private ArrayList<Room> parseRooms() {
+        return parseRooms(UMass.readPage(driver, UMass.ROOMS_RESULTS_SELECTOR));
+    }
+
+    /**
+     * Read in the table of rooms on a search results page and construct the Room objects.
+     * @param page  The room search results page, live or saved.
+     * @return      An ArrayList of Room objects in the results table.
+     */
+    public static ArrayList<Room> parseRooms(Document page) {
         ArrayList<Room> rooms = new ArrayList<>();
-        // Gets the size of the rooms search results table and iterates over each row.
-        // Skips the first row; it's just header labels, -3 due to non-room rows.
-        for(int row = 1; row < UMass.waitForElement(driver, By.cssSelector(UMass.ROOMS_RESULTS_SELECTOR)).findElements(By.tagName("tr")).size()-3; row++) {
+        // Reads the whole rooms search results table at once and iterates over each room row.
+        // Header and non-room rows are not part of the grid.
+        Grid resultsGrid = Grid.parse(page, UMass.ROOMS_RESULTS_GRID_ID);
+        for(int row = 1; row <= resultsGrid.getRowCount(); row++) {
             // Checks the Room Vacancies cell to make sure this room has non-zero vacancies.
             // Used to indicate if the possibly only row is actually a blank result, ex. no rooms in query.
-            if(!UMass.findElementRoomsResults(driver, row, 9).getText().trim().equals("0")) {
-                String building =   UMass.findElementRoomsResults(driver, row, 1).getText().trim();
-                String number =     UMass.findElementRoomsResults(driver, row, 2).getText().trim();
-                String design =     UMass.findElementRoomsResults(driver, row, 6).getText().trim();
-                String type =       UMass.findElementRoomsResults(driver, row, 7).getText().trim();
+            if(!resultsGrid.getText(row, 9).trim().equals("0")) {
+                String building =   resultsGrid.getText(row, 1).trim();
+                String number =     resultsGrid.getText(row, 2).trim();
+                String design =     resultsGrid.getText(row, 6).trim();
+                String type =       resultsGrid.getText(row, 7).trim();
                 Room room =         new Room(row, building, number, design, type);
                 rooms.add(room);
                 LOGGER.config("area=\""+room.getArea()+"\" building=\""+building+"\" number=\""+number+
@@ -0,0 +1,174 @@
+package planner;
+
+import classscraper.Course;
+import classscraper.CourseSection;
+import classscraper.MeetingSlots;
+import classscraper.MeetingTime;
+import classscraper.SectionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A CourseOption is one way to take a {@link Course}: a lecture
+ * section and, if the lecture has any, one of its discussion sections.
+ * Labs and other sections that are not lectures are treated like
+ * discussions, as the enroller does. A discussion belongs to the
+ * lectures whose section number starts its own ("01AA" to "01");
+ * discussions that belong to no lecture this way may be taken with
+ * any of them. A course with no lecture sections is taken in any
+ * one of its sections.
+ */
+public class CourseOption {
+    private final Course course;
+    private final CourseSection lecture;
+    private final CourseSection discussion;
+    // Every discussion that may be taken with the lecture, including the chosen one.
+    private final List<CourseSection> discussions;
+    private final MeetingSlots slots;
+    // Minute of the day the first meeting of either section starts, or a whole day if neither has a time.
+    private final int earliestStart;
+    // Fewest seats left in either section.
+    private final int openSeats;
+    // Position among the options of the course, to order schedules with the same score.
+    private final int index;
+
+    private CourseOption(Course course, CourseSection lecture, CourseSection discussion, List<CourseSection> discussions, int index) {
+        this.course = course;
+        this.lecture = lecture;
+        this.discussion = discussion;
+        this.discussions = discussions;
+        this.index = index;
+        int start = MeetingTime.MINUTES_PER_DAY;
+        int seats = Integer.MAX_VALUE;
+        MeetingSlots meetingSlots = lecture.getMeetingSlots();
+        List<CourseSection> sections = discussion == null ? Collections.singletonList(lecture) : Arrays.asList(lecture, discussion);
+        for(CourseSection section : sections) {
+            MeetingTime meetingTime = MeetingTime.parse(section.getMeetingTime());
+            if(meetingTime != null) {
+                start = Math.min(start, meetingTime.getStart());
+            }
+            seats = Math.min(seats, Math.max(0, section.getEnrollmentCap() - section.getEnrolled()));
+        }
+        if(discussion != null) {
+            meetingSlots = meetingSlots.or(discussion.getMeetingSlots());
+        }
+        this.slots = meetingSlots;
+        this.earliestStart = start;
+        this.openSeats = seats;
+    }
+
+    /**
+     * Finds every way to take a course. Discussions that meet at the
+     * same time as their lecture can not be taken with it and are left out.
+     * @param course    The course, with its sections.
+     * @return          The options, lecture by lecture in the order of the sections.
+     */
+    public static List<CourseOption> of(Course course) {
+        List<CourseOption> result = new ArrayList<>();
+        List<CourseSection> lectures = new ArrayList<>();
+        List<CourseSection> others = new ArrayList<>();
+        for(CourseSection section : course.getSections()) {
+            if(section.getSectionType() == SectionType.LEC) {
+                lectures.add(section);
+            } else {
+                others.add(section);
+            }
+        }
+        if(lectures.isEmpty()) {
+            for(CourseSection section : others) {
+                result.add(new CourseOption(course, section, null, Collections.<CourseSection>emptyList(), result.size()));
+            }
+            return result;
+        }
+        // Discussions whose section number does not start with any lecture's.
+        List<CourseSection> unmatched = new ArrayList<>(others);
+        for(CourseSection lecture : lectures) {
+            for(CourseSection other : others) {
+                if(belongsTo(other, lecture)) {
+                    unmatched.remove(other);
+                }
+            }
+        }
+        for(CourseSection lecture : lectures) {
+            List<CourseSection> discussions = new ArrayList<>();
+            for(CourseSection other : others) {
+                if(belongsTo(other, lecture)) {
+                    discussions.add(other);
+                }
+            }
+            discussions.addAll(unmatched);
+            discussions = Collections.unmodifiableList(discussions);
+            if(discussions.isEmpty()) {
+                result.add(new CourseOption(course, lecture, null, discussions, result.size()));
+            }
+            for(CourseSection discussion : discussions) {
+                if(!lecture.conflictsWith(discussion)) {
+                    result.add(new CourseOption(course, lecture, discussion, discussions, result.size()));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean belongsTo(CourseSection discussion, CourseSection lecture) {
+        return discussion.getSectionnum() != null && lecture.getSectionnum() != null
+                && discussion.getSectionnum().startsWith(lecture.getSectionnum());
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    public CourseSection getLecture() {
+        return lecture;
+    }
+
+    /**
+     * @return  The discussion taken with the lecture, or null if it has none.
+     */
+    public CourseSection getDiscussion() {
+        return discussion;
+    }
+
+    /**
+     * @return  Every discussion that may be taken with the lecture.
+     */
+    public List<CourseSection> getDiscussions() {
+        return discussions;
+    }
+
+    /**
+     * @return  The slots of the week either section meets in.
+     */
+    public MeetingSlots getSlots() {
+        return slots;
+    }
+
+    /**
+     * @return  Minute of the day either section first starts, or
+     *          a whole day if neither has a meeting time.
+     */
+    public int getEarliestStart() {
+        return earliestStart;
+    }
+
+    /**
+     * @return  The fewest seats left in either section.
+     */
+    public int getOpenSeats() {
+        return openSeats;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return course.getSubject()+" "+course.getCoursenum()+"-"+lecture.getSectionnum()
+                +(discussion == null ? "" : "/"+discussion.getSectionnum());
+    }
+}
@@ -0,0 +1,151 @@
+package planner;
+
+import classscraper.Course;
+import classscraper.CourseSection;
+import classscraper.MeetingSlots;
+import enroller.Discussion;
+import enroller.Lecture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Schedule is a set of {@link CourseOption}s, one for each course,
+ * none of which meet at the same time. A Schedule is built one option
+ * at a time, each Schedule keeping the one it was built from, so the
+ * partial schedules of a search share everything but their last option.
+ */
+public class Schedule {
+    public final static Schedule EMPTY = new Schedule(null, null, MeetingSlots.EMPTY, 0);
+    private final Schedule previous;
+    private final CourseOption option;
+    // The slots of the week any of the options meet in.
+    private final MeetingSlots slots;
+    private final int size;
+    // Set by the ScheduleGenerator once the Schedule is complete.
+    private double score;
+
+    private Schedule(Schedule previous, CourseOption option, MeetingSlots slots, int size) {
+        this.previous = previous;
+        this.option = option;
+        this.slots = slots;
+        this.size = size;
+    }
+
+    /**
+     * @param option    An option that does not conflict with this Schedule.
+     * @return          A Schedule of this Schedule's options and another one.
+     */
+    public Schedule with(CourseOption option) {
+        return new Schedule(this, option, slots.or(option.getSlots()), size+1);
+    }
+
+    /**
+     * @param option    An option of another course.
+     * @return          True if the option meets at the same time as any in this Schedule.
+     */
+    public boolean conflictsWith(CourseOption option) {
+        return slots.conflictsWith(option.getSlots());
+    }
+
+    /**
+     * @return  The options, in the order they were added.
+     */
+    public List<CourseOption> getOptions() {
+        List<CourseOption> result = new ArrayList<>(size);
+        for(Schedule s = this; s.option != null; s = s.previous) {
+            result.add(s.option);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * @return  The Schedule this one was built from, or null if it is empty.
+     */
+    public Schedule getPrevious() {
+        return previous;
+    }
+
+    /**
+     * @return  The option added last, or null if the Schedule is empty.
+     */
+    public CourseOption getLastOption() {
+        return option;
+    }
+
+    /**
+     * @return  Every section of every option, lectures before their discussions.
+     */
+    public List<CourseSection> getSections() {
+        List<CourseSection> result = new ArrayList<>();
+        for(CourseOption o : getOptions()) {
+            result.add(o.getLecture());
+            if(o.getDiscussion() != null) {
+                result.add(o.getDiscussion());
+            }
+        }
+        return result;
+    }
+
+    public MeetingSlots getSlots() {
+        return slots;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return  The score the {@link ScheduleGenerator} gave this Schedule, higher being better.
+     */
+    public double getScore() {
+        return score;
+    }
+
+    void setScore(double score) {
+        this.score = score;
+    }
+
+    /**
+     * Converts this Schedule into Lectures for {@link enroller.SpireEnrollment},
+     * such as a shopping cart. Each Lecture has every Discussion that may be
+     * taken with it, and the one in this Schedule is its enrolled Discussion.
+     * @return  Lectures by class ID, in the order of the options.
+     */
+    public Map<String, Lecture> toLectures() {
+        Map<String, Lecture> result = new LinkedHashMap<>();
+        for(CourseOption o : getOptions()) {
+            Course course = o.getCourse();
+            Lecture lecture = new Lecture();
+            describe(lecture, course, o.getLecture());
+            for(CourseSection section : o.getDiscussions()) {
+                Discussion discussion = new Discussion();
+                describe(discussion, course, section);
+                if(section == o.getDiscussion()) {
+                    lecture.setEnrolledDiscussion(discussion);
+                } else {
+                    lecture.addDiscussion(discussion);
+                }
+            }
+            result.put(lecture.getClassId(), lecture);
+        }
+        return result;
+    }
+
+    // Names a Class the way SPIRE does, such as "COMPSCI 311" section "01AA".
+    private static void describe(enroller.Class c, Course course, CourseSection section) {
+        c.setName(course.getSubject()+" "+course.getCoursenum());
+        c.setSection(section.getSectionnum() == null ? "" : section.getSectionnum());
+        c.setDescription(course.getCoursename() == null ? "" : course.getCoursename());
+        c.setClassId(Integer.toString(section.getSectionid()));
+    }
+
+    @Override
+    public String toString() {
+        return getOptions()+" scored "+score;
+    }
+}
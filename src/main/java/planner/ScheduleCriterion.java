@@ -0,0 +1,146 @@
+package planner;
+
+import classscraper.MeetingTime;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A ScheduleCriterion scores complete {@link Schedule}s, higher
+ * scores being better. To let the {@link ScheduleGenerator} give up on
+ * a partial Schedule early, a ScheduleCriterion may also bound the
+ * scores of every Schedule that could be built from it. A criterion
+ * that does not is still used to rank Schedules, but never prunes any.
+ * Examples can be found below.
+ */
+public interface ScheduleCriterion {
+    double score(Schedule schedule);
+
+    /**
+     * Prepares to bound the partial Schedules that are missing the same
+     * courses. Called once for each number of courses in the search, so
+     * that the function it returns, called for every partial Schedule,
+     * does not need to look at every option left.
+     * @param remaining The options of each course not yet in the partial Schedules.
+     * @return          A function of a partial Schedule that is at least the
+     *                  score of any complete Schedule built from it with an
+     *                  option of each remaining course.
+     */
+    default ToDoubleFunction<Schedule> bound(List<List<CourseOption>> remaining) {
+        return partial -> Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return  A criterion that prefers less time between classes on
+     *          the same day, scored as minus the minutes of the week between them.
+     */
+    static ScheduleCriterion fewerGaps() {
+        return new ScheduleCriterion() {
+            @Override
+            public double score(Schedule schedule) {
+                return -schedule.getSlots().gapMinutes();
+            }
+
+            // The remaining courses can fill no more of a day's gaps than the most they meet that day.
+            @Override
+            public ToDoubleFunction<Schedule> bound(List<List<CourseOption>> remaining) {
+                int[] filled = new int[MeetingTime.DAYS_PER_WEEK];
+                for(List<CourseOption> options : remaining) {
+                    for(int day = 0; day < filled.length; day++) {
+                        int most = 0;
+                        for(CourseOption option : options) {
+                            most = Math.max(most, option.getSlots().minutes(day));
+                        }
+                        filled[day] += most;
+                    }
+                }
+                return partial -> {
+                    int gaps = 0;
+                    for(int day = 0; day < filled.length; day++) {
+                        gaps += Math.max(0, partial.getSlots().gapMinutes(day)-filled[day]);
+                    }
+                    return -gaps;
+                };
+            }
+
+            @Override
+            public String toString() {
+                return "fewer gaps";
+            }
+        };
+    }
+
+    /**
+     * @return  A criterion that prefers a later first class, scored as
+     *          the minute of the day the earliest class of the week starts.
+     */
+    static ScheduleCriterion laterStart() {
+        return new ScheduleCriterion() {
+            @Override
+            public double score(Schedule schedule) {
+                int result = MeetingTime.MINUTES_PER_DAY;
+                for(Schedule s = schedule; s.getLastOption() != null; s = s.getPrevious()) {
+                    result = Math.min(result, s.getLastOption().getEarliestStart());
+                }
+                return result;
+            }
+
+            // Each remaining course starts no later than its latest starting option.
+            @Override
+            public ToDoubleFunction<Schedule> bound(List<List<CourseOption>> remaining) {
+                int latest = MeetingTime.MINUTES_PER_DAY;
+                for(List<CourseOption> options : remaining) {
+                    int start = 0;
+                    for(CourseOption option : options) {
+                        start = Math.max(start, option.getEarliestStart());
+                    }
+                    latest = Math.min(latest, start);
+                }
+                final int bound = latest;
+                return partial -> Math.min(score(partial), bound);
+            }
+
+            @Override
+            public String toString() {
+                return "later start";
+            }
+        };
+    }
+
+    /**
+     * @return  A criterion that prefers classes with seats left, scored as
+     *          the fewest seats left in any section of the Schedule.
+     */
+    static ScheduleCriterion openSeats() {
+        return new ScheduleCriterion() {
+            @Override
+            public double score(Schedule schedule) {
+                int result = Integer.MAX_VALUE;
+                for(Schedule s = schedule; s.getLastOption() != null; s = s.getPrevious()) {
+                    result = Math.min(result, s.getLastOption().getOpenSeats());
+                }
+                return result;
+            }
+
+            // Each remaining course has no more seats left than its option with the most.
+            @Override
+            public ToDoubleFunction<Schedule> bound(List<List<CourseOption>> remaining) {
+                int fewest = Integer.MAX_VALUE;
+                for(List<CourseOption> options : remaining) {
+                    int most = 0;
+                    for(CourseOption option : options) {
+                        most = Math.max(most, option.getOpenSeats());
+                    }
+                    fewest = Math.min(fewest, most);
+                }
+                final int bound = fewest;
+                return partial -> Math.min(score(partial), bound);
+            }
+
+            @Override
+            public String toString() {
+                return "open seats";
+            }
+        };
+    }
+}
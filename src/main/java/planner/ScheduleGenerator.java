@@ -0,0 +1,279 @@
+package planner;
+
+import classscraper.Course;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import java.util.logging.Logger;
+
+/**
+ * The ScheduleGenerator finds the best {@link Schedule}s that take
+ * every wanted course, one {@link CourseOption} of each, with no two
+ * options meeting at the same time. Schedules are ranked by the weighted
+ * sum of the scores of its {@link ScheduleCriterion}s, and only the best
+ * few are kept.
+ * <p>
+ * The search adds one course at a time, those with the fewest options
+ * first, and gives up on a partial Schedule as soon as an option conflicts
+ * with it or the criteria bound every Schedule built from it below the
+ * worst one kept so far. Partial Schedules with many combinations left
+ * are searched in parallel on a {@link ForkJoinPool}.
+ */
+public class ScheduleGenerator {
+    private final static Logger LOGGER = Logger.getLogger("spireautomator.planner");
+    // Partial Schedules with fewer combinations left than this are searched by one thread.
+    private final static double SPLIT_THRESHOLD = 4096;
+    public final static int DEFAULT_LIMIT = 10;
+    private final List<Course> courses;
+    private final Map<ScheduleCriterion, Double> criteria;
+    private int limit;
+
+    /**
+     * @param courses   The courses every Schedule must take, each with its sections.
+     */
+    public ScheduleGenerator(List<Course> courses) {
+        this.courses = new ArrayList<>(courses);
+        this.criteria = new LinkedHashMap<>();
+        this.limit = DEFAULT_LIMIT;
+    }
+
+    /**
+     * @param criterion A criterion to rank Schedules by.
+     * @param weight    How much the criterion's score counts, more than zero.
+     * @return          This ScheduleGenerator.
+     */
+    public ScheduleGenerator addCriterion(ScheduleCriterion criterion, double weight) {
+        if(!(weight > 0)) {
+            throw new IllegalArgumentException("The weight of "+criterion+" must be more than zero.");
+        }
+        criteria.put(criterion, weight);
+        return this;
+    }
+
+    /**
+     * @param limit The most Schedules to find. With no criteria,
+     *              Integer.MAX_VALUE finds every Schedule there is.
+     * @return      This ScheduleGenerator.
+     */
+    public ScheduleGenerator setLimit(int limit) {
+        if(limit < 1) {
+            throw new IllegalArgumentException("The limit must be at least one.");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Searches on the common {@link ForkJoinPool}.
+     * @return  The best Schedules, best first.
+     */
+    public List<Schedule> generate() {
+        return generate(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool  The pool to search on.
+     * @return      The best Schedules, best first, each with its options in
+     *              the order of the courses. Schedules with the same score
+     *              are always in the same order.
+     */
+    public List<Schedule> generate(ForkJoinPool pool) {
+        List<Schedule> result = new ArrayList<>();
+        if(courses.isEmpty()) {
+            return result;
+        }
+        long started = System.nanoTime();
+        List<List<CourseOption>> order = new ArrayList<>();
+        for(Course course : courses) {
+            List<CourseOption> options = CourseOption.of(course);
+            if(options.isEmpty()) {
+                LOGGER.info("No way to take "+course.getSubject()+" "+course.getCoursenum()+", so there is no schedule.");
+                return result;
+            }
+            order.add(options);
+        }
+        // Courses with few options rule out the most of the others' options early.
+        order.sort(Comparator.comparingInt(List::size));
+        Search search = new Search(order);
+        pool.invoke(search.new Branch(Schedule.EMPTY));
+        result.addAll(search.kept);
+        result.sort(search.ranking);
+        // Puts each Schedule's options back in the order of the courses.
+        Map<Course, Integer> positions = new IdentityHashMap<>();
+        for(int i = 0; i < courses.size(); i++) {
+            positions.put(courses.get(i), i);
+        }
+        for(int i = 0; i < result.size(); i++) {
+            List<CourseOption> options = result.get(i).getOptions();
+            options.sort(Comparator.comparingInt(o -> positions.get(o.getCourse())));
+            Schedule schedule = Schedule.EMPTY;
+            for(CourseOption option : options) {
+                schedule = schedule.with(option);
+            }
+            schedule.setScore(result.get(i).getScore());
+            result.set(i, schedule);
+        }
+        LOGGER.info("Found "+result.size()+" schedules of "+courses.size()+" courses in "
+                +(System.nanoTime()-started)/1000000+" ms, scoring "+search.scored+" and pruning "
+                +search.pruned+" partial schedules by score and "+search.conflicts+" by conflict.");
+        return result;
+    }
+
+    // Orders Schedules of the same courses by the positions of their options.
+    private static int compareOptions(Schedule a, Schedule b) {
+        List<CourseOption> first = a.getOptions();
+        List<CourseOption> second = b.getOptions();
+        int result = 0;
+        for(int i = 0; result == 0 && i < first.size(); i++) {
+            result = Integer.compare(first.get(i).getIndex(), second.get(i).getIndex());
+        }
+        return result;
+    }
+
+    /**
+     * The state of one search, shared by all of its Branches.
+     */
+    private class Search {
+        // The options of each course, in the order they are added.
+        private final List<List<CourseOption>> order;
+        // The number of combinations of the options of each course and those after it.
+        private final double[] combinations;
+        private final ScheduleCriterion[] criteria;
+        private final double[] weights;
+        // The bound of each criterion on the partial Schedules of each size.
+        private final List<List<ToDoubleFunction<Schedule>>> bounds;
+        // Best first, with Schedules of the same score by their options' positions.
+        private final Comparator<Schedule> ranking;
+        // The Schedules kept so far, worst first.
+        private final PriorityQueue<Schedule> kept;
+        // The score of the worst Schedule kept, once there are as many as the limit.
+        private volatile double threshold = Double.NEGATIVE_INFINITY;
+        private final LongAdder scored = new LongAdder();
+        private final LongAdder pruned = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+
+        private Search(List<List<CourseOption>> order) {
+            this.order = order;
+            this.combinations = new double[order.size()+1];
+            combinations[order.size()] = 1;
+            for(int i = order.size()-1; i >= 0; i--) {
+                combinations[i] = combinations[i+1]*order.get(i).size();
+            }
+            this.criteria = ScheduleGenerator.this.criteria.keySet().toArray(new ScheduleCriterion[0]);
+            this.weights = new double[criteria.length];
+            for(int i = 0; i < criteria.length; i++) {
+                weights[i] = ScheduleGenerator.this.criteria.get(criteria[i]);
+            }
+            this.bounds = new ArrayList<>();
+            for(int size = 0; size < order.size(); size++) {
+                List<ToDoubleFunction<Schedule>> sizeBounds = new ArrayList<>();
+                for(ScheduleCriterion criterion : criteria) {
+                    sizeBounds.add(criterion.bound(order.subList(size, order.size())));
+                }
+                bounds.add(sizeBounds);
+            }
+            this.ranking = Comparator.comparingDouble(Schedule::getScore).reversed().thenComparing(ScheduleGenerator::compareOptions);
+            this.kept = new PriorityQueue<>(Math.min(limit, 1024), ranking.reversed());
+        }
+
+        /**
+         * A partial Schedule to search every Schedule built from.
+         */
+        private class Branch extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final Schedule partial;
+
+            private Branch(Schedule partial) {
+                this.partial = partial;
+            }
+
+            @Override
+            protected void compute() {
+                if(combinations[partial.size()] < SPLIT_THRESHOLD) {
+                    search(partial);
+                } else {
+                    List<Branch> branches = new ArrayList<>();
+                    for(CourseOption option : order.get(partial.size())) {
+                        Schedule next = extend(partial, option);
+                        if(next != null) {
+                            branches.add(new Branch(next));
+                        }
+                    }
+                    invokeAll(branches);
+                }
+            }
+        }
+
+        private void search(Schedule partial) {
+            if(partial.size() == order.size()) {
+                keep(partial);
+            } else {
+                for(CourseOption option : order.get(partial.size())) {
+                    Schedule next = extend(partial, option);
+                    if(next != null) {
+                        search(next);
+                    }
+                }
+            }
+        }
+
+        // The partial Schedule with the option, or null if none built from it could be kept.
+        private Schedule extend(Schedule partial, CourseOption option) {
+            if(partial.conflictsWith(option)) {
+                conflicts.increment();
+                return null;
+            }
+            Schedule result = partial.with(option);
+            if(result.size() < order.size() && criteria.length > 0 && bound(result) < threshold) {
+                pruned.increment();
+                result = null;
+            }
+            return result;
+        }
+
+        private double bound(Schedule partial) {
+            List<ToDoubleFunction<Schedule>> sizeBounds = bounds.get(partial.size());
+            double result = 0;
+            for(int i = 0; i < criteria.length; i++) {
+                result += weights[i]*sizeBounds.get(i).applyAsDouble(partial);
+            }
+            return result;
+        }
+
+        private void keep(Schedule schedule) {
+            double score = 0;
+            for(int i = 0; i < criteria.length; i++) {
+                score += weights[i]*criteria[i].score(schedule);
+            }
+            scored.increment();
+            if(score < threshold) {
+                return;
+            }
+            schedule.setScore(score);
+            synchronized(kept) {
+                if(kept.size() < limit) {
+                    kept.add(schedule);
+                } else if(ranking.compare(schedule, kept.peek()) < 0) {
+                    kept.poll();
+                    kept.add(schedule);
+                }
+                if(kept.size() == limit) {
+                    threshold = kept.peek().getScore();
+                }
+            }
+        }
+    }
+}
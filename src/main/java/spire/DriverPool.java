@@ -0,0 +1,124 @@
+package spire;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+/**
+ * A DriverPool holds several logged-in browser sessions so that
+ * independent work can happen in SPIRE at the same time.
+ * The primary {@link WebDriver}, which the program has already
+ * logged in with, is always part of the pool. The other sessions
+ * are created and logged in by a {@link SessionFactory} when the
+ * pool is started. A session is leased by one thread at a time
+ * and must be released when that thread is done with it.
+ */
+public class DriverPool {
+    /**
+     * Creates a new browser session that is logged in to SPIRE
+     * and showing the SPIRE internal frame as its main page.
+     */
+    public interface SessionFactory {
+        WebDriver newSession();
+    }
+
+    private final static Logger LOGGER = Logger.getLogger("spireautomator.pool");
+    private final WebDriver primary;
+    private final int size;
+    private final SessionFactory factory;
+    private final List<WebDriver> drivers;
+    private final BlockingQueue<WebDriver> available;
+
+    public DriverPool(WebDriver primary, int size, SessionFactory factory) {
+        this.primary = primary;
+        this.size = Math.max(1, size);
+        this.factory = factory;
+        this.drivers = new CopyOnWriteArrayList<>();
+        this.available = new LinkedBlockingQueue<>();
+        this.drivers.add(primary);
+        this.available.add(primary);
+    }
+
+    /**
+     * Creates and logs in the additional sessions, all at the same time.
+     * Sessions that fail to start are left out, so the pool may be smaller than requested.
+     * @return  This DriverPool.
+     */
+    public DriverPool start() {
+        int extra = size - drivers.size();
+        if(extra <= 0) {
+            return this;
+        }
+        LOGGER.info("Starting "+extra+" additional browser session(s).");
+        ExecutorService starter = Executors.newFixedThreadPool(extra);
+        List<Future<WebDriver>> futures = new ArrayList<>();
+        for(int i = 0; i < extra; i++) {
+            futures.add(starter.submit(new Callable<WebDriver>() {
+                @Override
+                public WebDriver call() {
+                    return factory.newSession();
+                }
+            }));
+        }
+        for(Future<WebDriver> future : futures) {
+            try {
+                WebDriver session = future.get();
+                drivers.add(session);
+                available.add(session);
+            } catch(InterruptedException | ExecutionException e) {
+                LOGGER.warning("Failed to start a browser session: "+e.getMessage());
+            }
+        }
+        starter.shutdown();
+        LOGGER.info("Browser session pool has "+drivers.size()+" session(s).");
+        return this;
+    }
+
+    /**
+     * Waits for a session to become available and leases it to the calling thread.
+     * @return  A logged-in session.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public WebDriver lease() throws InterruptedException {
+        return available.take();
+    }
+
+    public void release(WebDriver driver) {
+        if(driver != null && drivers.contains(driver)) {
+            available.add(driver);
+        }
+    }
+
+    public WebDriver getPrimary() {
+        return primary;
+    }
+
+    public List<WebDriver> getDrivers() {
+        return Collections.unmodifiableList(drivers);
+    }
+
+    public int size() {
+        return drivers.size();
+    }
+
+    /**
+     * Quits every session except the primary, which is quit by whoever created it.
+     */
+    public void quit() {
+        for(WebDriver driver : drivers) {
+            if(driver != primary) {
+                try {
+                    driver.quit();
+                } catch(WebDriverException e) {
+                    LOGGER.warning("Failed to quit a browser session: "+e.getMessage());
+                }
+            }
+        }
+        drivers.retainAll(Collections.singleton(primary));
+        available.clear();
+        available.add(primary);
+    }
+}
@@ -0,0 +1,128 @@
+package spire;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Grid is a read-only copy of a PeopleSoft grid (table),
+ * taken from the browser in a single round trip instead of
+ * one {@link org.openqa.selenium.WebDriver} command per cell.
+ * PeopleSoft gives every data row of a grid the ID
+ * "tr" + grid ID + "_row" + row number, so rows and columns
+ * are numbered from 1 the same way as the findElement*
+ * functions in {@link UMass}. Each cell keeps both its
+ * visible text and its inner HTML so that icons, checkboxes,
+ * and hyperlinks can still be checked.
+ */
+public class Grid {
+    private final String id;
+    private final List<String[]> text;
+    private final List<String[]> html;
+
+    public Grid(String id) {
+        this.id = id;
+        this.text = new ArrayList<>();
+        this.html = new ArrayList<>();
+    }
+
+    /**
+     * Reads a PeopleSoft grid from a page that has already been copied out of the
+     * browser, or from a saved page. Cell text is approximated with {@link UMass#innerText}.
+     * @param page      The parsed page.
+     * @param gridId    The grid's ID, as used in its row IDs (ex. "SSR_REGFORM_VW$0").
+     * @return          A Grid with every row found, or no rows if the grid is not on the page.
+     */
+    public static Grid parse(Document page, String gridId) {
+        Grid grid = new Grid(gridId);
+        // Keep each cell's HTML as written, like the browser's innerHTML.
+        page.outputSettings().prettyPrint(false);
+        for(int row = 1; ; row++) {
+            Element tr = page.getElementById("tr"+gridId+"_row"+row);
+            if(tr == null) {
+                break;
+            }
+            String[] text = new String[tr.children().size()];
+            String[] html = new String[text.length];
+            for(int col = 0; col < text.length; col++) {
+                Element td = tr.child(col);
+                text[col] = UMass.innerText(td);
+                html[col] = td.html();
+            }
+            grid.addRow(text, html);
+        }
+        return grid;
+    }
+
+    /**
+     * Appends a row to the bottom of this Grid.
+     * @param text  Visible text of each cell, from left to right.
+     * @param html  Inner HTML of each cell, from left to right.
+     * @return      This Grid.
+     */
+    public Grid addRow(String[] text, String[] html) {
+        this.text.add(text);
+        this.html.add(html);
+        return this;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getRowCount() {
+        return text.size();
+    }
+
+    public int getColumnCount(int row) {
+        return isInBounds(row, 1) ? text.get(row-1).length : 0;
+    }
+
+    /**
+     * @param row   Row number, starting at 1.
+     * @param col   Column number, starting at 1.
+     * @return      The visible text of the cell, or an empty string if there is no such cell.
+     */
+    public String getText(int row, int col) {
+        return isInBounds(row, col) ? text.get(row-1)[col-1] : "";
+    }
+
+    /**
+     * @param row   Row number, starting at 1.
+     * @param col   Column number, starting at 1.
+     * @return      The inner HTML of the cell, or an empty string if there is no such cell.
+     */
+    public String getHtml(int row, int col) {
+        return isInBounds(row, col) ? html.get(row-1)[col-1] : "";
+    }
+
+    public boolean htmlContains(int row, int col, String snippet) {
+        return getHtml(row, col).contains(snippet);
+    }
+
+    /**
+     * Finds the first row whose cell in the given column contains the given text.
+     * @param col   Column number to search, starting at 1.
+     * @param find  Text to look for.
+     * @return      The row number, or {@link UMass#NOT_FOUND} if no row matches.
+     */
+    public int findRow(int col, String find) {
+        for(int row = 1; row <= getRowCount(); row++) {
+            if(getText(row, col).contains(find)) {
+                return row;
+            }
+        }
+        return UMass.NOT_FOUND;
+    }
+
+    private boolean isInBounds(int row, int col) {
+        return row >= 1 && row <= text.size() && col >= 1 && col <= text.get(row-1).length;
+    }
+
+    @Override
+    public String toString() {
+        return id+" ("+getRowCount()+" rows)";
+    }
+}
@@ -0,0 +1,151 @@
+package spire;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Date;
+import java.util.logging.Logger;
+
+/**
+ * A ServerClock estimates the difference between the local clock
+ * and SPIRE's clock, so that something can happen at an exact time
+ * on SPIRE's clock, such as the opening of an enrollment appointment.
+ * The HTTP "Date" header only has whole seconds, so the offset is
+ * found by requesting the server back to back until the second
+ * in its "Date" header ticks over. The tick happened between the two
+ * requests, which bounds the offset to about one round trip.
+ */
+public class ServerClock {
+    private final static Logger LOGGER = Logger.getLogger("spireautomator.clock");
+    // Number of second tick-overs to observe; the one with the tightest bounds is kept.
+    private final static int TICKS = 3;
+    // Requests before giving up, in case the server never sends a "Date" header.
+    private final static int MAX_SAMPLES = 200;
+    // Sleeping is only accurate to a few milliseconds, so the last part of a wait checks the clock instead.
+    private final static int SPIN_MILLIS = 20;
+    // Server time minus local time, in milliseconds.
+    private final long offset;
+    // Half the width of the window that the tick-over was found in, in milliseconds.
+    private final long uncertainty;
+
+    public ServerClock(long offset, long uncertainty) {
+        this.offset = offset;
+        this.uncertainty = uncertainty;
+    }
+
+    /**
+     * @return  A ServerClock that assumes the server's clock matches the local clock.
+     */
+    public static ServerClock local() {
+        return new ServerClock(0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Measures the offset of the server's clock from the local clock.
+     * If the server cannot be reached or sends no "Date" header, the local clock is used.
+     * @param url   Any page on the server, such as {@link UMass#SPIRE_HOME_URL}.
+     * @return      The measured ServerClock.
+     */
+    public static ServerClock calibrate(String url) {
+        ServerClock result = null;
+        long previousSent = 0;
+        long previousReceived = 0;
+        long previousDate = 0;
+        int ticks = 0;
+        try {
+            URL target = new URL(url);
+            for(int samples = 0; samples < MAX_SAMPLES && ticks < TICKS; samples++) {
+                long sent = System.currentTimeMillis();
+                long date = requestDate(target);
+                long received = System.currentTimeMillis();
+                if(date <= 0) {
+                    LOGGER.warning("No \"Date\" header from \""+url+"\"");
+                    break;
+                }
+                if(previousDate > 0 && date > previousDate) {
+                    // The server stamped each response somewhere within its request; the second ticked between them.
+                    long tick = ((previousSent+previousReceived)/2+(sent+received)/2)/2;
+                    long bounds = (received-previousSent)/2;
+                    if(result == null || bounds < result.uncertainty) {
+                        result = new ServerClock(date-tick, bounds);
+                    }
+                    ticks++;
+                    LOGGER.config("Server second ticked within "+bounds+" ms of "+new Date(tick));
+                    // Skip most of the next second instead of requesting through it.
+                    UMass.sleep((int) Math.max(0, 1000-(received-sent)*2-(received-tick)));
+                }
+                previousSent = sent;
+                previousReceived = received;
+                previousDate = date;
+            }
+        } catch(IOException e) {
+            LOGGER.warning("Failed to calibrate server clock: "+e.getMessage());
+        }
+        if(result == null) {
+            LOGGER.warning("Using the local clock as the server clock.");
+            result = local();
+        }
+        LOGGER.info("Calibrated "+result);
+        return result;
+    }
+
+    private static long requestDate(URL target) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) target.openConnection();
+        connection.setRequestMethod("HEAD");
+        connection.setUseCaches(false);
+        connection.setInstanceFollowRedirects(false);
+        connection.setConnectTimeout(UMass.TIMEOUT_INTERVAL*1000);
+        connection.setReadTimeout(UMass.TIMEOUT_INTERVAL*1000);
+        try {
+            connection.getResponseCode();
+            return connection.getHeaderFieldDate("Date", 0);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * @return  The current time on the server's clock, in milliseconds since the epoch.
+     */
+    public long now() {
+        return System.currentTimeMillis()+offset;
+    }
+
+    /**
+     * @param serverTime    A time on the server's clock.
+     * @return              Milliseconds until that time, negative if it has passed.
+     */
+    public long millisUntil(long serverTime) {
+        return serverTime-now();
+    }
+
+    /**
+     * Blocks until the given time on the server's clock. Sleeps for most of the
+     * wait and checks the clock for the last few milliseconds, so it returns
+     * within about a millisecond of the given time.
+     * @param serverTime    A time on the server's clock, in milliseconds since the epoch.
+     */
+    public void sleepUntil(long serverTime) {
+        long remaining = millisUntil(serverTime);
+        while(remaining > SPIN_MILLIS) {
+            UMass.sleep((int) Math.min(Integer.MAX_VALUE, remaining-SPIN_MILLIS));
+            remaining = millisUntil(serverTime);
+        }
+        while(millisUntil(serverTime) > 0) {
+            Thread.yield();
+        }
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getUncertainty() {
+        return uncertainty;
+    }
+
+    @Override
+    public String toString() {
+        return uncertainty == Long.MAX_VALUE ? "server clock (local)" : "server clock (offset "+offset+" ms, +/- "+uncertainty+" ms)";
+    }
+}
@@ -23,10 +23,26 @@ import org.openqa.selenium.ie.InternetExplorerOptions;
 import org.openqa.selenium.safari.SafariDriver;
 import org.openqa.selenium.safari.SafariOptions;
 
+import classscraper.AsyncCatalogSink;
+import classscraper.CatalogFilter;
+import classscraper.CatalogFileSink;
+import classscraper.CatalogSink;
+import classscraper.CatalogSnapshotSink;
+import classscraper.CsvCatalogSink;
+import classscraper.DiffingCatalogSink;
+import classscraper.EnrollmentHistory;
+import classscraper.HistoryCatalogSink;
+import classscraper.NdjsonCatalogSink;
+import classscraper.SectionChange;
+import classscraper.SectionChangeListener;
+import classscraper.SectionSnapshot;
 import classscraper.SpireClassScraper;
 
 import java.io.*;
 import java.net.URL;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Handler;
@@ -157,6 +173,8 @@ public class SpireAutomator {
     }
 
     private final static Logger LOGGER = Logger.getLogger("spireautomator");
+    // Courses the class scraper may get ahead of its output files by before it waits for them.
+    private final static int CATALOG_QUEUE_CAPACITY = 256;
 
     public static void main(String[] args) {
         Handler handler = new ConsoleHandler();
@@ -173,10 +191,32 @@ public class SpireAutomator {
         boolean headless = false; 
         File driverPath = null;
         WebDriver driver = null;
+        // Number of browser sessions to perform independent actions with at the same time.
+        int sessions = 1;
+        // Enrollment appointment on SPIRE's clock, and how many minutes before it to log in.
+        long appointment = 0;
+        int warmup = 5;
+        ServerClock clock = null;
+        DriverPool driverPool = null;
         Automator automator = null;
         String username = null;
         String password = null;
         String term = null;
+        // Class search subject for the class scraper, or null to scrape every subject.
+        String subject = null;
+        // Course numbers, open classes and gen eds for the class scraper, searched for by class search where it can.
+        CatalogFilter filter = new CatalogFilter();
+        // Directory to write the class scraper's catalog to, one file per subject, in "ndjson" or "csv".
+        File output = null;
+        String format = "ndjson";
+        // File to keep the last scrape in, so the next one prints only the sections that changed.
+        File snapshot = null;
+        // Minutes between class scrapes, or 0 to scrape once.
+        int repeat = 0;
+        // Directory to record the enrollment of every section in on each scrape.
+        File history = null;
+        // Directory to save each scrape in as a binary catalog snapshot.
+        File catalogs = null;
         File asciiArt = new File("asciiArt");
         File readmeMd = new File("README.md");
 
@@ -223,6 +263,34 @@ public class SpireAutomator {
                         case "username":    username = value;                       break;
                         case "password":    password = value;                       break;
                         case "term":        term = value;                           break;
+                        case "subject":     subject = value;                        break;
+                        case "courses":     try {
+                                                filter.courseNumbers(value);
+                                            } catch(IllegalArgumentException e) {
+                                                LOGGER.warning(e.getMessage());
+                                            }   break;
+                        case "open":        if(value.equalsIgnoreCase("true")) {
+                                                filter.openOnly();
+                                            }   break;
+                        case "gened":       filter.genEd(value);                    break;
+                        case "output":      output = new File(value);               break;
+                        case "format":      format = value.trim().toLowerCase();    break;
+                        case "snapshot":    snapshot = new File(value);             break;
+                        case "history":     history = new File(value);              break;
+                        case "catalogs":    catalogs = new File(value);             break;
+                        case "repeat":      int repeatMinutes = UMass.tryToInt(value);
+                                            if(repeatMinutes > 0) {
+                                                repeat = repeatMinutes;
+                                            }   break;
+                        case "appointment": appointment = parseAppointment(value);  break;
+                        case "warmup":      int minutes = UMass.tryToInt(value);
+                                            if(minutes > 0) {
+                                                warmup = minutes;
+                                            }   break;
+                        case "sessions":    int numSessions = UMass.tryToInt(value);
+                                            if(numSessions > 0) {
+                                                sessions = numSessions;
+                                            }   break;
                         default:            break;
                     }
                 } else if(arg.trim().toLowerCase().equals("help")) {
@@ -235,6 +303,8 @@ public class SpireAutomator {
             // Program will still run, prompting for all needed inputs, even if no arguments are given.
         }
 
+        // The subject is searched for like the rest of the filter.
+        filter.subject(subject);
         LOGGER.config(args.length+" argument(s): "+Arrays.toString(args));
         LOGGER.config("Logging level = \""+LOGGER.getLevel().toString()+"\"");
         LOGGER.config("Operating system = \""+os.name()+"\"");
@@ -244,6 +314,9 @@ public class SpireAutomator {
         LOGGER.config("Timeout limit = \""+UMass.TIMEOUT_INTERVAL+"\"");
         LOGGER.config("URL = \""+UMass.SPIRE_HOME_URL+"\"");
         LOGGER.config("Automator = \""+automator+"\"");
+        LOGGER.config("Sessions = \""+sessions+"\"");
+        LOGGER.config("Appointment = \""+(appointment > 0 ? new Date(appointment) : null)+"\"");
+        LOGGER.config("Warmup = \""+warmup+"\"");
         LOGGER.config("Username = \""+username+"\"");
         if(password == null || password.equals("")) {
             LOGGER.config("Password = \""+password+"\"");
@@ -251,6 +324,14 @@ public class SpireAutomator {
             LOGGER.config("Password = ****************");
         }
         LOGGER.config("Term = \""+term+"\"");
+        LOGGER.config("Subject = \""+subject+"\"");
+        LOGGER.config("Filter = \""+filter+"\"");
+        LOGGER.config("Output = \""+output+"\"");
+        LOGGER.config("Format = \""+format+"\"");
+        LOGGER.config("Snapshot = \""+snapshot+"\"");
+        LOGGER.config("Repeat = \""+repeat+"\"");
+        LOGGER.config("History = \""+history+"\"");
+        LOGGER.config("Catalogs = \""+catalogs+"\"");
 
         // Keep repeating until the user selects a browser that is known to be available for their OS.
         while(osBrowser == null) {
@@ -279,59 +360,27 @@ public class SpireAutomator {
                 driverPath = downloadExecutable(tempDir, osBrowser);
             }
         }
+        // With an appointment, wait to log in until a few minutes before it, measured on SPIRE's clock.
+        if(appointment > 0) {
+            clock = ServerClock.calibrate(UMass.SPIRE_HOME_URL);
+            long loginTime = appointment - warmup * 60000L;
+            if(clock.millisUntil(loginTime) > 0) {
+                LOGGER.info("Sleeping until " + warmup + " minutes before the appointment.");
+                clock.sleepUntil(loginTime);
+                // The local clock may have drifted while sleeping.
+                clock = ServerClock.calibrate(UMass.SPIRE_HOME_URL);
+            }
+        }
         // From the point the WebDriver will be active. For the purpose of cleanly exiting, we catch some common exceptions.
         try {
-            // Now set system properties and construct driver.
-            switch (browser) {
-                case CHROME:
-                    System.setProperty("webdriver.chrome.driver", driverPath.getAbsolutePath());
-                    LOGGER.info("Environment variable set \"webdriver.chrome.driver\"=\"" + System.getProperty("webdriver.chrome.driver") + "\"");
-                    ChromeOptions chromeOptions = new ChromeOptions();
-                    chromeOptions.setHeadless(headless);
-                    driver = new ChromeDriver(chromeOptions);
-                    break;
-                case FIREFOX:
-                    System.setProperty("webdriver.gecko.driver", driverPath.getAbsolutePath());
-                    LOGGER.info("Environment variable set \"webdriver.gecko.driver\"=\"" + System.getProperty("webdriver.gecko.driver") + "\"");
-                    FirefoxOptions firefoxOptions = new FirefoxOptions();
-                    firefoxOptions.setHeadless(headless);
-                    driver = new FirefoxDriver(firefoxOptions);
-                    break;
-                case IE:
-                    System.setProperty("webdriver.ie.driver", driverPath.getAbsolutePath());
-                    LOGGER.info("Environment variable set \"webdriver.ie.driver\"=\"" + System.getProperty("webdriver.ie.driver") + "\"");
-                    InternetExplorerOptions internetExplorerOptions = new InternetExplorerOptions();
-                    if (headless) {
-                        LOGGER.info("Internet Explorer does not support headless mode.");
-                    }
-                    driver = new InternetExplorerDriver(internetExplorerOptions);
-                    break;
-                case EDGE:
-                    System.setProperty("webdriver.edge.driver", driverPath.getAbsolutePath());
-                    LOGGER.info("Environment variable set \"webdriver.edge.driver\"=\"" + System.getProperty("webdriver.edge.driver") + "\"");
-                    EdgeOptions edgeOptions = new EdgeOptions();
-                    if (headless) {
-                        LOGGER.info("Microsoft Edge does not support headless mode.");
-                    }
-                    driver = new EdgeDriver(edgeOptions);
-                    break;
-                case SAFARI:    //System.setProperty("SELENIUM_SERVER_JAR", driverPath.getAbsolutePath()); // Environment variable may not be necessary on Safari 10+, have not yet tested.
-                    //LOGGER.info("Environment variable set \"SELENIUM_SERVER_JAR\"=\""+System.getProperty("webdriver.gecko.driver")+"\"");
-                    SafariOptions safariOptions = new SafariOptions();
-                    if (headless) {
-                        LOGGER.info("Apple Safari does not support headless mode.");
-                    }
-                    driver = new SafariDriver(safariOptions);
-                    break;
-                default:
-                    break;
-            }
+            driver = createDriver(browser, headless, driverPath);
 
             // Go to the target website in the browser. Default is UMass SPIRE homepage.
             driver.get(UMass.SPIRE_HOME_URL);
             LOGGER.info("Driver going to \"" + driver.getCurrentUrl() + "\"");
             // Boolean used to re-prompt user for username/password in case the provided credentials did not progress page.
             boolean loginAttempted = false;
+            boolean loggedIn;
             do {
                 // If no username was provided, prompt for one.
                 if (username == null || loginAttempted) {
@@ -353,41 +402,35 @@ public class SpireAutomator {
                         password = new Scanner(System.in).nextLine();
                     }
                 }
-                // Explicitly waits for the Username field to load and types username.
-                LOGGER.info("Typing \"" + username + "\" into ID \"" + UMass.USERNAME_ID + "\"");
-                UMass.waitForElement(driver, By.id(UMass.USERNAME_ID)).sendKeys(username);
-                // Presence of Username means Password and Go button are loaded too.
-                if (password == null || password.equals("")) {
-                    LOGGER.info("Typing \"" + password + "\" into ID \"" + UMass.PASSWORD_ID + "\"");
-                } else {
-                    LOGGER.info("Typing the password into ID \"" + UMass.PASSWORD_ID + "\"");
-                }
-                driver.findElement(By.id(UMass.PASSWORD_ID)).sendKeys(password);
-                // SPIRE slightly changed the CSS selector for the login button. Look for new one first, if not found, try old one.
-                LOGGER.info("Looking for the login button.");
-                if (UMass.isElementFound(driver, UMass.TIMEOUT_INTERVAL, By.cssSelector(UMass.LOGIN_BUTTON_SELECTOR))) {
-                    LOGGER.info("Clicking CSS selector \"" + UMass.LOGIN_BUTTON_SELECTOR + "\"");
-                    driver.findElement(By.cssSelector(UMass.LOGIN_BUTTON_SELECTOR)).click();
-                } else {
-                    LOGGER.info("Clicking CSS selector \"" + UMass.OLD_LOGIN_BUTTON_SELECTOR + "\"");
-                    driver.findElement(By.cssSelector(UMass.OLD_LOGIN_BUTTON_SELECTOR)).click();
-                }
-                LOGGER.info("Sleeping for " + UMass.WAIT_INTERVAL * 2 + " milliseconds.");
-                UMass.sleep(UMass.WAIT_INTERVAL * 2);
+                loggedIn = logIn(driver, username, password);
                 loginAttempted = true;
                 // The page will be "SPIRE Logon" as long as the user is not logged in.
                 // Repeat until the page has changed, assuming that means the user is successfully logged in.
-            } while (driver.getTitle().equals("SPIRE Logon"));
-
-            // SPIRE is normally shown as a webpage within a webpage.
-            // The subwebpage's code is hard to access while it is nested.
-            // This line explicitly waits until the internal frame is present
-            // and then loads it into the driver as the main webpage.
-            LOGGER.info("Loading \"iframe\" into the driver.");
-            driver.get(UMass.waitForElement(driver, By.tagName("iframe")).getAttribute("src"));
-            // Wait in case there is an error popup (seen on Firefox, not Chrome).
-            LOGGER.info("Sleeping for " + UMass.WAIT_INTERVAL + " milliseconds.");
-            UMass.sleep(UMass.WAIT_INTERVAL);
+            } while (!loggedIn);
+
+            loadSpireFrame(driver);
+
+            // Additional browser sessions log in with the credentials that just worked.
+            if(sessions > 1) {
+                final Browser sessionBrowser = browser;
+                final boolean sessionHeadless = headless;
+                final File sessionDriverPath = driverPath;
+                final String sessionUsername = username;
+                final String sessionPassword = password;
+                driverPool = new DriverPool(driver, sessions, new DriverPool.SessionFactory() {
+                    @Override
+                    public WebDriver newSession() {
+                        WebDriver session = createDriver(sessionBrowser, sessionHeadless, sessionDriverPath);
+                        session.get(UMass.SPIRE_HOME_URL);
+                        if(!logIn(session, sessionUsername, sessionPassword)) {
+                            session.quit();
+                            throw new IllegalStateException("Additional session could not log in.");
+                        }
+                        loadSpireFrame(session);
+                        return session;
+                    }
+                }).start();
+            }
 
             // If no preferred automator was provided, prompt for one.
             while (automator == null) {
@@ -410,16 +453,23 @@ public class SpireAutomator {
             switch (automator) {
 	            case CLASSSCRAPER:
 	            	LOGGER.info("Constructing Class Scraper Configuration");
-	            	SpireClassScraper classScraper = new SpireClassScraper(driver,term);
-	            	classScraper.run();
+	            	SpireClassScraper classScraper = new SpireClassScraper(driver, term);
+	            	classScraper.setFilter(filter);
+	            	classScraper.setDriverPool(driverPool);
+	            	runClassScraper(classScraper, driverPool != null ? driverPool.getDrivers() : Collections.singletonList(driver),
+	            	        term, output, format, snapshot, history, catalogs, repeat);
 	            	break;
                 case ENROLLER:
                     LOGGER.info("Constructing enroller configuration.");
                     Map<String, Lecture> currentSchedule = new HashMap<>();
                     Map<String, Lecture> shoppingCart = new HashMap<>();
                     ArrayList<Action> actions = new ArrayList<>();
-                    setEnrollerConfiguration(driver, currentSchedule, shoppingCart, actions);
+                    setEnrollerConfiguration(currentSchedule, shoppingCart, actions);
                     SpireEnrollment spireEnrollment = new SpireEnrollment(driver, term, currentSchedule, shoppingCart, actions);
+                    spireEnrollment.setDriverPool(driverPool);
+                    if(appointment > 0) {
+                        spireEnrollment.setAppointment(appointment, clock);
+                    }
                     LOGGER.info("Running enroller with " + actions.size() + " actions.");
                     spireEnrollment.run();
                     break;
@@ -588,6 +638,10 @@ public class SpireAutomator {
             // Catches common exceptions thrown by the WebDriver process, like timeouts, and old or missing elements.
             e.printStackTrace();
         } finally {
+            if(driverPool != null) {
+                LOGGER.info("Quitting additional WebDriver processes.");
+                driverPool.quit();
+            }
             LOGGER.info("Quitting WebDriver process.");
             driver.quit();
         }
@@ -597,6 +651,249 @@ public class SpireAutomator {
         }
     }
 
+    /**
+     * Sets the system property for the browser's driver executable and starts a new browser session.
+     * @param browser       The browser to start.
+     * @param headless      Whether the browser should be hidden, if the browser supports it.
+     * @param driverPath    The driver executable for the browser.
+     * @return              The new browser session.
+     */
+    private static WebDriver createDriver(Browser browser, boolean headless, File driverPath) {
+        WebDriver result = null;
+        switch (browser) {
+            case CHROME:
+                System.setProperty("webdriver.chrome.driver", driverPath.getAbsolutePath());
+                LOGGER.info("Environment variable set \"webdriver.chrome.driver\"=\"" + System.getProperty("webdriver.chrome.driver") + "\"");
+                ChromeOptions chromeOptions = new ChromeOptions();
+                chromeOptions.setHeadless(headless);
+                result = new ChromeDriver(chromeOptions);
+                break;
+            case FIREFOX:
+                System.setProperty("webdriver.gecko.driver", driverPath.getAbsolutePath());
+                LOGGER.info("Environment variable set \"webdriver.gecko.driver\"=\"" + System.getProperty("webdriver.gecko.driver") + "\"");
+                FirefoxOptions firefoxOptions = new FirefoxOptions();
+                firefoxOptions.setHeadless(headless);
+                result = new FirefoxDriver(firefoxOptions);
+                break;
+            case IE:
+                System.setProperty("webdriver.ie.driver", driverPath.getAbsolutePath());
+                LOGGER.info("Environment variable set \"webdriver.ie.driver\"=\"" + System.getProperty("webdriver.ie.driver") + "\"");
+                InternetExplorerOptions internetExplorerOptions = new InternetExplorerOptions();
+                if (headless) {
+                    LOGGER.info("Internet Explorer does not support headless mode.");
+                }
+                result = new InternetExplorerDriver(internetExplorerOptions);
+                break;
+            case EDGE:
+                System.setProperty("webdriver.edge.driver", driverPath.getAbsolutePath());
+                LOGGER.info("Environment variable set \"webdriver.edge.driver\"=\"" + System.getProperty("webdriver.edge.driver") + "\"");
+                EdgeOptions edgeOptions = new EdgeOptions();
+                if (headless) {
+                    LOGGER.info("Microsoft Edge does not support headless mode.");
+                }
+                result = new EdgeDriver(edgeOptions);
+                break;
+            case SAFARI:    //System.setProperty("SELENIUM_SERVER_JAR", driverPath.getAbsolutePath()); // Environment variable may not be necessary on Safari 10+, have not yet tested.
+                //LOGGER.info("Environment variable set \"SELENIUM_SERVER_JAR\"=\""+System.getProperty("webdriver.gecko.driver")+"\"");
+                SafariOptions safariOptions = new SafariOptions();
+                if (headless) {
+                    LOGGER.info("Apple Safari does not support headless mode.");
+                }
+                result = new SafariDriver(safariOptions);
+                break;
+            default:
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Types the username and password into the SPIRE logon page and clicks the login button.
+     * @param driver    The browser session, already on the SPIRE logon page.
+     * @param username  The SPIRE username.
+     * @param password  The SPIRE password.
+     * @return          True if the page is no longer the logon page.
+     */
+    private static boolean logIn(WebDriver driver, String username, String password) {
+        // Explicitly waits for the Username field to load and types username.
+        LOGGER.info("Typing \"" + username + "\" into ID \"" + UMass.USERNAME_ID + "\"");
+        WebElement usernameField = UMass.waitForElement(driver, By.id(UMass.USERNAME_ID));
+        usernameField.sendKeys(username);
+        // Presence of Username means Password and Go button are loaded too.
+        if (password == null || password.equals("")) {
+            LOGGER.info("Typing \"" + password + "\" into ID \"" + UMass.PASSWORD_ID + "\"");
+        } else {
+            LOGGER.info("Typing the password into ID \"" + UMass.PASSWORD_ID + "\"");
+        }
+        driver.findElement(By.id(UMass.PASSWORD_ID)).sendKeys(password);
+        // SPIRE slightly changed the CSS selector for the login button. Look for whichever one is on the page.
+        LOGGER.info("Looking for the login button.");
+        UMass.waitForAnyElement(driver, By.cssSelector(UMass.LOGIN_BUTTON_SELECTOR),
+                By.cssSelector(UMass.OLD_LOGIN_BUTTON_SELECTOR)).click();
+        // Whether or not the login worked, the logon page is replaced by a new page.
+        LOGGER.info("Waiting for the logon page to be replaced.");
+        UMass.waitForStaleness(driver, usernameField);
+        return !driver.getTitle().equals(UMass.LOGON_TITLE);
+    }
+
+    /**
+     * Loads SPIRE's internal frame into the driver as the main webpage.
+     * @param driver    A logged-in browser session.
+     */
+    private static void loadSpireFrame(WebDriver driver) {
+        // SPIRE is normally shown as a webpage within a webpage.
+        // The subwebpage's code is hard to access while it is nested.
+        // This line explicitly waits until the internal frame is present
+        // and then loads it into the driver as the main webpage.
+        LOGGER.info("Loading \"iframe\" into the driver.");
+        driver.get(UMass.waitForElement(driver, By.tagName("iframe")).getAttribute("src"));
+        // Wait for the page to finish loading in case there is an error popup (seen on Firefox, not Chrome).
+        LOGGER.info("Waiting for the internal frame to load.");
+        UMass.waitForIdle(driver);
+    }
+
+    /**
+     * Parses an enrollment appointment in the local time zone, such as "2018-11-05 07:30".
+     * @param value The appointment date and time, with optional seconds.
+     * @return      Milliseconds since the epoch, or 0 if the value cannot be parsed.
+     */
+    private static long parseAppointment(String value) {
+        long result = 0;
+        try {
+            result = LocalDateTime.parse(value.trim().replace(' ', 'T'))
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch(DateTimeParseException e) {
+            LOGGER.warning(e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Runs the class scraper once, or again every few minutes until the program is stopped.
+     * With a snapshot, each scrape is compared to the one before it and the sections that changed are printed.
+     * @param classScraper  The class scraper, with its driver pool set.
+     * @param sessions      Every browser session the scraper uses, kept logged in between scrapes.
+     * @param output        Directory to write the catalog to, or null.
+     * @param format        "ndjson" or "csv".
+     * @param snapshotFile  File to load the last scrape from and save this one to, or null.
+     * @param historyDir    Directory of the enrollment history to record each scrape in, or null.
+     * @param catalogs      Directory to save each scrape in as a binary catalog snapshot, or null.
+     * @param repeat        Minutes between scrapes, or 0 to scrape once.
+     */
+    private static void runClassScraper(SpireClassScraper classScraper, List<WebDriver> sessions, String term,
+                                        File output, String format, File snapshotFile, File historyDir,
+                                        File catalogs, int repeat) {
+        SectionSnapshot snapshot = null;
+        if(snapshotFile != null) {
+            try {
+                snapshot = SectionSnapshot.load(snapshotFile);
+                LOGGER.info("Loaded "+snapshot.size()+" sections from "+snapshotFile);
+            } catch(IOException | NumberFormatException e) {
+                LOGGER.warning("Failed to load "+snapshotFile+", starting a new snapshot: "+e.getMessage());
+                snapshot = new SectionSnapshot();
+            }
+        } else if(repeat > 0) {
+            // Repeated scrapes are compared to each other even if the snapshot is not saved.
+            snapshot = new SectionSnapshot();
+        }
+        EnrollmentHistory history = null;
+        if(historyDir != null) {
+            try {
+                history = new EnrollmentHistory(historyDir);
+            } catch(IOException e) {
+                LOGGER.severe("Failed to open "+historyDir+", not recording enrollment: "+e.getMessage());
+            }
+        }
+        boolean again = true;
+        while(again) {
+            CatalogSink catalogSink = null;
+            if(output != null) {
+                CatalogFileSink fileSink = format.equals("csv") ? new CsvCatalogSink(output, term)
+                        : new NdjsonCatalogSink(output, term);
+                // Files are written on their own thread while the next searches are made.
+                catalogSink = new AsyncCatalogSink(fileSink, CATALOG_QUEUE_CAPACITY);
+            }
+            DiffingCatalogSink diffingSink = null;
+            if(snapshot != null) {
+                diffingSink = new DiffingCatalogSink(snapshot, new SectionChangeListener() {
+                    @Override
+                    public void sectionChanged(SectionChange change) {
+                        System.out.println(change);
+                    }
+                }, catalogSink);
+                catalogSink = diffingSink;
+            }
+            if(history != null) {
+                catalogSink = new HistoryCatalogSink(history, catalogSink);
+            }
+            if(catalogs != null) {
+                catalogSink = new CatalogSnapshotSink(catalogs, term, catalogSink);
+            }
+            classScraper.setSink(catalogSink);
+            classScraper.run();
+            if(catalogSink != null) {
+                try {
+                    catalogSink.close();
+                    if(output != null) {
+                        LOGGER.info("Wrote the catalog to "+output.getAbsolutePath());
+                    }
+                } catch(IOException e) {
+                    LOGGER.severe("Failed to write the catalog to "+output+": "+e.getMessage());
+                }
+            }
+            if(history != null) {
+                try {
+                    compactHistory(history);
+                } catch(IOException e) {
+                    LOGGER.severe("Failed to compact "+historyDir+": "+e.getMessage());
+                }
+            }
+            if(diffingSink != null) {
+                LOGGER.info(diffingSink.getChangeCount()+" section change(s) since the last scrape.");
+                if(snapshotFile != null) {
+                    try {
+                        snapshot.save(snapshotFile);
+                    } catch(IOException e) {
+                        LOGGER.severe("Failed to save "+snapshotFile+": "+e.getMessage());
+                    }
+                }
+            }
+            again = repeat > 0;
+            if(again) {
+                LOGGER.info("Scraping again in "+repeat+" minute(s).");
+                long nextScrape = System.currentTimeMillis()+repeat*60000L;
+                try {
+                    // Reload every session now and then so that SPIRE does not log it out.
+                    while(nextScrape-System.currentTimeMillis() > UMass.KEEPALIVE_INTERVAL) {
+                        Thread.sleep(UMass.KEEPALIVE_INTERVAL);
+                        LOGGER.info("Keeping sessions alive; "+(nextScrape-System.currentTimeMillis())/1000+" seconds until the next scrape.");
+                        for(WebDriver session : sessions) {
+                            session.get(session.getCurrentUrl());
+                        }
+                    }
+                    Thread.sleep(Math.max(0, nextScrape-System.currentTimeMillis()));
+                } catch(InterruptedException e) {
+                    LOGGER.warning(e.getMessage());
+                    again = false;
+                }
+            }
+        }
+        if(history != null) {
+            history.close();
+        }
+    }
+
+    /**
+     * Rolls up the enrollment history about once a day, keeping the last week of samples as they were scraped.
+     * @param history   The enrollment history.
+     */
+    private static void compactHistory(EnrollmentHistory history) throws IOException {
+        long now = System.currentTimeMillis();
+        if(history.getOldestSample() < now - EnrollmentHistory.DEFAULT_RETENTION - 24 * 60 * 60 * 1000L) {
+            history.compact(now - EnrollmentHistory.DEFAULT_RETENTION, EnrollmentHistory.DEFAULT_ROLLUP_INTERVAL);
+        }
+    }
+
     /**
      * Sets an example configuration of the current schedule,
      * shopping cart, and actions list. Can be used as a template
@@ -605,7 +902,7 @@ public class SpireAutomator {
      * @param shoppingCart      Hardcoded shopping cart in SPIRE.
      * @param actions           Hardcoded actions to perform on SPIRE.
      */
-    private static void setEnrollerConfiguration(WebDriver driver, Map<String, Lecture> currentSchedule, Map<String, Lecture> shoppingCart, ArrayList<Action> actions) {
+    private static void setEnrollerConfiguration(Map<String, Lecture> currentSchedule, Map<String, Lecture> shoppingCart, ArrayList<Action> actions) {
         // Start current schedule.
         Lecture compsci311_01 = new Lecture("COMPSCI 311-01", "Introduction to Algorithms", "14784");
         Discussion compsci311_01aa = new Discussion("COMPSCI 311-01AA", "14785");
@@ -637,9 +934,13 @@ public class SpireAutomator {
         // Start actions.
         Swap swap_compsci326_01_compsci320_01 = (Swap) new Swap(compsci326_01, compsci320_01).addCondition(new Condition() {
             @Override
-            public boolean isMet() {
+            public boolean isMet(SeatSnapshot seats) {
                 return currentSchedule.get(compsci320_01.getClassId()) != null
-                        && compsci326_01.isOpen(driver) == UMass.TRUE;
+                        && compsci326_01.isOpen(seats) == UMass.TRUE;
+            }
+            @Override
+            public Set<String> getClassIds() {
+                return Condition.classIds(compsci326_01);
             }
             @Override
             public String toString() {
@@ -649,10 +950,14 @@ public class SpireAutomator {
         });
         Edit edit_compsci311_01_compsci311_01ab = (Edit) new Edit(compsci311_01, compsci311_01ab).addCondition(new Condition() {
             @Override
-            public boolean isMet() {
+            public boolean isMet(SeatSnapshot seats) {
                 return currentSchedule.get(compsci311_01.getClassId()) != null
                         && !currentSchedule.get(compsci311_01.getClassId()).getEnrolledDiscussion().equals(compsci311_01ab)
-                        && compsci311_01ab.isOpen(driver) == UMass.TRUE;
+                        && compsci311_01ab.isOpen(seats) == UMass.TRUE;
+            }
+            @Override
+            public Set<String> getClassIds() {
+                return Condition.classIds(compsci311_01ab);
             }
             @Override
             public String toString() {
@@ -663,15 +968,19 @@ public class SpireAutomator {
         });
         Edit edit_compsci240_01_compsci240_01ab = (Edit) new Edit(compsci240_01, compsci240_01ab).addCondition(new Condition() {
             @Override
-            public boolean isMet() {
+            public boolean isMet(SeatSnapshot seats) {
                 return currentSchedule.get(compsci240_01.getClassId()) != null
                         && (currentSchedule.get(compsci311_01.getClassId()) != null
                         && !currentSchedule.get(compsci311_01.getClassId()).getEnrolledDiscussion().equals(compsci311_01aa))
                         && !currentSchedule.get(compsci240_01.getClassId()).getEnrolledDiscussion().equals(compsci240_01aa)
                         && !currentSchedule.get(compsci240_01.getClassId()).getEnrolledDiscussion().equals(compsci240_01ab)
                         && !currentSchedule.get(compsci240_01.getClassId()).getEnrolledDiscussion().equals(compsci240_01ad)
-                        && compsci240_01aa.isOpen(driver) != UMass.TRUE
-                        && compsci240_01ab.isOpen(driver) == UMass.TRUE;
+                        && compsci240_01aa.isOpen(seats) != UMass.TRUE
+                        && compsci240_01ab.isOpen(seats) == UMass.TRUE;
+            }
+            @Override
+            public Set<String> getClassIds() {
+                return Condition.classIds(compsci240_01aa, compsci240_01ab);
             }
             @Override
             public String toString() {
@@ -686,11 +995,15 @@ public class SpireAutomator {
         });
         Edit edit_compsci240_01_compsci240_01aa = (Edit) new Edit(compsci240_01, compsci240_01aa).addCondition(new Condition() {
             @Override
-            public boolean isMet() {
+            public boolean isMet(SeatSnapshot seats) {
                 return currentSchedule.get(compsci240_01.getClassId()) != null
                         && !currentSchedule.get(compsci240_01.getClassId()).getEnrolledDiscussion().equals(compsci240_01aa)
                         && !currentSchedule.get(compsci240_01.getClassId()).getEnrolledDiscussion().equals(compsci240_01ad)
-                        && compsci240_01aa.isOpen(driver) == UMass.TRUE;
+                        && compsci240_01aa.isOpen(seats) == UMass.TRUE;
+            }
+            @Override
+            public Set<String> getClassIds() {
+                return Condition.classIds(compsci240_01aa);
             }
             @Override
             public String toString() {
@@ -702,11 +1015,15 @@ public class SpireAutomator {
         }).setSatisfiableActions(edit_compsci240_01_compsci240_01ab);
         Edit edit_compsci240_01_compsci240_01ad = (Edit) new Edit(compsci240_01, compsci240_01ad).addCondition(new Condition() {
             @Override
-            public boolean isMet() {
+            public boolean isMet(SeatSnapshot seats) {
                 return currentSchedule.get(compsci240_01.getClassId()) != null
                         && !currentSchedule.get(compsci240_01.getClassId()).getEnrolledDiscussion().equals(compsci240_01ad)
                         && currentSchedule.get(compsci320_01.getClassId()) == null
-                        && compsci240_01ad.isOpen(driver) == UMass.TRUE;
+                        && compsci240_01ad.isOpen(seats) == UMass.TRUE;
+            }
+            @Override
+            public Set<String> getClassIds() {
+                return Condition.classIds(compsci240_01ad);
             }
             @Override
             public String toString() {
@@ -1,14 +1,29 @@
 package spire;
 
 import enroller.SpireEnrollment;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -95,6 +110,51 @@ public class UMass {
     public static int WAIT_INTERVAL = 500;
     public static int LOAD_INTERVAL = 5000;
     public static int TIMEOUT_INTERVAL = 10;
+    public static int KEEPALIVE_INTERVAL = 120000;
+    public static int APPOINTMENT_LEAD_INTERVAL = 5000;
+    public static int POLL_INTERVAL = 50;
+    // Waits for elements with a MutationObserver in the page instead of polling, if the browser supports it.
+    public static boolean OBSERVE_ELEMENTS = true;
+    // Finds an element by a locator strategy and value. If it is not there yet, watches every change to the
+    // page until it appears, then returns it at once. Returns null if it does not appear in time.
+    private static final String OBSERVE_ELEMENT_SCRIPT =
+            "var how = arguments[0], what = arguments[1], timeout = arguments[2];" +
+            "var callback = arguments[arguments.length - 1];" +
+            "function find() {" +
+            "  switch(how) {" +
+            "    case 'css selector': return document.querySelector(what);" +
+            "    case 'id': return document.getElementById(what);" +
+            "    case 'name': return document.getElementsByName(what)[0] || null;" +
+            "    case 'tag name': return document.getElementsByTagName(what)[0] || null;" +
+            "    case 'class name': return document.getElementsByClassName(what)[0] || null;" +
+            "    case 'xpath': return document.evaluate(what, document, null, 9, null).singleNodeValue;" +
+            "  }" +
+            "  return null;" +
+            "}" +
+            "var found = find();" +
+            "if(found) { callback(found); return; }" +
+            "var timer = null;" +
+            "var observer = new MutationObserver(function() {" +
+            "  var element = find();" +
+            "  if(element) { observer.disconnect(); clearTimeout(timer); callback(element); }" +
+            "});" +
+            "observer.observe(document.documentElement, {childList: true, subtree: true, attributes: true});" +
+            "timer = setTimeout(function() { observer.disconnect(); callback(null); }, timeout);";
+    // Script failures in a row, without the page changing, before a driver falls back to polling.
+    private static final int MAX_OBSERVER_FAILURES = 3;
+    // Script timeout set on each driver in seconds, or -1 once it is known that the driver cannot observe.
+    private static final Map<WebDriver, Integer> OBSERVER_TIMEOUTS = Collections.synchronizedMap(new WeakHashMap<>());
+    // For each list of alternative selectors, the one that matched last time.
+    private static final Map<String, By> PREFERRED_SELECTORS = new ConcurrentHashMap<>();
+    // PeopleSoft increments this hidden field on every round trip to the server, including partial page updates.
+    public static final String STATE_NUM_ID = "ICStateNum";
+    // Returns the page's load state, its state number (or empty if not a PeopleSoft page),
+    // and whether PeopleSoft is showing its "Processing..." indicator while it waits on the server.
+    private static final String PAGE_STATE_SCRIPT =
+            "var s = document.getElementById('"+STATE_NUM_ID+"');" +
+            "var w = document.getElementById('WAIT_win0') || document.getElementById('processing');" +
+            "var busy = w != null && (w.style.visibility == 'visible' || w.style.display == 'block');" +
+            "return [document.readyState, s ? s.value : '', busy ? 'busy' : 'idle'];";
     public static String GITHUB_URL = "https://github.com/maximberezin97/spireautomator";
     public static String README_GITHUB_URL = "https://raw.githubusercontent.com/maximberezin97/spireautomator/master/README.md";
 
@@ -115,6 +175,7 @@ public class UMass {
 
     // SPIRE Logon
     public static String SPIRE_HOME_URL = "https://spire.umass.edu/";
+    public static final String LOGON_TITLE = "SPIRE Logon";
     public static final String USERNAME_ID = "userid";
     public static final String PASSWORD_ID = "pwd";
     public static final String OLD_LOGIN_BUTTON_SELECTOR = "#login > p:nth-child(5) > input[type=\"submit\"]";
@@ -138,11 +199,18 @@ public class UMass {
     	public static final String SEARCH_RESULTS_COURSE_NAME_SPAN_ID = "DERIVED_CLSRCH_DESCR200$";
     	public static final String SEARCH_RESULTS_COURSE_INFO_BOX_DIV_ID = "win0divDERIVED_CLSRCH_GROUPBOX1$133$$";
     	public static final String SEARCH_RESULTS_GENED_SPAN_ID = "UM_DERIVED_SA_UM_GENED_VALUES$";
+    	public static final String SEARCH_RESULTS_NEW_SEARCH_BUTTON_ID = "CLASS_SRCH_WRK2_SSR_PB_NEW_SEARCH";
+    	// Shown on the class search page instead of going to the results when nothing matches, or too much.
+    	public static final String SEARCH_RESULTS_NONE_ID = "DERIVED_CLSMSG_ERROR_TEXT";
+    	public static final String SEARCH_TOO_MANY_RESULTS_TEXT = "maximum limit";
+    	// "Your search will return over 50 classes, would you like to continue?"
+    	public static final String SEARCH_CONTINUE_BUTTON_ID = "ICSave";
     	
     	
     // Select Term
     public static final String TERMS_TABLE_SELECTOR = "#SSR_DUMMY_RECV1\\24 scroll\\24 0";
     public static final String TERMS_CONTINUE_SELECTOR = "#DERIVED_SSS_SCT_SSR_PB_GO";
+    public static final String TERMS_GRID_ID = "SSR_DUMMY_RECV1$0";
 
     // Shopping Cart
     public static final String CART_SCHEDULE_SELECTOR = "#STDNT_ENRL_SSVW\\24 scroll\\24 0";
@@ -151,6 +219,9 @@ public class UMass {
     public static final String CART_CHECKBOX_HTML = "class=\"PSCHECKBOX\"";
     public static final String LECTURE_DESC_SELECTOR = "#DERIVED_CLS_DTL_DESCR50";
     public static final String DISCUSSIONS_TABLE_SELECTOR = "#SSR_CLS_TBL_R1\\24 scroll\\24 0 > tbody > tr:nth-child(2) > td > table";
+    public static final String CART_SCHEDULE_GRID_ID = "STDNT_ENRL_SSVW$0";
+    public static final String CART_SHOPPING_GRID_ID = "SSR_REGFORM_VW$0";
+    public static final String DISCUSSIONS_GRID_ID = "SSR_CLS_TBL_R1$0";
 
     // Add Classes
     public static final String ADD_CART_FIELD_SELECTOR = "#DERIVED_REGFRM1_CLASS_NBR";
@@ -162,6 +233,7 @@ public class UMass {
 
     // Drop Classes
     public static final String DROP_TABLE_SELECTOR = "#STDNT_ENRL_SSV1\\24 scroll\\24 0";
+    public static final String DROP_GRID_ID = "STDNT_ENRL_SSV1$0";
 
     // Swap Classes
     public static final String SWAP_SCHEDULE_MENU_SELECTOR = "#DERIVED_REGFRM1_DESCR50\\24 225\\24";
@@ -207,6 +279,7 @@ public class UMass {
     // Room Search Results
     public static final String ROOMS_RESULTS_SELECTOR = "#UMH_RM_SRC_RSLTS\\24 scroll\\24 0";
     public static final String ROOMS_NEW_SEARCH_SELECTOR = "#UM_H_DRV_RSRCSL_UMH_NEW_SRCH_PB";
+    public static final String ROOMS_RESULTS_GRID_ID = "UMH_RM_SRC_RSLTS$0";
 
     // Room Assignment Step 1
     public static final String ASSIGN_SECTION_1_SELECTOR = "#trUM_H_DRVD_RGRP\\24 0_row1 > td:nth-child(1)";
@@ -255,6 +328,135 @@ public class UMass {
         return waitForElement(driver, By.cssSelector("#trUMH_RM_SRC_RSLTS\\24 0_row"+row+" > td:nth-child("+col+")"));
     }
 
+    // Collects every data row of a PeopleSoft grid as [visible text, inner HTML] pairs in one script.
+    private static final String READ_GRID_SCRIPT =
+            "var rows = [];" +
+            "for(var r = 1; ; r++) {" +
+            "  var tr = document.getElementById('tr' + arguments[0] + '_row' + r);" +
+            "  if(tr == null) { break; }" +
+            "  var cells = [];" +
+            "  for(var c = 0; c < tr.children.length; c++) {" +
+            "    var td = tr.children[c];" +
+            "    cells.push([(td.innerText || td.textContent || '').replace(/\\u00a0/g, ' ').trim(), td.innerHTML]);" +
+            "  }" +
+            "  rows.push(cells);" +
+            "}" +
+            "return rows;";
+
+    /**
+     * Reads a whole PeopleSoft grid with a single script call.
+     * Does not wait for the grid to load; a grid that is not on
+     * the page is returned with no rows.
+     * @param driver    {@link WebDriver} running the browser.
+     * @param gridId    The grid's ID, as used in its row IDs (ex. "SSR_REGFORM_VW$0").
+     * @return          A {@link Grid} holding the text and inner HTML of every cell.
+     */
+    @SuppressWarnings("unchecked")
+    public static Grid readGrid(WebDriver driver, String gridId) {
+        LOGGER.config("Reading grid \""+gridId+"\"");
+        Grid grid = new Grid(gridId);
+        Object result = ((JavascriptExecutor) driver).executeScript(READ_GRID_SCRIPT, gridId);
+        if(result instanceof List) {
+            for(Object row : (List<Object>) result) {
+                List<Object> cells = (List<Object>) row;
+                String[] text = new String[cells.size()];
+                String[] html = new String[cells.size()];
+                for(int col = 0; col < cells.size(); col++) {
+                    List<Object> cell = (List<Object>) cells.get(col);
+                    text[col] = String.valueOf(cell.get(0));
+                    html[col] = String.valueOf(cell.get(1));
+                }
+                grid.addRow(text, html);
+            }
+        }
+        LOGGER.config("Read grid "+grid);
+        return grid;
+    }
+
+    /**
+     * Waits for the table that holds a PeopleSoft grid to load,
+     * then reads the whole grid with a single script call.
+     * @param driver            {@link WebDriver} running the browser.
+     * @param tableSelector     CSS selector of the table that holds the grid.
+     * @param gridId            The grid's ID, as used in its row IDs (ex. "SSR_REGFORM_VW$0").
+     * @return                  A {@link Grid} holding the text and inner HTML of every cell.
+     */
+    public static Grid readGrid(WebDriver driver, String tableSelector, String gridId) {
+        waitForElement(driver, By.cssSelector(tableSelector));
+        return readGrid(driver, gridId);
+    }
+
+    /**
+     * Copies the current page out of the browser in one call so that it can be parsed
+     * without any more {@link WebDriver} commands. The same parsers accept saved pages.
+     * @param driver    {@link WebDriver} running the browser.
+     * @return          The parsed page.
+     */
+    public static Document readPage(WebDriver driver) {
+        return Jsoup.parse(driver.getPageSource());
+    }
+
+    /**
+     * Waits for an element to load, then copies the current page out of the browser.
+     * @param driver    {@link WebDriver} running the browser.
+     * @param selector  CSS selector of an element that must be on the page before it is copied.
+     * @return          The parsed page.
+     */
+    public static Document readPage(WebDriver driver, String selector) {
+        waitForElement(driver, By.cssSelector(selector));
+        return readPage(driver);
+    }
+
+    /**
+     * Approximates the browser's rendered text of an element, which is what
+     * {@link WebElement#getText()} returns: block elements and line breaks start
+     * new lines, table cells in the same row are separated by spaces, and hidden
+     * elements are left out. Lines are trimmed and empty lines are removed.
+     * @param element   A parsed element.
+     * @return          The element's text, one rendered line per line.
+     */
+    public static String innerText(Element element) {
+        StringBuilder raw = new StringBuilder();
+        appendInnerText(element, raw);
+        StringBuilder result = new StringBuilder();
+        for(String line : raw.toString().split("\n")) {
+            // Like the browser, runs of spaces collapse but non-breaking spaces are kept as spaces.
+            line = line.replaceAll("\\s+", " ").replace('\u00a0', ' ').trim();
+            if(!line.isEmpty()) {
+                if(result.length() > 0) {
+                    result.append('\n');
+                }
+                result.append(line);
+            }
+        }
+        return result.toString();
+    }
+
+    private static void appendInnerText(Node node, StringBuilder raw) {
+        if(node instanceof TextNode) {
+            raw.append(((TextNode) node).getWholeText().replace('\n', ' '));
+        } else if(node instanceof Element) {
+            Element element = (Element) node;
+            String tag = element.tagName();
+            String style = element.attr("style").replace(" ", "").toLowerCase();
+            if(tag.equals("script") || tag.equals("style") || tag.equals("head")
+                    || style.contains("display:none") || style.contains("visibility:hidden")) {
+                return;
+            }
+            if(tag.equals("br")) {
+                raw.append('\n');
+                return;
+            }
+            boolean cell = tag.equals("td") || tag.equals("th");
+            boolean block = !cell && element.isBlock();
+            raw.append(block ? '\n' : cell ? ' ' : "");
+            for(Node child : element.childNodes()) {
+                appendInnerText(child, raw);
+            }
+            raw.append(block ? '\n' : cell ? ' ' : "");
+        }
+    }
+
     public static WebElement findElementTab(WebDriver driver, String tabName) {
         WebElement tabFound = null;
         // This table has many inactive/invisible rows, but they will not match any text so they can be ignored.
@@ -282,18 +484,15 @@ public class UMass {
     }
 
     public static boolean selectTerm(WebDriver driver, String term) {
-        List<WebElement> termTable = UMass.waitForElement(driver, By.cssSelector(UMass.TERMS_TABLE_SELECTOR)).findElements(By.tagName("tr"));
-        for(int row = 1; row < termTable.size(); row++) {
-            // If this cell contains the full name of the desired term.
-            if(findElementTermTable(driver, row, 2).getText().contains(term)) {
-                LOGGER.info(term+" found in terms table.");
-                // Click the table cell with this term's radio button.
-                findElementTermTable(driver, row, 1).click();
-                // Click the Continue button to proceed.
-                UMass.waitForElement(driver, By.cssSelector(UMass.TERMS_CONTINUE_SELECTOR)).click();
-                // Return true and exit loop once a term has been selected.
-                return true;
-            }
+        // Find the row whose cell contains the full name of the desired term.
+        int row = readGrid(driver, UMass.TERMS_TABLE_SELECTOR, UMass.TERMS_GRID_ID).findRow(2, term);
+        if(row != NOT_FOUND) {
+            LOGGER.info(term+" found in terms table.");
+            // Click the table cell with this term's radio button.
+            findElementTermTable(driver, row, 1).click();
+            // Click the Continue button to proceed.
+            UMass.waitForElement(driver, By.cssSelector(UMass.TERMS_CONTINUE_SELECTOR)).click();
+            return true;
         }
         // Return false when the desired term was not found.
         LOGGER.warning(term+" not found in terms table.");
@@ -302,41 +501,221 @@ public class UMass {
 
     /**
      * Wait for a {@link WebElement} to load.
-     * Refreshes every 200 milliseconds and times out after 10 seconds.
+     * Returns as soon as the element appears and times out after {@link #TIMEOUT_INTERVAL} seconds.
      * @param driver    {@link WebDriver} running the browser.
      * @param by        The element being checked for.
      * @return          The {@link WebElement} once it has been found.
      */
     public static WebElement waitForElement(WebDriver driver, By by) {
-        return (new WebDriverWait(driver, TIMEOUT_INTERVAL, WAIT_INTERVAL)).until(ExpectedConditions.presenceOfElementLocated(by));
+        return waitForElement(driver, TIMEOUT_INTERVAL, by);
     }
 
     /**
      * Wait for a {@link WebElement} to load.
-     * Refreshes every 200 milliseconds and times out after a given number of seconds.
+     * Returns as soon as the element appears and times out after a given number of seconds.
+     * The page is watched with a MutationObserver if the browser supports it; otherwise
+     * the page is checked every {@link #WAIT_INTERVAL} milliseconds.
      * @param driver            {@link WebDriver} running the browser.
-     * @param timeoutSeconds    Number of seconds to spend refreshing before timing out.
+     * @param timeoutSeconds    Number of seconds to spend waiting before timing out.
      * @param by                The element being checked for.
      * @return                  The {@link WebElement} once it has been found.
      */
     public static WebElement waitForElement(WebDriver driver, int timeoutSeconds, By by) {
-        return (new WebDriverWait(driver, timeoutSeconds, WAIT_INTERVAL)).until(ExpectedConditions.presenceOfElementLocated(by));
+        long deadline = System.currentTimeMillis() + timeoutSeconds * 1000L;
+        WebElement result = null;
+        if(OBSERVE_ELEMENTS && driver instanceof JavascriptExecutor) {
+            result = observeElement(driver, deadline, by);
+        }
+        if(result == null) {
+            int remaining = (int) Math.max(0, (deadline - System.currentTimeMillis()) / 1000);
+            result = (new WebDriverWait(driver, remaining, WAIT_INTERVAL)).until(ExpectedConditions.presenceOfElementLocated(by));
+        }
+        return result;
     }
 
-    public static boolean isElementFound(WebDriver driver, int timeoutSeconds, By by) {
-        boolean result = false;
-        try {
-            if(waitForElement(driver, timeoutSeconds, by) != null) {
-                LOGGER.config("\""+by.toString()+"\" found.");
-                result = true;
+    /**
+     * Waits for an element with a MutationObserver in the page.
+     * A page load ends the script early, so it is started again on the new page.
+     * @return  The element, or null if the driver or locator cannot be observed.
+     * @throws TimeoutException If the element did not appear before the deadline.
+     */
+    private static WebElement observeElement(WebDriver driver, long deadline, By by) {
+        // By.toString() is "By.<strategy>: <value>", such as "By.cssSelector: #userid".
+        String[] locator = by.toString().split(": ", 2);
+        String how = locator.length > 1 ? toLocatorStrategy(locator[0]) : null;
+        if(how == null || !prepareObserver(driver, deadline)) {
+            return null;
+        }
+        int failures = 0;
+        while(System.currentTimeMillis() < deadline) {
+            try {
+                Object found = ((JavascriptExecutor) driver).executeAsyncScript(OBSERVE_ELEMENT_SCRIPT,
+                        how, locator[1], Math.max(1, deadline - System.currentTimeMillis()));
+                if(found instanceof WebElement) {
+                    return (WebElement) found;
+                }
+            } catch(TimeoutException e) {
+                break;
+            } catch(WebDriverException e) {
+                // Usually the page unloaded while observing. Anything else that keeps failing means no MutationObserver.
+                LOGGER.config("Observing \""+by+"\" failed: "+e.getMessage());
+                if(++failures >= MAX_OBSERVER_FAILURES) {
+                    LOGGER.warning("Falling back to polling for elements.");
+                    OBSERVER_TIMEOUTS.put(driver, -1);
+                    return null;
+                }
             }
-        } catch(TimeoutException timeout) {
-            LOGGER.warning("Waiting for \""+by.toString()+"\" timed out.");
-            result = false;
+        }
+        throw new TimeoutException("Waiting for \""+by+"\" timed out.");
+    }
+
+    // The driver must allow async scripts to run until the deadline, and the script's own timer fires first.
+    private static boolean prepareObserver(WebDriver driver, long deadline) {
+        int needed = (int) ((deadline - System.currentTimeMillis()) / 1000) + 2;
+        Integer current = OBSERVER_TIMEOUTS.get(driver);
+        if(current != null && current < 0) {
+            return false;
+        }
+        if(current == null || current < needed) {
+            driver.manage().timeouts().setScriptTimeout(needed, TimeUnit.SECONDS);
+            OBSERVER_TIMEOUTS.put(driver, needed);
+        }
+        return true;
+    }
+
+    private static String toLocatorStrategy(String by) {
+        String result = null;
+        switch(by) {
+            case "By.cssSelector":  result = "css selector";    break;
+            case "By.id":           result = "id";              break;
+            case "By.name":         result = "name";            break;
+            case "By.tagName":      result = "tag name";        break;
+            case "By.className":    result = "class name";      break;
+            case "By.xpath":        result = "xpath";           break;
+            default:                break;
         }
         return result;
     }
 
+    /**
+     * Wait for a {@link WebElement} to be shown, such as a dropdown menu revealed by a radio button.
+     * @param driver    {@link WebDriver} running the browser.
+     * @param by        The element being checked for.
+     * @return          The {@link WebElement} once it is visible.
+     */
+    public static WebElement waitForVisible(WebDriver driver, By by) {
+        waitForIdle(driver);
+        return newWait(driver, TIMEOUT_INTERVAL).until(ExpectedConditions.visibilityOfElementLocated(by));
+    }
+
+    /**
+     * Clicks an element and waits until the click has been handled by SPIRE.
+     * A full page load is detected by the old page going stale, and a PeopleSoft
+     * partial page update by a new state number. Used instead of sleeping when
+     * the next page has elements with the same selectors as the current one.
+     * @param driver    {@link WebDriver} running the browser.
+     * @param element   The element to click.
+     */
+    public static void clickAndWait(WebDriver driver, WebElement element) {
+        final String stateNum = getStateNum(driver);
+        final WebElement root = driver.findElement(By.tagName("html"));
+        element.click();
+        newWait(driver, TIMEOUT_INTERVAL).until((WebDriver d) -> isStale(root)
+                || (!stateNum.isEmpty() && !stateNum.equals(getStateNum(d))));
+        waitForIdle(driver);
+    }
+
+    /**
+     * Waits until the page has loaded and PeopleSoft is not waiting on the server.
+     * @param driver    {@link WebDriver} running the browser.
+     */
+    public static void waitForIdle(WebDriver driver) {
+        newWait(driver, TIMEOUT_INTERVAL).until((WebDriver d) -> {
+            List<?> state = readPageState(d);
+            return "complete".equals(state.get(0)) && "idle".equals(state.get(2));
+        });
+    }
+
+    /**
+     * Waits until an element that was found on the previous page is no longer attached to the page.
+     * @param driver    {@link WebDriver} running the browser.
+     * @param element   An element of the previous page.
+     */
+    public static void waitForStaleness(WebDriver driver, WebElement element) {
+        newWait(driver, TIMEOUT_INTERVAL).until(ExpectedConditions.stalenessOf(element));
+        waitForIdle(driver);
+    }
+
+    /**
+     * @param driver    {@link WebDriver} running the browser.
+     * @return          The PeopleSoft state number of the page, or an empty string if there is none.
+     */
+    public static String getStateNum(WebDriver driver) {
+        return String.valueOf(readPageState(driver).get(1));
+    }
+
+    private static List<?> readPageState(WebDriver driver) {
+        return (List<?>) ((JavascriptExecutor) driver).executeScript(PAGE_STATE_SCRIPT);
+    }
+
+    private static boolean isStale(WebElement element) {
+        return ExpectedConditions.stalenessOf(element).apply(null);
+    }
+
+    // Polls much faster than waitForElement, since these waits are on the critical path of every Action.
+    private static WebDriverWait newWait(WebDriver driver, int timeoutSeconds) {
+        WebDriverWait wait = new WebDriverWait(driver, timeoutSeconds, POLL_INTERVAL);
+        // Scripts may fail while a new page is replacing the old one.
+        wait.ignoring(JavascriptException.class).ignoring(StaleElementReferenceException.class);
+        return wait;
+    }
+
+    /**
+     * Checks whether an element is on the page without waiting for it to appear.
+     * Waits once for the page to finish loading, so an element that is legitimately
+     * absent is reported at once instead of after {@link #TIMEOUT_INTERVAL} seconds.
+     * @param driver    {@link WebDriver} running the browser.
+     * @param by        The element being checked for.
+     * @return          True if the element is on the loaded page.
+     */
+    public static boolean isElementPresent(WebDriver driver, By by) {
+        waitForIdle(driver);
+        boolean result = !driver.findElements(by).isEmpty();
+        LOGGER.config("\""+by.toString()+"\" "+(result ? "found." : "not found."));
+        return result;
+    }
+
+    /**
+     * Waits for the first of several alternative selectors for the same element,
+     * such as an old and a new selector for a button that SPIRE has moved.
+     * The selector that matches is remembered and tried first from then on.
+     * @param driver        {@link WebDriver} running the browser.
+     * @param candidates    Selectors for the element, most likely first.
+     * @return              The element found by the first matching selector.
+     */
+    public static WebElement waitForAnyElement(WebDriver driver, final By... candidates) {
+        final String key = Arrays.toString(candidates);
+        By preferred = PREFERRED_SELECTORS.get(key);
+        if(preferred != null) {
+            waitForIdle(driver);
+            List<WebElement> found = driver.findElements(preferred);
+            if(!found.isEmpty()) {
+                return found.get(0);
+            }
+        }
+        return newWait(driver, TIMEOUT_INTERVAL).until((WebDriver d) -> {
+            for(By by : candidates) {
+                List<WebElement> found = d.findElements(by);
+                if(!found.isEmpty()) {
+                    LOGGER.config("\""+by.toString()+"\" found.");
+                    PREFERRED_SELECTORS.put(key, by);
+                    return found.get(0);
+                }
+            }
+            return null;
+        });
+    }
+
     public static void sleep(int millis) {
         try {
             Thread.sleep(millis);
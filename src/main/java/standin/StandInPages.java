@@ -0,0 +1,484 @@
+package standin;
+
+import java.util.*;
+
+/**
+ * Renders the pages of the {@link StandInServer}. Each page has the
+ * element IDs, classes, and grid layout that {@link spire.UMass}
+ * expects of the matching SPIRE page, and little else.
+ */
+class StandInPages {
+    private final static String OPEN_ICON = "<img src=\"/img/PS_CS_STATUS_OPEN_ICN_1.gif\" alt=\"Open\">";
+    private final static String CLOSED_ICON = "<img src=\"/img/PS_CS_STATUS_CLOSED_ICN_1.gif\" alt=\"Closed\">";
+    private final static String ENROLLED_ICON = "<img src=\"/img/UM_PS_ENROLLED_ICN_1.gif\" alt=\"Enrolled\">";
+    private final static String SUCCESS_ICON = "<img src=\"/img/PS_CS_STATUS_SUCCESS_ICN_1.gif\" alt=\"Success\">";
+    private final static String ERROR_ICON = "<img src=\"/img/PS_CS_STATUS_ERROR_ICN_1.gif\" alt=\"Error\">";
+    private final static String[] TABS = {"Search", "Plan", "Add", "Drop", "Swap", "Edit", "Term Information", "My Academics"};
+    private final static String[] MATCHES = {"contains", "greater than or equal to", "is exactly", "less than or equal to"};
+    // Shows the dropdown menu of the clicked radio button and hides those of the others in its group, like SPIRE.
+    private final static String REVEAL_SCRIPT =
+            "function reveal(radio) {" +
+            "  var group = document.getElementsByName(radio.name);" +
+            "  for(var i = 0; i < group.length; i++) {" +
+            "    var id = group[i].getAttribute('data-reveal');" +
+            "    if(id) { document.getElementById(id).style.display = 'none'; }" +
+            "  }" +
+            "  var shown = radio.getAttribute('data-reveal');" +
+            "  if(shown) { document.getElementById(shown).style.display = 'inline'; }" +
+            "}";
+
+    static String login(String message) {
+        return "<!DOCTYPE html><html><head><title>SPIRE Logon</title></head><body>" +
+                "<form id=\"login\" method=\"post\" action=\"/login\">" +
+                "<p>SPIRE Logon</p>" +
+                "<p>"+escape(message)+"</p>" +
+                "<p><label for=\"userid\">NetID</label></p>" +
+                "<p><input type=\"text\" id=\"userid\" name=\"userid\"></p>" +
+                "<p><label for=\"pwd\">Password</label></p>" +
+                "<p><input type=\"password\" id=\"pwd\" name=\"pwd\"></p>" +
+                "<p><input type=\"submit\" value=\"Go\"></p>" +
+                "</form></body></html>";
+    }
+
+    static String home() {
+        return "<!DOCTYPE html><html><head><title>SPIRE</title></head><body>" +
+                "<iframe id=\"ptifrmtgtframe\" src=\"/psc/center\" width=\"100%\" height=\"800\"></iframe>" +
+                "</body></html>";
+    }
+
+    static String notFound() {
+        return "<!DOCTYPE html><html><head><title>Not Found</title></head><body><p>Page not found.</p></body></html>";
+    }
+
+    static String center(StandInServer.Session session) {
+        String body = "<p><a id=\"DERIVED_SSS_SCR_SSS_LINK_ANCHOR1\" class=\"PSHYPERLINK\" href=\"/psc/add\">Enrollment</a></p>" +
+                "<p><a id=\"UM_H_DERIV_SSS_UMH_SS_RMSEL_LNK\" class=\"PSHYPERLINK\" href=\"/psc/housing\">Room Selection</a></p>" +
+                "<p><a id=\"DERIVED_SSS_SCL_SSS_GO_4$83$\" class=\"PSHYPERLINK\" href=\"/psc/classsearch\">Search for Classes</a></p>";
+        return page(session, "center", "Student Center", false, body);
+    }
+
+    static String term(StandInServer.Session session, StandInState state) {
+        List<String[]> rows = new ArrayList<>();
+        for(String term : state.getTerms()) {
+            rows.add(new String[] {
+                    "<input type=\"radio\" class=\"PSRADIOBUTTON\" name=\"TERM\" value=\""+escape(term)+"\">",
+                    escape(term), "Undergraduate", "University of Massachusetts Amherst"});
+        }
+        // Clicking anywhere in a radio button's cell selects it.
+        String body = grid("SSR_DUMMY_RECV1$0", new String[] {"", "Term", "Career", "Institution"}, rows)
+                .replace("<td><input type=\"radio\"", "<td onclick=\"this.firstChild.checked = true;\"><input type=\"radio\"") +
+                button("DERIVED_SSS_SCT_SSR_PB_GO", "", "Continue");
+        return page(session, "term", "Select Term", true, body);
+    }
+
+    static String add(StandInServer.Session session, StandInState state) {
+        StringBuilder body = new StringBuilder();
+        Map<String, String> schedule = state.getSchedule();
+        if(!schedule.isEmpty()) {
+            List<String[]> rows = new ArrayList<>();
+            for(Map.Entry<String, String> enrolled : schedule.entrySet()) {
+                StandInState.Section lecture = state.getSection(enrolled.getKey());
+                rows.add(scheduleRow(lecture, "<a class=\"PSHYPERLINK\" href=\"/psc/class?id="+lecture.getClassId()+"\">"));
+                StandInState.Section discussion = state.getSection(enrolled.getValue());
+                if(discussion != null) {
+                    rows.add(scheduleRow(discussion, "<a class=\"PSHYPERLINKDISABLED\">"));
+                }
+            }
+            body.append("<h2>Current Schedule</h2>")
+                    .append(grid("STDNT_ENRL_SSVW$0", new String[] {"Class", "Description", "Days/Times", "Room",
+                            "Instructor", "Units", "Status"}, rows));
+        }
+        List<String[]> rows = new ArrayList<>();
+        for(Map.Entry<String, String> inCart : state.getCart().entrySet()) {
+            StandInState.Section lecture = state.getSection(inCart.getKey());
+            rows.add(cartRow(lecture, "<input type=\"checkbox\" class=\"PSCHECKBOX\" name=\"CART\" value=\""+lecture.getClassId()+"\">",
+                    "<a class=\"PSHYPERLINK\" href=\"/psc/class?id="+lecture.getClassId()+"\">"));
+            StandInState.Section discussion = state.getSection(inCart.getValue());
+            if(discussion != null) {
+                rows.add(cartRow(discussion, "", "<span>"));
+            }
+        }
+        body.append("<h2>Shopping Cart</h2>")
+                .append(message(session))
+                .append("<p>Enter Class Nbr <input type=\"text\" id=\"DERIVED_REGFRM1_CLASS_NBR\" name=\"DERIVED_REGFRM1_CLASS_NBR\">")
+                .append(button("DERIVED_REGFRM1_SSR_PB_ADDTOLIST2$9$", "", "Enter")).append("</p>")
+                .append(grid("SSR_REGFORM_VW$0", new String[] {"Select", "Class", "Days/Times", "Room", "Instructor",
+                        "Units", "Status"}, rows))
+                .append(button("DERIVED_REGFRM1_LINK_ADD_ENRL$291$", "", "Proceed to Step 2 of 3"));
+        return page(session, "add", "Add Classes to Shopping Cart", true, body.toString());
+    }
+
+    static String classDetail(StandInServer.Session session, StandInState state) {
+        StandInState.Section lecture = state.getSection(session.viewClassId);
+        if(lecture == null) {
+            return page(session, "class", "Class Detail", true, "<p>Class not found.</p>");
+        }
+        String body = lectureDescription(lecture) + discussionGrid(lecture, state);
+        return page(session, "class", "Class Detail", true, body);
+    }
+
+    static String discussions(StandInServer.Session session, StandInState state) {
+        StandInState.Section lecture = state.getSection(session.lectureId);
+        // The same button ID is used to continue from here and from the next page.
+        String body = lectureDescription(lecture) + discussionGrid(lecture, state) +
+                button("DERIVED_CLS_DTL_NEXT_PB", "SSSBUTTON_CONFIRMLINK", "Next");
+        return page(session, "discussions", "Related Class Sections", true, body);
+    }
+
+    static String confirm(StandInServer.Session session, StandInState state) {
+        StandInState.Section lecture = state.getSection(session.lectureId);
+        StandInState.Section discussion = state.getSection(session.discussionId);
+        String body = lectureDescription(lecture) +
+                "<p>"+escape(lecture.getName())+" ("+lecture.getClassId()+")"+
+                (discussion == null ? "" : ", "+escape(discussion.getName())+" ("+discussion.getClassId()+")")+"</p>" +
+                button(session.flow.equals("add") ? "DERIVED_CLS_DTL_NEXT_PB$280$" : "DERIVED_CLS_DTL_NEXT_PB", "", "Next");
+        return page(session, "confirm", "Confirm Class Selection", true, body);
+    }
+
+    static String finish(StandInServer.Session session, StandInState state) {
+        StringBuilder body = new StringBuilder("<ul>");
+        List<String> classIds = session.flow.equals("enroll") || session.flow.equals("drop")
+                ? session.classIds : Arrays.asList(session.dropId, session.lectureId, session.discussionId);
+        for(String classId : classIds) {
+            StandInState.Section section = state.getSection(classId);
+            if(section != null) {
+                body.append("<li>").append(escape(section.getName())).append(" (").append(classId).append(")</li>");
+            }
+        }
+        body.append("</ul>").append(button("DERIVED_REGFRM1_SSR_PB_SUBMIT", "", "Finish"));
+        return page(session, "finish", "Confirm classes", true, body.toString());
+    }
+
+    static String result(StandInServer.Session session, StandInState state) {
+        String message = session.resultSuccess ? "This class has been "+(session.flow.equals("drop") ? "dropped." : "added to your schedule.")
+                : "Error: Unable to "+session.flow+" class. The class is full or a requisite has not been met.";
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] {escape(session.flow), escape(message), session.resultSuccess ? SUCCESS_ICON : ERROR_ICON});
+        String body = grid("SSR_SS_ERD_ER$0", new String[] {"Class", "Message", "Status"}, rows) +
+                "<p><a id=\"DERIVED_REGFRM1_SSR_LINK_STARTOVER\" class=\"PSHYPERLINK\" href=\"/psc/add\">Add Another Class</a></p>";
+        return page(session, "result", "View results", true, body);
+    }
+
+    static String drop(StandInServer.Session session, StandInState state) {
+        List<String[]> rows = new ArrayList<>();
+        for(String lectureId : state.getSchedule().keySet()) {
+            StandInState.Section lecture = state.getSection(lectureId);
+            rows.add(new String[] {
+                    "<input type=\"checkbox\" class=\"PSCHECKBOX\" name=\"DROP\" value=\""+lectureId+"\">",
+                    "<span>"+escape(lecture.getName())+"<br>("+lectureId+")</span>",
+                    escape(lecture.getTitle())+" (Lecture)", escape(lecture.getMeetingTime()), escape(lecture.getRoom()),
+                    escape(lecture.getInstructor()), "4.00", ENROLLED_ICON});
+        }
+        String body = grid("STDNT_ENRL_SSV1$0", new String[] {"Select", "Class", "Description", "Days/Times", "Room",
+                "Instructor", "Units", "Status"}, rows) +
+                button("DERIVED_REGFRM1_LINK_DROP_ENRL", "SSSBUTTON_CONFIRMLINK", "Drop Selected Classes");
+        return page(session, "drop", "Select classes to drop", true, body);
+    }
+
+    static String swap(StandInServer.Session session, StandInState state) {
+        String body = message(session) +
+                "<p>Select from your schedule "+scheduleMenu(state)+"</p>" +
+                "<p>Enter Class Nbr <input type=\"text\" id=\"DERIVED_REGFRM1_CLASS_NBR\" name=\"DERIVED_REGFRM1_CLASS_NBR\">" +
+                button("DERIVED_REGFRM1_SSR_PB_ADDTOLIST2$106$", "", "Enter")+"</p>";
+        return page(session, "swap", "Select a class to swap", true, body);
+    }
+
+    static String edit(StandInServer.Session session, StandInState state) {
+        String body = message(session) +
+                "<p>Select from your schedule "+scheduleMenu(state)+"</p>" +
+                button("DERIVED_REGFRM1_LINK_UPDATE_ENRL", "", "Proceed to Step 2 of 3");
+        return page(session, "edit", "Select a class to edit", true, body);
+    }
+
+    static String housing(StandInServer.Session session) {
+        String body = "<p><a id=\"UM_H_DRV_RS_HOM_UMH_RMSRCH_LNK\" class=\"PSHYPERLINK\" href=\"/psc/roomsearch\">Search for a Room</a></p>";
+        return page(session, "housing", "Room Selection Home", false, body);
+    }
+
+    static String roomSearch(StandInServer.Session session, StandInState state) {
+        Set<String> buildings = new TreeSet<>();
+        Set<String> areas = new TreeSet<>();
+        Set<String> types = new TreeSet<>();
+        Set<String> designs = new TreeSet<>();
+        Set<String> floors = new TreeSet<>();
+        for(StandInState.Room room : state.getRooms()) {
+            buildings.add(room.getBuilding());
+            areas.add(room.getArea());
+            types.add(room.getType());
+            designs.add(room.getDesign());
+            floors.add(floor(room));
+        }
+        String prefix = "UM_H_DRV_RMSRCH_";
+        String body = "<p>Step 1: "+select(prefix+"STRM", state.getTerms(), true) +
+                select(prefix+"UMH_APPT_TYPE", Collections.singletonList("Room Selection"), true)+"</p>" +
+                "<p>Step 2: " +
+                radio(prefix+"UMH_RM_SRCH_SCOPE", "SCOPE", "BUILDING", prefix+"UMH_BLDG", "Building") +
+                radio(prefix+"UMH_RM_SRCH_SCOPE$11$", "SCOPE", "CLUSTER", prefix+"UMH_BLDG_SGRP", "Cluster") +
+                radio(prefix+"UMH_RM_SRCH_SCOPE$10$", "SCOPE", "AREA", prefix+"UMH_BLDG_GRP", "Area") +
+                radio(prefix+"UMH_RM_SRCH_SCOPE$68$", "SCOPE", "ALL", null, "All") +
+                select(prefix+"UMH_BLDG", buildings, false) + select(prefix+"UMH_BLDG_SGRP", areas, false) +
+                select(prefix+"UMH_BLDG_GRP", areas, false)+"</p>" +
+                "<p>Step 3: " +
+                radio(prefix+"UMH_RM_SRCH_QUAL1", "QUAL1", "TYPE", prefix+"UMH_ROOM_TYPE", "Room Type") +
+                radio(prefix+"UMH_RM_SRCH_QUAL1$36$", "QUAL1", "DESIGN", prefix+"UMH_ROOM_DSGN", "Room Design") +
+                radio(prefix+"UMH_RM_SRCH_QUAL1$37$", "QUAL1", "FLOOR", prefix+"UMH_FLOOR", "Floor") +
+                radio(prefix+"UMH_RM_SRCH_QUAL1$34$", "QUAL1", "OPTION", prefix+"UMH_LIV_OPT", "Living/Housing Option") +
+                select(prefix+"UMH_ROOM_TYPE", types, false) + select(prefix+"UMH_ROOM_DSGN", designs, false) +
+                select(prefix+"UMH_FLOOR", floors, false) +
+                select(prefix+"UMH_LIV_OPT", Collections.singletonList("None"), false)+"</p>" +
+                "<p>Step 4: " +
+                radio(prefix+"UMH_RM_SRCH_QUAL2", "QUAL2", "NONE", null, "None") +
+                radio(prefix+"UMH_RM_SRCH_QUAL2$41$", "QUAL2", "ROOM_OPEN", prefix+"UMH_ROOM_VAC_ALPHA", "Open spaces in a Room") +
+                radio(prefix+"UMH_RM_SRCH_QUAL2$60$", "QUAL2", "SUITE_OPEN", prefix+"UMH_SUITE_VAC_ALPH", "Open spaces in a Suite") +
+                radio(prefix+"UMH_RM_SRCH_QUAL2$50$", "QUAL2", "TYPE2", prefix+"UMH_ROOM_TYPE2", "Room Type") +
+                radio(prefix+"UMH_RM_SRCH_QUAL2$52$", "QUAL2", "OPEN_DOUBLE", null, "Open Doubles") +
+                radio(prefix+"UMH_RM_SRCH_QUAL2$53$", "QUAL2", "OPEN_TRIPLE", null, "Open Triples") +
+                select(prefix+"UMH_ROOM_VAC_ALPHA", Arrays.asList("1", "2", "3"), false) +
+                select(prefix+"UMH_SUITE_VAC_ALPH", Arrays.asList("1", "2", "3"), false) +
+                select(prefix+"UMH_ROOM_TYPE2", types, false)+"</p>" +
+                "<p>Step 5: "+button(prefix+"SEARCH_PB", "", "Search Now")+"</p>";
+        return page(session, "roomsearch", "Room Search", false, body);
+    }
+
+    /**
+     * @param room      A room in the stand-in.
+     * @param filter    The value of the checked radio button of one step of the room search.
+     * @param params    Every field of the room search form.
+     * @return          Whether the room matches that step of the search.
+     */
+    static boolean matchesRoom(StandInState.Room room, String filter, Map<String, List<String>> params) {
+        String prefix = "UM_H_DRV_RMSRCH_";
+        boolean result;
+        switch(filter) {
+            case "BUILDING":    result = room.getBuilding().equals(StandInServer.first(params, prefix+"UMH_BLDG"));      break;
+            case "CLUSTER":     result = room.getArea().equals(StandInServer.first(params, prefix+"UMH_BLDG_SGRP"));    break;
+            case "AREA":        result = room.getArea().equals(StandInServer.first(params, prefix+"UMH_BLDG_GRP"));     break;
+            case "TYPE":        result = room.getType().equals(StandInServer.first(params, prefix+"UMH_ROOM_TYPE"));    break;
+            case "DESIGN":      result = room.getDesign().equals(StandInServer.first(params, prefix+"UMH_ROOM_DSGN"));  break;
+            case "FLOOR":       result = floor(room).equals(StandInServer.first(params, prefix+"UMH_FLOOR"));           break;
+            case "ROOM_OPEN":   result = room.getVacancies() >= atLeast(StandInServer.first(params, prefix+"UMH_ROOM_VAC_ALPHA"));  break;
+            case "SUITE_OPEN":  result = room.getVacancies() >= atLeast(StandInServer.first(params, prefix+"UMH_SUITE_VAC_ALPH"));  break;
+            case "TYPE2":       result = room.getType().equals(StandInServer.first(params, prefix+"UMH_ROOM_TYPE2"));   break;
+            case "OPEN_DOUBLE": result = room.getType().equals("Double") && room.getVacancies() == 2;                   break;
+            case "OPEN_TRIPLE": result = room.getType().equals("Triple") && room.getVacancies() == 3;                   break;
+            default:            result = true;  break;
+        }
+        return result;
+    }
+
+    static String rooms(StandInServer.Session session) {
+        List<String[]> rows = new ArrayList<>();
+        for(int i = 0; i < session.rooms.size(); i++) {
+            StandInState.Room room = session.rooms.get(i);
+            rows.add(new String[] {escape(room.getBuilding()), escape(room.getNumber()), escape(room.getArea()),
+                    floor(room), "", escape(room.getDesign()), escape(room.getType()), "Coed",
+                    String.valueOf(room.getVacancies()), "",
+                    "<a class=\"PSHYPERLINK\" href=\"/psc/assign?row="+(i+1)+"\">Select</a>"});
+        }
+        String body = grid("UMH_RM_SRC_RSLTS$0", new String[] {"Building", "Room", "Area", "Floor", "Suite", "Design",
+                "Type", "Gender", "Vacancies", "Options", "Select"}, rows) +
+                button("UM_H_DRV_RSRCSL_UMH_NEW_SRCH_PB", "", "New Search");
+        return page(session, "rooms", "Room Search Results", false, body);
+    }
+
+    static String assign(StandInServer.Session session, boolean confirm) {
+        String room = session.room == null ? "" : escape(session.room.getBuilding()+" "+session.room.getNumber());
+        List<String[]> students = new ArrayList<>();
+        students.add(new String[] {"<input type=\"checkbox\" class=\"PSCHECKBOX\" name=\"STUDENT\" value=\"1\">", "Student", room});
+        List<String[]> spaces = new ArrayList<>();
+        spaces.add(new String[] {"<input type=\"radio\" class=\"PSRADIOBUTTON\" name=\"SPACE\" value=\"1\">", room});
+        String body = "<h2>I. Students to Assign</h2>" +
+                grid("UM_H_DRVD_RGRP$0", new String[] {"Select", "Name", "Room"}, students) +
+                (confirm ? button("UM_H_DRV_SSASSN_UMH_ASSN_PB", "", "Save")
+                        : "<h2>II. Available Assignment(s)</h2>" +
+                        grid("UM_H_GRMBR_SRCH$0", new String[] {"Select", "Room"}, spaces) +
+                        button("UM_H_DRV_SSASSN_UMH_PRE_ASSN_PB", "", "Choose"));
+        return page(session, confirm ? "assignconfirm" : "assign", confirm ? "Confirm Assignment" : "Room Assignment", false, body);
+    }
+
+    static String assignComplete(StandInServer.Session session) {
+        String body = message(session)+button("UM_H_DRV_SSASSN_CANCEL", "", "You're Done! Return");
+        return page(session, "assigncomplete", "Assignment Complete", false, body);
+    }
+
+    static String classSearch(StandInServer.Session session, StandInState state) {
+        StringBuilder subjects = new StringBuilder("<select id=\"CLASS_SRCH_WRK2_SUBJECT$108$\" name=\"CLASS_SRCH_WRK2_SUBJECT$108$\">")
+                .append("<option value=\"\"></option>");
+        for(Map.Entry<String, String> subject : state.getSubjects().entrySet()) {
+            subjects.append("<option value=\"").append(escape(subject.getKey())).append("\">")
+                    .append(escape(subject.getValue())).append("</option>");
+        }
+        subjects.append("</select>");
+        String body = (session.message.isEmpty() ? "" : "<p><span id=\"DERIVED_CLSMSG_ERROR_TEXT\" class=\"PSERROR\">" +
+                escape(session.message)+"</span></p>") +
+                "<p>Term "+select("UM_DERIVED_SA_UM_TERM_DESCR", state.getTerms(), true)+"</p>" +
+                "<p>Course Subject "+subjects+"</p>" +
+                "<p>Course Number "+select("CLASS_SRCH_WRK2_SSR_EXACT_MATCH1", Arrays.asList(MATCHES), true) +
+                "<input type=\"text\" id=\"CLASS_SRCH_WRK2_CATALOG_NBR$8$\" name=\"CLASS_SRCH_WRK2_CATALOG_NBR$8$\"></p>" +
+                "<p><input type=\"checkbox\" id=\"CLASS_SRCH_WRK2_SSR_OPEN_ONLY\" name=\"CLASS_SRCH_WRK2_SSR_OPEN_ONLY\" value=\"Y\" checked>" +
+                " Show Open Classes Only</p>" +
+                button("CLASS_SRCH_WRK2_SSR_PB_CLASS_SRCH", "", "Search");
+        return page(session, "classsearch", "Class Search", false, body);
+    }
+
+    static String classResults(StandInServer.Session session, StandInState state) {
+        StringBuilder body = new StringBuilder(button("CLASS_SRCH_WRK2_SSR_PB_NEW_SEARCH", "", "Start a New Search"));
+        for(int i = 0; i < session.courses.size(); i++) {
+            StandInState.Section lecture = session.courses.get(i);
+            List<StandInState.Section> sections = new ArrayList<>();
+            sections.add(lecture);
+            sections.addAll(lecture.getDiscussions());
+            body.append("<div id=\"win0divDERIVED_CLSRCH_SSR_EXPAND_COLLAP2$").append(i).append("\">")
+                    .append("<span id=\"DERIVED_CLSRCH_DESCR200$").append(i).append("\" class=\"SSSHYPERLINKBOLD\">")
+                    .append(escape(lecture.getSubject())).append("&nbsp; ").append(escape(lecture.getNumber()))
+                    .append(" ").append(escape(lecture.getTitle())).append("</span></div>")
+                    .append("<div id=\"win0divDERIVED_CLSRCH_GROUPBOX1$133$$").append(i).append("\">")
+                    .append("<div>First 1-").append(sections.size()).append(" of ").append(sections.size()).append(" Last</div>");
+            for(StandInState.Section section : sections) {
+                body.append("<div>").append(section.getCapacity()).append("</div>")
+                        .append("<div>").append(escape(section.getSection())).append("-").append(section.getType())
+                        .append("(").append(section.getClassId()).append(")</div>")
+                        .append("<div>").append(section.getEnrolled()).append("</div>")
+                        .append("<div>University</div>")
+                        .append("<div>").append(escape(section.getMeetingTime())).append("</div>")
+                        .append("<div>").append(escape(section.getRoom())).append("</div>")
+                        .append("<div>").append(escape(section.getInstructor())).append("</div>")
+                        .append("<div>TBA</div>")
+                        .append("<div>No Restrictions/Notes</div>");
+            }
+            body.append("</div>");
+        }
+        return page(session, "classresults", "Class Search Results", false, body.toString());
+    }
+
+    // The page layout shared by every page inside the SPIRE frame.
+    private static String page(StandInServer.Session session, String name, String title, boolean tabs, String body) {
+        StringBuilder html = new StringBuilder("<!DOCTYPE html><html><head><title>").append(escape(title))
+                .append("</title><script>").append(REVEAL_SCRIPT).append("</script></head><body>")
+                .append("<div id=\"WAIT_win0\" style=\"visibility: hidden;\">Processing...</div>")
+                .append("<form id=\"win0\" name=\"win0\" method=\"post\" action=\"/psc/").append(name).append("\">")
+                .append("<input type=\"hidden\" id=\"ICStateNum\" name=\"ICStateNum\" value=\"").append(session.stateNum).append("\">");
+        if(tabs) {
+            html.append("<div id=\"win0divDERIVED_SSTSNAV_SSTS_NAV_SUBTABS\"><div><table><tbody><tr><td></td></tr><tr>");
+            for(String tab : TABS) {
+                html.append("<td onclick=\"location.href = '/psc/").append(tab.toLowerCase().replace(' ', '_'))
+                        .append("';\">").append(tab).append("</td>");
+            }
+            html.append("</tr></tbody></table></div></div>");
+        }
+        html.append("<h1><span id=\"DERIVED_REGFRM1_TITLE1\">").append(escape(title)).append("</span></h1>")
+                .append(body).append("</form></body></html>");
+        return html.toString();
+    }
+
+    // A PeopleSoft grid: a scroll area whose second row holds the table of data rows.
+    private static String grid(String gridId, String[] headers, List<String[]> rows) {
+        StringBuilder html = new StringBuilder("<table id=\"").append(gridId.replace("$0", "$scroll$0"))
+                .append("\"><tbody><tr><td>First 1-").append(rows.size()).append(" of ").append(rows.size())
+                .append(" Last</td></tr><tr><td><table><tbody><tr>");
+        for(String header : headers) {
+            html.append("<th>").append(header).append("</th>");
+        }
+        html.append("</tr>");
+        for(int row = 1; row <= rows.size(); row++) {
+            html.append("<tr id=\"tr").append(gridId).append("_row").append(row).append("\">");
+            for(String cell : rows.get(row-1)) {
+                html.append("<td>").append(cell).append("</td>");
+            }
+            html.append("</tr>");
+        }
+        return html.append("</tbody></table></td></tr></tbody></table>").toString();
+    }
+
+    private static String[] scheduleRow(StandInState.Section section, String link) {
+        String type = section.isLecture() ? "Lecture" : "Discussion";
+        return new String[] {link+escape(section.getName())+"<br>("+section.getClassId()+")</"+tagOf(link)+">",
+                escape(section.getTitle())+" ("+type+")", escape(section.getMeetingTime()), escape(section.getRoom()),
+                escape(section.getInstructor()), section.isLecture() ? "4.00" : "", ENROLLED_ICON};
+    }
+
+    private static String[] cartRow(StandInState.Section section, String select, String link) {
+        return new String[] {select, link+escape(section.getName())+"<br>("+section.getClassId()+")</"+tagOf(link)+">",
+                escape(section.getMeetingTime()), escape(section.getRoom()), escape(section.getInstructor()),
+                section.isLecture() ? "4.00" : "", section.isOpen() ? OPEN_ICON : CLOSED_ICON};
+    }
+
+    private static String lectureDescription(StandInState.Section lecture) {
+        return "<p><span id=\"DERIVED_CLS_DTL_DESCR50\">"+escape(lecture.getName())+" - "+escape(lecture.getTitle())+"</span></p>";
+    }
+
+    private static String discussionGrid(StandInState.Section lecture, StandInState state) {
+        List<String[]> rows = new ArrayList<>();
+        for(StandInState.Section discussion : lecture.getDiscussions()) {
+            // Seat counts change, so read them again instead of from the Lecture's copy.
+            StandInState.Section current = state.getSection(discussion.getClassId());
+            rows.add(new String[] {
+                    "<input type=\"radio\" class=\"PSRADIOBUTTON\" name=\"DISC\" value=\""+current.getClassId()+"\">",
+                    "("+current.getClassId()+")", escape(current.getSection()), escape(current.getMeetingTime()),
+                    escape(current.getRoom()), escape(current.getInstructor()), current.isOpen() ? OPEN_ICON : CLOSED_ICON});
+        }
+        return grid("SSR_CLS_TBL_R1$0", new String[] {"Select", "Class", "Section", "Days/Times", "Room",
+                "Instructor", "Status"}, rows);
+    }
+
+    private static String scheduleMenu(StandInState state) {
+        StringBuilder html = new StringBuilder("<select id=\"DERIVED_REGFRM1_DESCR50$225$\" name=\"DERIVED_REGFRM1_DESCR50$225$\">");
+        for(String lectureId : state.getSchedule().keySet()) {
+            StandInState.Section lecture = state.getSection(lectureId);
+            html.append("<option value=\"").append(lectureId).append("\">").append(escape(lecture.getName()))
+                    .append(" ").append(escape(lecture.getTitle())).append("</option>");
+        }
+        return html.append("</select>").toString();
+    }
+
+    private static String select(String id, Collection<String> options, boolean visible) {
+        StringBuilder html = new StringBuilder("<select id=\"").append(id).append("\" name=\"").append(id).append("\"")
+                .append(visible ? "" : " style=\"display: none;\"").append(">");
+        for(String option : options) {
+            html.append("<option value=\"").append(escape(option)).append("\">").append(escape(option)).append("</option>");
+        }
+        return html.append("</select>").toString();
+    }
+
+    private static String radio(String id, String name, String value, String reveals, String label) {
+        return "<input type=\"radio\" id=\""+id+"\" name=\""+name+"\" value=\""+value+"\" onclick=\"reveal(this);\"" +
+                (reveals == null ? "" : " data-reveal=\""+reveals+"\"")+"> "+escape(label)+" ";
+    }
+
+    private static String button(String id, String cssClass, String label) {
+        return "<button type=\"submit\" id=\""+id+"\" name=\"ICAction\" value=\""+id+"\"" +
+                (cssClass.isEmpty() ? "" : " class=\""+cssClass+"\"")+">"+escape(label)+"</button>";
+    }
+
+    private static String message(StandInServer.Session session) {
+        return session.message.isEmpty() ? "" : "<p class=\"PSERROR\">"+escape(session.message)+"</p>";
+    }
+
+    private static String tagOf(String openTag) {
+        return openTag.substring(1, openTag.indexOf(openTag.contains(" ") ? ' ' : '>'));
+    }
+
+    private static String floor(StandInState.Room room) {
+        // Room numbers end in two digits for the room on its floor (ex. "0214" is on floor 2).
+        String number = room.getNumber();
+        return String.valueOf(digitsOf(number.length() > 2 ? number.substring(0, number.length()-2) : "0"));
+    }
+
+    private static int digitsOf(String digits) {
+        int result = 0;
+        for(char c : digits.toCharArray()) {
+            if(Character.isDigit(c)) {
+                result = result*10+(c-'0');
+            }
+        }
+        return result;
+    }
+
+    private static int atLeast(String number) {
+        return number.isEmpty() ? 0 : digitsOf(number);
+    }
+
+    private static String escape(String text) {
+        return text == null ? "" : text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,476 @@
+package standin;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import spire.UMass;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * The StandInServer is a local stand-in for SPIRE, so the automators can
+ * be run end to end and timed without a real account or appointment.
+ * It serves the same pages the automators use (logon, student center,
+ * term selection, shopping cart, add/drop/swap/edit, room search, and
+ * class search) with the same element IDs, and every page carries a
+ * PeopleSoft state number. Each click that submits a form is a full
+ * page load, as on SPIRE. Seats can be scheduled to open, and the time
+ * from a seat opening to the enrollment in it being confirmed is logged
+ * and served at "/latencies".
+ *
+ * Run with "port=8080" and any number of "open=classId@millis" arguments,
+ * then run {@link spire.SpireAutomator} with "url=http://localhost:8080/".
+ */
+public class StandInServer {
+    /**
+     * One logged-in browser session and the multi-page flow it is in the middle of.
+     */
+    static class Session {
+        final String id;
+        int stateNum;
+        String term;
+        // The enrollment page to show once a term is selected.
+        String afterTerm;
+        // The flow that the discussions, confirm, and finish pages belong to: add, enroll, drop, swap, or edit.
+        String flow;
+        String lectureId;
+        String discussionId;
+        String dropId;
+        List<String> classIds;
+        String viewClassId;
+        String message;
+        boolean resultSuccess;
+        List<StandInState.Section> courses;
+        List<StandInState.Room> rooms;
+        StandInState.Room room;
+
+        Session(String id) {
+            this.id = id;
+            this.stateNum = 0;
+            this.term = null;
+            this.afterTerm = "add";
+            this.flow = "";
+            this.lectureId = "";
+            this.discussionId = "";
+            this.dropId = "";
+            this.classIds = new ArrayList<>();
+            this.viewClassId = "";
+            this.message = "";
+            this.resultSuccess = false;
+            this.courses = new ArrayList<>();
+            this.rooms = new ArrayList<>();
+            this.room = null;
+        }
+    }
+
+    private final static Logger LOGGER = Logger.getLogger("spireautomator.standin");
+    private final static String SESSION_COOKIE = "PS_TOKEN";
+    // Pages that SPIRE only shows once a term has been selected.
+    private final static Set<String> TERM_PAGES = new HashSet<>(Arrays.asList("add", "drop", "swap", "edit"));
+    private final StandInState state;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Session> sessions;
+    // Most sections one class search may return before it is refused, or 0 for no limit.
+    private volatile int searchLimit;
+
+    public StandInServer(StandInState state, int port) throws IOException {
+        this.state = state;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        this.executor = Executors.newCachedThreadPool();
+        this.sessions = new ConcurrentHashMap<>();
+        this.searchLimit = 0;
+        this.server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                StandInServer.this.handle(exchange);
+            }
+        });
+        this.server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        StandInState state = StandInState.example();
+        Map<String, Long> openings = new LinkedHashMap<>();
+        int searchLimit = 0;
+        for(String arg : args) {
+            String[] argSplit = arg.split("=", 2);
+            if(argSplit.length > 1) {
+                switch(argSplit[0]) {
+                    case "port":    port = UMass.tryToInt(argSplit[1]);   break;
+                    case "open":    for(String opening : argSplit[1].split(",")) {
+                                        String[] openingSplit = opening.split("@", 2);
+                                        openings.put(openingSplit[0].trim(),
+                                                openingSplit.length > 1 ? Long.parseLong(openingSplit[1].trim()) : 0L);
+                                    }
+                                    break;
+                    case "limit":   searchLimit = UMass.tryToInt(argSplit[1]);  break;
+                    default:        LOGGER.warning("Unknown parameter \""+argSplit[0]+"\"");    break;
+                }
+            }
+        }
+        final StandInServer standIn = new StandInServer(state, port).start();
+        standIn.setSearchLimit(searchLimit);
+        for(Map.Entry<String, Long> opening : openings.entrySet()) {
+            state.openSeatAt(opening.getKey(), opening.getValue());
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                standIn.stop();
+            }
+        });
+        System.out.println("SPIRE stand-in running at "+standIn.getUrl());
+    }
+
+    public StandInServer start() {
+        server.start();
+        LOGGER.info("Serving at "+getUrl());
+        return this;
+    }
+
+    /**
+     * Stops serving and logs every recorded seat-open to enrollment latency.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        state.shutdown();
+        for(Map.Entry<String, Long> latency : state.getLatencies().entrySet()) {
+            LOGGER.info("Seat in "+latency.getKey()+" taken "+latency.getValue()+" ms after it opened.");
+        }
+    }
+
+    public String getUrl() {
+        return "http://localhost:"+server.getAddress().getPort()+"/";
+    }
+
+    public void setSearchLimit(int searchLimit) {
+        this.searchLimit = searchLimit;
+    }
+
+    public StandInState getState() {
+        return state;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            // The server clock only needs the "Date" header, which every response has.
+            if(method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            Map<String, List<String>> params = readParams(exchange);
+            Session session = sessions.get(readCookie(exchange, SESSION_COOKIE));
+            if(path.equals("/")) {
+                send(exchange, 200, StandInPages.login(""));
+            } else if(path.equals("/login") && method.equals("POST")) {
+                if(first(params, UMass.USERNAME_ID).isEmpty()) {
+                    send(exchange, 200, StandInPages.login("Your User ID and/or Password are invalid."));
+                } else {
+                    session = new Session(UUID.randomUUID().toString());
+                    sessions.put(session.id, session);
+                    exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE+"="+session.id+"; Path=/");
+                    redirect(exchange, "/home");
+                }
+            } else if(path.equals("/latencies")) {
+                StringBuilder latencies = new StringBuilder();
+                for(Map.Entry<String, Long> latency : state.getLatencies().entrySet()) {
+                    latencies.append(latency.getKey()).append(' ').append(latency.getValue()).append('\n');
+                }
+                send(exchange, 200, "text/plain", latencies.toString());
+            } else if(session == null) {
+                redirect(exchange, "/");
+            } else if(path.equals("/home")) {
+                send(exchange, 200, StandInPages.home());
+            } else if(path.startsWith("/psc/")) {
+                String page = path.substring("/psc/".length());
+                if(method.equals("POST")) {
+                    redirect(exchange, "/psc/"+act(session, page, params));
+                } else {
+                    String html = render(session, page, params);
+                    send(exchange, html == null ? 404 : 200, html == null ? StandInPages.notFound() : html);
+                }
+            } else {
+                send(exchange, 404, StandInPages.notFound());
+            }
+        } catch(RuntimeException e) {
+            LOGGER.warning("Failed to handle "+exchange.getRequestURI()+": "+e);
+            send(exchange, 500, StandInPages.notFound());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Renders a page for a session. Every page load increments the session's state number.
+     * @return  The page, or null if there is no such page.
+     */
+    private String render(Session session, String page, Map<String, List<String>> params) {
+        synchronized(session) {
+            session.stateNum++;
+            if(TERM_PAGES.contains(page) && session.term == null) {
+                session.afterTerm = page;
+                page = "term";
+            }
+            String html;
+            switch(page) {
+                case "center":          html = StandInPages.center(session);                  break;
+                case "term":            html = StandInPages.term(session, state);             break;
+                case "add":             html = StandInPages.add(session, state);              break;
+                case "class":           if(params.containsKey("id")) {
+                                            session.viewClassId = first(params, "id");
+                                        }
+                                        html = StandInPages.classDetail(session, state);      break;
+                case "discussions":     html = StandInPages.discussions(session, state);      break;
+                case "confirm":         html = StandInPages.confirm(session, state);          break;
+                case "finish":          html = StandInPages.finish(session, state);           break;
+                case "result":          html = StandInPages.result(session, state);           break;
+                case "drop":            html = StandInPages.drop(session, state);             break;
+                case "swap":            html = StandInPages.swap(session, state);             break;
+                case "edit":            html = StandInPages.edit(session, state);             break;
+                case "housing":         html = StandInPages.housing(session);                 break;
+                case "roomsearch":      html = StandInPages.roomSearch(session, state);       break;
+                case "rooms":           html = StandInPages.rooms(session);                   break;
+                case "assign":          if(params.containsKey("row")) {
+                                            int row = UMass.tryToInt(first(params, "row"));
+                                            session.room = row >= 1 && row <= session.rooms.size()
+                                                    ? session.rooms.get(row-1) : null;
+                                        }
+                                        html = StandInPages.assign(session, false);           break;
+                case "assignconfirm":   html = StandInPages.assign(session, true);            break;
+                case "assigncomplete":  html = StandInPages.assignComplete(session);          break;
+                case "classsearch":     html = StandInPages.classSearch(session, state);      break;
+                case "classresults":    html = StandInPages.classResults(session, state);     break;
+                default:                html = null;                                          break;
+            }
+            session.message = "";
+            return html;
+        }
+    }
+
+    /**
+     * Handles a form submitted from a page.
+     * @return  The page to show next.
+     */
+    private String act(Session session, String page, Map<String, List<String>> params) {
+        synchronized(session) {
+            String action = first(params, "ICAction");
+            String next = page;
+            switch(page) {
+                case "term":
+                    if(!first(params, "TERM").isEmpty()) {
+                        session.term = first(params, "TERM");
+                        next = session.afterTerm;
+                    }
+                    break;
+                case "add":
+                    if(action.equals("DERIVED_REGFRM1_SSR_PB_ADDTOLIST2$9$")) {
+                        next = startFlow(session, "add", first(params, "DERIVED_REGFRM1_CLASS_NBR").trim(), "add");
+                    } else if(action.equals("DERIVED_REGFRM1_LINK_ADD_ENRL$291$")) {
+                        session.flow = "enroll";
+                        session.classIds = params.containsKey("CART") ? params.get("CART") : new ArrayList<String>();
+                        next = "finish";
+                    }
+                    break;
+                case "discussions":
+                    if(!first(params, "DISC").isEmpty()) {
+                        session.discussionId = first(params, "DISC");
+                        next = "confirm";
+                    }
+                    break;
+                case "confirm":
+                    if(session.flow.equals("add")) {
+                        state.addToCart(session.lectureId, session.discussionId);
+                        next = "add";
+                    } else {
+                        next = "finish";
+                    }
+                    break;
+                case "finish":
+                    switch(session.flow) {
+                        case "enroll":  session.resultSuccess = state.enrollFromCart(session.classIds);    break;
+                        case "drop":    session.resultSuccess = state.drop(session.classIds);              break;
+                        case "swap":    session.resultSuccess = state.swap(session.dropId, session.lectureId, session.discussionId);  break;
+                        case "edit":    session.resultSuccess = state.edit(session.lectureId, session.discussionId);  break;
+                        default:        session.resultSuccess = false;  break;
+                    }
+                    next = "result";
+                    break;
+                case "drop":
+                    if(params.containsKey("DROP")) {
+                        session.flow = "drop";
+                        session.classIds = params.get("DROP");
+                        next = "finish";
+                    }
+                    break;
+                case "swap":
+                    if(action.equals("DERIVED_REGFRM1_SSR_PB_ADDTOLIST2$106$")) {
+                        session.dropId = first(params, "DERIVED_REGFRM1_DESCR50$225$");
+                        next = startFlow(session, "swap", first(params, "DERIVED_REGFRM1_CLASS_NBR").trim(), "swap");
+                    }
+                    break;
+                case "edit":
+                    if(action.equals("DERIVED_REGFRM1_LINK_UPDATE_ENRL")) {
+                        next = startFlow(session, "edit", first(params, "DERIVED_REGFRM1_DESCR50$225$"), "edit");
+                    }
+                    break;
+                case "roomsearch":
+                    if(action.equals("UM_H_DRV_RMSRCH_SEARCH_PB")) {
+                        session.rooms = searchRooms(params);
+                        next = "rooms";
+                    }
+                    break;
+                case "rooms":           next = "roomsearch";    break;
+                case "assign":          next = "assignconfirm"; break;
+                case "assignconfirm":
+                    session.message = session.room != null && state.assignRoom(session.room)
+                            ? "Your room assignment has been saved." : "This space is no longer available.";
+                    next = "assigncomplete";
+                    break;
+                case "assigncomplete":  next = "roomsearch";    break;
+                case "classsearch":
+                    if(action.equals("CLASS_SRCH_WRK2_SSR_PB_CLASS_SRCH")) {
+                        String subject = first(params, "CLASS_SRCH_WRK2_SUBJECT$108$");
+                        session.courses = state.searchLectures(subject.isEmpty() ? null : subject,
+                                first(params, "CLASS_SRCH_WRK2_SSR_EXACT_MATCH1"),
+                                first(params, "CLASS_SRCH_WRK2_CATALOG_NBR$8$"),
+                                params.containsKey("CLASS_SRCH_WRK2_SSR_OPEN_ONLY"));
+                        // Like SPIRE, stays on the search page when nothing matches or too much does.
+                        int sectionCount = 0;
+                        for(StandInState.Section lecture : session.courses) {
+                            sectionCount += 1+lecture.getDiscussions().size();
+                        }
+                        if(session.courses.isEmpty()) {
+                            session.message = "The search returns no results that match the criteria specified.";
+                        } else if(searchLimit > 0 && sectionCount > searchLimit) {
+                            session.message = "Your search will exceed the maximum limit of "+searchLimit+
+                                    " sections. Specify additional criteria to continue.";
+                            session.courses = new ArrayList<>();
+                        } else {
+                            next = "classresults";
+                        }
+                    }
+                    break;
+                case "classresults":
+                    if(action.equals("CLASS_SRCH_WRK2_SSR_PB_NEW_SEARCH")) {
+                        next = "classsearch";
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return next;
+        }
+    }
+
+    // Starts an add, swap, or edit of a Lecture, which goes through its Discussions if it has any.
+    private String startFlow(Session session, String flow, String lectureId, String page) {
+        StandInState.Section lecture = state.getSection(lectureId);
+        if(lecture == null || !lecture.isLecture()) {
+            session.message = "Class number "+lectureId+" does not exist for the term selected.";
+            return page;
+        }
+        session.flow = flow;
+        session.lectureId = lectureId;
+        session.discussionId = "";
+        return lecture.getDiscussions().isEmpty() ? "confirm" : "discussions";
+    }
+
+    private List<StandInState.Room> searchRooms(Map<String, List<String>> params) {
+        List<StandInState.Room> result = new ArrayList<>();
+        for(StandInState.Room room : state.getRooms()) {
+            if(StandInPages.matchesRoom(room, first(params, "SCOPE"), params)
+                    && StandInPages.matchesRoom(room, first(params, "QUAL1"), params)
+                    && StandInPages.matchesRoom(room, first(params, "QUAL2"), params)) {
+                result.add(room);
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, List<String>> readParams(HttpExchange exchange) throws IOException {
+        Map<String, List<String>> params = new HashMap<>();
+        parseParams(exchange.getRequestURI().getRawQuery(), params);
+        if(exchange.getRequestMethod().equals("POST")) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            InputStream in = exchange.getRequestBody();
+            byte[] buffer = new byte[4096];
+            for(int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                body.write(buffer, 0, read);
+            }
+            parseParams(new String(body.toByteArray(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseParams(String encoded, Map<String, List<String>> params) throws UnsupportedEncodingException {
+        if(encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for(String pair : encoded.split("&")) {
+            String[] pairSplit = pair.split("=", 2);
+            String name = URLDecoder.decode(pairSplit[0], "UTF-8");
+            String value = pairSplit.length > 1 ? URLDecoder.decode(pairSplit[1], "UTF-8") : "";
+            if(!params.containsKey(name)) {
+                params.put(name, new ArrayList<String>());
+            }
+            params.get(name).add(value);
+        }
+    }
+
+    static String first(Map<String, List<String>> params, String name) {
+        List<String> values = params.get(name);
+        return values == null || values.isEmpty() ? "" : values.get(0);
+    }
+
+    private static String readCookie(HttpExchange exchange, String name) {
+        String result = "";
+        List<String> headers = exchange.getRequestHeaders().get("Cookie");
+        if(headers != null) {
+            for(String header : headers) {
+                for(String cookie : header.split(";")) {
+                    String[] cookieSplit = cookie.trim().split("=", 2);
+                    if(cookieSplit.length > 1 && cookieSplit[0].equals(name)) {
+                        result = cookieSplit[1];
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void redirect(HttpExchange exchange, String location) throws IOException {
+        exchange.getResponseHeaders().add("Location", location);
+        exchange.sendResponseHeaders(303, -1);
+    }
+
+    private static void send(HttpExchange exchange, int status, String html) throws IOException {
+        send(exchange, status, "text/html; charset=UTF-8", html);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.getResponseHeaders().add("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try(OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
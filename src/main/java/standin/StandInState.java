@@ -0,0 +1,485 @@
+package standin;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The StandInState is everything the {@link StandInServer} knows:
+ * the class catalog with seat counts, one student's schedule and
+ * shopping cart, and the rooms for housing. Seats can be opened at
+ * scripted times, and the time from a seat opening to the student
+ * being enrolled in it is recorded. Every method is synchronized,
+ * since several browser sessions may use the server at once.
+ */
+public class StandInState {
+    private final static Logger LOGGER = Logger.getLogger("spireautomator.standin.state");
+
+    /**
+     * A Lecture or Discussion section in the catalog.
+     */
+    public static class Section {
+        private final String classId;
+        private final String subject;
+        private final String number;
+        private final String section;
+        private final String title;
+        private final String lectureId;
+        private final String meetingTime;
+        private final String room;
+        private final String instructor;
+        private final List<Section> discussions;
+        private int capacity;
+        private int enrolled;
+
+        public Section(String classId, String subject, String number, String section, String title,
+                       String lectureId, String meetingTime, String room, String instructor, int capacity, int enrolled) {
+            this.classId = classId;
+            this.subject = subject;
+            this.number = number;
+            this.section = section;
+            this.title = title;
+            this.lectureId = lectureId;
+            this.meetingTime = meetingTime;
+            this.room = room;
+            this.instructor = instructor;
+            this.discussions = new ArrayList<>();
+            this.capacity = capacity;
+            this.enrolled = enrolled;
+        }
+
+        public String getClassId() {
+            return classId;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getNumber() {
+            return number;
+        }
+
+        public String getSection() {
+            return section;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getLectureId() {
+            return lectureId;
+        }
+
+        public boolean isLecture() {
+            return lectureId == null;
+        }
+
+        public String getMeetingTime() {
+            return meetingTime;
+        }
+
+        public String getRoom() {
+            return room;
+        }
+
+        public String getInstructor() {
+            return instructor;
+        }
+
+        public List<Section> getDiscussions() {
+            return discussions;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public int getEnrolled() {
+            return enrolled;
+        }
+
+        public boolean isOpen() {
+            return enrolled < capacity;
+        }
+
+        // Shown as "COMPSCI 311-01" or "COMPSCI 311-01AA".
+        public String getName() {
+            return subject+" "+number+"-"+section;
+        }
+
+        public String getType() {
+            return isLecture() ? "LEC" : "DIS";
+        }
+    }
+
+    /**
+     * A room that housing searches can find and assign.
+     */
+    public static class Room {
+        private final String area;
+        private final String building;
+        private final String number;
+        private final String design;
+        private final String type;
+        private int vacancies;
+
+        public Room(String area, String building, String number, String design, String type, int vacancies) {
+            this.area = area;
+            this.building = building;
+            this.number = number;
+            this.design = design;
+            this.type = type;
+            this.vacancies = vacancies;
+        }
+
+        public String getArea() {
+            return area;
+        }
+
+        public String getBuilding() {
+            return building;
+        }
+
+        public String getNumber() {
+            return number;
+        }
+
+        public String getDesign() {
+            return design;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getVacancies() {
+            return vacancies;
+        }
+    }
+
+    private final Map<String, Section> sections;
+    private final List<String> terms;
+    // Subject abbreviations (ex. "COMPSCI") to the names shown in class search (ex. "Computer Science").
+    private final Map<String, String> subjects;
+    // The student's schedule and shopping cart map Lecture IDs to Discussion IDs ("" for none).
+    private final Map<String, String> schedule;
+    private final Map<String, String> cart;
+    private final List<Room> rooms;
+    private Room assignedRoom;
+    private final Map<String, Long> seatOpenedAt;
+    private final Map<String, Long> latencies;
+    private final ScheduledExecutorService scheduler;
+
+    public StandInState() {
+        this.sections = new LinkedHashMap<>();
+        this.terms = new ArrayList<>();
+        this.subjects = new LinkedHashMap<>();
+        this.schedule = new LinkedHashMap<>();
+        this.cart = new LinkedHashMap<>();
+        this.rooms = new ArrayList<>();
+        this.assignedRoom = null;
+        this.seatOpenedAt = new HashMap<>();
+        this.latencies = new LinkedHashMap<>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * @return  A StandInState with the same schedule and shopping cart as the example
+     *          enroller configuration in {@link spire.SpireAutomator}, where every
+     *          class in the shopping cart is full until a seat is opened.
+     */
+    public static StandInState example() {
+        StandInState state = new StandInState();
+        state.addTerm("2018 Fall").addTerm("2019 Spring");
+        state.addSubject("COMPLIT", "Comparative Literature").addSubject("COMPSCI", "Computer Science")
+                .addSubject("MATH", "Mathematics");
+        Section compsci311 = state.addLecture("14784", "COMPSCI", "311", "01", "Introduction to Algorithms",
+                "TuTh 1:00PM - 2:15PM", "Thompson Hall 104", "Marius Minea", 150, 149);
+        state.addDiscussion(compsci311, "14785", "01AA", "Mo 10:10AM - 11:00AM", "Hasbrouck 138", "Staff", 25, 24);
+        state.addDiscussion(compsci311, "20764", "01AB", "Mo 11:15AM - 12:05PM", "Hasbrouck 138", "Staff", 25, 25);
+        Section compsci320 = state.addLecture("14786", "COMPSCI", "320", "01", "Software Engineering",
+                "MoWe 2:30PM - 3:45PM", "Integ. Learn Center S131", "Yuriy Brun", 100, 99);
+        state.addDiscussion(compsci320, "14809", "01AA", "Fr 9:05AM - 9:55AM", "Integ. Learn Center S140", "Staff", 30, 29);
+        state.addLecture("15184", "MATH", "235", "07", "Intro Linear Algebra",
+                "MoWeFr 12:20PM - 1:10PM", "Lederle Grad Res Tower 171", "Staff", 35, 34);
+        state.addLecture("14842", "COMPSCI", "326", "01", "Web Programming",
+                "TuTh 11:30AM - 12:45PM", "Goessmann Lab Add 20", "Tim Richards", 80, 80);
+        Section compsci240 = state.addLecture("14812", "COMPSCI", "240", "01", "Reasoning Under Uncertainty",
+                "TuTh 2:30PM - 3:45PM", "Thompson Hall 102", "Staff", 200, 199);
+        state.addDiscussion(compsci240, "14836", "01AA", "Mo 9:05AM - 9:55AM", "Lederle Grad Res Tower 123", "Staff", 50, 50);
+        state.addDiscussion(compsci240, "14841", "01AB", "Mo 10:10AM - 11:00AM", "Lederle Grad Res Tower 123", "Staff", 50, 50);
+        state.addDiscussion(compsci240, "14851", "01AC", "Mo 11:15AM - 12:05PM", "Lederle Grad Res Tower 123", "Staff", 50, 49);
+        state.addDiscussion(compsci240, "14864", "01AD", "Mo 12:20PM - 1:10PM", "Lederle Grad Res Tower 123", "Staff", 50, 50);
+        state.addLecture("22031", "COMPLIT", "131", "01", "Brave New Worlds",
+                "MoWe 4:00PM - 5:15PM", "Herter Hall 227", "Staff", 60, 41);
+        state.addLecture("22045", "COMPLIT", "141", "01", "Good and Evil: East and West",
+                "TuTh 10:00AM - 11:15AM", "Bartlett Hall 65", "Staff", 40, 40);
+        state.enroll("14784", "14785").enroll("14786", "14809").enroll("15184", "");
+        state.addToCart("14784", "20764").addToCart("14842", "").addToCart("14812", "14851");
+        state.addRoom(new Room("Northeast", "Crabtree", "0101", "Corridor", "Single", 1));
+        state.addRoom(new Room("Northeast", "Crabtree", "0214", "Corridor", "Double", 0));
+        state.addRoom(new Room("Southwest", "John Adams", "1812", "Corridor", "Double", 2));
+        state.addRoom(new Room("Central", "Brooks", "0305", "Corridor", "Single", 0));
+        return state;
+    }
+
+    public synchronized StandInState addTerm(String term) {
+        terms.add(term);
+        return this;
+    }
+
+    public synchronized StandInState addSubject(String abbreviation, String name) {
+        subjects.put(abbreviation, name);
+        return this;
+    }
+
+    public synchronized Section addLecture(String classId, String subject, String number, String section, String title,
+                                           String meetingTime, String room, String instructor, int capacity, int enrolled) {
+        Section lecture = new Section(classId, subject, number, section, title, null,
+                meetingTime, room, instructor, capacity, enrolled);
+        sections.put(classId, lecture);
+        return lecture;
+    }
+
+    public synchronized Section addDiscussion(Section lecture, String classId, String section, String meetingTime,
+                                              String room, String instructor, int capacity, int enrolled) {
+        Section discussion = new Section(classId, lecture.getSubject(), lecture.getNumber(), section, lecture.getTitle(),
+                lecture.getClassId(), meetingTime, room, instructor, capacity, enrolled);
+        sections.put(classId, discussion);
+        lecture.getDiscussions().add(discussion);
+        return discussion;
+    }
+
+    public synchronized StandInState addRoom(Room room) {
+        rooms.add(room);
+        return this;
+    }
+
+    public synchronized StandInState enroll(String lectureId, String discussionId) {
+        schedule.put(lectureId, discussionId);
+        return this;
+    }
+
+    public synchronized StandInState addToCart(String lectureId, String discussionId) {
+        cart.put(lectureId, discussionId);
+        return this;
+    }
+
+    /**
+     * Opens one more seat in a class after a delay, as if another student dropped it.
+     * @param classId       The class to open a seat in.
+     * @param delayMillis   Milliseconds from now.
+     */
+    public void openSeatAt(final String classId, long delayMillis) {
+        LOGGER.info("A seat in "+classId+" will open in "+delayMillis+" ms.");
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                openSeat(classId);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void openSeat(String classId) {
+        Section section = sections.get(classId);
+        if(section != null) {
+            section.capacity++;
+            seatOpenedAt.put(classId, System.currentTimeMillis());
+            LOGGER.info("Opened a seat in "+section.getName()+" ("+classId+").");
+        }
+    }
+
+    public synchronized Section getSection(String classId) {
+        return sections.get(classId);
+    }
+
+    public synchronized List<String> getTerms() {
+        return new ArrayList<>(terms);
+    }
+
+    public synchronized Map<String, String> getSubjects() {
+        return new LinkedHashMap<>(subjects);
+    }
+
+    public synchronized Map<String, String> getSchedule() {
+        return new LinkedHashMap<>(schedule);
+    }
+
+    public synchronized Map<String, String> getCart() {
+        return new LinkedHashMap<>(cart);
+    }
+
+    public synchronized List<Room> getRooms() {
+        return new ArrayList<>(rooms);
+    }
+
+    public synchronized Room getAssignedRoom() {
+        return assignedRoom;
+    }
+
+    /**
+     * Finds Lectures in the catalog the way the class search page does.
+     * @param subject       Subject abbreviation, or null for any.
+     * @param match         How to compare course numbers: "contains", "greater than or equal to",
+     *                      "is exactly", or "less than or equal to".
+     * @param number        Course number to compare with, or empty for any.
+     * @param openOnly      Whether to leave out Lectures with no open seats.
+     * @return              Matching Lectures, in catalog order.
+     */
+    public synchronized List<Section> searchLectures(String subject, String match, String number, boolean openOnly) {
+        List<Section> result = new ArrayList<>();
+        for(Section section : sections.values()) {
+            if(section.isLecture() && (subject == null || section.getSubject().equals(subject))
+                    && matchesNumber(section.getNumber(), match, number) && (!openOnly || section.isOpen())) {
+                result.add(section);
+            }
+        }
+        return result;
+    }
+
+    private static boolean matchesNumber(String courseNumber, String match, String number) {
+        if(number == null || number.trim().isEmpty()) {
+            return true;
+        }
+        int course = leadingInt(courseNumber);
+        int target = leadingInt(number.trim());
+        boolean result;
+        switch(match == null ? "" : match) {
+            case "greater than or equal to":    result = course >= target;  break;
+            case "less than or equal to":       result = course <= target;  break;
+            case "is exactly":                  result = courseNumber.equalsIgnoreCase(number.trim());  break;
+            default:                            result = courseNumber.contains(number.trim());  break;
+        }
+        return result;
+    }
+
+    private static int leadingInt(String text) {
+        int end = 0;
+        while(end < text.length() && Character.isDigit(text.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? 0 : Integer.parseInt(text.substring(0, end));
+    }
+
+    /**
+     * Enrolls the student in Lectures from the shopping cart, each with its Discussion from the cart.
+     * @param lectureIds    The Lectures to enroll in.
+     * @return              True if every Lecture and Discussion had an open seat.
+     */
+    public synchronized boolean enrollFromCart(Collection<String> lectureIds) {
+        boolean result = !lectureIds.isEmpty();
+        for(String lectureId : lectureIds) {
+            String discussionId = cart.get(lectureId);
+            if(discussionId == null || !takeSeats(lectureId, discussionId)) {
+                result = false;
+                continue;
+            }
+            cart.remove(lectureId);
+            schedule.put(lectureId, discussionId);
+        }
+        return result;
+    }
+
+    /**
+     * Drops the student from Lectures, freeing their seats.
+     * @return  True if the student was enrolled in every Lecture.
+     */
+    public synchronized boolean drop(Collection<String> lectureIds) {
+        boolean result = !lectureIds.isEmpty();
+        for(String lectureId : lectureIds) {
+            String discussionId = schedule.remove(lectureId);
+            if(discussionId == null) {
+                result = false;
+                continue;
+            }
+            releaseSeat(lectureId);
+            releaseSeat(discussionId);
+        }
+        return result;
+    }
+
+    /**
+     * Drops one Lecture and enrolls in another only if the new one has open seats.
+     * @return  True if the swap happened.
+     */
+    public synchronized boolean swap(String dropId, String addId, String discussionId) {
+        if(!schedule.containsKey(dropId) || schedule.containsKey(addId) || !takeSeats(addId, discussionId)) {
+            return false;
+        }
+        releaseSeat(dropId);
+        releaseSeat(schedule.remove(dropId));
+        cart.remove(addId);
+        schedule.put(addId, discussionId);
+        return true;
+    }
+
+    /**
+     * Changes the enrolled Discussion of a Lecture only if the new one has an open seat.
+     * @return  True if the Discussion changed.
+     */
+    public synchronized boolean edit(String lectureId, String discussionId) {
+        String current = schedule.get(lectureId);
+        if(current == null || current.equals(discussionId) || !takeSeats(null, discussionId)) {
+            return false;
+        }
+        releaseSeat(current);
+        schedule.put(lectureId, discussionId);
+        return true;
+    }
+
+    public synchronized boolean assignRoom(Room room) {
+        if(room.vacancies <= 0) {
+            return false;
+        }
+        room.vacancies--;
+        if(assignedRoom != null) {
+            assignedRoom.vacancies++;
+        }
+        assignedRoom = room;
+        return true;
+    }
+
+    // Takes a seat in the Lecture (if given) and the Discussion (if given), or neither if either is full.
+    private boolean takeSeats(String lectureId, String discussionId) {
+        Section lecture = lectureId == null ? null : sections.get(lectureId);
+        Section discussion = discussionId == null || discussionId.isEmpty() ? null : sections.get(discussionId);
+        if((lectureId != null && (lecture == null || !lecture.isOpen())) || (discussion != null && !discussion.isOpen())) {
+            return false;
+        }
+        for(Section section : Arrays.asList(lecture, discussion)) {
+            if(section != null) {
+                section.enrolled++;
+                Long opened = seatOpenedAt.remove(section.getClassId());
+                if(opened != null) {
+                    long latency = System.currentTimeMillis()-opened;
+                    latencies.put(section.getClassId(), latency);
+                    LOGGER.info("Enrolled in "+section.getName()+" "+latency+" ms after its seat opened.");
+                }
+            }
+        }
+        return true;
+    }
+
+    private void releaseSeat(String classId) {
+        Section section = classId == null ? null : sections.get(classId);
+        if(section != null && section.enrolled > 0) {
+            section.enrolled--;
+        }
+    }
+
+    /**
+     * @return  For each class whose scripted seat the student took, milliseconds
+     *          from the seat opening to the enrollment being confirmed.
+     */
+    public synchronized Map<String, Long> getLatencies() {
+        return new LinkedHashMap<>(latencies);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,80 @@
+package classscraper;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AsyncCatalogSinkTest {
+	// Records what reaches it, and throws on the course numbered "fail"
+	private static class RecordingSink implements CatalogSink {
+		private final List<String> written = new ArrayList<>();
+		private boolean closed;
+
+		@Override
+		public void write(String subject, Course course) {
+			if (course.getCoursenum().equals("fail")) {
+				throw new IllegalStateException("bad record");
+			}
+			written.add(subject + " " + course.getCoursenum());
+		}
+
+		@Override
+		public void endSubject(String subject, boolean complete) {
+			written.add("end " + subject + " " + complete);
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	private static Course course(String number) {
+		return new Course("Name", "COMPSCI", number, 0, "");
+	}
+
+	@Test
+	public void writesInOrder() throws IOException {
+		RecordingSink target = new RecordingSink();
+		AsyncCatalogSink sink = new AsyncCatalogSink(target, 2);
+		sink.write("Computer Science", course("311"));
+		sink.write("Computer Science", course("320"));
+		sink.endSubject("Computer Science", false);
+		sink.close();
+		List<String> expected = new ArrayList<>();
+		expected.add("Computer Science 311");
+		expected.add("Computer Science 320");
+		expected.add("end Computer Science false");
+		assertEquals(expected, target.written);
+		assertTrue(target.closed);
+	}
+
+	@Test(timeout = 10000)
+	public void runtimeExceptionInTargetFailsClose() {
+		RecordingSink target = new RecordingSink();
+		AsyncCatalogSink sink = new AsyncCatalogSink(target, 1);
+		IOException thrown = null;
+		try {
+			sink.write("Computer Science", course("fail"));
+			// Far more than the queue holds, which would block if the writer had stopped
+			for (int i = 0; i < 100; i++) {
+				sink.write("Computer Science", course(String.valueOf(100 + i)));
+			}
+		} catch (IOException e) {
+			// The failure may be seen by a write before close
+			thrown = e;
+		}
+		try {
+			sink.close();
+		} catch (IOException e) {
+			thrown = e;
+		}
+		assertNotNull("the failure was not passed on", thrown);
+		assertTrue(thrown.getCause() instanceof IllegalStateException);
+		assertTrue(target.closed);
+	}
+}
@@ -0,0 +1,107 @@
+package classscraper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CatalogSnapshotFileTest {
+	private File snapshot;
+
+	@Before
+	public void createFile() throws IOException {
+		snapshot = File.createTempFile("catalog", ".snapshot");
+	}
+
+	@After
+	public void deleteFile() {
+		snapshot.delete();
+	}
+
+	private static Course course(String subject, String number, int... sectionids) {
+		Course course = new Course("Course " + number, subject, number, 0, null);
+		course.setCourseid(Integer.parseInt(number));
+		for (int sectionid : sectionids) {
+			CourseSection section = new CourseSection("01-LEC", sectionid, SectionType.LEC);
+			section.setInstructor("Instructor " + sectionid);
+			section.setEnrollmentCap(40);
+			section.setEnrolled(sectionid % 40);
+			course.addCourseSection(section);
+		}
+		return course;
+	}
+
+	private CatalogSnapshotFile writeAndOpen() throws IOException {
+		CompactCatalog catalog = new CompactCatalog("Fall 2016", new StringDictionary());
+		// Subjects are scraped out of order of name, so the index has to sort them
+		catalog.write("Mathematics", course("MATH", "235", 60010, 60002));
+		catalog.write("Computer Science", course("COMPSCI", "311", 50003));
+		catalog.write("Computer Science", course("COMPSCI", "320", 50001, 50009));
+		catalog.write("Biology", course("BIOLOGY", "151"));
+		catalog.write("Physics", course("PHYSICS", "151", 70000));
+		CatalogSnapshotFile.write(catalog, snapshot);
+		return CatalogSnapshotFile.open(snapshot);
+	}
+
+	@Test
+	public void readsWhatWasWritten() throws IOException {
+		try (CatalogSnapshotFile file = writeAndOpen()) {
+			assertEquals("Fall 2016", file.getTerm());
+			assertEquals(Arrays.asList("Mathematics", "Computer Science", "Biology", "Physics"), file.getSubjects());
+			assertEquals(5, file.getCourseCount());
+			assertEquals(6, file.getSectionCount());
+			assertEquals(5, file.getCourses().size());
+		}
+	}
+
+	@Test
+	public void getCoursesFindsEverySubject() throws IOException {
+		try (CatalogSnapshotFile file = writeAndOpen()) {
+			List<Course> courses = file.getCourses("Computer Science");
+			assertEquals(2, courses.size());
+			assertEquals("311", courses.get(0).getCoursenum());
+			assertEquals("320", courses.get(1).getCoursenum());
+			assertEquals(2, courses.get(1).getSections().size());
+			assertEquals("235", file.getCourses("Mathematics").get(0).getCoursenum());
+			assertEquals(0, file.getCourses("Biology").get(0).getSections().size());
+			assertEquals("PHYSICS", file.getCourses("Physics").get(0).getSubject());
+			assertTrue(file.getCourses("Chemistry").isEmpty());
+			assertTrue(file.getCourses("Zoology").isEmpty());
+		}
+	}
+
+	@Test
+	public void findSectionAndCourse() throws IOException {
+		try (CatalogSnapshotFile file = writeAndOpen()) {
+			CourseSection section = file.findSection(50009);
+			assertEquals(50009, section.getSectionid());
+			assertEquals("Instructor 50009", section.getInstructor());
+			assertEquals(SectionType.LEC, section.getSectionType());
+			assertEquals(40, section.getEnrollmentCap());
+			assertEquals(50009 % 40, section.getEnrolled());
+			assertEquals("320", file.findCourse(50009).getCoursenum());
+			assertEquals("235", file.findCourse(60002).getCoursenum());
+			assertNull(file.findCourse(60002).getGened());
+			assertNull(file.findSection(50002));
+			assertNull(file.findCourse(99999));
+		}
+	}
+
+	@Test
+	public void rejectsOtherFiles() throws IOException {
+		Files.write(snapshot.toPath(), new byte[] { 1, 2, 3, 4 });
+		try {
+			CatalogSnapshotFile.open(snapshot).close();
+			fail("Opened a file that is not a snapshot");
+		} catch (IOException e) {
+			assertEquals("Not a catalog snapshot", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package classscraper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompactCatalogTest {
+	private static CompactCatalog catalog() {
+		Course course = new Course("Algorithms", "COMPSCI", "311", 0, "");
+		course.setCourseid(123);
+		CourseSection lecture = new CourseSection("01-LEC", 50001, SectionType.LEC);
+		lecture.setEnrollmentCap(90);
+		lecture.setEnrolled(90);
+		course.addCourseSection(lecture);
+		CourseSection discussion = new CourseSection("01AA-DIS", 50002, SectionType.DIS);
+		discussion.setEnrollmentCap(30);
+		discussion.setEnrolled(12);
+		course.addCourseSection(discussion);
+		CompactCatalog catalog = new CompactCatalog("Fall 2016", new StringDictionary());
+		catalog.write("Computer Science", course);
+		return catalog;
+	}
+
+	@Test
+	public void viewsReadTheColumns() {
+		CompactCatalog catalog = catalog();
+		CompactCatalog.CourseView course = catalog.getCourses("Computer Science").get(0);
+		assertEquals("311", course.getCoursenum());
+		assertEquals(123, course.getCourseid());
+		assertEquals(2, course.getSections().size());
+		CompactCatalog.SectionView discussion = catalog.findSection(50002);
+		assertEquals("01AA-DIS", discussion.getSectionnum());
+		assertEquals(SectionType.DIS, discussion.getSectionType());
+		assertEquals(12, discussion.getEnrolled());
+		assertNull(catalog.findSection(50003));
+	}
+
+	@Test
+	public void copiedCourseCanBeFiltered() {
+		CompactCatalog catalog = catalog();
+		Course course = catalog.getCourses().get(0).toCourse();
+		assertEquals("Algorithms", course.courseName);
+		assertEquals(50001, course.getSections().get(0).sectionid);
+		assertTrue(new CatalogFilter().where(s -> s.getEnrolled() < s.getEnrollmentCap(), "open").filter(course));
+		assertEquals(1, course.getSections().size());
+		assertEquals(50002, course.getSections().get(0).getSectionid());
+		// The catalog is not changed by filtering the copy
+		assertEquals(2, catalog.getCourses().get(0).getSections().size());
+	}
+}
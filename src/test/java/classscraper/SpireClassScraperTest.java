@@ -0,0 +1,67 @@
+package classscraper;
+
+import org.junit.Test;
+import spire.SavedPages;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SpireClassScraperTest {
+	@Test
+	public void parseCourses() throws IOException {
+		List<Course> courses = SpireClassScraper.parseCourses(SavedPages.load(SavedPages.CLASS_SEARCH_RESULTS));
+		assertEquals(2, courses.size());
+
+		Course algorithms = courses.get(0);
+		assertEquals("COMPSCI", algorithms.getSubject());
+		assertEquals("311", algorithms.getCoursenum());
+		// The name keeps the space after the number
+		assertEquals(" Introduction to Algorithms", algorithms.getCoursename());
+		assertEquals("R2", algorithms.getGened());
+		assertEquals(3, algorithms.getSections().size());
+
+		Course softwareEngineering = courses.get(1);
+		assertEquals("320", softwareEngineering.getCoursenum());
+		assertEquals("", softwareEngineering.getGened());
+		assertEquals(1, softwareEngineering.getSections().size());
+		assertEquals(22221, softwareEngineering.getSections().get(0).getSectionid());
+	}
+
+	@Test
+	public void parseSections() throws IOException {
+		List<CourseSection> sections = SpireClassScraper.parseCourses(SavedPages.load(SavedPages.CLASS_SEARCH_RESULTS))
+				.get(0).getSections();
+
+		CourseSection lecture = sections.get(0);
+		assertEquals(11111, lecture.getSectionid());
+		assertEquals("01", lecture.getSectionnum());
+		assertEquals(SectionType.LEC, lecture.getSectionType());
+		assertEquals("4", lecture.getUnits());
+		assertEquals(90, lecture.getEnrollmentCap());
+		assertEquals(85, lecture.getEnrolled());
+		assertEquals("University", lecture.getSession());
+		assertEquals("TuTh 1:00PM - 2:15PM", lecture.getMeetingTime());
+		assertEquals("Lecture Hall 100", lecture.getRoom());
+		assertEquals("Instructor A", lecture.getInstructor());
+		assertEquals("TBA", lecture.getTopic());
+
+		CourseSection discussion = sections.get(1);
+		assertEquals(11112, discussion.getSectionid());
+		assertEquals("01AA", discussion.getSectionnum());
+		assertEquals(SectionType.DIS, discussion.getSectionType());
+		assertNull(discussion.getUnits());
+		assertEquals(30, discussion.getEnrollmentCap());
+		assertEquals(29, discussion.getEnrolled());
+		assertEquals("F 10:10AM - 11:00AM", discussion.getMeetingTime());
+
+		// A combined section has an extra line before its session
+		CourseSection combined = sections.get(2);
+		assertEquals(11113, combined.getSectionid());
+		assertEquals(12, combined.getEnrolled());
+		assertEquals("University", combined.getSession());
+		assertEquals("F 11:15AM - 12:05PM", combined.getMeetingTime());
+		assertEquals("Instructor B", combined.getInstructor());
+	}
+}
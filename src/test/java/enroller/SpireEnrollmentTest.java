@@ -0,0 +1,74 @@
+package enroller;
+
+import org.junit.Test;
+import spire.SavedPages;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SpireEnrollmentTest {
+    @Test
+    public void parseCurrentSchedule() throws IOException {
+        Map<String, Lecture> schedule = SpireEnrollment.parseCurrentSchedule(SavedPages.load(SavedPages.SHOPPING_CART));
+        // The wait listed Lecture and its Discussion are not enrolled.
+        assertEquals(3, schedule.size());
+
+        Lecture algorithms = schedule.get("11111");
+        assertEquals("COMPSCI 311", algorithms.getName());
+        assertEquals("01", algorithms.getSection());
+        assertEquals("Introduction to Algorithms", algorithms.getDescription());
+        Discussion discussion = algorithms.getEnrolledDiscussion();
+        assertNotNull(discussion);
+        assertEquals("11112", discussion.getClassId());
+        assertEquals("01AA", discussion.getSection());
+
+        Lecture linearAlgebra = schedule.get("22221");
+        assertEquals("MATH 235", linearAlgebra.getName());
+        assertEquals("02", linearAlgebra.getSection());
+        assertEquals("Intro Linear Algebra", linearAlgebra.getDescription());
+        assertNull(linearAlgebra.getEnrolledDiscussion());
+
+        assertEquals("Fitness & Health", schedule.get("44441").getDescription());
+        assertNull(schedule.get("33331"));
+    }
+
+    @Test
+    public void parseShoppingCart() throws IOException {
+        Map<String, Lecture> cart = SpireEnrollment.parseShoppingCart(SavedPages.load(SavedPages.SHOPPING_CART));
+        // The Discussion row has no checkbox, so only Lectures are read, in the order shown.
+        assertEquals(Arrays.asList("55551", "66661", "77771"), new ArrayList<>(cart.keySet()));
+        assertEquals("CHEM 111", cart.get("55551").getName());
+        assertEquals("01", cart.get("55551").getSection());
+        assertEquals("ENGLWRIT 112", cart.get("77771").getName());
+        assertEquals("07", cart.get("77771").getSection());
+    }
+
+    @Test
+    public void parseLectureDescription() throws IOException {
+        assertEquals("General Chemistry for Majors",
+                SpireEnrollment.parseLectureDescription(SavedPages.load(SavedPages.CLASS_DETAIL)));
+        // The shopping cart page has no description.
+        assertEquals("", SpireEnrollment.parseLectureDescription(SavedPages.load(SavedPages.SHOPPING_CART)));
+    }
+
+    @Test
+    public void parseDiscussions() throws IOException {
+        Lecture lecture = new Lecture("CHEM 111-01", "General Chemistry for Majors", "(55551)");
+        List<Discussion> discussions = SpireEnrollment.parseDiscussions(SavedPages.load(SavedPages.CLASS_DETAIL), lecture);
+        assertEquals(3, discussions.size());
+        for(int i = 0; i < discussions.size(); i++) {
+            Discussion discussion = discussions.get(i);
+            assertEquals("5555"+(i+2), discussion.getClassId());
+            assertEquals("CHEM 111", discussion.getName());
+            assertEquals("General Chemistry for Majors", discussion.getDescription());
+        }
+        // The hidden component name in the same cell is left out.
+        assertEquals("01AA-DIS", discussions.get(0).getSection());
+        assertEquals("01AC-DIS", discussions.get(2).getSection());
+    }
+}
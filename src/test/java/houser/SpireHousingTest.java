@@ -0,0 +1,40 @@
+package houser;
+
+import org.junit.Test;
+import spire.SavedPages;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SpireHousingTest {
+    @Test
+    public void parseRooms() throws IOException {
+        List<Room> rooms = SpireHousing.parseRooms(SavedPages.load(SavedPages.ROOM_RESULTS));
+        // The room with no vacancies is left out, and the others keep their row in the table.
+        assertEquals(3, rooms.size());
+
+        Room cance = rooms.get(0);
+        assertEquals(1, cance.getRow());
+        assertEquals("Cance", cance.getBuilding());
+        assertEquals("0312", cance.getNumber());
+        assertEquals("Traditional", cance.getDesign());
+        assertEquals("Double", cance.getType());
+        assertEquals("SW", cance.getArea());
+
+        Room johnAdams = rooms.get(1);
+        assertEquals(2, johnAdams.getRow());
+        assertEquals("John Adams", johnAdams.getBuilding());
+        assertEquals("1705", johnAdams.getNumber());
+        assertEquals("Suite", johnAdams.getDesign());
+        assertEquals("Single", johnAdams.getType());
+        assertEquals("SW", johnAdams.getArea());
+
+        Room birch = rooms.get(2);
+        assertEquals(4, birch.getRow());
+        assertEquals("Birch", birch.getBuilding());
+        assertEquals("Apartment", birch.getDesign());
+        assertEquals("CH", birch.getArea());
+    }
+}
@@ -0,0 +1,31 @@
+package spire;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Copies of SPIRE pages in the markup SPIRE serves, kept in
+ * src/test/resources/pages. Names, class numbers, and instructors in them are made up.
+ */
+public class SavedPages {
+    public static final String SHOPPING_CART = "shopping-cart.html";
+    public static final String CLASS_DETAIL = "class-detail.html";
+    public static final String ROOM_RESULTS = "room-results.html";
+    public static final String CLASS_SEARCH_RESULTS = "class-search-results.html";
+
+    /**
+     * @param name  The file name of the page.
+     * @return      The page, parsed the same way as a page read from the browser.
+     */
+    public static Document load(String name) throws IOException {
+        try(InputStream in = SavedPages.class.getResourceAsStream("/pages/"+name)) {
+            if(in == null) {
+                throw new IOException("No saved page "+name);
+            }
+            return Jsoup.parse(in, "UTF-8", "");
+        }
+    }
+}
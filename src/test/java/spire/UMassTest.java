@@ -0,0 +1,46 @@
+package spire;
+
+import org.jsoup.Jsoup;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UMassTest {
+    private static String innerText(String html) {
+        return UMass.innerText(Jsoup.parseBodyFragment(html).body());
+    }
+
+    @Test
+    public void nonBreakingSpacesAreKept() {
+        // Class search titles rely on the two spaces between subject and number.
+        assertEquals("COMPSCI  311 Introduction to Algorithms",
+                innerText("<span>COMPSCI&nbsp; 311 Introduction to Algorithms</span>"));
+        assertEquals("CHEM 111", innerText("<span>CHEM&nbsp;111</span>"));
+    }
+
+    @Test
+    public void whitespaceCollapsesAndLinesAreTrimmed() {
+        assertEquals("Lecture Hall 100", innerText("<div>\n   Lecture    Hall\t100  </div>"));
+        assertEquals("", innerText("<div>&nbsp;</div><div>  </div>"));
+    }
+
+    @Test
+    public void blocksAndLineBreaksStartLines() {
+        assertEquals("COMPSCI 311-01\n(11111)", innerText("<a>COMPSCI 311-01<br>(11111)</a>"));
+        assertEquals("90\nUnits\n01-LEC(11111)", innerText("<div>90</div><div>Units</div><div><a>01-LEC(11111)</a></div>"));
+    }
+
+    @Test
+    public void cellsOfARowShareALine() {
+        assertEquals("Days & Times Room Instructor\nTuTh 1:00PM Lecture Hall 100 Staff",
+                innerText("<table><tr><th>Days &amp; Times</th><th>Room</th><th>Instructor</th></tr>" +
+                        "<tr><td>TuTh 1:00PM</td><td>Lecture Hall 100</td><td>Staff</td></tr></table>"));
+    }
+
+    @Test
+    public void hiddenElementsAreLeftOut() {
+        assertEquals("01AA-DIS", innerText("<span>01AA-DIS</span><span style=\"display: none;\">Discussion</span>"));
+        assertEquals("Add Classes", innerText("<div style=\"visibility: hidden;\">Processing...</div>" +
+                "<script>var x = 1;</script><span>Add Classes</span>"));
+    }
+}